@@ -0,0 +1,118 @@
+package tamagotchi.benchmarks;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tamagotchi.core.Accion;
+import tamagotchi.core.CatalogoAcciones;
+import tamagotchi.modelos.DeltaStats;
+import tamagotchi.modelos.FabricaPerros;
+import tamagotchi.modelos.Perrera;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.StatPerro;
+import tamagotchi.modelos.TablaModificadores;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Benchmarks de aplicar acciones del {@link CatalogoAcciones}
+ * sobre una población generada con semilla fija. Compara la acción compilada
+ * en lotes de cambios por raza y franja con una versión interpretada que, en
+ * cada llamada, recorre un mapa con el efecto base y lo escala con
+ * {@link TablaModificadores}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccionBenchmark {
+
+    @Param({"1000", "100000"})
+    private int poblacion;
+
+    private Perro[] perros;
+    private Accion[] acciones;
+    private List<Map<StatPerro, Integer>> efectos;
+    private DeltaStats lote;
+    private int cursor;
+    private int accion;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Perrera perrera = FabricaPerros.generar(poblacion, 42L);
+        perros = new Perro[poblacion];
+        for (int i = 0; i < poblacion; i++) {
+            perros[i] = perrera.get(i);
+        }
+
+        // Solo acciones sin condiciones de estado, para que ninguna falle
+        List<Accion> aplicables = new ArrayList<>();
+        efectos = new ArrayList<>();
+        for (Accion a : CatalogoAcciones.porDefecto().getAcciones()) {
+            if (a.getRequiere() == 0 && a.getImpide() == 0) {
+                aplicables.add(a);
+                Map<StatPerro, Integer> efecto = new EnumMap<>(StatPerro.class);
+                for (StatPerro stat : StatPerro.values()) {
+                    if (a.getEfecto(stat) != 0) {
+                        efecto.put(stat, a.getEfecto(stat));
+                    }
+                }
+                efectos.add(efecto);
+            }
+        }
+        acciones = aplicables.toArray(new Accion[0]);
+        lote = new DeltaStats();
+    }
+
+    private Perro siguiente() {
+        Perro perro = perros[cursor];
+        cursor = cursor + 1 == poblacion ? 0 : cursor + 1;
+        accion = accion + 1 == acciones.length ? 0 : accion + 1;
+        return perro;
+    }
+
+    /**
+     * Acción compilada: elige el lote de la raza y franja del perro y lo
+     * aplica.
+     */
+    @Benchmark
+    public long compilada() {
+        Perro perro = siguiente();
+        return acciones[accion].aplicar(perro);
+    }
+
+    /**
+     * Acción interpretada: busca el efecto base en un mapa y lo escala con
+     * los modificadores del perro en cada llamada.
+     */
+    @Benchmark
+    public long interpretada() {
+        Perro perro = siguiente();
+        lote.limpiar();
+        for (Map.Entry<StatPerro, Integer> e : efectos.get(accion).entrySet()) {
+            double mod = TablaModificadores.getMod(perro.getRaza(), perro.getFranja(), e.getKey());
+            lote.con(e.getKey(), (int) Math.round(e.getValue() * mod));
+        }
+        return perro.aplicar(lote);
+    }
+}
@@ -0,0 +1,212 @@
+package tamagotchi.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import tamagotchi.Tamagotchi;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Prueba de carga del servidor multijugador. Abre muchas
+ * sesiones simuladas a la vez, cada una en un hilo virtual, espera a que
+ * estén todas conectadas y después cada sesión envía una serie de órdenes de
+ * cuidado, midiendo la latencia de cada respuesta. Al final muestra el
+ * rendimiento total y los percentiles de latencia.
+ *
+ * Si no se indica puerto, arranca el servidor en un proceso hijo para que
+ * cliente y servidor no compartan montículo ni límite de descriptores de
+ * fichero (cada sesión usa uno en cada lado).
+ *
+ * Uso: {@code java -cp target/benchmarks.jar tamagotchi.benchmarks.CargaServidor [sesiones] [ordenes] [puerto]}
+ */
+public class CargaServidor {
+
+    /**
+     * Órdenes que envía cada sesión, en ciclo
+     */
+    private static final String[] ORDENES = {
+        "VER 0", "COMER 0", "JUGAR 0", "ESPERAR 1", "PASEAR 0", "JUGADOR", "DORMIR 0", "BANNAR 0", "PERROS", "ESPERAR 4"
+    };
+
+    /**
+     * Conexiones que se pueden estar abriendo a la vez, para no desbordar la
+     * cola de conexiones pendientes del servidor
+     */
+    private static final int CONEXIONES_SIMULTANEAS = 512;
+
+    public static void main(String[] args) throws Exception {
+        int sesiones = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int ordenes = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Process servidor = null;
+        int puerto;
+        if (args.length > 2) {
+            puerto = Integer.parseInt(args[2]);
+        } else {
+            servidor = arrancarServidor();
+            puerto = leerPuerto(servidor);
+        }
+
+        try {
+            ejecutar(sesiones, ordenes, puerto);
+        } finally {
+            if (servidor != null) {
+                servidor.destroy();
+            }
+        }
+    }
+
+    private static void ejecutar(int sesiones, int ordenes, int puerto) throws InterruptedException {
+        long[][] latencias = new long[sesiones][];
+        AtomicLong errores = new AtomicLong();
+        AtomicLong fallidas = new AtomicLong();
+        Semaphore conectando = new Semaphore(CONEXIONES_SIMULTANEAS);
+        CountDownLatch conectadas = new CountDownLatch(sesiones);
+        CountDownLatch salida = new CountDownLatch(1);
+        long inicioOrdenes;
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            long inicioConexion = System.nanoTime();
+            for (int i = 0; i < sesiones; i++) {
+                int sesion = i;
+                hilos.execute(() -> {
+                    Socket socket = null;
+                    try {
+                        conectando.acquireUninterruptibly();
+                        try {
+                            socket = new Socket(InetAddress.getLoopbackAddress(), puerto);
+                            socket.setTcpNoDelay(true);
+                        } finally {
+                            conectando.release();
+                        }
+                        Cliente cliente = new Cliente(socket);
+                        cliente.enviar("HOLA jugador" + sesion);
+                        cliente.enviar("ADOPTAR Perro" + sesion + " LABRADOR 3");
+                        conectadas.countDown();
+                        salida.await();
+
+                        long[] propias = new long[ordenes];
+                        for (int o = 0; o < ordenes; o++) {
+                            long inicio = System.nanoTime();
+                            if (!cliente.enviar(ORDENES[(sesion + o) % ORDENES.length])) {
+                                errores.incrementAndGet();
+                            }
+                            propias[o] = System.nanoTime() - inicio;
+                        }
+                        latencias[sesion] = propias;
+                        cliente.enviar("SALIR");
+                    } catch (IOException | InterruptedException e) {
+                        fallidas.incrementAndGet();
+                        conectadas.countDown();
+                    } finally {
+                        if (socket != null) {
+                            try {
+                                socket.close();
+                            } catch (IOException e) {
+                                // Ya no se necesita
+                            }
+                        }
+                    }
+                });
+            }
+            conectadas.await();
+            System.out.printf("🔌 %d sesiones conectadas en %.2f s (%d fallidas)%n",
+                    sesiones - fallidas.get(), (System.nanoTime() - inicioConexion) / 1e9, fallidas.get());
+            inicioOrdenes = System.nanoTime();
+            salida.countDown();
+        }
+        double segundos = (System.nanoTime() - inicioOrdenes) / 1e9;
+
+        long[] todas = Arrays.stream(latencias).filter(l -> l != null).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(todas);
+        System.out.printf("📨 %d órdenes en %.2f s: %.0f órdenes/s (%d errores)%n",
+                todas.length, segundos, todas.length / segundos, errores.get());
+        if (todas.length > 0) {
+            System.out.printf("⏱ latencia µs: p50=%.1f p90=%.1f p99=%.1f p999=%.1f max=%.1f%n",
+                    percentil(todas, 0.50), percentil(todas, 0.90), percentil(todas, 0.99),
+                    percentil(todas, 0.999), todas[todas.length - 1] / 1e3);
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        return ordenadas[(int) Math.min(ordenadas.length - 1, (long) (p * ordenadas.length))] / 1e3;
+    }
+
+    /**
+     * Arranca el servidor del juego en un proceso hijo con el mismo
+     * classpath, en un puerto libre.
+     */
+    private static Process arrancarServidor() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> orden = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                Tamagotchi.class.getName(), "servidor", "0"));
+        return new ProcessBuilder(orden).redirectErrorStream(true).start();
+    }
+
+    /**
+     * Lee de la salida del servidor el puerto en el que escucha.
+     */
+    private static int leerPuerto(Process servidor) throws IOException {
+        BufferedReader salida = new BufferedReader(
+                new InputStreamReader(servidor.getInputStream(), StandardCharsets.UTF_8));
+        String linea;
+        while ((linea = salida.readLine()) != null) {
+            int i = linea.indexOf("puerto ");
+            if (i >= 0) {
+                return Integer.parseInt(linea.substring(i + "puerto ".length()).trim());
+            }
+        }
+        throw new IOException("El servidor ha terminado sin indicar su puerto.");
+    }
+
+    /**
+     * Conexión de una sesión simulada: envía una orden y lee su respuesta
+     * hasta la línea final OK o ERROR.
+     */
+    private static class Cliente {
+
+        private final BufferedReader entrada;
+        private final OutputStream salida;
+
+        Cliente(Socket socket) throws IOException {
+            this.entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.salida = socket.getOutputStream();
+        }
+
+        /**
+         * @return true si la respuesta termina en OK
+         */
+        boolean enviar(String orden) throws IOException {
+            salida.write((orden + "\n").getBytes(StandardCharsets.UTF_8));
+            salida.flush();
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                if (linea.startsWith("OK")) {
+                    return true;
+                }
+                if (linea.startsWith("ERROR")) {
+                    return false;
+                }
+            }
+            throw new IOException("El servidor ha cerrado la conexión.");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package tamagotchi.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tamagotchi.core.Herramientas;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Benchmarks de las operaciones en bloque de
+ * {@link Herramientas} sobre columnas de un byte por perro generadas con
+ * semilla fija. Cada operación se mide dos veces con el mismo código: en una
+ * JVM sin el módulo de vectores, donde se ejecuta el bucle escalar, y en otra
+ * arrancada con {@code --add-modules jdk.incubator.vector}, donde se usa la
+ * versión SIMD si el proyecto principal se ha instalado con el perfil
+ * {@code vectorial}. El resultado es el tiempo por columna completa.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnasBenchmark {
+
+    @Param({"10000000"})
+    private int poblacion;
+
+    private byte[] columna;
+    private byte[] cambios;
+    private long[] bits;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        SplittableRandom aleatorio = new SplittableRandom(42L);
+        columna = new byte[poblacion];
+        cambios = new byte[poblacion];
+        bits = new long[(poblacion + 63) / 64];
+        for (int i = 0; i < poblacion; i++) {
+            columna[i] = (byte) aleatorio.nextInt(0, 101);
+            cambios[i] = (byte) aleatorio.nextInt(-3, 4);
+        }
+    }
+
+    @Benchmark
+    public byte[] ajustarEscalar() {
+        Herramientas.ajustar(columna, 0, poblacion, 10, 90);
+        return columna;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public byte[] ajustarVectorial() {
+        Herramientas.ajustar(columna, 0, poblacion, 10, 90);
+        return columna;
+    }
+
+    /**
+     * Los cambios suman cero de media, así que la columna no se queda
+     * pegada a los límites al repetir la operación.
+     */
+    @Benchmark
+    public byte[] sumarYAjustarEscalar() {
+        Herramientas.sumarYAjustar(columna, 0, cambios, 0, poblacion, 0, 100);
+        return columna;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public byte[] sumarYAjustarVectorial() {
+        Herramientas.sumarYAjustar(columna, 0, cambios, 0, poblacion, 0, 100);
+        return columna;
+    }
+
+    @Benchmark
+    public int marcarEntreEscalar() {
+        return Herramientas.marcarEntre(columna, 0, poblacion, 70, 100, bits);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public int marcarEntreVectorial() {
+        return Herramientas.marcarEntre(columna, 0, poblacion, 70, 100, bits);
+    }
+}
@@ -0,0 +1,109 @@
+package tamagotchi.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tamagotchi.modelos.DeltaStats;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.PerroConcurrente;
+import tamagotchi.modelos.Raza;
+import tamagotchi.modelos.StatPerro;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Benchmarks de contención de varios hilos aplicando lotes de
+ * cambios sobre los mismos perros: {@link PerroConcurrente} frente a un
+ * {@link Perro} protegido con {@code synchronized}. Con {@code perros=1}
+ * todos los hilos compiten por el mismo perro. El número de hilos se puede
+ * cambiar con la opción {@code -t} de JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ContencionPerroBenchmark {
+
+    @Param({"1", "64"})
+    private int perros;
+
+    private PerroConcurrente[] concurrentes;
+    private Perro[] conCerrojo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        SplittableRandom aleatorio = new SplittableRandom(42L);
+        concurrentes = new PerroConcurrente[perros];
+        conCerrojo = new Perro[perros];
+        for (int i = 0; i < perros; i++) {
+            Perro perro = new Perro("Toby", Raza.values()[i % Raza.values().length], 3, aleatorio);
+            conCerrojo[i] = perro;
+            concurrentes[i] = new PerroConcurrente(perro);
+        }
+    }
+
+    /**
+     * Estado de cada hilo: alterna un lote y su inverso para que las
+     * estadísticas no se queden saturadas en sus límites.
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        private final DeltaStats jugar = new DeltaStats()
+                .con(StatPerro.FELICIDAD, 5)
+                .con(StatPerro.ENERGIA, -5)
+                .con(StatPerro.HAMBRE, 3);
+        private final DeltaStats descansar = new DeltaStats()
+                .con(StatPerro.FELICIDAD, -5)
+                .con(StatPerro.ENERGIA, 5)
+                .con(StatPerro.HAMBRE, -3);
+        private SplittableRandom aleatorio;
+        private boolean alterno;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            aleatorio = new SplittableRandom(Thread.currentThread().threadId());
+        }
+
+        DeltaStats siguiente() {
+            alterno = !alterno;
+            return alterno ? jugar : descansar;
+        }
+
+        int perro(int perros) {
+            return perros == 1 ? 0 : aleatorio.nextInt(perros);
+        }
+    }
+
+    @Benchmark
+    public long cas(Hilo hilo) {
+        return concurrentes[hilo.perro(perros)].aplicar(hilo.siguiente());
+    }
+
+    @Benchmark
+    public long cerrojo(Hilo hilo) {
+        Perro perro = conCerrojo[hilo.perro(perros)];
+        synchronized (perro) {
+            return perro.aplicar(hilo.siguiente());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package tamagotchi.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Lanza los benchmarks del juego con el perfilador de GC activado
+ * (tasa de asignación por operación) y guarda los resultados en JSON para
+ * poder compararlos entre versiones. Acepta las mismas opciones de línea de
+ * comandos que JMH, por ejemplo un patrón para filtrar benchmarks o
+ * {@code -p poblacion=1000}.
+ *
+ * Uso: {@code java -cp target/benchmarks.jar tamagotchi.benchmarks.EjecutarBenchmarks [opciones JMH]}
+ */
+public class EjecutarBenchmarks {
+
+    /**
+     * Fichero en el que se guardan los resultados por defecto
+     */
+    private static final String FICHERO_RESULTADOS = "resultados-benchmarks.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions lineaComandos = new CommandLineOptions(args);
+        ChainedOptionsBuilder opciones = new OptionsBuilder()
+                .parent(lineaComandos)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(lineaComandos.getResult().orElse(FICHERO_RESULTADOS));
+        if (lineaComandos.getIncludes().isEmpty()) {
+            opciones.include("tamagotchi\\.benchmarks\\..*");
+        }
+        new Runner(opciones.build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package tamagotchi.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import tamagotchi.servidor.CoordinadorMundo;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Mide cómo escala la simulación de un mundo repartido entre
+ * procesos al añadir nodos. Para cada número de nodos lanza el mundo en la
+ * máquina local con {@link CoordinadorMundo#lanzarLocal}, genera la misma
+ * población, la calienta y mide los ticks por segundo de todo el mundo y los
+ * perros-tick por segundo. Como la población no depende del número de nodos,
+ * los cambios de estado deben coincidir en todas las filas.
+ *
+ * Al final añade un nodo más al último mundo y mide lo que tarda en
+ * rebalancear las particiones.
+ *
+ * Uso: {@code java -cp target/benchmarks.jar tamagotchi.benchmarks.EscaladoMundo [perros] [ticks] [hilosPorNodo] [nodos...]}
+ */
+public class EscaladoMundo {
+
+    private static final long SEMILLA = 42L;
+
+    public static void main(String[] args) throws Exception {
+        long perros = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int hilosPorNodo = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        List<Integer> nodos = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            nodos.add(Integer.parseInt(args[i]));
+        }
+        if (nodos.isEmpty()) {
+            nodos.addAll(List.of(1, 2, 4));
+        }
+
+        System.out.printf("🐶 %d perros | %d ticks | %d hilos por nodo | %d procesadores%n",
+                perros, ticks, hilosPorNodo, Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < nodos.size(); i++) {
+            boolean ultimo = i == nodos.size() - 1;
+            try (CoordinadorMundo mundo = CoordinadorMundo.lanzarLocal(nodos.get(i), hilosPorNodo)) {
+                medir(mundo, perros, ticks);
+                if (ultimo) {
+                    medirRebalanceo(mundo, hilosPorNodo);
+                }
+            }
+        }
+    }
+
+    private static void medir(CoordinadorMundo mundo, long perros, int ticks) {
+        long inicio = System.nanoTime();
+        mundo.poblar(perros, SEMILLA);
+        double segundosPoblar = (System.nanoTime() - inicio) / 1e9;
+
+        // Calentamiento: que cada nodo compile el bucle del motor
+        mundo.avanzar(Math.max(1, ticks / 10));
+
+        inicio = System.nanoTime();
+        long cambios = mundo.avanzar(ticks);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("🧩 %d nodos: poblar %.2f s | %.1f ticks/s | %.1f M perros-tick/s | %d cambios%n",
+                mundo.getNumNodos(), segundosPoblar, ticks / segundos, perros * ticks / segundos / 1e6, cambios);
+    }
+
+    private static void medirRebalanceo(CoordinadorMundo mundo, int hilosPorNodo) throws Exception {
+        long perros = mundo.getNumPerros();
+        mundo.lanzarNodo(hilosPorNodo);
+        long inicio = System.nanoTime();
+        int movidas = mundo.rebalancear();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long despues = mundo.getNumPerros();
+        System.out.printf("🔀 rebalanceo a %d nodos: %d particiones en %.2f s | %d perros antes, %d después%n",
+                mundo.getNumNodos(), movidas, segundos, perros, despues);
+    }
+}
@@ -0,0 +1,140 @@
+package tamagotchi.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tamagotchi.modelos.DiferenciaPerro;
+import tamagotchi.modelos.FabricaPerros;
+import tamagotchi.modelos.FlujoDiferencias;
+import tamagotchi.modelos.Perrera;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.RenderizadorPerros;
+import tamagotchi.modelos.StatPerro;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Compara dos formas de avisar a un cliente de que ha cambiado
+ * una estadística de un perro: escribir su ficha completa con
+ * {@link RenderizadorPerros} o dejar que un {@link FlujoDiferencias} entregue
+ * la {@link DiferenciaPerro} en binario. Cada operación cambia una
+ * estadística de un perro distinto, recorriendo la población en orden; todos
+ * los perros tienen un suscriptor con demanda ilimitada que se ejecuta en el
+ * mismo hilo, así que el tiempo incluye calcular y escribir la diferencia.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlujoDiferenciasBenchmark {
+
+    @Param({"1000"})
+    private int poblacion;
+
+    private Perro[] perros;
+    private FlujoDiferencias flujo;
+    private RenderizadorPerros renderizador;
+    private ByteBuffer salida;
+    private int cursor;
+    private int valor;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Perrera perrera = FabricaPerros.generar(poblacion, 42L);
+        perros = new Perro[poblacion];
+        renderizador = new RenderizadorPerros();
+        salida = ByteBuffer.allocate(4096);
+        flujo = new FlujoDiferencias(perrera, Runnable::run);
+        for (int i = 0; i < poblacion; i++) {
+            perros[i] = perrera.get(i);
+        }
+    }
+
+    /**
+     * Suscribe cada perro solo en las medidas que usan el flujo, para que la
+     * de la ficha completa no pague los avisos.
+     */
+    private void suscribirTodos() {
+        for (Perro perro : perros) {
+            flujo.publicador(perro).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription suscripcion) {
+                    suscripcion.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(DiferenciaPerro diferencia) {
+                    salida.clear();
+                    diferencia.escribir(salida);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        flujo.close();
+    }
+
+    private Perro siguiente() {
+        Perro perro = perros[cursor];
+        cursor = cursor + 1 == perros.length ? 0 : cursor + 1;
+        valor = valor == 100 ? 0 : valor + 1;
+        return perro;
+    }
+
+    @Benchmark
+    public ByteBuffer fichaCompleta() {
+        Perro perro = siguiente();
+        perro.setStat(StatPerro.HAMBRE, valor);
+        salida.clear();
+        renderizador.escribir(perro, salida);
+        return salida;
+    }
+
+    @Benchmark
+    public ByteBuffer diferencia(Suscritos suscritos) {
+        siguiente().setStat(StatPerro.HAMBRE, valor);
+        return salida;
+    }
+
+    /**
+     * Estado que suscribe a todos los perros antes de medir
+     * {@link #diferencia}.
+     */
+    @State(Scope.Thread)
+    public static class Suscritos {
+
+        @Setup(Level.Trial)
+        public void preparar(FlujoDiferenciasBenchmark benchmark) {
+            benchmark.suscribirTodos();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package tamagotchi.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tamagotchi.core.Herramientas;
+import tamagotchi.modelos.Raza;
+import tamagotchi.modelos.StatPerro;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Benchmarks de {@link Raza#getMod} y {@link Herramientas#clamp}
+ * sobre entradas aleatorias generadas con semilla fija, una por perro de la
+ * población.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HerramientasBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int poblacion;
+
+    private Raza[] razas;
+    private StatPerro[] stats;
+    private long[] valores;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        SplittableRandom aleatorio = new SplittableRandom(42L);
+        Raza[] todasRazas = Raza.values();
+        StatPerro[] todosStats = StatPerro.values();
+        razas = new Raza[poblacion];
+        stats = new StatPerro[poblacion];
+        valores = new long[poblacion];
+        for (int i = 0; i < poblacion; i++) {
+            razas[i] = todasRazas[aleatorio.nextInt(todasRazas.length)];
+            stats[i] = todosStats[aleatorio.nextInt(todosStats.length)];
+            valores[i] = aleatorio.nextInt(-50, 151);
+        }
+    }
+
+    private int siguiente() {
+        int i = cursor;
+        cursor = cursor + 1 == poblacion ? 0 : cursor + 1;
+        return i;
+    }
+
+    @Benchmark
+    public double razaGetMod() {
+        int i = siguiente();
+        return razas[i].getMod(stats[i]);
+    }
+
+    @Benchmark
+    public int clamp() {
+        return Herramientas.clamp(valores[siguiente()], 0, 100);
+    }
+}
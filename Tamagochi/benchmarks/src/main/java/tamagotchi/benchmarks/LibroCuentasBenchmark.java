@@ -0,0 +1,134 @@
+package tamagotchi.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tamagotchi.modelos.Jugador;
+import tamagotchi.modelos.LibroCuentas;
+import tamagotchi.modelos.StatJugador;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Benchmarks de contención de varios hilos moviendo dinero de
+ * los mismos jugadores: {@link LibroCuentas} frente a {@link Jugador}
+ * protegidos con {@code synchronized} (en las transferencias, tomando los
+ * dos cerrojos en orden de índice para no interbloquearse). Cada cobro va
+ * seguido de un ingreso de la misma cantidad para que los saldos no se
+ * agoten. Con {@code cuentas=1} todos los hilos compiten por el mismo
+ * jugador. El número de hilos se puede cambiar con la opción {@code -t} de
+ * JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LibroCuentasBenchmark {
+
+    /**
+     * Dinero inicial de cada jugador, para que las transferencias al azar no
+     * dejen a nadie sin saldo durante la medida
+     */
+    private static final int DINERO_INICIAL = 1_000_000_000;
+
+    /**
+     * Coste de una compra: una moneda y nada de energía
+     */
+    private static final int[] COSTE = {1, 0};
+
+    @Param({"1", "1024"})
+    private int cuentas;
+
+    private LibroCuentas libro;
+    private Jugador[] conCerrojo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        libro = new LibroCuentas(cuentas);
+        conCerrojo = new Jugador[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            Jugador jugador = new Jugador("jugador" + i);
+            jugador.ingresar(StatJugador.DINERO, DINERO_INICIAL);
+            libro.abrir(jugador);
+            conCerrojo[i] = new Jugador("jugador" + i);
+            conCerrojo[i].ingresar(StatJugador.DINERO, DINERO_INICIAL);
+        }
+    }
+
+    /**
+     * Estado de cada hilo: elige las cuentas al azar.
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        private SplittableRandom aleatorio;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            aleatorio = new SplittableRandom(Thread.currentThread().threadId());
+        }
+
+        int cuenta(int cuentas) {
+            return cuentas == 1 ? 0 : aleatorio.nextInt(cuentas);
+        }
+    }
+
+    @Benchmark
+    public boolean libroCobrar(Hilo hilo) {
+        int cuenta = hilo.cuenta(cuentas);
+        boolean cobrado = libro.cobrar(cuenta, COSTE);
+        libro.ingresar(cuenta, StatJugador.DINERO, COSTE[0]);
+        return cobrado;
+    }
+
+    @Benchmark
+    public boolean libroTransferir(Hilo hilo) {
+        return libro.transferir(hilo.cuenta(cuentas), hilo.cuenta(cuentas), StatJugador.DINERO, 1);
+    }
+
+    @Benchmark
+    public boolean cerrojoCobrar(Hilo hilo) {
+        Jugador jugador = conCerrojo[hilo.cuenta(cuentas)];
+        synchronized (jugador) {
+            boolean cobrado = jugador.gastar(StatJugador.DINERO, COSTE[0]);
+            jugador.ingresar(StatJugador.DINERO, COSTE[0]);
+            return cobrado;
+        }
+    }
+
+    @Benchmark
+    public boolean cerrojoTransferir(Hilo hilo) {
+        int origen = hilo.cuenta(cuentas);
+        int destino = hilo.cuenta(cuentas);
+        Jugador primero = conCerrojo[Math.min(origen, destino)];
+        Jugador segundo = conCerrojo[Math.max(origen, destino)];
+        synchronized (primero) {
+            synchronized (segundo) {
+                if (!conCerrojo[origen].gastar(StatJugador.DINERO, 1)) {
+                    return false;
+                }
+                conCerrojo[destino].ingresar(StatJugador.DINERO, 1);
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package tamagotchi.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tamagotchi.modelos.Estado;
+import tamagotchi.modelos.FabricaPerros;
+import tamagotchi.modelos.Perrera;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.Raza;
+import tamagotchi.modelos.RenderizadorPerros;
+import tamagotchi.modelos.StatPerro;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Benchmarks de los caminos calientes de {@link Perro}. Cada
+ * operación trabaja sobre un perro distinto de una población generada con
+ * semilla fija, recorriéndola en orden, de modo que el tamaño de la población
+ * refleja el efecto de la caché.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerroBenchmark {
+
+    private static final StatPerro[] STATS = StatPerro.values();
+    private static final Raza[] RAZAS = Raza.values();
+
+    @Param({"1000", "100000", "1000000"})
+    private int poblacion;
+
+    private Perro[] perros;
+    private SplittableRandom aleatorio;
+    private PrintStream salidaOriginal;
+    private RenderizadorPerros renderizador;
+    private ByteBuffer ficha;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Perrera perrera = FabricaPerros.generar(poblacion, 42L);
+        perros = new Perro[poblacion];
+        for (int i = 0; i < poblacion; i++) {
+            perros[i] = perrera.get(i);
+        }
+        aleatorio = new SplittableRandom(42L);
+        renderizador = new RenderizadorPerros();
+        ficha = ByteBuffer.allocate(4096);
+
+        // mostrarEstado imprime por consola: se descarta la salida
+        salidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurar() {
+        System.setOut(salidaOriginal);
+    }
+
+    private Perro siguiente() {
+        Perro perro = perros[cursor];
+        cursor = cursor + 1 == poblacion ? 0 : cursor + 1;
+        return perro;
+    }
+
+    /**
+     * Construcción completa: modificadores de raza y edad más stats iniciales.
+     */
+    @Benchmark
+    public Perro construir() {
+        int i = cursor;
+        cursor = cursor + 1 == poblacion ? 0 : cursor + 1;
+        return new Perro("Toby", RAZAS[i % RAZAS.length], i % 15, aleatorio);
+    }
+
+    /**
+     * Cambio de un stat que no tiene estados asociados (sueño).
+     */
+    @Benchmark
+    public long setStatSinTransicion() {
+        Perro perro = siguiente();
+        return perro.setStat(StatPerro.SUENNO, perro.getStat(StatPerro.SUENNO) ^ 1);
+    }
+
+    /**
+     * Cambio del hambre entre 0 y 95, que siempre entra o sale de
+     * HAMBRIENTO y FAMELICO.
+     */
+    @Benchmark
+    public long setStatConTransicion() {
+        Perro perro = siguiente();
+        return perro.setStat(StatPerro.HAMBRE, perro.getStat(StatPerro.HAMBRE) >= 90 ? 0 : 95);
+    }
+
+    /**
+     * Evaluación completa de los estados de un perro a partir de sus stats,
+     * el mismo trabajo que hace {@code Perro.actualizarEstados()}.
+     */
+    @Benchmark
+    public long actualizarEstados() {
+        Perro perro = siguiente();
+        long estados = 0L;
+        for (StatPerro stat : STATS) {
+            estados |= Estado.activosCon(stat, perro.getStat(stat));
+        }
+        return estados;
+    }
+
+    @Benchmark
+    public void mostrarEstado() {
+        siguiente().mostrarEstado();
+    }
+
+    /**
+     * Ficha de estado escrita sin asignaciones en un buffer reutilizado.
+     */
+    @Benchmark
+    public int renderizarEnBuffer() {
+        ficha.clear();
+        renderizador.escribir(siguiente(), ficha);
+        return ficha.position();
+    }
+}
@@ -0,0 +1,454 @@
+package tamagotchi.benchmarks;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import tamagotchi.core.Accion;
+import tamagotchi.core.CatalogoAcciones;
+import tamagotchi.core.EventoAleatorio;
+import tamagotchi.metricas.Histograma;
+import tamagotchi.modelos.Jugador;
+import tamagotchi.modelos.LibroCuentas;
+import tamagotchi.modelos.Perrera;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.Raza;
+import tamagotchi.modelos.StatJugador;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Prueba de resistencia del juego completo dentro de un solo
+ * proceso, sin red. Crea jugadores con sus perros y una cuenta en un
+ * {@link LibroCuentas}, y varios hilos lanzan durante un tiempo una mezcla de
+ * operaciones a un ritmo fijo: acciones de cuidado cobradas en el libro,
+ * sucesos aleatorios, ticks de la simulación de cada jugador (que le dan
+ * energía y dinero) y transferencias entre jugadores. Otro hilo liquida el
+ * libro cada poco.
+ *
+ * La carga es de bucle abierto: cada operación tiene prevista su hora de
+ * salida y, si el sistema se retrasa, las siguientes salen en cuanto se
+ * puede. La latencia se mide desde la hora prevista y no desde la real, de
+ * modo que los parones cuentan para todas las operaciones que deberían
+ * haber salido durante ellos (corrección de la omisión coordinada). También
+ * se guarda el tiempo de servicio, medido desde la salida real, para ver la
+ * diferencia.
+ *
+ * Cada cierto tiempo muestra el ritmo conseguido, el p99 del intervalo y la
+ * actividad del recolector de basura. Al final escribe un informe CSV de
+ * {@code metrica,valor}; el modo {@code comparar} enfrenta dos informes, por
+ * ejemplo de dos versiones del juego. Cada hilo atiende siempre a los mismos
+ * jugadores, porque un {@link Jugador} no admite varios hilos a la vez.
+ *
+ * Uso: {@code java -cp target/benchmarks.jar tamagotchi.benchmarks.PruebaResistencia [segundos] [ops/s] [jugadores] [hilos] [informe.csv]}
+ * o {@code PruebaResistencia comparar antes.csv despues.csv}
+ */
+public class PruebaResistencia {
+
+    private static final String[] OPERACIONES = {"cuidar", "suceso", "tick", "transferir"};
+
+    /**
+     * Porcentaje de cada operación en la mezcla, en el orden de
+     * {@link #OPERACIONES}
+     */
+    private static final int[] PESOS = {70, 15, 10, 5};
+
+    private static final int CUIDAR = 0;
+    private static final int SUCESO = 1;
+    private static final int TICK = 2;
+    private static final int TRANSFERIR = 3;
+
+    private static final int PERROS_POR_JUGADOR = 3;
+
+    /**
+     * Energía y dinero que gana un jugador por cada tick
+     */
+    private static final int GANANCIA_POR_TICK = 5;
+
+    private static final int CANTIDAD_TRANSFERENCIA = 1;
+
+    /**
+     * Fracción inicial de la prueba que no se mide, para que el JIT compile
+     * los caminos calientes
+     */
+    private static final double FRACCION_CALENTAMIENTO = 0.1;
+
+    private static final long NANOS_ENTRE_LIQUIDACIONES = 100_000_000L;
+    private static final long NANOS_ENTRE_INFORMES = 10_000_000_000L;
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] NOMBRES_PERCENTILES = {"p50", "p99", "p999"};
+    private static final long SEMILLA = 42L;
+
+    private final int jugadores;
+    private final int hilos;
+    private final long intervaloNanos;
+    private final CatalogoAcciones catalogo = CatalogoAcciones.porDefecto();
+    private final LibroCuentas libro;
+    private final Jugador[] mundo;
+
+    private final Histograma[] corregidas = new Histograma[OPERACIONES.length];
+    private final Histograma[] servicio = new Histograma[OPERACIONES.length];
+    private final LongAdder[] rechazadas = new LongAdder[OPERACIONES.length];
+    private final Histograma liquidaciones = new Histograma();
+
+    /**
+     * Latencias corregidas del intervalo de informe en curso
+     */
+    private final Histograma intervalo = new Histograma();
+    private final LongAdder completadas = new LongAdder();
+    private volatile long inicioMedida;
+
+    private PruebaResistencia(int jugadores, int hilos, double opsPorSegundo) {
+        this.jugadores = jugadores;
+        this.hilos = hilos;
+        // Cada hilo lanza una operación cada intervalo
+        this.intervaloNanos = Math.max(1L, Math.round(hilos * 1e9 / opsPorSegundo));
+        this.libro = new LibroCuentas(jugadores);
+        this.mundo = new Jugador[jugadores];
+        SplittableRandom aleatorio = new SplittableRandom(SEMILLA);
+        Raza[] razas = Raza.values();
+        for (int j = 0; j < jugadores; j++) {
+            mundo[j] = new Jugador("jugador" + j);
+            for (int p = 0; p < PERROS_POR_JUGADOR; p++) {
+                mundo[j].adoptar("Perro" + p, razas[aleatorio.nextInt(razas.length)], aleatorio.nextInt(15), aleatorio);
+            }
+            libro.abrir(mundo[j]);
+        }
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            corregidas[i] = new Histograma();
+            servicio[i] = new Histograma();
+            rechazadas[i] = new LongAdder();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("comparar")) {
+            if (args.length < 3) {
+                throw new IllegalArgumentException("Uso: comparar antes.csv despues.csv");
+            }
+            comparar(Path.of(args[1]), Path.of(args[2]));
+            return;
+        }
+        int segundos = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        double opsPorSegundo = args.length > 1 ? Double.parseDouble(args[1]) : 50_000;
+        int jugadores = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        Path informe = Path.of(args.length > 4 ? args[4] : "resistencia.csv");
+        if (segundos < 1 || opsPorSegundo <= 0 || jugadores < hilos || hilos < 1) {
+            throw new IllegalArgumentException("Parámetros no válidos: hace falta al menos un jugador por hilo.");
+        }
+
+        PruebaResistencia prueba = new PruebaResistencia(jugadores, hilos, opsPorSegundo);
+        System.out.printf("🐶 %d jugadores (%d perros) | %.0f ops/s | %d hilos | %d s%n",
+                jugadores, jugadores * PERROS_POR_JUGADOR, opsPorSegundo, hilos, segundos);
+        Map<String, String> resultado = prueba.ejecutar(segundos, opsPorSegundo);
+        escribirInforme(resultado, informe);
+        System.out.println("📄 Informe escrito en " + informe.toAbsolutePath());
+    }
+
+    /**
+     * Lanza la carga, muestra los informes de intervalo y devuelve el
+     * informe final.
+     */
+    private Map<String, String> ejecutar(int segundos, double opsPorSegundo) throws InterruptedException {
+        long inicio = System.nanoTime() + 100_000_000L;
+        long fin = inicio + segundos * 1_000_000_000L;
+        inicioMedida = inicio + (long) (segundos * FRACCION_CALENTAMIENTO * 1e9);
+
+        List<Thread> trabajadores = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            // Los hilos salen escalonados para repartir las operaciones
+            long salida = inicio + intervaloNanos * h / hilos;
+            trabajadores.add(Thread.ofPlatform().name("carga-" + h).start(() -> trabajar(hilo, salida, fin)));
+        }
+        Thread liquidador = Thread.ofPlatform().name("liquidador").daemon().start(() -> liquidar(fin));
+
+        while (System.nanoTime() < inicioMedida) {
+            Thread.sleep(10);
+        }
+        Recolector gc = new Recolector();
+        long asignadoInicial = asignado();
+        intervalo.reiniciar();
+        Recolector gcIntervalo = new Recolector();
+        long siguienteInforme = inicioMedida + NANOS_ENTRE_INFORMES;
+        long completadasIntervalo = completadas.sum();
+        long inicioIntervalo = inicioMedida;
+        while (System.nanoTime() < fin) {
+            long espera = Math.min(siguienteInforme, fin) - System.nanoTime();
+            if (espera > 0) {
+                Thread.sleep(espera / 1_000_000, (int) (espera % 1_000_000));
+            }
+            long ahora = System.nanoTime();
+            if (ahora >= siguienteInforme) {
+                long hechas = completadas.sum();
+                System.out.printf("⏱ t=%4.0f s | %8.0f ops/s | p99=%9.1f µs | GC %3d (%5d ms)%n",
+                        (ahora - inicio) / 1e9, (hechas - completadasIntervalo) * 1e9 / (ahora - inicioIntervalo),
+                        intervalo.getPercentil(99) / 1e3, gcIntervalo.colecciones(), gcIntervalo.milisegundos());
+                intervalo.reiniciar();
+                gcIntervalo = new Recolector();
+                completadasIntervalo = hechas;
+                inicioIntervalo = ahora;
+                siguienteInforme += NANOS_ENTRE_INFORMES;
+            }
+        }
+        for (Thread trabajador : trabajadores) {
+            trabajador.join();
+        }
+        liquidador.join();
+        double segundosMedidos = (System.nanoTime() - inicioMedida) / 1e9;
+        long asignadoTotal = asignado() - asignadoInicial;
+        libro.liquidar();
+        return resumir(segundos, opsPorSegundo, segundosMedidos, gc, asignadoTotal);
+    }
+
+    /**
+     * Bucle de un hilo de carga: lanza una operación cada intervalo sobre
+     * sus propios jugadores hasta el final de la prueba.
+     */
+    private void trabajar(int hilo, long salida, long fin) {
+        SplittableRandom aleatorio = new SplittableRandom(SEMILLA + hilo);
+        int propios = (jugadores - hilo + hilos - 1) / hilos;
+        for (long prevista = salida; prevista < fin; prevista += intervaloNanos) {
+            // parkNanos puede volver antes de tiempo, y una salida adelantada
+            // no mediría la latencia desde la hora prevista
+            long espera;
+            while ((espera = prevista - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            int jugador = hilo + hilos * aleatorio.nextInt(propios);
+            int operacion = elegir(aleatorio.nextInt(100));
+            long salidaReal = System.nanoTime();
+            if (!ejecutar(operacion, jugador, aleatorio)) {
+                rechazadas[operacion].increment();
+            }
+            long terminada = System.nanoTime();
+            if (prevista >= inicioMedida) {
+                corregidas[operacion].registrar(terminada - prevista);
+                servicio[operacion].registrar(terminada - salidaReal);
+                intervalo.registrar(terminada - prevista);
+                completadas.increment();
+            }
+        }
+    }
+
+    private static int elegir(int tirada) {
+        for (int i = 0; i < PESOS.length; i++) {
+            tirada -= PESOS[i];
+            if (tirada < 0) {
+                return i;
+            }
+        }
+        return PESOS.length - 1;
+    }
+
+    /**
+     * Ejecuta una operación sobre un jugador.
+     *
+     * @return false si el juego la ha rechazado (falta de recursos, estados
+     * que la impiden...).
+     */
+    private boolean ejecutar(int operacion, int jugador, SplittableRandom aleatorio) {
+        Jugador titular = mundo[jugador];
+        Perro perro = titular.getPerro(aleatorio.nextInt(titular.getNumPerros()));
+        switch (operacion) {
+            case CUIDAR -> {
+                Accion accion = catalogo.get(aleatorio.nextInt(catalogo.getNumAcciones()));
+                if (!accion.sePuedeAplicar(perro)) {
+                    return false;
+                }
+                try {
+                    accion.cobrar(libro, jugador);
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+                accion.aplicar(perro);
+                return true;
+            }
+            case SUCESO -> {
+                EventoAleatorio[] sucesos = EventoAleatorio.values();
+                sucesos[aleatorio.nextInt(sucesos.length)].aplicar(perro);
+                return true;
+            }
+            case TICK -> {
+                // Sin Jugador.avanzar: los recursos del jugador los lleva
+                // el libro, no su registro
+                Perrera perrera = titular.getPerrera();
+                long tick = perrera.getTick();
+                perrera.avanzar(0, perrera.getTamanno(), tick);
+                perrera.completarTick(tick);
+                libro.ingresar(jugador, StatJugador.ENERGIA, GANANCIA_POR_TICK);
+                libro.ingresar(jugador, StatJugador.DINERO, GANANCIA_POR_TICK);
+                return true;
+            }
+            default -> {
+                return libro.transferir(jugador, aleatorio.nextInt(jugadores), StatJugador.DINERO, CANTIDAD_TRANSFERENCIA);
+            }
+        }
+    }
+
+    private void liquidar(long fin) {
+        while (System.nanoTime() < fin) {
+            LockSupport.parkNanos(NANOS_ENTRE_LIQUIDACIONES);
+            long inicio = System.nanoTime();
+            libro.liquidar();
+            liquidaciones.registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    private Map<String, String> resumir(int segundos, double opsPorSegundo, double segundosMedidos,
+            Recolector gc, long asignadoTotal) {
+        Map<String, String> informe = new LinkedHashMap<>();
+        informe.put("java.version", System.getProperty("java.version"));
+        informe.put("parametros.segundos", Integer.toString(segundos));
+        informe.put("parametros.ops_s", formatear(opsPorSegundo));
+        informe.put("parametros.jugadores", Integer.toString(jugadores));
+        informe.put("parametros.hilos", Integer.toString(hilos));
+
+        long total = 0;
+        System.out.printf("%-11s %10s %10s %10s %10s %10s %10s %10s%n",
+                "operación", "ops", "rechazos", "p50 µs", "p99 µs", "p99.9 µs", "max µs", "serv p99");
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            Histograma h = corregidas[i];
+            total += h.getCuenta();
+            String prefijo = OPERACIONES[i] + ".";
+            informe.put(prefijo + "ops", Long.toString(h.getCuenta()));
+            informe.put(prefijo + "rechazadas", Long.toString(rechazadas[i].sum()));
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                informe.put(prefijo + "corregida." + NOMBRES_PERCENTILES[p] + "_us", formatear(h.getPercentil(PERCENTILES[p]) / 1e3));
+            }
+            informe.put(prefijo + "corregida.max_us", formatear(h.getMaximo() / 1e3));
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                informe.put(prefijo + "servicio." + NOMBRES_PERCENTILES[p] + "_us", formatear(servicio[i].getPercentil(PERCENTILES[p]) / 1e3));
+            }
+            System.out.printf("%-11s %10d %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", OPERACIONES[i], h.getCuenta(),
+                    rechazadas[i].sum(), h.getPercentil(50) / 1e3, h.getPercentil(99) / 1e3,
+                    h.getPercentil(99.9) / 1e3, h.getMaximo() / 1e3, servicio[i].getPercentil(99) / 1e3);
+        }
+        informe.put("liquidar.veces", Long.toString(liquidaciones.getCuenta()));
+        informe.put("liquidar.p99_us", formatear(liquidaciones.getPercentil(99) / 1e3));
+
+        MemoryUsage monticulo = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        informe.put("total.ops_s", formatear(total / segundosMedidos));
+        informe.put("gc.colecciones", Long.toString(gc.colecciones()));
+        informe.put("gc.pausas_ms", Long.toString(gc.milisegundos()));
+        informe.put("memoria.asignada_mb_s", formatear(asignadoTotal / segundosMedidos / (1 << 20)));
+        informe.put("memoria.asignada_b_op", formatear(total == 0 ? 0 : (double) asignadoTotal / total));
+        informe.put("memoria.monticulo_mb", formatear(monticulo.getUsed() / (double) (1 << 20)));
+
+        System.out.printf("📨 %.0f ops/s medidas | GC %d colecciones, %d ms | %.1f MB/s asignados (%.0f B/op) | liquidar p99 %.1f µs%n",
+                total / segundosMedidos, gc.colecciones(), gc.milisegundos(),
+                asignadoTotal / segundosMedidos / (1 << 20), total == 0 ? 0.0 : (double) asignadoTotal / total,
+                liquidaciones.getPercentil(99) / 1e3);
+        return informe;
+    }
+
+    /**
+     * Bytes asignados en el montículo por todos los hilos desde que arrancó
+     * la JVM, o 0 si no se puede medir.
+     */
+    private static long asignado() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean hilos
+                && hilos.isThreadAllocatedMemorySupported()) {
+            return hilos.getTotalThreadAllocatedBytes();
+        }
+        return 0L;
+    }
+
+    private static String formatear(double valor) {
+        return valor == Math.rint(valor) && Math.abs(valor) < 1e15
+                ? Long.toString((long) valor)
+                : String.format(Locale.ROOT, "%.2f", valor);
+    }
+
+    private static void escribirInforme(Map<String, String> informe, Path destino) throws IOException {
+        StringBuilder csv = new StringBuilder("metrica,valor\n");
+        informe.forEach((metrica, valor) -> csv.append(metrica).append(',').append(valor).append('\n'));
+        Files.writeString(destino, csv);
+    }
+
+    private static Map<String, String> leerInforme(Path origen) throws IOException {
+        Map<String, String> informe = new LinkedHashMap<>();
+        for (String linea : Files.readAllLines(origen)) {
+            int coma = linea.indexOf(',');
+            if (coma > 0 && !linea.startsWith("metrica,")) {
+                informe.put(linea.substring(0, coma), linea.substring(coma + 1));
+            }
+        }
+        return informe;
+    }
+
+    /**
+     * Muestra dos informes lado a lado con la variación de cada métrica
+     * numérica.
+     */
+    private static void comparar(Path antes, Path despues) throws IOException {
+        Map<String, String> a = leerInforme(antes);
+        Map<String, String> b = leerInforme(despues);
+        System.out.printf("%-32s %14s %14s %9s%n", "métrica", antes.getFileName(), despues.getFileName(), "cambio");
+        for (Map.Entry<String, String> entrada : a.entrySet()) {
+            String otro = b.getOrDefault(entrada.getKey(), "-");
+            String cambio = "";
+            try {
+                double x = Double.parseDouble(entrada.getValue());
+                double y = Double.parseDouble(otro);
+                cambio = x == 0 ? "" : String.format(Locale.ROOT, "%+.1f%%", (y - x) * 100 / x);
+            } catch (NumberFormatException e) {
+                // Métrica de texto, como la versión de Java
+            }
+            System.out.printf("%-32s %14s %14s %9s%n", entrada.getKey(), entrada.getValue(), otro, cambio);
+        }
+        for (Map.Entry<String, String> entrada : b.entrySet()) {
+            if (!a.containsKey(entrada.getKey())) {
+                System.out.printf("%-32s %14s %14s%n", entrada.getKey(), "-", entrada.getValue());
+            }
+        }
+    }
+
+    /**
+     * Actividad de los recolectores de basura desde que se crea.
+     */
+    private static class Recolector {
+
+        private final long coleccionesIniciales = totalColecciones();
+        private final long milisegundosIniciales = totalMilisegundos();
+
+        long colecciones() {
+            return totalColecciones() - coleccionesIniciales;
+        }
+
+        long milisegundos() {
+            return totalMilisegundos() - milisegundosIniciales;
+        }
+
+        private static long totalColecciones() {
+            long total = 0;
+            for (GarbageCollectorMXBean recolector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                total += Math.max(0, recolector.getCollectionCount());
+            }
+            return total;
+        }
+
+        private static long totalMilisegundos() {
+            long total = 0;
+            for (GarbageCollectorMXBean recolector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                total += Math.max(0, recolector.getCollectionTime());
+            }
+            return total;
+        }
+    }
+}
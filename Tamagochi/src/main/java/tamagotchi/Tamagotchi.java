@@ -1,5 +1,18 @@
 package tamagotchi;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import tamagotchi.core.CatalogoAcciones;
+import tamagotchi.core.MotorSimulacion;
+import tamagotchi.core.ResultadoBalance;
+import tamagotchi.core.SimuladorBalance;
+import tamagotchi.metricas.Metricas;
+import tamagotchi.modelos.FabricaPerros;
+import tamagotchi.modelos.Perrera;
+import tamagotchi.servidor.NodoMundo;
+import tamagotchi.servidor.ServidorJuego;
+
 /**
  * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
  * Autor: Sergio López Casado
@@ -7,11 +20,92 @@ package tamagotchi;
  * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
  * GitHub: https://github.com/Serlopcas
  * Fecha de creación: 29/01/2025
- * Descripción: TODO
+ * Descripción: Punto de entrada del juego. Puede arrancar el servidor
+ * multijugador o un nodo de un mundo repartido entre procesos, ejecutar el
+ * simulador de balance o lanzar una simulación de una población de perros y
+ * mostrar el rendimiento de los ticks. Con
+ * {@code -Dtamagotchi.metricas=true} muestra también las métricas de la
+ * simulación al terminar.
+ *
+ * Uso: {@code Tamagotchi servidor [puerto]},
+ * {@code Tamagotchi nodo [puerto] [hilos]},
+ * {@code Tamagotchi balance [perros] [ticks] [hilos] [semilla] [csv]} o
+ * {@code Tamagotchi [perros] [ticks] [hilos] [semilla]}
  */
 public class Tamagotchi {
 
-    public static void main(String[] args) {
-        //TODO
+    /**
+     * Ticks medios entre dos cuidados en el simulador de balance
+     */
+    private static final double MEDIA_TICKS_CUIDADOS = 6;
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        if (args.length > 0 && args[0].equals("servidor")) {
+            int puerto = args.length > 1 ? Integer.parseInt(args[1]) : ServidorJuego.PUERTO_POR_DEFECTO;
+            try (ServidorJuego servidor = new ServidorJuego(puerto)) {
+                System.out.printf("🐶 Servidor escuchando en el puerto %d%n", servidor.getPuerto());
+                servidor.esperar();
+            }
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("nodo")) {
+            int puerto = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+            int hilos = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            try (NodoMundo nodo = new NodoMundo(puerto, hilos)) {
+                System.out.printf("🐶 Nodo escuchando en el puerto %d%n", nodo.getPuerto());
+                nodo.esperar();
+            }
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("balance")) {
+            balance(args);
+            return;
+        }
+
+        int numPerros = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int numTicks = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int hilos = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long semilla = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+
+        Perrera perrera = FabricaPerros.generar(numPerros, semilla, null, hilos);
+
+        try (MotorSimulacion motor = new MotorSimulacion(perrera, hilos)) {
+            long inicio = System.nanoTime();
+            long cambios = motor.avanzar(numTicks);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            System.out.printf("🐶 %d perros | %d ticks | %d hilos%n", numPerros, numTicks, hilos);
+            System.out.printf("⏱ %.1f ticks/s | %.3f ms/tick | %d cambios de estado%n",
+                    numTicks / segundos, segundos * 1000 / numTicks, cambios);
+        }
+        if (Metricas.ACTIVAS) {
+            Metricas.volcarTexto(System.out);
+        }
+    }
+
+    /**
+     * Ejecuta el simulador de balance y muestra el resumen por estado.
+     * Argumentos: {@code balance [perros] [ticks] [hilos] [semilla] [csv]}.
+     */
+    private static void balance(String[] args) throws IOException {
+        long numPerros = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+        int horizonte = args.length > 2 ? Integer.parseInt(args[2]) : 24;
+        int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long semilla = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+        int perrosPorCelda = (int) Math.max(1, (numPerros + SimuladorBalance.NUM_CELDAS - 1) / SimuladorBalance.NUM_CELDAS);
+
+        SimuladorBalance simulador = new SimuladorBalance(CatalogoAcciones.porDefecto(), horizonte, MEDIA_TICKS_CUIDADOS);
+        long inicio = System.nanoTime();
+        ResultadoBalance resultado = simulador.simular(perrosPorCelda, semilla, hilos);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.print(resultado);
+        System.out.printf("⏱ %.2f s | %.1f M perros/s | %d hilos%n",
+                segundos, resultado.getPerros() / segundos / 1e6, hilos);
+        if (args.length > 5) {
+            Files.writeString(Path.of(args[5]), resultado.toCsv());
+        }
     }
-}
\ No newline at end of file
+}
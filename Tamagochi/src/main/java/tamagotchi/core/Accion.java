@@ -1,5 +1,17 @@
 package tamagotchi.core;
 
+import java.util.Locale;
+import tamagotchi.modelos.DeltaStats;
+import tamagotchi.modelos.Estado;
+import tamagotchi.modelos.FranjaEdad;
+import tamagotchi.modelos.Jugador;
+import tamagotchi.modelos.LibroCuentas;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.Raza;
+import tamagotchi.modelos.StatJugador;
+import tamagotchi.modelos.StatPerro;
+import tamagotchi.modelos.TablaModificadores;
+
 /**
  * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
  * Autor: Sergio López Casado
@@ -7,8 +19,264 @@ package tamagotchi.core;
  * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
  * GitHub: https://github.com/Serlopcas
  * Fecha de creación: 31/01/2025
- * Descripción: TODO
+ * Descripción: Acción de cuidado que un jugador puede hacer con un perro,
+ * tal como se define en el {@link CatalogoAcciones}: su efecto base sobre
+ * cada {@link StatPerro}, su coste en {@link StatJugador} y los
+ * {@link Estado} que exige o que impiden aplicarla.
+ *
+ * Al crearse, la acción se compila en un lote de cambios por cada
+ * combinación de raza y franja de edad, con el efecto ya escalado por el
+ * modificador correspondiente. Aplicarla solo consiste en elegir el lote del
+ * perro y sumarlo a sus columnas de estadísticas, sin mapas ni cálculos.
  */
-public class Accion {
-    
+public final class Accion {
+
+    private static final StatPerro[] STATS = StatPerro.values();
+    private static final StatJugador[] RECURSOS = StatJugador.values();
+    private static final FranjaEdad[] FRANJAS = FranjaEdad.values();
+    private static final Estado[] ESTADOS = Estado.values();
+
+    private final int indice;
+    private final String nombre;
+    private final String descripcion;
+    private final int[] efecto;
+    private final int[] coste;
+    private final long requiere;
+    private final long impide;
+
+    /**
+     * Efecto escalado para cada raza y franja de edad, indexado por
+     * {@code raza.ordinal() * FRANJAS.length + franja.ordinal()}
+     */
+    private final DeltaStats[] lotes;
+
+    /**
+     * Crea y compila una acción.
+     *
+     * @param indice Posición de la acción en su catálogo.
+     * @param nombre Nombre de la acción, en mayúsculas.
+     * @param descripcion Descripción legible.
+     * @param efecto Cambio base de cada estadística, por ordinal.
+     * @param coste Coste de cada recurso del jugador, por ordinal.
+     * @param requiere Máscara de estados que el perro debe tener todos.
+     * @param impide Máscara de estados con los que no se puede aplicar.
+     */
+    Accion(int indice, String nombre, String descripcion, int[] efecto, int[] coste, long requiere, long impide) {
+        this.indice = indice;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.efecto = efecto.clone();
+        this.coste = coste.clone();
+        this.requiere = requiere;
+        this.impide = impide;
+
+        Raza[] razas = Raza.values();
+        this.lotes = new DeltaStats[razas.length * FRANJAS.length];
+        for (Raza raza : razas) {
+            for (FranjaEdad franja : FRANJAS) {
+                DeltaStats lote = new DeltaStats();
+                for (StatPerro stat : STATS) {
+                    if (efecto[stat.ordinal()] != 0) {
+                        double mod = TablaModificadores.getMod(raza, franja, stat);
+                        lote.con(stat, (int) Math.round(efecto[stat.ordinal()] * mod));
+                    }
+                }
+                lotes[raza.ordinal() * FRANJAS.length + franja.ordinal()] = lote;
+            }
+        }
+    }
+
+    /**
+     * @return Posición de la acción en su catálogo
+     */
+    public int getIndice() {
+        return indice;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * Obtiene el efecto base de la acción sobre una estadística, antes de
+     * escalarlo por raza y edad.
+     *
+     * @param stat Estadística a consultar.
+     * @return Cambio base, 0 si no la modifica.
+     */
+    public int getEfecto(StatPerro stat) {
+        return efecto[stat.ordinal()];
+    }
+
+    /**
+     * Obtiene el efecto real de la acción sobre una estadística para una
+     * raza y franja de edad.
+     *
+     * @param stat Estadística a consultar.
+     * @param raza Raza del perro.
+     * @param franja Franja de edad del perro.
+     * @return Cambio escalado, 0 si no la modifica.
+     */
+    public int getEfecto(StatPerro stat, Raza raza, FranjaEdad franja) {
+        return lotes[raza.ordinal() * FRANJAS.length + franja.ordinal()].getCantidad(stat);
+    }
+
+    /**
+     * Obtiene lo que cuesta la acción en un recurso del jugador.
+     *
+     * @param recurso Recurso a consultar.
+     * @return Cantidad que se gasta, 0 si no se gasta nada.
+     */
+    public int getCoste(StatJugador recurso) {
+        return coste[recurso.ordinal()];
+    }
+
+    /**
+     * @return Máscara de estados que el perro debe tener todos
+     */
+    public long getRequiere() {
+        return requiere;
+    }
+
+    /**
+     * @return Máscara de estados con los que no se puede aplicar la acción
+     */
+    public long getImpide() {
+        return impide;
+    }
+
+    /**
+     * Comprueba si los estados del perro permiten aplicarle la acción.
+     *
+     * @param perro Perro a comprobar.
+     * @return true si tiene todos los estados requeridos y ninguno de los
+     * que la impiden.
+     */
+    public boolean sePuedeAplicar(Perro perro) {
+        long estados = perro.getMascaraEstados();
+        return (estados & requiere) == requiere && (estados & impide) == 0;
+    }
+
+    /**
+     * Comprueba si el jugador tiene recursos para pagar la acción.
+     *
+     * @param jugador Jugador que la paga.
+     * @return true si tiene suficiente de todos los recursos.
+     */
+    public boolean sePuedePagar(Jugador jugador) {
+        for (StatJugador recurso : RECURSOS) {
+            if (jugador.getStat(recurso) < coste[recurso.ordinal()]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Aplica la acción a un perro sin cobrar nada.
+     *
+     * @param perro Perro que la recibe.
+     * @return Transición de estados provocada, empaquetada según
+     * {@link Estado#transicion(long, long)}.
+     * @throws IllegalStateException Si los estados del perro no la permiten.
+     */
+    public long aplicar(Perro perro) {
+        comprobarEstados(perro);
+        return perro.aplicar(lotes[perro.getRaza().ordinal() * FRANJAS.length + perro.getFranja().ordinal()]);
+    }
+
+    /**
+     * Aplica la acción a un perro cobrando su coste al jugador.
+     *
+     * @param jugador Jugador que la paga.
+     * @param perro Perro que la recibe.
+     * @return Transición de estados provocada, empaquetada según
+     * {@link Estado#transicion(long, long)}.
+     * @throws IllegalStateException Si los estados del perro no la permiten o
+     * el jugador no puede pagarla. En ese caso no se cobra nada.
+     */
+    public long aplicar(Jugador jugador, Perro perro) {
+        comprobarEstados(perro);
+        cobrar(jugador);
+        return aplicar(perro);
+    }
+
+    /**
+     * Cobra el coste de la acción a un jugador sin aplicarla, para cuando el
+     * jugador y el perro no están en el mismo sitio.
+     *
+     * @param jugador Jugador que paga.
+     * @throws IllegalStateException Si el jugador no tiene recursos
+     * suficientes; en ese caso no se le cobra nada.
+     */
+    public void cobrar(Jugador jugador) {
+        if (!sePuedePagar(jugador)) {
+            throw new IllegalStateException("No tienes recursos suficientes para " + nombre.toLowerCase(Locale.ROOT) + ".");
+        }
+        for (StatJugador recurso : RECURSOS) {
+            jugador.gastar(recurso, coste[recurso.ordinal()]);
+        }
+    }
+
+    /**
+     * Devuelve a un jugador lo cobrado con {@link #cobrar} si al final la
+     * acción no se ha podido aplicar.
+     *
+     * @param jugador Jugador al que se devuelve el coste.
+     */
+    public void devolver(Jugador jugador) {
+        for (StatJugador recurso : RECURSOS) {
+            jugador.ingresar(recurso, coste[recurso.ordinal()]);
+        }
+    }
+
+    /**
+     * Cobra el coste de la acción a una cuenta de un {@link LibroCuentas},
+     * todos los recursos a la vez.
+     *
+     * @param libro Libro con la cuenta del jugador.
+     * @param cuenta Número de la cuenta.
+     * @throws IllegalStateException Si la cuenta no tiene recursos
+     * suficientes; en ese caso no se le cobra nada.
+     */
+    public void cobrar(LibroCuentas libro, int cuenta) {
+        if (!libro.cobrar(cuenta, coste)) {
+            throw new IllegalStateException("No tienes recursos suficientes para " + nombre.toLowerCase(Locale.ROOT) + ".");
+        }
+    }
+
+    /**
+     * Devuelve a una cuenta lo cobrado con {@link #cobrar(LibroCuentas, int)}.
+     *
+     * @param libro Libro con la cuenta del jugador.
+     * @param cuenta Número de la cuenta.
+     */
+    public void devolver(LibroCuentas libro, int cuenta) {
+        for (StatJugador recurso : RECURSOS) {
+            libro.ingresar(cuenta, recurso, coste[recurso.ordinal()]);
+        }
+    }
+
+    private void comprobarEstados(Perro perro) {
+        long estados = perro.getMascaraEstados();
+        long faltan = requiere & ~estados;
+        if (faltan != 0) {
+            throw new IllegalStateException(nombre + " no es posible con " + perro.getNombre()
+                    + ": tiene que estar " + ESTADOS[Long.numberOfTrailingZeros(faltan)].name() + ".");
+        }
+        long bloquean = impide & estados;
+        if (bloquean != 0) {
+            throw new IllegalStateException(nombre + " no es posible con " + perro.getNombre()
+                    + ": " + ESTADOS[Long.numberOfTrailingZeros(bloquean)].toString().toLowerCase(Locale.ROOT) + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return nombre;
+    }
 }
@@ -0,0 +1,256 @@
+package tamagotchi.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import tamagotchi.modelos.Estado;
+import tamagotchi.modelos.StatJugador;
+import tamagotchi.modelos.StatPerro;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Conjunto de {@link Accion} disponibles en el juego, cargado
+ * desde un fichero de texto en lugar de estar escrito en el código. Cada
+ * línea define una acción con seis campos separados por '|':
+ *
+ * <pre>
+ * NOMBRE | descripción | efecto | coste | requiere | impide
+ * COMER  | Dar de comer | HAMBRE=-40 ENERGIA=5 | DINERO=5 | | FAMELICO
+ * </pre>
+ *
+ * El efecto y el coste son listas de {@code STAT=cantidad} de
+ * {@link StatPerro} y {@link StatJugador}; requiere e impide son listas de
+ * {@link Estado}. Las líneas vacías y lo que sigue a '#' se ignoran.
+ *
+ * Todo el trabajo con textos y mapas se hace al cargar: cada acción queda
+ * compilada y después se accede a ella por nombre o por índice.
+ */
+public final class CatalogoAcciones {
+
+    /**
+     * Recurso del classpath con el catálogo por defecto
+     */
+    public static final String RECURSO_POR_DEFECTO = "/acciones.txt";
+
+    private static final int NUM_CAMPOS = 6;
+
+    private final List<Accion> acciones;
+    private final Map<String, Accion> porNombre;
+
+    private CatalogoAcciones(List<Accion> acciones) {
+        this.acciones = Collections.unmodifiableList(acciones);
+        this.porNombre = new HashMap<>();
+        for (Accion accion : acciones) {
+            porNombre.put(accion.getNombre(), accion);
+        }
+    }
+
+    /**
+     * Obtiene el catálogo que se distribuye con el juego. Se carga la primera
+     * vez que se pide y se comparte después.
+     *
+     * @return Catálogo por defecto.
+     * @throws IllegalStateException Si el recurso no existe o no es válido.
+     */
+    public static CatalogoAcciones porDefecto() {
+        return PorDefecto.CATALOGO;
+    }
+
+    /**
+     * Carga un catálogo desde un fichero.
+     *
+     * @param fichero Fichero de texto en UTF-8.
+     * @return Catálogo cargado.
+     * @throws IOException Si no se puede leer el fichero.
+     * @throws IllegalArgumentException Si alguna línea no es válida.
+     */
+    public static CatalogoAcciones cargar(Path fichero) throws IOException {
+        try (BufferedReader lector = Files.newBufferedReader(fichero, StandardCharsets.UTF_8)) {
+            return leer(lector);
+        }
+    }
+
+    /**
+     * Carga un catálogo desde un lector de texto.
+     *
+     * @param lector Lector con el contenido del catálogo.
+     * @return Catálogo cargado.
+     * @throws IOException Si falla la lectura.
+     * @throws IllegalArgumentException Si alguna línea no es válida o hay
+     * acciones repetidas.
+     */
+    public static CatalogoAcciones leer(BufferedReader lector) throws IOException {
+        List<Accion> acciones = new ArrayList<>();
+        Map<String, Integer> vistas = new HashMap<>();
+        String linea;
+        int numLinea = 0;
+        while ((linea = lector.readLine()) != null) {
+            numLinea++;
+            int comentario = linea.indexOf('#');
+            if (comentario >= 0) {
+                linea = linea.substring(0, comentario);
+            }
+            if (linea.isBlank()) {
+                continue;
+            }
+            try {
+                Accion accion = analizar(acciones.size(), linea);
+                Integer anterior = vistas.putIfAbsent(accion.getNombre(), numLinea);
+                if (anterior != null) {
+                    throw new IllegalArgumentException("la acción " + accion.getNombre()
+                            + " ya está definida en la línea " + anterior);
+                }
+                acciones.add(accion);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Línea " + numLinea + " del catálogo: " + e.getMessage(), e);
+            }
+        }
+        return new CatalogoAcciones(acciones);
+    }
+
+    /**
+     * Busca una acción por su nombre, sin distinguir mayúsculas.
+     *
+     * @param nombre Nombre de la acción.
+     * @return La acción, o null si no está en el catálogo.
+     */
+    public Accion get(String nombre) {
+        return porNombre.get(nombre.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Obtiene una acción por su posición en el catálogo.
+     *
+     * @param indice Posición de la acción.
+     * @return La acción.
+     * @throws IndexOutOfBoundsException Si no hay ninguna acción en esa
+     * posición.
+     */
+    public Accion get(int indice) {
+        return acciones.get(indice);
+    }
+
+    /**
+     * @return Acciones del catálogo en el orden del fichero
+     */
+    public List<Accion> getAcciones() {
+        return acciones;
+    }
+
+    /**
+     * @return Número de acciones del catálogo
+     */
+    public int getNumAcciones() {
+        return acciones.size();
+    }
+
+    private static Accion analizar(int indice, String linea) {
+        String[] campos = linea.split("\\|", -1);
+        if (campos.length != NUM_CAMPOS) {
+            throw new IllegalArgumentException("se esperaban " + NUM_CAMPOS + " campos y hay " + campos.length);
+        }
+        String nombre = campos[0].trim().toUpperCase(Locale.ROOT);
+        if (nombre.isEmpty()) {
+            throw new IllegalArgumentException("falta el nombre de la acción");
+        }
+        String descripcion = campos[1].trim();
+
+        int[] efecto = new int[StatPerro.values().length];
+        for (String[] par : pares(campos[2])) {
+            efecto[enumerado(StatPerro.class, par[0]).ordinal()] = entero(par[1]);
+        }
+        int[] coste = new int[StatJugador.values().length];
+        for (String[] par : pares(campos[3])) {
+            int cantidad = entero(par[1]);
+            if (cantidad < 0) {
+                throw new IllegalArgumentException("el coste no puede ser negativo: " + par[0] + "=" + par[1]);
+            }
+            coste[enumerado(StatJugador.class, par[0]).ordinal()] = cantidad;
+        }
+        long requiere = estados(campos[4]);
+        long impide = estados(campos[5]);
+        if ((requiere & impide) != 0) {
+            throw new IllegalArgumentException("un estado no puede ser requerido e impedir la acción a la vez");
+        }
+        return new Accion(indice, nombre, descripcion, efecto, coste, requiere, impide);
+    }
+
+    private static List<String[]> pares(String campo) {
+        List<String[]> pares = new ArrayList<>();
+        for (String palabra : palabras(campo)) {
+            int igual = palabra.indexOf('=');
+            if (igual <= 0 || igual == palabra.length() - 1) {
+                throw new IllegalArgumentException("se esperaba STAT=cantidad y hay " + palabra);
+            }
+            pares.add(new String[]{palabra.substring(0, igual), palabra.substring(igual + 1)});
+        }
+        return pares;
+    }
+
+    private static long estados(String campo) {
+        long mascara = 0L;
+        for (String palabra : palabras(campo)) {
+            mascara |= enumerado(Estado.class, palabra).getMascara();
+        }
+        return mascara;
+    }
+
+    private static String[] palabras(String campo) {
+        String limpio = campo.trim();
+        return limpio.isEmpty() ? new String[0] : limpio.split("\\s+");
+    }
+
+    private static <E extends Enum<E>> E enumerado(Class<E> tipo, String texto) {
+        try {
+            return Enum.valueOf(tipo, texto.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(tipo.getSimpleName() + " desconocido: " + texto);
+        }
+    }
+
+    private static int entero(String texto) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("número no válido: " + texto);
+        }
+    }
+
+    /**
+     * Carga perezosa del catálogo por defecto
+     */
+    private static final class PorDefecto {
+
+        static final CatalogoAcciones CATALOGO = cargarRecurso();
+
+        private static CatalogoAcciones cargarRecurso() {
+            InputStream entrada = CatalogoAcciones.class.getResourceAsStream(RECURSO_POR_DEFECTO);
+            if (entrada == null) {
+                throw new IllegalStateException("No se encuentra el catálogo de acciones " + RECURSO_POR_DEFECTO);
+            }
+            try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+                return leer(lector);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("El catálogo de acciones por defecto no es válido. " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package tamagotchi.core;
 
+import tamagotchi.modelos.DeltaStats;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.StatPerro;
+
 /**
  * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
  * Autor: Sergio López Casado
@@ -7,8 +11,53 @@ package tamagotchi.core;
  * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
  * GitHub: https://github.com/Serlopcas
  * Fecha de creación: 31/01/2025
- * Descripción: TODO
+ * Descripción: Sucesos imprevistos que le pueden pasar a un perro. Cada uno
+ * tiene un efecto sobre sus estadísticas y un tiempo medio entre sucesos, a
+ * partir del cual {@link PlanificadorEventos} sortea cuándo vuelve a ocurrir.
  */
-public class EventoAleatorio {
-    
+public enum EventoAleatorio {
+    ENFERMEDAD("Se ha puesto enfermo", 24 * 30,
+            new DeltaStats().con(StatPerro.SALUD, -25).con(StatPerro.FELICIDAD, -10).con(StatPerro.ENERGIA, -20)),
+    ENSUCIARSE("Se ha revolcado en el barro", 24 * 2,
+            new DeltaStats().con(StatPerro.LIMPIEZA, -35).con(StatPerro.FELICIDAD, 5)),
+    SUSTO("Se ha asustado con un ruido", 24 * 3,
+            new DeltaStats().con(StatPerro.ANSIEDAD, 25).con(StatPerro.FELICIDAD, -5));
+
+    private final String descripcion;
+    private final double mediaTicks;
+    private final DeltaStats efecto;
+
+    EventoAleatorio(String descripcion, double mediaTicks, DeltaStats efecto) {
+        this.descripcion = descripcion;
+        this.mediaTicks = mediaTicks;
+        this.efecto = efecto;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * @return Número medio de ticks entre dos sucesos de este tipo en un
+     * mismo perro
+     */
+    public double getMediaTicks() {
+        return mediaTicks;
+    }
+
+    /**
+     * Aplica el efecto del suceso a un perro.
+     *
+     * @param perro Perro afectado.
+     * @return Transición de estados provocada, empaquetada según
+     * {@link tamagotchi.modelos.Estado#transicion(long, long)}.
+     */
+    public long aplicar(Perro perro) {
+        return perro.aplicar(efecto);
+    }
+
+    @Override
+    public String toString() {
+        return descripcion;
+    }
 }
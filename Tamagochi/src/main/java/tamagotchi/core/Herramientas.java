@@ -1,5 +1,8 @@
 package tamagotchi.core;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
  * Autor: Sergio López Casado
@@ -9,9 +12,61 @@ package tamagotchi.core;
  * Fecha de creación: 29/01/2025
  * Descripción: Clase de utilidad que proporciona métodos estáticos auxiliares
  * para el juego.
+ *
+ * Además del ajuste de un valor suelto incluye operaciones en bloque sobre
+ * columnas de estadísticas de un byte por perro, como las de
+ * {@link tamagotchi.modelos.Perrera}. Comprueban sus parámetros una vez por
+ * llamada y no por valor. Si el proyecto se compila con el perfil
+ * {@code vectorial} ({@code mvn -Pvectorial}) y la JVM arranca con
+ * {@code --add-modules jdk.incubator.vector}, se ejecutan con instrucciones
+ * SIMD mediante la API de vectores; si no, o con
+ * {@code -Dtamagotchi.vectorial=false}, con bucles escalares. Ambas versiones
+ * dan exactamente el mismo resultado.
  */
 public class Herramientas {
 
+    /**
+     * Versiones SIMD de las operaciones en bloque, o null si no se usan
+     */
+    private static final OperacionesBloque VECTORES = cargarVectores();
+
+    /**
+     * Indica si las operaciones en bloque usan la API de vectores. Se decide
+     * una sola vez al cargar la clase.
+     */
+    public static final boolean VECTORIAL = VECTORES != null;
+
+    /**
+     * Operaciones en bloque con otra implementación, que reciben los
+     * parámetros ya comprobados. La implementación SIMD está en
+     * {@code src/vector/java} y solo se compila con el perfil
+     * {@code vectorial}, para que la compilación normal no dependa de un
+     * módulo en incubación.
+     */
+    interface OperacionesBloque {
+
+        void ajustar(byte[] columna, int desde, int hasta, int min, int max);
+
+        void sumarYAjustar(byte[] columna, int posColumna, byte[] cambios, int posCambios, int longitud,
+                int min, int max);
+
+        int marcarEntre(byte[] columna, int desde, int hasta, int min, int max, long[] bits);
+    }
+
+    private static OperacionesBloque cargarVectores() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()
+                || !Boolean.parseBoolean(System.getProperty("tamagotchi.vectorial", "true"))) {
+            return null;
+        }
+        try {
+            return (OperacionesBloque) Class.forName("tamagotchi.core.HerramientasVectoriales")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Compilado sin el perfil vectorial
+            return null;
+        }
+    }
+
     /**
      * Método de clamp para asegurar que un valor esté dentro de un rango dado.
      *
@@ -30,4 +85,129 @@ public class Herramientas {
         }
         return (int) Math.min(max, Math.max(value, min));
     }
+
+    /**
+     * Ajusta cada valor de un rango de una columna a un intervalo.
+     *
+     * @param columna Columna de valores.
+     * @param desde Primera posición (incluida).
+     * @param hasta Última posición (excluida).
+     * @param min Valor mínimo permitido, entre 0 y 127.
+     * @param max Valor máximo permitido, entre {@code min} y 127.
+     * @throws IllegalArgumentException Si los límites no son válidos.
+     * @throws IndexOutOfBoundsException Si el rango no es válido.
+     */
+    public static void ajustar(byte[] columna, int desde, int hasta, int min, int max) {
+        comprobarLimites(min, max);
+        Objects.checkFromToIndex(desde, hasta, columna.length);
+        if (VECTORIAL) {
+            VECTORES.ajustar(columna, desde, hasta, min, max);
+            return;
+        }
+        for (int i = desde; i < hasta; i++) {
+            columna[i] = (byte) Math.min(max, Math.max(columna[i], min));
+        }
+    }
+
+    /**
+     * Suma a cada valor de un tramo de una columna el cambio de la misma
+     * posición en un tramo de otra y ajusta el resultado a un intervalo, como
+     * si se sumara sin límite de tamaño. Se usa para aplicar a toda la
+     * población un cambio que depende de cada perro, por ejemplo el
+     * decaimiento ya escalado por sus modificadores.
+     *
+     * @param columna Columna de valores, todos no negativos.
+     * @param posColumna Primera posición del tramo en la columna.
+     * @param cambios Cambio de cada posición, con cualquier signo.
+     * @param posCambios Primera posición del tramo en los cambios.
+     * @param longitud Número de valores del tramo.
+     * @param min Valor mínimo permitido, entre 0 y 127.
+     * @param max Valor máximo permitido, entre {@code min} y 127.
+     * @throws IllegalArgumentException Si los límites no son válidos.
+     * @throws IndexOutOfBoundsException Si algún tramo no es válido.
+     */
+    public static void sumarYAjustar(byte[] columna, int posColumna, byte[] cambios, int posCambios, int longitud,
+            int min, int max) {
+        comprobarLimites(min, max);
+        Objects.checkFromIndexSize(posColumna, longitud, columna.length);
+        Objects.checkFromIndexSize(posCambios, longitud, cambios.length);
+        if (VECTORIAL) {
+            VECTORES.sumarYAjustar(columna, posColumna, cambios, posCambios, longitud, min, max);
+            return;
+        }
+        for (int i = 0; i < longitud; i++) {
+            int pos = posColumna + i;
+            columna[pos] = (byte) Math.min(max, Math.max(columna[pos] + cambios[posCambios + i], min));
+        }
+    }
+
+    /**
+     * Marca en un conjunto de bits las posiciones de un rango de una columna
+     * cuyo valor está dentro de un intervalo, como los umbrales de un
+     * {@link tamagotchi.modelos.Estado}. El bit {@code i - desde} queda a 1
+     * si {@code min <= columna[i] <= max}; las palabras que cubren el rango se
+     * sobrescriben enteras.
+     *
+     * @param columna Columna de valores.
+     * @param desde Primera posición (incluida).
+     * @param hasta Última posición (excluida).
+     * @param min Valor mínimo del intervalo (incluido).
+     * @param max Valor máximo del intervalo (incluido).
+     * @param bits Conjunto de bits de destino, con al menos
+     * {@code (hasta - desde + 63) / 64} palabras.
+     * @return Número de posiciones marcadas.
+     * @throws IndexOutOfBoundsException Si el rango no es válido o el
+     * conjunto de bits es demasiado pequeño.
+     */
+    public static int marcarEntre(byte[] columna, int desde, int hasta, int min, int max, long[] bits) {
+        Objects.checkFromToIndex(desde, hasta, columna.length);
+        Objects.checkFromToIndex(0, (hasta - desde + 63) >>> 6, bits.length);
+        if (min > max || max < Byte.MIN_VALUE || min > Byte.MAX_VALUE) {
+            Arrays.fill(bits, 0, (hasta - desde + 63) >>> 6, 0L);
+            return 0;
+        }
+        int minimo = Math.max(min, Byte.MIN_VALUE);
+        int maximo = Math.min(max, Byte.MAX_VALUE);
+        if (VECTORIAL) {
+            return VECTORES.marcarEntre(columna, desde, hasta, minimo, maximo, bits);
+        }
+        return marcarEntreEscalar(columna, desde, hasta, minimo, maximo, bits, 0);
+    }
+
+    /**
+     * Versión escalar de {@link #marcarEntre}, que también termina las
+     * palabras que deja a medias la versión vectorial.
+     *
+     * @param palabra Primera palabra a escribir; {@code desde} debe ser la
+     * posición de su primer bit.
+     */
+    static int marcarEntreEscalar(byte[] columna, int desde, int hasta, int min, int max, long[] bits, int palabra) {
+        int marcados = 0;
+        for (int inicio = desde; inicio < hasta; inicio += 64, palabra++) {
+            int fin = Math.min(hasta, inicio + 64);
+            long bitsPalabra = 0L;
+            for (int i = inicio; i < fin; i++) {
+                int valor = columna[i];
+                if (valor >= min && valor <= max) {
+                    bitsPalabra |= 1L << (i - inicio);
+                }
+            }
+            bits[palabra] = bitsPalabra;
+            marcados += Long.bitCount(bitsPalabra);
+        }
+        return marcados;
+    }
+
+    /**
+     * Comprueba los límites de las operaciones de ajuste en bloque, que
+     * trabajan con valores de un byte sin riesgo de desbordarse.
+     */
+    private static void comprobarLimites(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException(min + " > " + max);
+        }
+        if (min < 0 || max > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Los límites deben estar entre 0 y " + Byte.MAX_VALUE + ".");
+        }
+    }
 }
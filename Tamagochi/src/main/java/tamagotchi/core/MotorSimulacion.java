@@ -0,0 +1,157 @@
+package tamagotchi.core;
+
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import tamagotchi.metricas.Metricas;
+import tamagotchi.metricas.Operacion;
+import tamagotchi.modelos.Perrera;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Reloj de simulación que hace avanzar en el tiempo a toda la
+ * población de una {@link Perrera}. Cada tick se reparte entre varios hilos
+ * mediante fork-join, dividiendo los identificadores de los perros en bloques
+ * disjuntos. Como el avance de cada perro solo depende de sus propios datos y
+ * del número de tick, el resultado es idéntico sea cual sea el número de
+ * hilos.
+ */
+public class MotorSimulacion implements AutoCloseable {
+
+    /**
+     * Número de perros por debajo del cual un bloque ya no se divide
+     */
+    private static final int TAMANNO_BLOQUE = 8192;
+
+    /**
+     * Perrera cuya población se simula
+     */
+    private final Perrera perrera;
+
+    /**
+     * Pool de hilos que ejecuta los ticks
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Crea un motor que usa tantos hilos como procesadores disponibles.
+     *
+     * @param perrera Perrera cuya población se simula.
+     */
+    public MotorSimulacion(Perrera perrera) {
+        this(perrera, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Crea un motor con un número concreto de hilos de trabajo.
+     *
+     * @param perrera Perrera cuya población se simula.
+     * @param trabajadores Número de hilos de trabajo.
+     * @throws IllegalArgumentException Si el número de hilos es menor que 1.
+     */
+    public MotorSimulacion(Perrera perrera, int trabajadores) {
+        if (trabajadores < 1) {
+            throw new IllegalArgumentException("Debe haber al menos un hilo de trabajo.");
+        }
+        this.perrera = perrera;
+        this.pool = new ForkJoinPool(trabajadores);
+        Metricas.vigilar(perrera);
+    }
+
+    /**
+     * Simula un tick sobre toda la población. Si la perrera es perezosa solo
+     * avanza su reloj, sin recorrer a los perros.
+     *
+     * @return Número de perros cuyos estados han cambiado en el tick (siempre
+     * 0 con una perrera perezosa, cuyos perros cambian al ponerse al día).
+     */
+    public int avanzar() {
+        if (perrera.isPerezosa()) {
+            perrera.avanzarReloj(1);
+            return 0;
+        }
+        long tick = perrera.getTick();
+        long inicio = Metricas.inicio(Operacion.TICK);
+        int cambiados = pool.invoke(new TareaTick(perrera, 0, perrera.getTamanno(), tick));
+        perrera.completarTick(tick);
+        Metricas.tick(tick, perrera.getTamanno(), cambiados, inicio);
+        return cambiados;
+    }
+
+    /**
+     * Simula varios ticks seguidos sobre toda la población.
+     *
+     * @param ticks Número de ticks a simular.
+     * @return Número total de cambios de estados en todos los ticks.
+     */
+    public long avanzar(int ticks) {
+        long cambiados = 0;
+        for (int i = 0; i < ticks; i++) {
+            cambiados += avanzar();
+        }
+        return cambiados;
+    }
+
+    /**
+     * @return Número del próximo tick a simular, que lleva la propia
+     * perrera
+     */
+    public long getTick() {
+        return perrera.getTick();
+    }
+
+    /**
+     * @return Número de hilos de trabajo del motor
+     */
+    public int getTrabajadores() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Tarea que avanza un tick sobre un rango de perros, dividiéndolo en dos
+     * mitades alineadas a {@link Perrera#ALINEACION_RANGOS} mientras sea mayor
+     * que {@link #TAMANNO_BLOQUE}. Es serializable por heredar de
+     * {@link RecursiveTask}, pero nunca se serializa.
+     */
+    private static class TareaTick extends RecursiveTask<Integer> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Perrera perrera;
+        private final int desde;
+        private final int hasta;
+        private final long tick;
+
+        TareaTick(Perrera perrera, int desde, int hasta, long tick) {
+            this.perrera = perrera;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.tick = tick;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (hasta - desde <= TAMANNO_BLOQUE) {
+                return perrera.avanzar(desde, hasta, tick);
+            }
+            // El punto de corte se alinea para que los hilos no compartan
+            // palabras del índice de estados
+            int mitad = ((desde + hasta) >>> 1) & -Perrera.ALINEACION_RANGOS;
+            TareaTick izquierda = new TareaTick(perrera, desde, mitad, tick);
+            izquierda.fork();
+            int derecha = new TareaTick(perrera, mitad, hasta, tick).compute();
+            return derecha + izquierda.join();
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package tamagotchi.core;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import tamagotchi.modelos.ObservadorPerrera;
+import tamagotchi.modelos.Perrera;
+import tamagotchi.modelos.StatPerro;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Planificador de {@link EventoAleatorio} para los perros de una
+ * {@link Perrera}, basado en una rueda de tiempos jerárquica: cuatro niveles
+ * de 256 ranuras, en los que cada ranura del nivel k abarca 256^k ticks.
+ * Programar y cancelar un suceso son O(1) (enlazarlo o desenlazarlo de la
+ * lista de su ranura) y cada tick vacía de una vez la ranura que vence; cuando
+ * un nivel da la vuelta, la ranura correspondiente del nivel superior se
+ * redistribuye en los inferiores.
+ *
+ * Los sucesos pendientes se guardan en arrays primitivos reutilizables en
+ * lugar de en objetos, para que millones de perros no supongan millones de
+ * objetos vivos. Los retrasos aleatorios salen de un generador con semilla,
+ * así que la misma secuencia de llamadas produce siempre los mismos sucesos.
+ *
+ * El planificador observa la perrera para seguir a los perros por su
+ * identificador: al dar de baja un perro se cancelan sus sucesos y los del
+ * perro que pasa a ocupar su hueco se trasladan con él. Cada baja recorre
+ * todos los sucesos, pero las bajas son raras frente a los ticks.
+ *
+ * El planificador no es seguro para hilos. Para repartir una población grande
+ * entre varios hilos basta con usar un planificador por rango de perros.
+ */
+public final class PlanificadorEventos implements ObservadorPerrera, AutoCloseable {
+
+    private static final EventoAleatorio[] EVENTOS = EventoAleatorio.values();
+
+    private static final int BITS_NIVEL = 8;
+    private static final int RANURAS = 1 << BITS_NIVEL;
+    private static final int MASCARA_RANURA = RANURAS - 1;
+    private static final int NIVELES = 4;
+
+    /**
+     * Mayor retraso que cabe en la rueda; los sucesos más lejanos se colocan
+     * en la última ranura y se recolocan al llegar a ella
+     */
+    private static final long RETRASO_MAXIMO = (1L << (BITS_NIVEL * NIVELES)) - 1;
+
+    private static final int NINGUNO = -1;
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private final Perrera perrera;
+    private final SplittableRandom aleatorio;
+
+    /**
+     * Primer suceso de cada ranura, por nivel: {@code nivel * RANURAS + ranura}
+     */
+    private final int[] cabezas = new int[NIVELES * RANURAS];
+
+    // Datos de cada suceso, indexados por su posición
+    private int[] perros = new int[CAPACIDAD_INICIAL];
+    private byte[] eventos = new byte[CAPACIDAD_INICIAL];
+    private boolean[] recurrentes = new boolean[CAPACIDAD_INICIAL];
+    private long[] vencimientos = new long[CAPACIDAD_INICIAL];
+    private int[] siguientes = new int[CAPACIDAD_INICIAL];
+    private int[] anteriores = new int[CAPACIDAD_INICIAL];
+    private int[] generaciones = new int[CAPACIDAD_INICIAL];
+
+    /**
+     * Ranura en la que está cada suceso, o {@link #NINGUNO} si está libre
+     */
+    private int[] ranuras = new int[CAPACIDAD_INICIAL];
+
+    /**
+     * Primera posición libre; las libres se encadenan con {@link #siguientes}
+     */
+    private int libre = NINGUNO;
+    private int usados;
+    private int pendientes;
+    private long tick;
+
+    /**
+     * Suceso que se está aplicando, ya fuera de su ranura, o
+     * {@link #NINGUNO}
+     */
+    private int enCurso = NINGUNO;
+
+    /**
+     * Se ha dado de baja al perro del suceso en curso mientras se aplicaba
+     */
+    private boolean enCursoEliminado;
+
+    /**
+     * Crea un planificador vacío y lo registra como observador de la
+     * perrera.
+     *
+     * @param perrera Perrera cuyos perros reciben los sucesos.
+     * @param semilla Semilla de los retrasos aleatorios.
+     */
+    public PlanificadorEventos(Perrera perrera, long semilla) {
+        this.perrera = perrera;
+        this.aleatorio = new SplittableRandom(semilla);
+        Arrays.fill(cabezas, NINGUNO);
+        perrera.agregarObservador(this);
+    }
+
+    /**
+     * Programa un suceso único para un perro.
+     *
+     * @param id Identificador del perro.
+     * @param evento Suceso a programar.
+     * @param retraso Número de ticks hasta que ocurra (0 para el próximo).
+     * @return Identificador de la programación, para poder cancelarla.
+     * @throws IllegalArgumentException Si el retraso es negativo.
+     */
+    public long programar(int id, EventoAleatorio evento, long retraso) {
+        return programar(id, evento, retraso, false);
+    }
+
+    /**
+     * Programa un suceso recurrente para un perro: ocurre tras un retraso
+     * aleatorio de media {@link EventoAleatorio#getMediaTicks()} y, cada vez
+     * que ocurre, se vuelve a sortear el siguiente.
+     *
+     * @param id Identificador del perro.
+     * @param evento Suceso a programar.
+     * @return Identificador de la programación, que sirve para cancelar
+     * también las repeticiones.
+     */
+    public long programarAleatorio(int id, EventoAleatorio evento) {
+        return programar(id, evento, retrasoAleatorio(evento), true);
+    }
+
+    /**
+     * Programa todos los sucesos recurrentes para todos los perros de la
+     * perrera.
+     */
+    public void programarTodos() {
+        for (int id = 0, n = perrera.getTamanno(); id < n; id++) {
+            for (EventoAleatorio evento : EVENTOS) {
+                programarAleatorio(id, evento);
+            }
+        }
+    }
+
+    private long programar(int id, EventoAleatorio evento, long retraso, boolean recurrente) {
+        if (retraso < 0) {
+            throw new IllegalArgumentException("El retraso no puede ser negativo.");
+        }
+        int e = reservar();
+        perros[e] = id;
+        eventos[e] = (byte) evento.ordinal();
+        recurrentes[e] = recurrente;
+        vencimientos[e] = tick + retraso;
+        colocar(e);
+        pendientes++;
+        return (long) generaciones[e] << 32 | e;
+    }
+
+    /**
+     * Cancela un suceso programado.
+     *
+     * @param programacion Identificador devuelto al programarlo.
+     * @return true si estaba pendiente, false si ya había ocurrido (y no era
+     * recurrente) o ya se había cancelado.
+     */
+    public boolean cancelar(long programacion) {
+        int e = (int) programacion;
+        if (e < 0 || e >= usados || generaciones[e] != (int) (programacion >>> 32) || ranuras[e] == NINGUNO) {
+            return false;
+        }
+        desenlazar(e);
+        liberar(e);
+        pendientes--;
+        return true;
+    }
+
+    /**
+     * Avanza un tick: ejecuta los sucesos que vencen en él, aplicando su efecto
+     * a través de {@link tamagotchi.modelos.Perro}, y vuelve a programar los
+     * recurrentes.
+     *
+     * @return Número de sucesos ocurridos.
+     */
+    public int avanzar() {
+        if ((tick & MASCARA_RANURA) == 0) {
+            for (int nivel = 1; nivel < NIVELES; nivel++) {
+                int ranura = (int) (tick >>> (nivel * BITS_NIVEL)) & MASCARA_RANURA;
+                redistribuir(nivel * RANURAS + ranura);
+                if (ranura != 0) {
+                    break;
+                }
+            }
+        }
+
+        int ranura = (int) tick & MASCARA_RANURA;
+        int ocurridos = 0;
+        for (int e = cabezas[ranura]; e != NINGUNO; e = cabezas[ranura]) {
+            desenlazar(e);
+            // Un observador de la perrera podría dar de baja al perro
+            // mientras se aplica el suceso
+            enCurso = e;
+            enCursoEliminado = false;
+            try {
+                EVENTOS[eventos[e]].aplicar(perrera.get(perros[e]));
+            } finally {
+                enCurso = NINGUNO;
+            }
+            ocurridos++;
+            if (recurrentes[e] && !enCursoEliminado) {
+                vencimientos[e] = tick + retrasoAleatorio(EVENTOS[eventos[e]]);
+                colocar(e);
+            } else {
+                liberar(e);
+                pendientes--;
+            }
+        }
+        tick++;
+        return ocurridos;
+    }
+
+    /**
+     * Avanza varios ticks seguidos.
+     *
+     * @param ticks Número de ticks a avanzar.
+     * @return Número total de sucesos ocurridos.
+     */
+    public long avanzar(int ticks) {
+        long ocurridos = 0;
+        for (int i = 0; i < ticks; i++) {
+            ocurridos += avanzar();
+        }
+        return ocurridos;
+    }
+
+    @Override
+    public void statCambiado(int id, StatPerro stat, int valor) {
+        // Los sucesos no dependen de las estadísticas
+    }
+
+    /**
+     * Cancela los sucesos pendientes del perro dado de baja.
+     */
+    @Override
+    public void perroEliminado(int id) {
+        for (int e = 0; e < usados; e++) {
+            if (ranuras[e] != NINGUNO && perros[e] == id) {
+                desenlazar(e);
+                liberar(e);
+                pendientes--;
+            }
+        }
+        if (enCurso != NINGUNO && perros[enCurso] == id) {
+            enCursoEliminado = true;
+        }
+    }
+
+    /**
+     * Pasa los sucesos del perro movido a su nuevo identificador.
+     */
+    @Override
+    public void perroMovido(int desde, int hacia) {
+        for (int e = 0; e < usados; e++) {
+            if ((ranuras[e] != NINGUNO || e == enCurso) && perros[e] == desde) {
+                perros[e] = hacia;
+            }
+        }
+    }
+
+    /**
+     * Deja de observar la perrera. Los sucesos pendientes se conservan, pero
+     * ya no siguen las bajas.
+     */
+    @Override
+    public void close() {
+        perrera.quitarObservador(this);
+    }
+
+    /**
+     * @return Próximo tick a procesar
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return Número de sucesos programados pendientes
+     */
+    public int getPendientes() {
+        return pendientes;
+    }
+
+    /**
+     * Sortea el retraso hasta el próximo suceso con una distribución
+     * exponencial, de modo que los sucesos de cada perro forman un proceso de
+     * Poisson. Siempre es al menos de un tick.
+     */
+    private long retrasoAleatorio(EventoAleatorio evento) {
+        double retraso = -Math.log(1.0 - aleatorio.nextDouble()) * evento.getMediaTicks();
+        return 1 + (long) Math.min(retraso, RETRASO_MAXIMO);
+    }
+
+    /**
+     * Enlaza un suceso en la ranura que le corresponde según lo que falta
+     * para su vencimiento.
+     */
+    private void colocar(int e) {
+        long retraso = Math.min(vencimientos[e] - tick, RETRASO_MAXIMO);
+        long vencimiento = tick + retraso;
+        int nivel = 0;
+        while (retraso >= 1L << ((nivel + 1) * BITS_NIVEL)) {
+            nivel++;
+        }
+        int posicion = nivel * RANURAS + ((int) (vencimiento >>> (nivel * BITS_NIVEL)) & MASCARA_RANURA);
+        int cabeza = cabezas[posicion];
+        siguientes[e] = cabeza;
+        anteriores[e] = NINGUNO;
+        if (cabeza != NINGUNO) {
+            anteriores[cabeza] = e;
+        }
+        cabezas[posicion] = e;
+        ranuras[e] = posicion;
+    }
+
+    private void desenlazar(int e) {
+        int siguiente = siguientes[e];
+        int anterior = anteriores[e];
+        if (anterior == NINGUNO) {
+            cabezas[ranuras[e]] = siguiente;
+        } else {
+            siguientes[anterior] = siguiente;
+        }
+        if (siguiente != NINGUNO) {
+            anteriores[siguiente] = anterior;
+        }
+        ranuras[e] = NINGUNO;
+    }
+
+    /**
+     * Vuelve a colocar todos los sucesos de una ranura de un nivel superior,
+     * que ahora caerán en niveles inferiores.
+     */
+    private void redistribuir(int posicion) {
+        int e = cabezas[posicion];
+        cabezas[posicion] = NINGUNO;
+        while (e != NINGUNO) {
+            int siguiente = siguientes[e];
+            colocar(e);
+            e = siguiente;
+        }
+    }
+
+    private int reservar() {
+        if (libre != NINGUNO) {
+            int e = libre;
+            libre = siguientes[e];
+            return e;
+        }
+        if (usados == perros.length) {
+            crecer();
+        }
+        return usados++;
+    }
+
+    private void liberar(int e) {
+        generaciones[e]++;
+        ranuras[e] = NINGUNO;
+        siguientes[e] = libre;
+        libre = e;
+    }
+
+    private void crecer() {
+        int nuevaCapacidad = perros.length << 1;
+        perros = Arrays.copyOf(perros, nuevaCapacidad);
+        eventos = Arrays.copyOf(eventos, nuevaCapacidad);
+        recurrentes = Arrays.copyOf(recurrentes, nuevaCapacidad);
+        vencimientos = Arrays.copyOf(vencimientos, nuevaCapacidad);
+        siguientes = Arrays.copyOf(siguientes, nuevaCapacidad);
+        anteriores = Arrays.copyOf(anteriores, nuevaCapacidad);
+        generaciones = Arrays.copyOf(generaciones, nuevaCapacidad);
+        ranuras = Arrays.copyOf(ranuras, nuevaCapacidad);
+    }
+}
@@ -0,0 +1,263 @@
+package tamagotchi.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import tamagotchi.metricas.Histograma;
+import tamagotchi.modelos.Estado;
+import tamagotchi.modelos.FranjaEdad;
+import tamagotchi.modelos.Raza;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Resultados de una ejecución de {@link SimuladorBalance}. Para
+ * cada combinación de raza, franja de edad y {@link Estado} guarda la
+ * fracción del tiempo que los perros han pasado en el estado, cuántas veces
+ * han entrado en él y un histograma de cuánto ha durado cada vez.
+ *
+ * Los episodios que siguen abiertos al acabar el horizonte se cuentan con la
+ * duración que llevaban, así que para estados muy persistentes las
+ * duraciones son un límite inferior; {@link #getAbiertos} dice cuántos hay.
+ */
+public final class ResultadoBalance {
+
+    private static final Raza[] RAZAS = Raza.values();
+    private static final FranjaEdad[] FRANJAS = FranjaEdad.values();
+    private static final Estado[] ESTADOS = Estado.values();
+
+    private final int perrosPorCelda;
+    private final int horizonte;
+    private final int numCubetas;
+    private final long[] ocupacion;
+    private final long[] episodios;
+    private final long[] abiertos;
+    private final long[] duraciones;
+    private final long[] cuidados;
+    private final long[] omitidos;
+
+    ResultadoBalance(int perrosPorCelda, int horizonte, int numCubetas, long[] ocupacion, long[] episodios,
+            long[] abiertos, long[] duraciones, long[] cuidados, long[] omitidos) {
+        this.perrosPorCelda = perrosPorCelda;
+        this.horizonte = horizonte;
+        this.numCubetas = numCubetas;
+        this.ocupacion = ocupacion;
+        this.episodios = episodios;
+        this.abiertos = abiertos;
+        this.duraciones = duraciones;
+        this.cuidados = cuidados;
+        this.omitidos = omitidos;
+    }
+
+    /**
+     * @return Perros simulados por cada combinación de raza y franja
+     */
+    public int getPerrosPorCelda() {
+        return perrosPorCelda;
+    }
+
+    /**
+     * @return Número total de perros simulados
+     */
+    public long getPerros() {
+        return (long) perrosPorCelda * SimuladorBalance.NUM_CELDAS;
+    }
+
+    /**
+     * @return Ticks simulados por perro
+     */
+    public int getHorizonte() {
+        return horizonte;
+    }
+
+    /**
+     * Obtiene la fracción del tiempo que los perros de una raza y franja
+     * han pasado en un estado.
+     *
+     * @param raza Raza.
+     * @param franja Franja de edad.
+     * @param estado Estado.
+     * @return Ocupación entre 0 y 1.
+     */
+    public double getOcupacion(Raza raza, FranjaEdad franja, Estado estado) {
+        return (double) ocupacion[indice(raza, franja, estado)] / ((double) perrosPorCelda * horizonte);
+    }
+
+    /**
+     * Obtiene la fracción del tiempo que todos los perros simulados han
+     * pasado en un estado.
+     *
+     * @param estado Estado.
+     * @return Ocupación entre 0 y 1.
+     */
+    public double getOcupacion(Estado estado) {
+        long total = 0;
+        for (int c = 0; c < SimuladorBalance.NUM_CELDAS; c++) {
+            total += ocupacion[c * ESTADOS.length + estado.ordinal()];
+        }
+        return (double) total / ((double) getPerros() * horizonte);
+    }
+
+    /**
+     * @return Veces que los perros de una raza y franja han entrado en un
+     * estado (o empezado en él)
+     */
+    public long getEpisodios(Raza raza, FranjaEdad franja, Estado estado) {
+        return episodios[indice(raza, franja, estado)];
+    }
+
+    /**
+     * @return Episodios de un estado que seguían abiertos al acabar el
+     * horizonte
+     */
+    public long getAbiertos(Raza raza, FranjaEdad franja, Estado estado) {
+        return abiertos[indice(raza, franja, estado)];
+    }
+
+    /**
+     * @return Duración media en ticks de los episodios de un estado, 0 si no
+     * hay ninguno
+     */
+    public double getDuracionMedia(Raza raza, FranjaEdad franja, Estado estado) {
+        int i = indice(raza, franja, estado);
+        return episodios[i] == 0 ? 0.0 : (double) ocupacion[i] / episodios[i];
+    }
+
+    /**
+     * Estima un percentil de la duración de los episodios de un estado.
+     *
+     * @param raza Raza.
+     * @param franja Franja de edad.
+     * @param estado Estado.
+     * @param percentil Percentil entre 0 y 100.
+     * @return Duración en ticks, 0 si no hay episodios.
+     * @throws IllegalArgumentException Si el percentil está fuera de rango.
+     */
+    public long getPercentilDuracion(Raza raza, FranjaEdad franja, Estado estado, double percentil) {
+        long[] cubetas = new long[numCubetas];
+        System.arraycopy(duraciones, indice(raza, franja, estado) * numCubetas, cubetas, 0, numCubetas);
+        return percentil(cubetas, percentil);
+    }
+
+    /**
+     * Estima un percentil de la duración de los episodios de un estado entre
+     * todos los perros simulados.
+     *
+     * @param estado Estado.
+     * @param percentil Percentil entre 0 y 100.
+     * @return Duración en ticks, 0 si no hay episodios.
+     * @throws IllegalArgumentException Si el percentil está fuera de rango.
+     */
+    public long getPercentilDuracion(Estado estado, double percentil) {
+        long[] cubetas = new long[numCubetas];
+        for (int c = 0; c < SimuladorBalance.NUM_CELDAS; c++) {
+            int desde = (c * ESTADOS.length + estado.ordinal()) * numCubetas;
+            for (int b = 0; b < numCubetas; b++) {
+                cubetas[b] += duraciones[desde + b];
+            }
+        }
+        return percentil(cubetas, percentil);
+    }
+
+    /**
+     * @return Cuidados aplicados a los perros de una raza y franja
+     */
+    public long getCuidados(Raza raza, FranjaEdad franja) {
+        return cuidados[SimuladorBalance.celda(raza, franja)];
+    }
+
+    /**
+     * @return Cuidados que no se han podido aplicar por los estados del perro
+     */
+    public long getCuidadosOmitidos(Raza raza, FranjaEdad franja) {
+        return omitidos[SimuladorBalance.celda(raza, franja)];
+    }
+
+    /**
+     * Escribe todos los resultados en CSV, con una fila por raza, franja y
+     * estado.
+     *
+     * @param destino Destino del texto.
+     * @throws IOException Si falla el destino.
+     */
+    public void escribirCsv(Appendable destino) throws IOException {
+        destino.append("raza,franja,estado,ocupacion,episodios,abiertos,duracion_media,p50,p90,p99\n");
+        for (Raza raza : RAZAS) {
+            for (FranjaEdad franja : FRANJAS) {
+                for (Estado estado : ESTADOS) {
+                    destino.append(raza.name()).append(',').append(franja.name()).append(',')
+                            .append(estado.name()).append(',')
+                            .append(String.format(Locale.ROOT, "%.6f,%d,%d,%.2f,%d,%d,%d",
+                                    getOcupacion(raza, franja, estado),
+                                    getEpisodios(raza, franja, estado),
+                                    getAbiertos(raza, franja, estado),
+                                    getDuracionMedia(raza, franja, estado),
+                                    getPercentilDuracion(raza, franja, estado, 50),
+                                    getPercentilDuracion(raza, franja, estado, 90),
+                                    getPercentilDuracion(raza, franja, estado, 99)))
+                            .append('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Resumen por estado de toda la población simulada.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%d perros x %d ticks%n", getPerros(), horizonte));
+        sb.append(String.format(Locale.ROOT, "%-20s %9s %8s %8s%n", "Estado", "Ocupación", "p50", "p90"));
+        for (Estado estado : ESTADOS) {
+            sb.append(String.format(Locale.ROOT, "%-20s %8.2f%% %8d %8d%n", estado.name(),
+                    getOcupacion(estado) * 100, getPercentilDuracion(estado, 50), getPercentilDuracion(estado, 90)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escribe los resultados en CSV sobre un {@link StringBuilder}.
+     *
+     * @return Texto CSV.
+     */
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            escribirCsv(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder nunca lanza IOException
+        }
+        return sb.toString();
+    }
+
+    private int indice(Raza raza, FranjaEdad franja, Estado estado) {
+        return SimuladorBalance.celda(raza, franja) * ESTADOS.length + estado.ordinal();
+    }
+
+    private long percentil(long[] cubetas, double percentil) {
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100.");
+        }
+        long total = 0;
+        for (long n : cubetas) {
+            total += n;
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long objetivo = Math.max(1L, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int b = 0; b < cubetas.length; b++) {
+            acumulado += cubetas[b];
+            if (acumulado >= objetivo) {
+                return Math.min(Histograma.limiteSuperior(b), horizonte);
+            }
+        }
+        return horizonte;
+    }
+}
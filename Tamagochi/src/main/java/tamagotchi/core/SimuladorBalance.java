@@ -0,0 +1,500 @@
+package tamagotchi.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import tamagotchi.metricas.Histograma;
+import tamagotchi.modelos.Estado;
+import tamagotchi.modelos.FranjaEdad;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.Raza;
+import tamagotchi.modelos.StatPerro;
+import tamagotchi.modelos.TablaModificadores;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Simulador de Monte Carlo para equilibrar la
+ * {@link TablaModificadores} y los umbrales de {@link Estado}. Simula la vida
+ * de muchos perros de cada combinación de {@link Raza} y {@link FranjaEdad}
+ * durante un horizonte de ticks y mide cuánto tiempo pasan en cada estado y
+ * cuánto dura cada vez que entran en él.
+ *
+ * Cada perro empieza con los stats de un perro recién creado y decae igual
+ * que en {@link tamagotchi.modelos.Perrera}. Su dueño le aplica una acción
+ * del {@link CatalogoAcciones} elegida al azar a intervalos exponenciales;
+ * si los estados del perro no la permiten, ese cuidado se pierde.
+ *
+ * La simulación avanza por eventos y no tick a tick. Entre dos cuidados cada
+ * stat varía siempre en el mismo sentido, así que se calcula en forma
+ * cerrada el tick exacto en el que cruzará su próximo umbral, y solo se
+ * visitan esos cruces y los cuidados.
+ *
+ * Los perros se reparten en bloques, cada uno con su propio generador
+ * derivado de la semilla antes de empezar. Cada hilo acumula sus
+ * resultados en arrays propios, sin asignar memoria por perro, y al final se
+ * suman. Como las sumas no dependen del orden, el resultado es idéntico sea
+ * cual sea el número de hilos.
+ */
+public class SimuladorBalance {
+
+    private static final StatPerro[] STATS = StatPerro.values();
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final FranjaEdad[] FRANJAS = FranjaEdad.values();
+
+    private static final int NUM_STATS = STATS.length;
+    private static final int NUM_ESTADOS = ESTADOS.length;
+
+    /**
+     * Número de combinaciones de raza y franja de edad
+     */
+    public static final int NUM_CELDAS = Raza.values().length * FRANJAS.length;
+
+    /**
+     * Perros por bloque de trabajo
+     */
+    private static final int TAMANNO_BLOQUE = 4096;
+
+    private static final int MIN = 0;
+    private static final int MAX = 100;
+
+    /**
+     * Tick de un evento que no va a ocurrir
+     */
+    private static final long NUNCA = Long.MAX_VALUE;
+
+    /**
+     * Estados asociados a cada stat
+     */
+    private static final long[] MASCARAS = new long[NUM_STATS];
+
+    /**
+     * Para cada stat y valor, el valor más cercano por encima en el que
+     * cambian sus estados, o -1 si no hay ninguno
+     */
+    private static final int[][] CAMBIO_ARRIBA = new int[NUM_STATS][MAX + 1];
+
+    /**
+     * Para cada stat y valor, el valor más cercano por debajo en el que
+     * cambian sus estados, o -1 si no hay ninguno
+     */
+    private static final int[][] CAMBIO_ABAJO = new int[NUM_STATS][MAX + 1];
+
+    static {
+        for (StatPerro stat : STATS) {
+            int s = stat.ordinal();
+            MASCARAS[s] = Estado.mascaraDe(stat);
+            for (int v = MIN; v <= MAX; v++) {
+                long actuales = Estado.activosCon(stat, v);
+                int arriba = v + 1;
+                while (arriba <= MAX && Estado.activosCon(stat, arriba) == actuales) {
+                    arriba++;
+                }
+                CAMBIO_ARRIBA[s][v] = arriba <= MAX ? arriba : -1;
+                int abajo = v - 1;
+                while (abajo >= MIN && Estado.activosCon(stat, abajo) == actuales) {
+                    abajo--;
+                }
+                CAMBIO_ABAJO[s][v] = abajo >= MIN ? abajo : -1;
+            }
+        }
+    }
+
+    private final int horizonte;
+    private final double mediaCuidados;
+    private final int numAcciones;
+    private final int numCubetas;
+
+    /**
+     * Modificador de cada stat, por celda: {@code [celda * NUM_STATS + s]}
+     */
+    private final double[] mods = new double[NUM_CELDAS * NUM_STATS];
+
+    /**
+     * Decaimiento por tick de cada stat, por celda
+     */
+    private final double[] ritmos = new double[NUM_CELDAS * NUM_STATS];
+
+    /**
+     * Inverso del decaimiento de cada stat, por celda, o 0 si no decae
+     */
+    private final double[] inversos = new double[NUM_CELDAS * NUM_STATS];
+
+    /**
+     * Efecto escalado de cada acción, por celda:
+     * {@code [(celda * numAcciones + a) * NUM_STATS + s]}
+     */
+    private final int[] efectos;
+
+    private final long[] requiere;
+    private final long[] impide;
+
+    /**
+     * Crea un simulador.
+     *
+     * @param catalogo Acciones que puede aplicar el dueño.
+     * @param horizonte Ticks que se simula cada perro.
+     * @param mediaCuidados Ticks medios entre dos cuidados, o
+     * {@link Double#POSITIVE_INFINITY} para que nadie cuide a los perros.
+     * @throws IllegalArgumentException Si los parámetros no son válidos.
+     */
+    public SimuladorBalance(CatalogoAcciones catalogo, int horizonte, double mediaCuidados) {
+        if (horizonte < 1) {
+            throw new IllegalArgumentException("El horizonte debe ser de al menos un tick.");
+        }
+        if (!(mediaCuidados > 0)) {
+            throw new IllegalArgumentException("La media de ticks entre cuidados debe ser positiva.");
+        }
+        if (catalogo.getNumAcciones() == 0 && mediaCuidados != Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("El catálogo no tiene acciones con las que cuidar a los perros.");
+        }
+        this.horizonte = horizonte;
+        this.mediaCuidados = mediaCuidados;
+        this.numAcciones = catalogo.getNumAcciones();
+        this.numCubetas = Histograma.cubeta(horizonte) + 1;
+        this.efectos = new int[NUM_CELDAS * numAcciones * NUM_STATS];
+        this.requiere = new long[numAcciones];
+        this.impide = new long[numAcciones];
+
+        for (Raza raza : Raza.values()) {
+            for (FranjaEdad franja : FRANJAS) {
+                int celda = celda(raza, franja);
+                for (StatPerro stat : STATS) {
+                    double mod = TablaModificadores.getMod(raza, franja, stat);
+                    mods[celda * NUM_STATS + stat.ordinal()] = mod;
+                    double ritmo = stat.getDecaimiento() * mod;
+                    ritmos[celda * NUM_STATS + stat.ordinal()] = ritmo;
+                    inversos[celda * NUM_STATS + stat.ordinal()] = ritmo == 0 ? 0.0 : 1.0 / ritmo;
+                }
+                for (int a = 0; a < numAcciones; a++) {
+                    Accion accion = catalogo.get(a);
+                    for (StatPerro stat : STATS) {
+                        efectos[(celda * numAcciones + a) * NUM_STATS + stat.ordinal()]
+                                = accion.getEfecto(stat, raza, franja);
+                    }
+                }
+            }
+        }
+        for (int a = 0; a < numAcciones; a++) {
+            requiere[a] = catalogo.get(a).getRequiere();
+            impide[a] = catalogo.get(a).getImpide();
+        }
+    }
+
+    /**
+     * Simula la misma cantidad de perros en cada combinación de raza y franja
+     * de edad.
+     *
+     * @param perrosPorCelda Perros a simular por combinación.
+     * @param semilla Semilla maestra.
+     * @param hilos Número de hilos.
+     * @return Resultados agregados.
+     * @throws IllegalArgumentException Si los parámetros no son válidos.
+     */
+    public ResultadoBalance simular(int perrosPorCelda, long semilla, int hilos) {
+        if (perrosPorCelda < 1) {
+            throw new IllegalArgumentException("Hay que simular al menos un perro por combinación.");
+        }
+        if (hilos < 1) {
+            throw new IllegalArgumentException("Debe haber al menos un hilo.");
+        }
+        int bloquesPorCelda = (perrosPorCelda + TAMANNO_BLOQUE - 1) / TAMANNO_BLOQUE;
+        int numBloques = NUM_CELDAS * bloquesPorCelda;
+
+        // Los generadores se derivan en orden antes de repartir el trabajo
+        SplittableRandom maestro = new SplittableRandom(semilla);
+        SplittableRandom[] generadores = new SplittableRandom[numBloques];
+        for (int b = 0; b < numBloques; b++) {
+            generadores[b] = maestro.split();
+        }
+
+        AtomicInteger siguiente = new AtomicInteger();
+        List<Trabajador> trabajadores = new ArrayList<>();
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            Trabajador trabajador = new Trabajador();
+            trabajadores.add(trabajador);
+            tareas.add(() -> {
+                int b;
+                while ((b = siguiente.getAndIncrement()) < numBloques) {
+                    int celda = b / bloquesPorCelda;
+                    int desde = (b % bloquesPorCelda) * TAMANNO_BLOQUE;
+                    int cantidad = Math.min(TAMANNO_BLOQUE, perrosPorCelda - desde);
+                    for (int i = 0; i < cantidad; i++) {
+                        trabajador.simular(celda, generadores[b]);
+                    }
+                }
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            for (Future<Void> resultado : pool.invokeAll(tareas)) {
+                resultado.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulación de balance interrumpida.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error en la simulación de balance.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        Trabajador total = trabajadores.get(0);
+        for (int h = 1; h < trabajadores.size(); h++) {
+            total.sumar(trabajadores.get(h));
+        }
+        return new ResultadoBalance(perrosPorCelda, horizonte, numCubetas, total.ocupacion, total.episodios,
+                total.abiertos, total.duraciones, total.cuidados, total.omitidos);
+    }
+
+    /**
+     * @return Ticks que se simula cada perro
+     */
+    public int getHorizonte() {
+        return horizonte;
+    }
+
+    /**
+     * @return Ticks medios entre dos cuidados
+     */
+    public double getMediaCuidados() {
+        return mediaCuidados;
+    }
+
+    /**
+     * Obtiene el índice de una combinación de raza y franja de edad.
+     *
+     * @param raza Raza.
+     * @param franja Franja de edad.
+     * @return Índice entre 0 y {@link #NUM_CELDAS} - 1.
+     */
+    static int celda(Raza raza, FranjaEdad franja) {
+        return raza.ordinal() * FRANJAS.length + franja.ordinal();
+    }
+
+    /**
+     * Parte entera por abajo de un número pequeño. Equivale a
+     * {@link Math#floor} sin pasar por coma flotante en el resultado.
+     */
+    private static long suelo(double x) {
+        long n = (long) x;
+        return x < n ? n - 1 : n;
+    }
+
+    /**
+     * Simula perros uno tras otro sobre arrays reutilizados y acumula sus
+     * resultados. Cada hilo tiene el suyo.
+     */
+    private final class Trabajador {
+
+        // Estado del perro en curso. Cada stat sigue una recta desde su
+        // ancla: el tick y el valor tras el último cuidado que lo cambió,
+        // junto con el decaimiento acumulado hasta ese tick
+        private final int[] anclaValor = new int[NUM_STATS];
+        private final long[] anclaTick = new long[NUM_STATS];
+        private final long[] anclaSuelo = new long[NUM_STATS];
+        private final long[] cruce = new long[NUM_STATS];
+        private final long[] inicio = new long[NUM_ESTADOS];
+        private int base;
+
+        // Resultados acumulados, por celda y estado
+        private final long[] ocupacion = new long[NUM_CELDAS * NUM_ESTADOS];
+        private final long[] episodios = new long[NUM_CELDAS * NUM_ESTADOS];
+        private final long[] abiertos = new long[NUM_CELDAS * NUM_ESTADOS];
+        private final long[] duraciones = new long[NUM_CELDAS * NUM_ESTADOS * numCubetas];
+        private final long[] cuidados = new long[NUM_CELDAS];
+        private final long[] omitidos = new long[NUM_CELDAS];
+
+        /**
+         * Simula la vida de un perro de una celda.
+         */
+        void simular(int celda, SplittableRandom aleatorio) {
+            base = celda * NUM_STATS;
+            long mascara = 0L;
+            for (int s = 0; s < NUM_STATS; s++) {
+                int valor = Perro.valorInicial(STATS[s], mods[base + s], aleatorio);
+                anclaValor[s] = valor;
+                anclaTick[s] = 0;
+                anclaSuelo[s] = 0;
+                mascara |= Estado.activosCon(STATS[s], valor);
+            }
+            for (long m = mascara; m != 0; m &= m - 1) {
+                inicio[Long.numberOfTrailingZeros(m)] = 0;
+            }
+            for (int s = 0; s < NUM_STATS; s++) {
+                cruce[s] = siguienteCruce(s, 0, anclaValor[s]);
+            }
+
+            long proximoCuidado = espera(0, aleatorio);
+            while (true) {
+                // Los cruces van antes que un cuidado en el mismo tick
+                long t = proximoCuidado;
+                int s = -1;
+                for (int i = 0; i < NUM_STATS; i++) {
+                    if (cruce[i] <= t) {
+                        t = cruce[i];
+                        s = i;
+                    }
+                }
+                if (t >= horizonte) {
+                    break;
+                }
+                if (s >= 0) {
+                    int valor = valorEn(s, t);
+                    mascara = cambiar(celda, mascara, (mascara & ~MASCARAS[s]) | Estado.activosCon(STATS[s], valor), t);
+                    cruce[s] = siguienteCruce(s, t, valor);
+                } else {
+                    mascara = cuidar(celda, mascara, t, aleatorio);
+                    proximoCuidado = espera(t, aleatorio);
+                }
+            }
+
+            for (long m = mascara; m != 0; m &= m - 1) {
+                int e = Long.numberOfTrailingZeros(m);
+                abiertos[celda * NUM_ESTADOS + e]++;
+                registrar(celda, e, horizonte - inicio[e]);
+            }
+        }
+
+        /**
+         * Aplica al perro una acción al azar, si sus estados lo permiten.
+         */
+        private long cuidar(int celda, long mascara, long t, SplittableRandom aleatorio) {
+            int a = aleatorio.nextInt(numAcciones);
+            if ((mascara & requiere[a]) != requiere[a] || (mascara & impide[a]) != 0) {
+                omitidos[celda]++;
+                return mascara;
+            }
+            cuidados[celda]++;
+            int fila = (celda * numAcciones + a) * NUM_STATS;
+            long nueva = mascara;
+            for (int s = 0; s < NUM_STATS; s++) {
+                int efecto = efectos[fila + s];
+                if (efecto != 0) {
+                    int valor = Herramientas.clamp(valorEn(s, t) + efecto, MIN, MAX);
+                    anclaValor[s] = valor;
+                    anclaTick[s] = t;
+                    anclaSuelo[s] = suelo(ritmos[base + s] * t);
+                    nueva = (nueva & ~MASCARAS[s]) | Estado.activosCon(STATS[s], valor);
+                    cruce[s] = siguienteCruce(s, t, valor);
+                }
+            }
+            return cambiar(celda, mascara, nueva, t);
+        }
+
+        /**
+         * Aplica un cambio de estados en el tick t, abriendo y cerrando
+         * episodios.
+         */
+        private long cambiar(int celda, long anteriores, long nuevos, long t) {
+            for (long m = nuevos & ~anteriores; m != 0; m &= m - 1) {
+                inicio[Long.numberOfTrailingZeros(m)] = t;
+            }
+            for (long m = anteriores & ~nuevos; m != 0; m &= m - 1) {
+                int e = Long.numberOfTrailingZeros(m);
+                registrar(celda, e, t - inicio[e]);
+            }
+            return nuevos;
+        }
+
+        private void registrar(int celda, int e, long duracion) {
+            int i = celda * NUM_ESTADOS + e;
+            ocupacion[i] += duracion;
+            episodios[i]++;
+            duraciones[i * numCubetas + Histograma.cubeta(duracion)]++;
+        }
+
+        /**
+         * Valor de un stat tras t ticks, siguiendo la recta desde su ancla y
+         * ajustado a sus límites. Como el stat siempre varía en el mismo
+         * sentido, ajustarlo al final equivale a hacerlo en cada tick.
+         */
+        private int valorEn(int s, long t) {
+            double ritmo = ritmos[base + s];
+            long cambio = suelo(ritmo * t) - anclaSuelo[s];
+            return Herramientas.clamp(anclaValor[s] + cambio, MIN, MAX);
+        }
+
+        /**
+         * Calcula el primer tick posterior a t en el que cambian los estados
+         * asociados a un stat que ahora vale {@code valor}, si no se le
+         * aplica ningún cuidado.
+         *
+         * @return Tick del cruce, o {@link #NUNCA} si no llega a otro umbral
+         * dentro del horizonte.
+         */
+        private long siguienteCruce(int s, long t, int valor) {
+            double ritmo = ritmos[base + s];
+            if (ritmo == 0) {
+                return NUNCA;
+            }
+            int objetivo = ritmo > 0 ? CAMBIO_ARRIBA[s][valor] : CAMBIO_ABAJO[s][valor];
+            if (objetivo < 0) {
+                return NUNCA;
+            }
+            // Primer j con suelo(ritmo * j) >= k (o <= k si baja). La
+            // estimación en coma flotante se corrige con aritmética exacta
+            long k = objetivo - anclaValor[s] + anclaSuelo[s];
+            double estimado = Math.ceil(k * inversos[base + s]);
+            if (estimado > horizonte + 1) {
+                return NUNCA;
+            }
+            long j = Math.max(t + 1, (long) estimado);
+            if (ritmo > 0) {
+                while (j > t + 1 && suelo(ritmo * (j - 1)) >= k) {
+                    j--;
+                }
+                while (suelo(ritmo * j) < k) {
+                    j++;
+                }
+            } else {
+                while (j > t + 1 && suelo(ritmo * (j - 1)) <= k) {
+                    j--;
+                }
+                while (suelo(ritmo * j) > k) {
+                    j++;
+                }
+            }
+            return j;
+        }
+
+        /**
+         * Tick del próximo cuidado tras t, con una espera exponencial de al
+         * menos un tick.
+         */
+        private long espera(long t, SplittableRandom aleatorio) {
+            if (mediaCuidados == Double.POSITIVE_INFINITY) {
+                return NUNCA;
+            }
+            double ticks = -mediaCuidados * Math.log(1.0 - aleatorio.nextDouble());
+            return t + Math.max(1L, Math.round(ticks));
+        }
+
+        void sumar(Trabajador otro) {
+            sumar(ocupacion, otro.ocupacion);
+            sumar(episodios, otro.episodios);
+            sumar(abiertos, otro.abiertos);
+            sumar(duraciones, otro.duraciones);
+            sumar(cuidados, otro.cuidados);
+            sumar(omitidos, otro.omitidos);
+        }
+
+        private static void sumar(long[] destino, long[] origen) {
+            for (int i = 0; i < destino.length; i++) {
+                destino[i] += origen[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package tamagotchi.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Evento periódico de JDK Flight Recorder con el número de
+ * perros de cada raza en las perreras vigiladas por {@link Metricas}.
+ */
+@Name("tamagotchi.Poblacion")
+@Label("Población por raza")
+@Category("Tamagotchi")
+@Description("Número de perros de una raza en las perreras simuladas")
+@Period("1 s")
+class EventoPoblacion extends Event {
+
+    @Label("Raza")
+    String raza;
+
+    @Label("Perros")
+    int perros;
+}
@@ -0,0 +1,35 @@
+package tamagotchi.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Evento de JDK Flight Recorder con la duración de cada tick de
+ * simulación.
+ */
+@Name("tamagotchi.Tick")
+@Label("Tick de simulación")
+@Category("Tamagotchi")
+@StackTrace(false)
+@Description("Avance de un tick sobre toda la población de una perrera")
+class EventoTick extends Event {
+
+    @Label("Tick")
+    long tick;
+
+    @Label("Perros")
+    int perros;
+
+    @Label("Perros con cambios de estado")
+    int cambios;
+}
@@ -0,0 +1,39 @@
+package tamagotchi.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Evento de JDK Flight Recorder con las transiciones de un
+ * estado durante un tick. Se emite uno por cada estado que ha cambiado en
+ * algún perro.
+ */
+@Name("tamagotchi.Transiciones")
+@Label("Transiciones de estado")
+@Category("Tamagotchi")
+@StackTrace(false)
+@Description("Perros que han entrado en un estado o salido de él durante un tick")
+class EventoTransiciones extends Event {
+
+    @Label("Tick")
+    long tick;
+
+    @Label("Estado")
+    String estado;
+
+    @Label("Entradas")
+    long entradas;
+
+    @Label("Salidas")
+    long salidas;
+}
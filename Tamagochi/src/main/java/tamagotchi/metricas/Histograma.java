@@ -0,0 +1,159 @@
+package tamagotchi.metricas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Histograma de latencias de tamaño fijo que admite registros
+ * desde varios hilos sin bloqueos ni asignaciones. Los valores se agrupan en
+ * cubetas log-lineales: cada potencia de dos se divide en
+ * {@link #SUBCUBETAS} partes iguales, así que los percentiles tienen un
+ * error relativo máximo del 12,5% para cualquier magnitud, desde
+ * nanosegundos hasta horas.
+ */
+public final class Histograma {
+
+    /**
+     * Bits de precisión dentro de cada potencia de dos
+     */
+    private static final int BITS_SUBCUBETA = 3;
+
+    /**
+     * Cubetas en las que se divide cada potencia de dos
+     */
+    public static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+
+    private static final int NUM_CUBETAS = (64 - BITS_SUBCUBETA + 1) * SUBCUBETAS;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(NUM_CUBETAS);
+    private final LongAdder cuenta = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Registra un valor. Los valores negativos se cuentan como 0.
+     *
+     * @param valor Valor a registrar, normalmente en nanosegundos.
+     */
+    public void registrar(long valor) {
+        long v = Math.max(valor, 0L);
+        cubetas.getAndIncrement(cubeta(v));
+        cuenta.increment();
+        suma.add(v);
+        maximo.accumulate(v);
+    }
+
+    /**
+     * @return Número de valores registrados
+     */
+    public long getCuenta() {
+        return cuenta.sum();
+    }
+
+    /**
+     * @return Suma de todos los valores registrados
+     */
+    public long getSuma() {
+        return suma.sum();
+    }
+
+    /**
+     * @return Mayor valor registrado, 0 si no hay ninguno
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * @return Media de los valores registrados, 0 si no hay ninguno
+     */
+    public double getMedia() {
+        long n = getCuenta();
+        return n == 0 ? 0.0 : (double) getSuma() / n;
+    }
+
+    /**
+     * Estima un percentil. Devuelve el límite superior de la cubeta en la
+     * que cae, por lo que nunca se queda por debajo del valor real.
+     *
+     * @param percentil Percentil entre 0 y 100.
+     * @return Valor estimado, 0 si no hay registros.
+     * @throws IllegalArgumentException Si el percentil está fuera de rango.
+     */
+    public long getPercentil(double percentil) {
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100.");
+        }
+        long total = 0;
+        long[] copia = new long[NUM_CUBETAS];
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long objetivo = Math.max(1L, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+    /**
+     * Borra todos los registros. No es atómico respecto a registros
+     * concurrentes, que pueden quedar contados solo en parte.
+     */
+    public void reiniciar() {
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            cubetas.set(i, 0L);
+        }
+        cuenta.reset();
+        suma.reset();
+        maximo.reset();
+    }
+
+    /**
+     * Calcula la cubeta de un valor no negativo. Los valores menores que
+     * {@link #SUBCUBETAS} tienen cubeta propia; el resto se reparte según su
+     * bit más alto y los {@link #BITS_SUBCUBETA} bits siguientes. Sirve para
+     * llevar histogramas compatibles en arrays propios.
+     *
+     * @param valor Valor no negativo.
+     * @return Índice de su cubeta.
+     */
+    public static int cubeta(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int magnitud = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (magnitud - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return (magnitud - BITS_SUBCUBETA + 1) * SUBCUBETAS + sub;
+    }
+
+    /**
+     * @param cubeta Índice de una cubeta.
+     * @return Mayor valor que cae en la cubeta
+     */
+    public static long limiteSuperior(int cubeta) {
+        if (cubeta < SUBCUBETAS) {
+            return cubeta;
+        }
+        int magnitud = cubeta / SUBCUBETAS + BITS_SUBCUBETA - 1;
+        long sub = cubeta % SUBCUBETAS;
+        long inferior = (SUBCUBETAS + sub) << (magnitud - BITS_SUBCUBETA);
+        long superior = inferior + (1L << (magnitud - BITS_SUBCUBETA)) - 1;
+        return superior < 0 ? Long.MAX_VALUE : superior;
+    }
+}
@@ -0,0 +1,367 @@
+package tamagotchi.metricas;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.FlightRecorder;
+import tamagotchi.modelos.Estado;
+import tamagotchi.modelos.Perrera;
+import tamagotchi.modelos.Raza;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Instrumentación de la simulación: llamadas y latencias de
+ * las {@link Operacion} de los caminos calientes, contadores de transiciones por
+ * {@link Estado} y eventos de JDK Flight Recorder con la duración de los
+ * ticks, las transiciones de cada tick y la población por raza.
+ *
+ * Todo depende de {@link #ACTIVAS}, que se fija al arrancar con
+ * {@code -Dtamagotchi.metricas=true}. Todos los métodos de medida la
+ * comprueban antes de hacer nada; como es una constante, cuando está
+ * desactivada el compilador JIT los reduce a nada al integrarlos en quien los
+ * llama y la instrumentación no cuesta nada.
+ *
+ * Las métricas se pueden volcar en texto, con el formato de exposición de
+ * Prometheus, o en JSON.
+ */
+public final class Metricas {
+
+    /**
+     * Indica si la instrumentación está activada
+     */
+    public static final boolean ACTIVAS = Boolean.getBoolean("tamagotchi.metricas");
+
+    private static final Operacion[] OPERACIONES = Operacion.values();
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final Raza[] RAZAS = Raza.values();
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final LongAdder[] LLAMADAS = new LongAdder[OPERACIONES.length];
+    private static final Histograma[] LATENCIAS = new Histograma[OPERACIONES.length];
+    private static final LongAdder[] ENTRADAS = new LongAdder[ESTADOS.length];
+    private static final LongAdder[] SALIDAS = new LongAdder[ESTADOS.length];
+
+    static {
+        for (int i = 0; i < LATENCIAS.length; i++) {
+            LLAMADAS[i] = new LongAdder();
+            LATENCIAS[i] = new Histograma();
+        }
+        for (int i = 0; i < ESTADOS.length; i++) {
+            ENTRADAS[i] = new LongAdder();
+            SALIDAS[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Transiciones ya emitidas en eventos de tick, para emitir solo las
+     * nuevas en cada uno
+     */
+    private static final long[] ENTRADAS_EMITIDAS = new long[ESTADOS.length];
+    private static final long[] SALIDAS_EMITIDAS = new long[ESTADOS.length];
+
+    /**
+     * Perreras cuya población se emite en {@link EventoPoblacion}
+     */
+    private static final Set<Perrera> VIGILADAS = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private static boolean eventoPoblacionRegistrado;
+
+    private Metricas() {
+    }
+
+    /**
+     * Marca el inicio de una operación.
+     *
+     * @param operacion Operación que empieza.
+     * @return Instante actual en nanosegundos si se va a medir esta llamada,
+     * o 0 si no toca medirla o las métricas están desactivadas.
+     */
+    public static long inicio(Operacion operacion) {
+        if (ACTIVAS && (ThreadLocalRandom.current().nextInt() & operacion.mascaraMuestreo) == 0) {
+            return System.nanoTime();
+        }
+        return 0L;
+    }
+
+    /**
+     * Cuenta una llamada a una operación y, si se estaba midiendo, registra
+     * su latencia.
+     *
+     * @param operacion Operación terminada.
+     * @param inicio Valor devuelto por {@link #inicio(Operacion)}.
+     */
+    public static void registrar(Operacion operacion, long inicio) {
+        if (ACTIVAS) {
+            LLAMADAS[operacion.ordinal()].increment();
+            if (inicio != 0L) {
+                LATENCIAS[operacion.ordinal()].registrar(System.nanoTime() - inicio);
+            }
+        }
+    }
+
+    /**
+     * Cuenta las transiciones de un cambio de estados de un perro.
+     *
+     * @param anteriores Máscara de estados anterior.
+     * @param nuevos Máscara de estados nueva.
+     */
+    public static void transicion(long anteriores, long nuevos) {
+        if (!ACTIVAS) {
+            return;
+        }
+        for (long m = nuevos & ~anteriores; m != 0; m &= m - 1) {
+            ENTRADAS[Long.numberOfTrailingZeros(m)].increment();
+        }
+        for (long m = anteriores & ~nuevos; m != 0; m &= m - 1) {
+            SALIDAS[Long.numberOfTrailingZeros(m)].increment();
+        }
+    }
+
+    /**
+     * Registra un tick de simulación completo y emite sus eventos de Flight
+     * Recorder: uno con su duración y uno por cada estado con transiciones
+     * desde el tick anterior.
+     *
+     * @param tick Número del tick.
+     * @param perros Población simulada.
+     * @param cambios Perros con cambios de estado.
+     * @param inicio Valor devuelto por {@link #inicio(Operacion)} al empezar
+     * el tick.
+     */
+    public static void tick(long tick, int perros, int cambios, long inicio) {
+        if (!ACTIVAS) {
+            return;
+        }
+        registrar(Operacion.TICK, inicio);
+
+        EventoTick evento = new EventoTick();
+        if (evento.isEnabled()) {
+            evento.tick = tick;
+            evento.perros = perros;
+            evento.cambios = cambios;
+            evento.commit();
+        }
+        emitirTransiciones(tick);
+    }
+
+    /**
+     * Da por emitidas las transiciones contadas hasta ahora, para que el
+     * primer tick de una simulación no incluya las de la creación de sus
+     * perros.
+     */
+    private static synchronized void marcarEmitidas() {
+        for (int i = 0; i < ESTADOS.length; i++) {
+            ENTRADAS_EMITIDAS[i] = ENTRADAS[i].sum();
+            SALIDAS_EMITIDAS[i] = SALIDAS[i].sum();
+        }
+    }
+
+    private static synchronized void emitirTransiciones(long tick) {
+        if (!new EventoTransiciones().isEnabled()) {
+            return;
+        }
+        for (int i = 0; i < ESTADOS.length; i++) {
+            long entradas = ENTRADAS[i].sum();
+            long salidas = SALIDAS[i].sum();
+            if (entradas != ENTRADAS_EMITIDAS[i] || salidas != SALIDAS_EMITIDAS[i]) {
+                EventoTransiciones evento = new EventoTransiciones();
+                evento.tick = tick;
+                evento.estado = ESTADOS[i].name();
+                evento.entradas = entradas - ENTRADAS_EMITIDAS[i];
+                evento.salidas = salidas - SALIDAS_EMITIDAS[i];
+                evento.commit();
+                ENTRADAS_EMITIDAS[i] = entradas;
+                SALIDAS_EMITIDAS[i] = salidas;
+            }
+        }
+    }
+
+    /**
+     * Añade una perrera a las que se cuentan en el evento periódico de
+     * población por raza. Las perreras se guardan con referencias débiles y
+     * dejan de contarse cuando ya no se usan. Lo llama el
+     * {@link tamagotchi.core.MotorSimulacion} al crearse, así que las
+     * transiciones anteriores a la simulación no aparecen en los eventos de
+     * tick.
+     *
+     * @param perrera Perrera a vigilar.
+     */
+    public static void vigilar(Perrera perrera) {
+        if (!ACTIVAS) {
+            return;
+        }
+        marcarEmitidas();
+        synchronized (VIGILADAS) {
+            VIGILADAS.add(perrera);
+            if (!eventoPoblacionRegistrado) {
+                FlightRecorder.addPeriodicEvent(EventoPoblacion.class, Metricas::emitirPoblacion);
+                eventoPoblacionRegistrado = true;
+            }
+        }
+    }
+
+    private static void emitirPoblacion() {
+        int[] total = new int[RAZAS.length];
+        synchronized (VIGILADAS) {
+            for (Perrera perrera : VIGILADAS) {
+                // Lee los contadores de la perrera, no sus columnas: es seguro
+                // aunque la simulación esté dando altas y bajas a la vez
+                int[] porRaza = perrera.contarPorRaza();
+                for (int r = 0; r < total.length; r++) {
+                    total[r] += porRaza[r];
+                }
+            }
+        }
+        for (Raza raza : RAZAS) {
+            EventoPoblacion evento = new EventoPoblacion();
+            evento.raza = raza.name();
+            evento.perros = total[raza.ordinal()];
+            evento.commit();
+        }
+    }
+
+    /**
+     * @param operacion Operación a consultar.
+     * @return Número de llamadas a la operación
+     */
+    public static long getLlamadas(Operacion operacion) {
+        return LLAMADAS[operacion.ordinal()].sum();
+    }
+
+    /**
+     * Obtiene el histograma de latencias de una operación, con solo las
+     * llamadas que se han medido.
+     *
+     * @param operacion Operación a consultar.
+     * @return Histograma en nanosegundos.
+     */
+    public static Histograma getLatencias(Operacion operacion) {
+        return LATENCIAS[operacion.ordinal()];
+    }
+
+    /**
+     * @param estado Estado a consultar.
+     * @return Veces que algún perro ha entrado en el estado
+     */
+    public static long getEntradas(Estado estado) {
+        return ENTRADAS[estado.ordinal()].sum();
+    }
+
+    /**
+     * @param estado Estado a consultar.
+     * @return Veces que algún perro ha salido del estado
+     */
+    public static long getSalidas(Estado estado) {
+        return SALIDAS[estado.ordinal()].sum();
+    }
+
+    /**
+     * Borra todas las latencias y contadores.
+     */
+    public static synchronized void reiniciar() {
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            LLAMADAS[i].reset();
+            LATENCIAS[i].reiniciar();
+        }
+        for (int i = 0; i < ESTADOS.length; i++) {
+            ENTRADAS[i].reset();
+            SALIDAS[i].reset();
+            ENTRADAS_EMITIDAS[i] = 0;
+            SALIDAS_EMITIDAS[i] = 0;
+        }
+    }
+
+    /**
+     * Vuelca las métricas en el formato de texto de Prometheus.
+     *
+     * @param destino Destino del texto.
+     * @throws IOException Si falla el destino.
+     */
+    public static void volcarTexto(Appendable destino) throws IOException {
+        destino.append("# HELP tamagotchi_metricas_activas Instrumentación activada (1) o no (0)\n")
+                .append("# TYPE tamagotchi_metricas_activas gauge\n")
+                .append("tamagotchi_metricas_activas ").append(ACTIVAS ? "1" : "0").append('\n');
+
+        destino.append("# HELP tamagotchi_operaciones_total Llamadas a cada operación\n")
+                .append("# TYPE tamagotchi_operaciones_total counter\n");
+        for (Operacion operacion : OPERACIONES) {
+            destino.append("tamagotchi_operaciones_total{operacion=\"").append(operacion.name()).append("\"} ")
+                    .append(Long.toString(getLlamadas(operacion))).append('\n');
+        }
+
+        destino.append("# HELP tamagotchi_latencia_ns Latencia de las llamadas medidas en nanosegundos\n")
+                .append("# TYPE tamagotchi_latencia_ns summary\n");
+        for (Operacion operacion : OPERACIONES) {
+            Histograma h = LATENCIAS[operacion.ordinal()];
+            String etiqueta = "operacion=\"" + operacion.name() + "\"";
+            for (double p : PERCENTILES) {
+                destino.append("tamagotchi_latencia_ns{").append(etiqueta)
+                        .append(",quantile=\"").append(formatear(p / 100)).append("\"} ")
+                        .append(Long.toString(h.getPercentil(p))).append('\n');
+            }
+            destino.append("tamagotchi_latencia_ns_sum{").append(etiqueta).append("} ")
+                    .append(Long.toString(h.getSuma())).append('\n');
+            destino.append("tamagotchi_latencia_ns_count{").append(etiqueta).append("} ")
+                    .append(Long.toString(h.getCuenta())).append('\n');
+        }
+
+        destino.append("# HELP tamagotchi_transiciones_total Perros que han entrado en un estado o salido de él\n")
+                .append("# TYPE tamagotchi_transiciones_total counter\n");
+        for (Estado estado : ESTADOS) {
+            destino.append("tamagotchi_transiciones_total{estado=\"").append(estado.name())
+                    .append("\",sentido=\"entrada\"} ").append(Long.toString(getEntradas(estado))).append('\n');
+            destino.append("tamagotchi_transiciones_total{estado=\"").append(estado.name())
+                    .append("\",sentido=\"salida\"} ").append(Long.toString(getSalidas(estado))).append('\n');
+        }
+    }
+
+    /**
+     * Vuelca las métricas como un objeto JSON.
+     *
+     * @param destino Destino del texto.
+     * @throws IOException Si falla el destino.
+     */
+    public static void volcarJson(Appendable destino) throws IOException {
+        destino.append("{\"activas\":").append(Boolean.toString(ACTIVAS)).append(",\"latencias_ns\":{");
+        for (Operacion operacion : OPERACIONES) {
+            Histograma h = LATENCIAS[operacion.ordinal()];
+            if (operacion.ordinal() > 0) {
+                destino.append(',');
+            }
+            destino.append('"').append(operacion.name()).append("\":{\"llamadas\":")
+                    .append(Long.toString(getLlamadas(operacion)))
+                    .append(",\"medidas\":").append(Long.toString(h.getCuenta()))
+                    .append(",\"media\":").append(formatear(h.getMedia()));
+            for (double p : PERCENTILES) {
+                destino.append(",\"p").append(formatear(p).replace('.', '_')).append("\":")
+                        .append(Long.toString(h.getPercentil(p)));
+            }
+            destino.append(",\"max\":").append(Long.toString(h.getMaximo())).append('}');
+        }
+        destino.append("},\"transiciones\":{");
+        for (Estado estado : ESTADOS) {
+            if (estado.ordinal() > 0) {
+                destino.append(',');
+            }
+            destino.append('"').append(estado.name()).append("\":{\"entradas\":")
+                    .append(Long.toString(getEntradas(estado)))
+                    .append(",\"salidas\":").append(Long.toString(getSalidas(estado))).append('}');
+        }
+        destino.append("}}\n");
+    }
+
+    private static String formatear(double valor) {
+        return valor == Math.rint(valor)
+                ? Long.toString((long) valor)
+                : String.format(Locale.ROOT, "%.3f", valor).replaceAll("0+$", "");
+    }
+}
@@ -0,0 +1,48 @@
+package tamagotchi.metricas;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Operaciones de los caminos calientes de la simulación que
+ * cuenta {@link Metricas}. De cada operación se mide la latencia de una de
+ * cada {@link #getMuestreo()} llamadas elegida al azar, para que medir las
+ * más rápidas no cueste más que ejecutarlas.
+ */
+public enum Operacion {
+    CONSTRUIR("Construcción de un perro", 16),
+    SET_STAT("Cambio de un stat de un perro", 64),
+    ACTUALIZAR_ESTADOS("Recálculo de los estados de un perro", 64),
+    RENDERIZAR("Ficha de estado de un perro", 16),
+    TICK("Tick de simulación de toda la población", 1);
+
+    private final String descripcion;
+
+    /**
+     * Máscara para elegir una de cada {@code muestreo} llamadas
+     */
+    final int mascaraMuestreo;
+
+    /**
+     * @param descripcion Descripción de la operación.
+     * @param muestreo Llamadas por cada latencia medida, potencia de dos.
+     */
+    Operacion(String descripcion, int muestreo) {
+        this.descripcion = descripcion;
+        this.mascaraMuestreo = muestreo - 1;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * @return Número de llamadas por cada latencia medida
+     */
+    public int getMuestreo() {
+        return mascaraMuestreo + 1;
+    }
+}
@@ -0,0 +1,268 @@
+package tamagotchi.modelos;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Bus de publicación/suscripción de las transiciones de estados
+ * de los perros de una {@link Perrera}. Cada vez que un perro entra o sale de
+ * un {@link Estado} (por setStat, por un lote de cambios o por el avance de
+ * la simulación) se publica un {@link TransicionEstado} que un hilo propio del
+ * bus reparte a los {@link ObservadorEstados} suscritos.
+ *
+ * Los eventos se guardan en un buffer circular preasignado de varios
+ * productores y un consumidor: los productores reservan huecos con una
+ * operación CAS y marcan cada hueco como publicado escribiendo su número de
+ * secuencia, sin cerrojos ni asignaciones. El consumidor lee en lotes todos
+ * los huecos publicados seguidos. Si el buffer está lleno porque los
+ * suscriptores no dan abasto, los eventos nuevos se descartan y se cuentan
+ * en {@link #getPerdidos()}: publicar nunca bloquea.
+ */
+public final class BusEstados implements AutoCloseable {
+
+    /**
+     * Capacidad del buffer por defecto
+     */
+    public static final int CAPACIDAD_POR_DEFECTO = 1 << 16;
+
+    private static final VarHandle PUBLICADOS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Perrera perrera;
+    private final int mascara;
+    private final EsperaBus espera;
+
+    /**
+     * Identificador, estado y sentido de cada evento, empaquetados como
+     * {@code id << 32 | estado << 1 | entrado}
+     */
+    private final long[] eventos;
+
+    /**
+     * Tick de cada evento
+     */
+    private final long[] ticks;
+
+    /**
+     * Número de secuencia del último evento publicado en cada hueco
+     */
+    private final long[] publicados;
+
+    /**
+     * Siguiente número de secuencia a reservar
+     */
+    private final AtomicLong reservado = new AtomicLong();
+
+    /**
+     * Siguiente número de secuencia a repartir: todos los anteriores ya se
+     * han entregado y sus huecos pueden reutilizarse
+     */
+    private volatile long consumido;
+
+    private final LongAdder perdidos = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+
+    private volatile ObservadorEstados[] observadores = new ObservadorEstados[0];
+    private volatile boolean cerrado;
+    private final Thread repartidor;
+
+    /**
+     * Crea un bus con la capacidad y la estrategia de espera por defecto y
+     * lo conecta a una perrera.
+     *
+     * @param perrera Perrera cuyas transiciones se publican.
+     */
+    public BusEstados(Perrera perrera) {
+        this(perrera, CAPACIDAD_POR_DEFECTO, EsperaBus.DORMIR);
+    }
+
+    /**
+     * Crea un bus y lo conecta a una perrera.
+     *
+     * @param perrera Perrera cuyas transiciones se publican.
+     * @param capacidad Número de eventos que caben en el buffer (potencia de
+     * dos).
+     * @param espera Estrategia de espera del hilo repartidor.
+     * @throws IllegalArgumentException Si la capacidad no es una potencia de
+     * dos positiva.
+     * @throws IllegalStateException Si la perrera ya tiene un bus conectado.
+     */
+    public BusEstados(Perrera perrera, int capacidad, EsperaBus espera) {
+        if (capacidad < 1 || Integer.bitCount(capacidad) != 1) {
+            throw new IllegalArgumentException("La capacidad del bus debe ser una potencia de dos.");
+        }
+        this.perrera = perrera;
+        this.mascara = capacidad - 1;
+        this.espera = Objects.requireNonNull(espera);
+        this.eventos = new long[capacidad];
+        this.ticks = new long[capacidad];
+        this.publicados = new long[capacidad];
+        Arrays.fill(publicados, -1L);
+
+        perrera.conectarBus(this);
+        this.repartidor = new Thread(this::repartir, "bus-estados");
+        this.repartidor.setDaemon(true);
+        this.repartidor.start();
+    }
+
+    /**
+     * Suscribe un observador a todas las transiciones publicadas a partir
+     * de ahora.
+     *
+     * @param observador Observador a suscribir.
+     */
+    public synchronized void suscribir(ObservadorEstados observador) {
+        ObservadorEstados[] nuevos = Arrays.copyOf(observadores, observadores.length + 1);
+        nuevos[observadores.length] = Objects.requireNonNull(observador);
+        observadores = nuevos;
+    }
+
+    /**
+     * Cancela la suscripción de un observador.
+     *
+     * @param observador Observador a eliminar.
+     * @return true si el observador estaba suscrito.
+     */
+    public synchronized boolean desuscribir(ObservadorEstados observador) {
+        for (int i = 0; i < observadores.length; i++) {
+            if (observadores[i] == observador) {
+                ObservadorEstados[] nuevos = new ObservadorEstados[observadores.length - 1];
+                System.arraycopy(observadores, 0, nuevos, 0, i);
+                System.arraycopy(observadores, i + 1, nuevos, i, nuevos.length - i);
+                observadores = nuevos;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publica un evento por cada estado que cambia entre dos máscaras.
+     * Reserva todos los huecos con una sola operación y, si no caben, los
+     * descarta todos.
+     *
+     * @param id Identificador del perro.
+     * @param anteriores Máscara de estados anterior.
+     * @param nuevos Máscara de estados nueva.
+     * @param tick Tick de simulación.
+     */
+    void publicar(int id, long anteriores, long nuevos, long tick) {
+        long cambios = anteriores ^ nuevos;
+        int n = Long.bitCount(cambios);
+        if (n == 0) {
+            return;
+        }
+        long secuencia;
+        do {
+            secuencia = reservado.get();
+            if (secuencia + n - consumido > eventos.length) {
+                perdidos.add(n);
+                return;
+            }
+        } while (!reservado.compareAndSet(secuencia, secuencia + n));
+
+        for (; cambios != 0; cambios &= cambios - 1, secuencia++) {
+            int estado = Long.numberOfTrailingZeros(cambios);
+            int hueco = (int) secuencia & mascara;
+            eventos[hueco] = (long) id << 32 | estado << 1 | (int) (nuevos >>> estado) & 1;
+            ticks[hueco] = tick;
+            PUBLICADOS.setRelease(publicados, hueco, secuencia);
+        }
+    }
+
+    /**
+     * Bucle del hilo repartidor: entrega en lotes los eventos publicados de
+     * forma consecutiva y espera según la estrategia cuando no hay ninguno.
+     */
+    private void repartir() {
+        TransicionEstado transicion = new TransicionEstado();
+        long siguiente = 0;
+        int intentos = 0;
+        while (true) {
+            long fin = siguiente;
+            while ((long) PUBLICADOS.getAcquire(publicados, (int) fin & mascara) == fin) {
+                fin++;
+            }
+            if (fin == siguiente) {
+                if (cerrado && reservado.get() == siguiente) {
+                    return;
+                }
+                espera.esperar(intentos++);
+                continue;
+            }
+            intentos = 0;
+
+            ObservadorEstados[] actuales = observadores;
+            for (long s = siguiente; s < fin; s++) {
+                int hueco = (int) s & mascara;
+                long evento = eventos[hueco];
+                transicion.cargar((int) (evento >>> 32), (int) evento >>> 1 & 0x3F, (evento & 1) != 0, ticks[hueco]);
+                for (ObservadorEstados observador : actuales) {
+                    try {
+                        observador.transicion(transicion, s == fin - 1);
+                    } catch (RuntimeException e) {
+                        errores.increment();
+                    }
+                }
+            }
+            siguiente = fin;
+            consumido = fin;
+        }
+    }
+
+    /**
+     * @return Número de eventos publicados hasta ahora
+     */
+    public long getPublicados() {
+        return reservado.get();
+    }
+
+    /**
+     * @return Número de eventos descartados por tener el buffer lleno
+     */
+    public long getPerdidos() {
+        return perdidos.sum();
+    }
+
+    /**
+     * @return Número de eventos publicados que aún no se han repartido
+     */
+    public long getPendientes() {
+        return reservado.get() - consumido;
+    }
+
+    /**
+     * @return Número de excepciones lanzadas por los observadores, que se
+     * ignoran para no detener el reparto
+     */
+    public long getErrores() {
+        return errores.sum();
+    }
+
+    /**
+     * Desconecta el bus de la perrera y espera a que se repartan los eventos
+     * ya publicados.
+     */
+    @Override
+    public void close() {
+        if (cerrado) {
+            return;
+        }
+        perrera.desconectarBus(this);
+        cerrado = true;
+        try {
+            repartidor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package tamagotchi.modelos;
+
+import java.util.Arrays;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Conjunto de cambios sobre varias estadísticas de un perro que se
+ * aplican de una sola vez. Cada stat se ajusta a sus límites una única vez y
+ * los estados se recalculan una sola vez por lote, en lugar de una vez por
+ * cada llamada a {@link Perro#setStat}. Un mismo lote puede reutilizarse para
+ * muchos perros.
+ */
+public class DeltaStats {
+
+    /**
+     * Cantidad a sumar a cada estadística, indexada por su ordinal
+     */
+    private final int[] cantidades = new int[Perrera.NUM_STATS];
+
+    /**
+     * Ordinales de las estadísticas con una cantidad distinta de cero
+     */
+    private final int[] tocados = new int[Perrera.NUM_STATS];
+
+    /**
+     * Número de posiciones válidas en {@link #tocados}
+     */
+    private int numTocados;
+
+    /**
+     * Máscara de los estados que dependen de las estadísticas tocadas
+     */
+    private long mascaraEstados;
+
+    /**
+     * Añade una cantidad al cambio de una estadística. Si la estadística ya
+     * tenía un cambio, las cantidades se acumulan.
+     *
+     * @param stat Estadística a modificar.
+     * @param cantidad Cantidad a añadir/sustraer.
+     * @return Este mismo lote, para encadenar llamadas.
+     */
+    public DeltaStats con(StatPerro stat, int cantidad) {
+        cantidades[stat.ordinal()] += cantidad;
+        recalcularTocados();
+        return this;
+    }
+
+    /**
+     * Elimina todos los cambios del lote para poder reutilizarlo.
+     *
+     * @return Este mismo lote, vacío.
+     */
+    public DeltaStats limpiar() {
+        Arrays.fill(cantidades, 0);
+        numTocados = 0;
+        mascaraEstados = 0L;
+        return this;
+    }
+
+    /**
+     * Obtiene la cantidad que el lote suma a una estadística.
+     *
+     * @param stat Estadística a consultar.
+     * @return Cantidad a añadir/sustraer, 0 si no se modifica.
+     */
+    public int getCantidad(StatPerro stat) {
+        return cantidades[stat.ordinal()];
+    }
+
+    /**
+     * @return true si el lote no modifica ninguna estadística
+     */
+    public boolean isVacio() {
+        return numTocados == 0;
+    }
+
+    /**
+     * Recalcula la lista de estadísticas tocadas y la máscara de estados
+     * afectados.
+     */
+    private void recalcularTocados() {
+        numTocados = 0;
+        mascaraEstados = 0L;
+        for (int s = 0; s < cantidades.length; s++) {
+            if (cantidades[s] != 0) {
+                tocados[numTocados++] = s;
+                mascaraEstados |= Estado.mascaraDe(Perrera.STATS[s]);
+            }
+        }
+    }
+
+    int getNumTocados() {
+        return numTocados;
+    }
+
+    int getTocado(int i) {
+        return tocados[i];
+    }
+
+    int getCantidad(int ordinal) {
+        return cantidades[ordinal];
+    }
+
+    long getMascaraEstados() {
+        return mascaraEstados;
+    }
+}
@@ -0,0 +1,927 @@
+package tamagotchi.modelos;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Diario de escritura anticipada de una {@link Perrera}. Entre
+ * dos instantáneas se anota como un registro binario, en un segmento de solo
+ * anexado, todo lo que no se deduce del paso del tiempo: los cambios hechos
+ * con {@link Perro#setStat} o con lotes de cambios, las altas, las bajas, los
+ * cambios de edad y los ticks completados. Cada registro lleva el tick de la
+ * perrera en que se hizo, así que al reproducirlo sobre la instantánea se
+ * simulan entre medias los mismos ticks que en la perrera original.
+ *
+ * Las anotaciones se hacen en el hilo que modifica la perrera y no pueden
+ * bloquear: cada una reserva su hueco en un anillo en memoria con una
+ * operación atómica, copia el registro y lo publica escribiendo su longitud.
+ * Un hilo escritor vuelca de una vez todo lo publicado y hace un único
+ * {@link FileChannel#force} por volcado (commit en grupo), de modo que miles
+ * de cambios comparten el coste de cada sincronización con el disco. Quien
+ * necesite durabilidad espera a que su número de secuencia sea durable. Si el
+ * anillo se llena porque el disco no da abasto, la anotación no espera: el
+ * diario queda desbordado y lo indica con una excepción en la siguiente
+ * sincronización, rotación o cierre.
+ *
+ * Al superar cierto tamaño se abre un segmento nuevo y los antiguos se
+ * compactan en segundo plano: de varios valores de la misma estadística de
+ * un perro, sin altas ni bajas entre medias, solo se conserva el último, y de
+ * los ticks solo el último, porque cada registro ya lleva el suyo.
+ *
+ * Registro (little-endian, de longitud múltiplo de 8):
+ * <pre>
+ * 0  int    longitud del registro
+ * 4  byte   tipo: STAT, TICK, ALTA, BAJA, EDAD o COMPACTADO
+ * 5  byte   ordinal del stat (STAT) o de la raza (ALTA)
+ * 6  byte   valor del stat (STAT)
+ * 8  int    id del perro
+ * 12 long   tick de la perrera al anotarlo (en COMPACTADO, primer segmento
+ *           al que sustituye)
+ * 20        EDAD: double edad en años
+ *           ALTA: int edad en ticks, int longitud del nombre, un byte por
+ *           cada StatPerro (10) y el nombre en UTF-8
+ * fin - 4   int CRC32C de los bytes entre la longitud y el propio CRC
+ * </pre>
+ */
+public class DiarioPerrera implements ObservadorPerrera, AutoCloseable {
+
+    private static final byte TIPO_STAT = 1;
+    private static final byte TIPO_TICK = 2;
+    private static final byte TIPO_ALTA = 3;
+    private static final byte TIPO_BAJA = 4;
+    private static final byte TIPO_EDAD = 5;
+    private static final byte TIPO_COMPACTADO = 6;
+
+    private static final int POS_TIPO = 4;
+    private static final int POS_EXTRA = 5;
+    private static final int POS_VALOR = 6;
+    private static final int POS_ID = 8;
+    private static final int POS_TICK = 12;
+    private static final int POS_DATOS = 20;
+    private static final int POS_LONGITUD_NOMBRE = 24;
+    private static final int POS_STATS = 28;
+    private static final int POS_NOMBRE = POS_STATS + Perrera.NUM_STATS;
+
+    /**
+     * Tamaño de los registros sin datos (STAT, TICK, BAJA y COMPACTADO)
+     */
+    static final int TAMANNO_MINIMO = 24;
+
+    /**
+     * Múltiplo al que se redondea la longitud de cada registro
+     */
+    private static final int ALINEACION = 8;
+
+    /**
+     * Extensión de los ficheros de segmento
+     */
+    private static final String EXTENSION = ".diario";
+
+    /**
+     * Tamaño por defecto a partir del cual se abre un segmento nuevo
+     */
+    private static final long TAMANNO_SEGMENTO_POR_DEFECTO = 64L << 20;
+
+    /**
+     * Capacidad del anillo de anotaciones, potencia de dos
+     */
+    private static final int TAMANNO_ANILLO = 1 << 22;
+
+    /**
+     * Tamaño del buffer con el que se escriben los segmentos compactados
+     */
+    private static final int TAMANNO_BUFFER = 1 << 20;
+
+    /**
+     * Tiempo máximo que duerme el hilo escritor sin nada que volcar
+     */
+    private static final long ESPERA_ESCRITOR_NANOS = 1_000_000;
+
+    private static final Raza[] RAZAS = Raza.values();
+
+    private static final VarHandle ENTERO = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LARGO = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle REAL = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path directorio;
+    private final Perrera perrera;
+    private final long tamannoMaximoSegmento;
+
+    /**
+     * Anillo de anotaciones. Un registro está publicado cuando su longitud
+     * deja de ser 0; una longitud negativa es relleno hasta el final del
+     * anillo. El hilo escritor pone a cero lo que ya ha volcado.
+     */
+    private final byte[] anillo = new byte[TAMANNO_ANILLO];
+
+    /**
+     * Posición absoluta donde se reservará la próxima anotación
+     */
+    private final AtomicLong cola = new AtomicLong();
+
+    /**
+     * Posición absoluta hasta la que el hilo escritor ha vaciado el anillo
+     */
+    private volatile long cabeza;
+
+    /**
+     * Posición absoluta hasta la que las anotaciones ya están en disco
+     */
+    private volatile long secuenciaDurable;
+
+    private volatile boolean escritorDormido;
+    private volatile boolean desbordado;
+
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition hayVolcado = cerrojo.newCondition();
+
+    /**
+     * Rotaciones de segmento pedidas y hechas con {@link #rotar()}
+     */
+    private volatile long rotacionesPedidas;
+    private long rotacionesHechas;
+
+    private volatile boolean cerrado;
+    private volatile IOException error;
+
+    /**
+     * Segmento en el que se escribe, solo accedido por el hilo escritor
+     */
+    private FileChannel segmento;
+    private volatile long numSegmento;
+    private long tamannoSegmento;
+
+    /**
+     * Cerrojo de los ficheros de segmentos antiguos, para que compactar y
+     * descartar no se pisen
+     */
+    private final Object cerrojoSegmentos = new Object();
+
+    private final Thread escritor;
+    private final ExecutorService compactador;
+
+    /**
+     * Constructor privado; los diarios se abren con {@link #abrir}.
+     */
+    private DiarioPerrera(Path directorio, Perrera perrera, long tamannoMaximoSegmento, long numSegmento)
+            throws IOException {
+        this.directorio = directorio;
+        this.perrera = perrera;
+        this.tamannoMaximoSegmento = tamannoMaximoSegmento;
+        this.numSegmento = numSegmento;
+        this.segmento = abrirSegmento(numSegmento);
+        this.compactador = Executors.newSingleThreadExecutor(r -> {
+            Thread hilo = new Thread(r, "diario-compactador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.escritor = new Thread(this::escribir, "diario-escritor");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Abre un diario en un directorio con el tamaño de segmento por defecto
+     * y lo registra como observador de una perrera.
+     *
+     * @param directorio Directorio de los segmentos.
+     * @param perrera Perrera cuyos cambios se anotan.
+     * @return Diario abierto.
+     * @throws IOException Si no se puede crear el directorio o el segmento.
+     */
+    public static DiarioPerrera abrir(Path directorio, Perrera perrera) throws IOException {
+        return abrir(directorio, perrera, TAMANNO_SEGMENTO_POR_DEFECTO);
+    }
+
+    /**
+     * Abre un diario en un directorio y lo registra como observador de una
+     * perrera. Las anotaciones siempre empiezan en un segmento nuevo,
+     * posterior a los que ya existan. Como el diario solo anota los cambios,
+     * hace falta una instantánea de la perrera tomada después de abrirlo
+     * (ver {@link #rotar()}).
+     *
+     * @param directorio Directorio de los segmentos.
+     * @param perrera Perrera cuyos cambios se anotan.
+     * @param tamannoMaximoSegmento Tamaño a partir del cual se rota de
+     * segmento.
+     * @return Diario abierto.
+     * @throws IOException Si no se puede crear el directorio o el segmento.
+     */
+    public static DiarioPerrera abrir(Path directorio, Perrera perrera, long tamannoMaximoSegmento)
+            throws IOException {
+        if (tamannoMaximoSegmento < TAMANNO_MINIMO) {
+            throw new IllegalArgumentException("El segmento debe admitir al menos un registro.");
+        }
+        Files.createDirectories(directorio);
+        List<Long> existentes = listarSegmentos(directorio);
+        long siguiente = existentes.isEmpty() ? 1 : existentes.get(existentes.size() - 1) + 1;
+        DiarioPerrera diario = new DiarioPerrera(directorio, perrera, tamannoMaximoSegmento, siguiente);
+        perrera.agregarObservador(diario);
+        return diario;
+    }
+
+    /**
+     * Reproduce todos los segmentos de un directorio, en orden, sobre la
+     * perrera recuperada de la última instantánea. Antes de cada registro se
+     * simulan los ticks que falten hasta el suyo, así que la perrera acaba
+     * en el mismo estado y en el mismo tick que la original tras su último
+     * registro en disco. Para ello el directorio solo debe tener segmentos
+     * posteriores a la instantánea: al hacerla hay que llamar a
+     * {@link #rotar()}, guardarla y llamar a {@link #descartarAnteriores},
+     * sin tocar la perrera entre medias.
+     *
+     * Se debe llamar antes de abrir el diario sobre la perrera. Un registro
+     * incompleto o dañado marca el final de su segmento (por ejemplo, tras
+     * una caída a mitad de escritura).
+     *
+     * @param directorio Directorio de los segmentos.
+     * @param perrera Perrera sobre la que se aplican los cambios.
+     * @return Número de registros aplicados.
+     * @throws IOException Si falla la lectura.
+     * @throws IllegalStateException Si el diario no corresponde a la
+     * perrera: un registro anterior a su tick, un perro que no existe o un
+     * alta que no va al final.
+     */
+    public static long reproducir(Path directorio, Perrera perrera) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return 0;
+        }
+        long aplicados = 0;
+        for (long num : segmentosVigentes(directorio)) {
+            for (ByteBuffer registro : leerRegistros(rutaSegmento(directorio, num))) {
+                if (registro.get(POS_TIPO) != TIPO_COMPACTADO) {
+                    aplicar(registro, perrera);
+                    aplicados++;
+                }
+            }
+        }
+        return aplicados;
+    }
+
+    /**
+     * Aplica un registro sobre una perrera, avanzándola antes hasta su tick.
+     */
+    private static void aplicar(ByteBuffer registro, Perrera perrera) {
+        long tick = registro.getLong(POS_TICK);
+        if (tick < perrera.getTick()) {
+            throw new IllegalStateException("El diario no corresponde a la perrera: tiene un registro del tick "
+                    + tick + " y la perrera ya va por el " + perrera.getTick() + ".");
+        }
+        avanzarHasta(perrera, tick);
+        int id = registro.getInt(POS_ID);
+        switch (registro.get(POS_TIPO)) {
+            case TIPO_TICK -> {
+                // Solo hacía falta llegar a su tick
+            }
+            case TIPO_STAT -> {
+                int stat = registro.get(POS_EXTRA);
+                if (stat < 0 || stat >= Perrera.NUM_STATS) {
+                    throw new IllegalStateException("Estadística desconocida en el diario: " + stat);
+                }
+                perrera.get(comprobarPerro(perrera, id)).setStat(Perrera.STATS[stat], registro.get(POS_VALOR));
+            }
+            case TIPO_EDAD -> perrera.get(comprobarPerro(perrera, id)).setEdad(registro.getDouble(POS_DATOS));
+            case TIPO_BAJA -> perrera.baja(comprobarPerro(perrera, id));
+            case TIPO_ALTA -> {
+                if (id != perrera.getTamanno()) {
+                    throw new IllegalStateException("El diario da de alta el perro " + id
+                            + ", pero la perrera tiene " + perrera.getTamanno() + " perros.");
+                }
+                int raza = registro.get(POS_EXTRA);
+                int longitudNombre = registro.getInt(POS_LONGITUD_NOMBRE);
+                if (raza < 0 || raza >= RAZAS.length || longitudNombre < 0
+                        || longitudNombre > registro.limit() - POS_NOMBRE - Integer.BYTES) {
+                    throw new IllegalStateException("Alta dañada en el diario para el perro " + id);
+                }
+                int[] valores = new int[Perrera.NUM_STATS];
+                for (int s = 0; s < valores.length; s++) {
+                    valores[s] = registro.get(POS_STATS + s);
+                }
+                byte[] nombre = new byte[longitudNombre];
+                registro.get(POS_NOMBRE, nombre);
+                perrera.restaurar(new String(nombre, StandardCharsets.UTF_8), RAZAS[raza],
+                        registro.getInt(POS_DATOS), valores);
+            }
+            default -> throw new IllegalStateException("Tipo de registro desconocido en el diario: "
+                    + registro.get(POS_TIPO));
+        }
+    }
+
+    /**
+     * Simula los ticks que faltan para que una perrera llegue a un tick.
+     */
+    private static void avanzarHasta(Perrera perrera, long tick) {
+        if (perrera.isPerezosa()) {
+            perrera.avanzarReloj(tick - perrera.getTick());
+            return;
+        }
+        for (long t = perrera.getTick(); t < tick; t++) {
+            perrera.avanzar(0, perrera.getTamanno(), t);
+            perrera.completarTick(t);
+        }
+    }
+
+    private static int comprobarPerro(Perrera perrera, int id) {
+        if (id < 0 || id >= perrera.getTamanno()) {
+            throw new IllegalStateException("El diario se refiere al perro " + id + ", que no existe en la perrera.");
+        }
+        return id;
+    }
+
+    @Override
+    public void statCambiado(int id, StatPerro stat, int valor) {
+        int base = empezar(TAMANNO_MINIMO, TIPO_STAT, stat.ordinal(), valor, id);
+        if (base >= 0) {
+            publicar(base, TAMANNO_MINIMO);
+        }
+    }
+
+    @Override
+    public void perroAnnadido(int id) {
+        byte[] nombre = perrera.getNombre(id).getBytes(StandardCharsets.UTF_8);
+        int longitud = alinear(POS_NOMBRE + nombre.length + Integer.BYTES);
+        int base = empezar(longitud, TIPO_ALTA, perrera.getRaza(id).ordinal(), 0, id);
+        if (base < 0) {
+            return;
+        }
+        ENTERO.set(anillo, base + POS_DATOS, perrera.getEdadTicks(id));
+        ENTERO.set(anillo, base + POS_LONGITUD_NOMBRE, nombre.length);
+        for (int s = 0; s < Perrera.NUM_STATS; s++) {
+            anillo[base + POS_STATS + s] = (byte) perrera.getStat(id, Perrera.STATS[s]);
+        }
+        System.arraycopy(nombre, 0, anillo, base + POS_NOMBRE, nombre.length);
+        publicar(base, longitud);
+    }
+
+    @Override
+    public void perroEliminado(int id) {
+        int base = empezar(TAMANNO_MINIMO, TIPO_BAJA, 0, 0, id);
+        if (base >= 0) {
+            publicar(base, TAMANNO_MINIMO);
+        }
+    }
+
+    @Override
+    public void edadCambiada(int id, double edad) {
+        int longitud = alinear(POS_DATOS + Double.BYTES + Integer.BYTES);
+        int base = empezar(longitud, TIPO_EDAD, 0, 0, id);
+        if (base >= 0) {
+            REAL.set(anillo, base + POS_DATOS, edad);
+            publicar(base, longitud);
+        }
+    }
+
+    @Override
+    public void tickCompletado(long tick) {
+        int base = empezar(TAMANNO_MINIMO, TIPO_TICK, 0, 0, 0);
+        if (base >= 0) {
+            publicar(base, TAMANNO_MINIMO);
+        }
+    }
+
+    /**
+     * Reserva el hueco de un registro en el anillo y rellena su cabecera,
+     * salvo la longitud. Si el anillo está lleno no espera: marca el diario
+     * como desbordado.
+     *
+     * @return Posición del registro dentro del anillo, o -1 si no cabe.
+     */
+    private int empezar(int longitud, int tipo, int extra, int valor, int id) {
+        long posicion = reservar(longitud);
+        if (posicion < 0) {
+            desbordado = true;
+            return -1;
+        }
+        int base = (int) (posicion & (TAMANNO_ANILLO - 1));
+        anillo[base + POS_TIPO] = (byte) tipo;
+        anillo[base + POS_EXTRA] = (byte) extra;
+        anillo[base + POS_VALOR] = (byte) valor;
+        ENTERO.set(anillo, base + POS_ID, id);
+        LARGO.set(anillo, base + POS_TICK, perrera.getTick());
+        return base;
+    }
+
+    /**
+     * Reserva espacio contiguo en el anillo. Si el registro no cabe antes del
+     * final, el hueco que queda se reserva también y se marca como relleno.
+     *
+     * @return Posición absoluta del registro, o -1 si el anillo está lleno.
+     */
+    private long reservar(int longitud) {
+        while (true) {
+            long actual = cola.get();
+            int base = (int) (actual & (TAMANNO_ANILLO - 1));
+            int relleno = base + longitud > TAMANNO_ANILLO ? TAMANNO_ANILLO - base : 0;
+            if (actual + relleno + longitud - cabeza > TAMANNO_ANILLO) {
+                return -1;
+            }
+            if (cola.compareAndSet(actual, actual + relleno + longitud)) {
+                if (relleno > 0) {
+                    ENTERO.setVolatile(anillo, base, -relleno);
+                }
+                return actual + relleno;
+            }
+        }
+    }
+
+    /**
+     * Calcula el CRC de un registro ya escrito en el anillo y lo publica
+     * escribiendo su longitud.
+     */
+    private void publicar(int base, int longitud) {
+        CRC32C crc = new CRC32C();
+        crc.update(anillo, base + Integer.BYTES, longitud - 2 * Integer.BYTES);
+        ENTERO.set(anillo, base + longitud - Integer.BYTES, (int) crc.getValue());
+        ENTERO.setVolatile(anillo, base, longitud);
+        if (escritorDormido) {
+            LockSupport.unpark(escritor);
+        }
+    }
+
+    /**
+     * @return Número de secuencia de la última anotación hecha, para
+     * {@link #esperarDurable(long)}
+     */
+    public long getSecuencia() {
+        return cola.get();
+    }
+
+    /**
+     * Espera a que una anotación, y todas las anteriores, estén en disco.
+     *
+     * @param numSecuencia Número de secuencia devuelto por
+     * {@link #getSecuencia()}.
+     * @throws InterruptedException Si se interrumpe la espera.
+     * @throws UncheckedIOException Si el volcado a disco ha fallado.
+     * @throws IllegalStateException Si el diario se ha desbordado o se ha
+     * cerrado antes de volcar la anotación.
+     */
+    public void esperarDurable(long numSecuencia) throws InterruptedException {
+        cerrojo.lock();
+        try {
+            LockSupport.unpark(escritor);
+            while (secuenciaDurable < numSecuencia && error == null && !desbordado && escritor.isAlive()) {
+                hayVolcado.await();
+            }
+            if (error != null) {
+                throw new UncheckedIOException(error);
+            }
+            comprobarDesbordado();
+            if (secuenciaDurable < numSecuencia) {
+                throw new IllegalStateException("El diario se cerró antes de volcar la anotación.");
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Espera a que todo lo anotado hasta ahora esté en disco.
+     *
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    public void sincronizar() throws InterruptedException {
+        esperarDurable(getSecuencia());
+    }
+
+    /**
+     * Vuelca lo pendiente y pasa a escribir en un segmento nuevo. Se usa al
+     * hacer una instantánea: los segmentos anteriores al devuelto pueden
+     * descartarse con {@link #descartarAnteriores(long)} una vez guardada.
+     *
+     * @return Número del nuevo segmento.
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    public long rotar() throws InterruptedException {
+        cerrojo.lock();
+        try {
+            comprobarAbierto();
+            long pedida = ++rotacionesPedidas;
+            LockSupport.unpark(escritor);
+            while (rotacionesHechas < pedida && error == null && escritor.isAlive()) {
+                hayVolcado.await();
+            }
+            comprobarAbierto();
+            return numSegmento;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Borra los segmentos anteriores a uno dado, normalmente porque sus
+     * cambios ya están incluidos en una instantánea.
+     *
+     * @param numSegmento Primer segmento que se conserva.
+     * @throws IOException Si no se puede borrar algún segmento.
+     */
+    public void descartarAnteriores(long numSegmento) throws IOException {
+        synchronized (cerrojoSegmentos) {
+            for (long num : listarSegmentos(directorio)) {
+                if (num < numSegmento && num < this.numSegmento) {
+                    Files.deleteIfExists(rutaSegmento(directorio, num));
+                }
+            }
+        }
+    }
+
+    /**
+     * Deja de observar la perrera, vuelca lo pendiente, espera a que termine
+     * la compactación en curso y cierra el segmento actual. Se debe llamar
+     * desde el hilo que modifica la perrera.
+     *
+     * @throws IOException Si el último volcado ha fallado.
+     * @throws IllegalStateException Si el diario se había desbordado.
+     */
+    @Override
+    public void close() throws IOException {
+        perrera.quitarObservador(this);
+        cerrado = true;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join();
+            compactador.shutdown();
+            compactador.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw error;
+        }
+        comprobarDesbordado();
+    }
+
+    /**
+     * Bucle del hilo escritor: vacía el anillo, vuelca lo acumulado con un
+     * único force y despierta a quienes esperaban. Sin nada que volcar
+     * duerme un poco, o hasta que alguien publique.
+     */
+    private void escribir() {
+        ByteBuffer salida = ByteBuffer.allocateDirect(TAMANNO_ANILLO);
+        try {
+            while (true) {
+                long pedidas = rotacionesPedidas;
+                boolean cerrando = cerrado;
+                long desde = cabeza;
+                long hasta = drenar(salida);
+                boolean rotacion = rotacionesHechas < pedidas;
+
+                if (salida.position() > 0) {
+                    salida.flip();
+                    while (salida.hasRemaining()) {
+                        tamannoSegmento += segmento.write(salida);
+                    }
+                    salida.clear();
+                    segmento.force(false);
+                }
+                if (rotacion || tamannoSegmento >= tamannoMaximoSegmento) {
+                    abrirSiguienteSegmento();
+                }
+                if (hasta != desde || rotacion) {
+                    cerrojo.lock();
+                    try {
+                        secuenciaDurable = hasta;
+                        rotacionesHechas = pedidas;
+                        hayVolcado.signalAll();
+                    } finally {
+                        cerrojo.unlock();
+                    }
+                }
+
+                if (cerrando && hasta == cola.get()) {
+                    break;
+                }
+                if (hasta == desde && !rotacion) {
+                    escritorDormido = true;
+                    if (!hayPublicado() && rotacionesPedidas == pedidas && !cerrado) {
+                        LockSupport.parkNanos(this, ESPERA_ESCRITOR_NANOS);
+                    }
+                    escritorDormido = false;
+                }
+            }
+            segmento.close();
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            cerrojo.lock();
+            try {
+                hayVolcado.signalAll();
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+
+    /**
+     * Copia a un buffer los registros publicados desde la cabeza del anillo,
+     * en orden, hasta el primero que aún no lo esté. Lo copiado se pone a
+     * cero antes de liberarlo, para que una longitud antigua no se confunda
+     * con un registro publicado en la siguiente vuelta.
+     *
+     * @return Nueva posición de la cabeza.
+     */
+    private long drenar(ByteBuffer salida) {
+        long posicion = cabeza;
+        long fin = cola.get();
+        while (posicion < fin) {
+            int base = (int) (posicion & (TAMANNO_ANILLO - 1));
+            int longitud = (int) ENTERO.getVolatile(anillo, base);
+            if (longitud == 0) {
+                break;
+            }
+            int ocupado = Math.abs(longitud);
+            if (longitud > 0) {
+                salida.put(anillo, base, longitud);
+            }
+            Arrays.fill(anillo, base, base + ocupado, (byte) 0);
+            posicion += ocupado;
+        }
+        cabeza = posicion;
+        return posicion;
+    }
+
+    /**
+     * @return true si en la cabeza del anillo hay algo publicado
+     */
+    private boolean hayPublicado() {
+        return (int) ENTERO.getVolatile(anillo, (int) (cabeza & (TAMANNO_ANILLO - 1))) != 0;
+    }
+
+    /**
+     * Cierra el segmento actual, abre el siguiente y programa la compactación
+     * de los anteriores.
+     */
+    private void abrirSiguienteSegmento() throws IOException {
+        segmento.close();
+        long nuevo = numSegmento + 1;
+        segmento = abrirSegmento(nuevo);
+        tamannoSegmento = 0;
+        numSegmento = nuevo;
+        compactador.execute(() -> compactar(nuevo));
+    }
+
+    /**
+     * Fusiona todos los segmentos anteriores a uno dado en uno solo, sin los
+     * registros que ya no influyen en el resultado de reproducirlos. El
+     * resultado se escribe en un fichero temporal que empieza con un
+     * registro COMPACTADO y se mueve de forma atómica sobre el más reciente
+     * de los segmentos fusionados; si hay una caída antes de borrar los
+     * demás, ese registro indica que ya no hay que reproducirlos.
+     *
+     * @param limite Primer segmento que no se compacta.
+     */
+    private void compactar(long limite) {
+        synchronized (cerrojoSegmentos) {
+            try {
+                List<Long> antiguos = new ArrayList<>();
+                for (long num : segmentosVigentes(directorio)) {
+                    if (num < limite) {
+                        antiguos.add(num);
+                    }
+                }
+                if (antiguos.size() >= 2) {
+                    fusionar(antiguos);
+                }
+                long conservado = antiguos.isEmpty() ? limite : antiguos.get(antiguos.size() - 1);
+                for (long num : listarSegmentos(directorio)) {
+                    if (num < conservado && !antiguos.contains(num)) {
+                        Files.deleteIfExists(rutaSegmento(directorio, num));
+                    }
+                }
+            } catch (IOException e) {
+                // La compactación es opcional: si falla, los segmentos originales
+                // siguen siendo válidos y se reintentará en la próxima rotación
+            }
+        }
+    }
+
+    /**
+     * Escribe la fusión de varios segmentos sobre el último de ellos y borra
+     * los demás.
+     */
+    private void fusionar(List<Long> antiguos) throws IOException {
+        List<ByteBuffer> registros = new ArrayList<>();
+        for (long num : antiguos) {
+            for (ByteBuffer registro : leerRegistros(rutaSegmento(directorio, num))) {
+                if (registro.get(POS_TIPO) != TIPO_COMPACTADO) {
+                    registros.add(registro);
+                }
+            }
+        }
+
+        // De atrás hacia delante: un valor de un stat sobra si después hay
+        // otro del mismo perro sin altas ni bajas que cambien los ids, y un
+        // tick sobra si no es el último registro
+        boolean[] sobra = new boolean[registros.size()];
+        Set<Long> posteriores = new HashSet<>();
+        for (int i = registros.size() - 1; i >= 0; i--) {
+            ByteBuffer registro = registros.get(i);
+            switch (registro.get(POS_TIPO)) {
+                case TIPO_STAT -> sobra[i] = !posteriores.add(((long) registro.getInt(POS_ID) << 8)
+                        | registro.get(POS_EXTRA));
+                case TIPO_TICK -> sobra[i] = i < registros.size() - 1;
+                case TIPO_ALTA, TIPO_BAJA -> posteriores.clear();
+                default -> {
+                    // Las edades cambian el ritmo de los ticks siguientes
+                }
+            }
+        }
+
+        long destino = antiguos.get(antiguos.size() - 1);
+        Path temporal = directorio.resolve(destino + EXTENSION + ".tmp");
+        try (FileChannel salida = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(TAMANNO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(TAMANNO_MINIMO).put(TIPO_COMPACTADO).put((byte) 0).putShort((short) 0).putInt(0)
+                    .putLong(antiguos.get(0));
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.array(), Integer.BYTES, TAMANNO_MINIMO - 2 * Integer.BYTES);
+            buffer.putInt((int) crc.getValue());
+            for (int i = 0; i < registros.size(); i++) {
+                if (sobra[i]) {
+                    continue;
+                }
+                ByteBuffer registro = registros.get(i);
+                if (buffer.remaining() < registro.remaining()) {
+                    volcar(buffer, salida);
+                }
+                if (buffer.remaining() < registro.remaining()) {
+                    while (registro.hasRemaining()) {
+                        salida.write(registro);
+                    }
+                } else {
+                    buffer.put(registro);
+                }
+            }
+            volcar(buffer, salida);
+            salida.force(true);
+        }
+        Files.move(temporal, rutaSegmento(directorio, destino),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (long num : antiguos) {
+            if (num != destino) {
+                Files.deleteIfExists(rutaSegmento(directorio, num));
+            }
+        }
+    }
+
+    /**
+     * Escribe en el canal el contenido pendiente del buffer y lo vacía.
+     */
+    private static void volcar(ByteBuffer buffer, FileChannel salida) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            salida.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Comprueba que se puedan seguir haciendo anotaciones.
+     */
+    private void comprobarAbierto() {
+        if (error != null) {
+            throw new IllegalStateException("El diario ha fallado al escribir en disco.", error);
+        }
+        comprobarDesbordado();
+        if (cerrado) {
+            throw new IllegalStateException("El diario está cerrado.");
+        }
+    }
+
+    private void comprobarDesbordado() {
+        if (desbordado) {
+            throw new IllegalStateException("El diario se ha desbordado y ha perdido anotaciones;"
+                    + " hace falta una instantánea nueva.");
+        }
+    }
+
+    private FileChannel abrirSegmento(long num) throws IOException {
+        return FileChannel.open(rutaSegmento(directorio, num), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+    }
+
+    private static Path rutaSegmento(Path directorio, long num) {
+        return directorio.resolve(String.format("%016d%s", num, EXTENSION));
+    }
+
+    /**
+     * Lista los números de los segmentos de un directorio en orden.
+     */
+    private static List<Long> listarSegmentos(Path directorio) throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        try (DirectoryStream<Path> ficheros = Files.newDirectoryStream(directorio, "*" + EXTENSION)) {
+            for (Path fichero : ficheros) {
+                String nombre = fichero.getFileName().toString();
+                try {
+                    numeros.add(Long.parseLong(nombre.substring(0, nombre.length() - EXTENSION.length())));
+                } catch (NumberFormatException e) {
+                    // No es un segmento del diario
+                }
+            }
+        }
+        Collections.sort(numeros);
+        return numeros;
+    }
+
+    /**
+     * Lista en orden los segmentos que hay que reproducir: los que no han
+     * sido sustituidos por un segmento compactado posterior.
+     */
+    private static List<Long> segmentosVigentes(Path directorio) throws IOException {
+        List<Long> vigentes = new ArrayList<>();
+        for (long num : listarSegmentos(directorio)) {
+            long sustituido = primeroSustituido(rutaSegmento(directorio, num));
+            vigentes.removeIf(anterior -> anterior >= sustituido);
+            vigentes.add(num);
+        }
+        return vigentes;
+    }
+
+    /**
+     * @return Si el segmento es el resultado de una compactación, el primero
+     * de los segmentos a los que sustituye; si no, {@link Long#MAX_VALUE}
+     */
+    private static long primeroSustituido(Path segmento) throws IOException {
+        ByteBuffer registro = ByteBuffer.allocate(TAMANNO_MINIMO).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ)) {
+            while (registro.hasRemaining() && canal.read(registro) >= 0) {
+                // Se sigue leyendo hasta completar el registro
+            }
+        }
+        registro.flip();
+        return longitudValida(registro, 0) == TAMANNO_MINIMO && registro.get(POS_TIPO) == TIPO_COMPACTADO
+                ? registro.getLong(POS_TICK) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Lee los registros válidos de un segmento, en orden, hasta el final o
+     * hasta el primero incompleto o dañado.
+     */
+    private static List<ByteBuffer> leerRegistros(Path segmento) throws IOException {
+        ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(segmento)).order(ByteOrder.LITTLE_ENDIAN);
+        List<ByteBuffer> registros = new ArrayList<>();
+        int base = 0;
+        int longitud;
+        while ((longitud = longitudValida(contenido, base)) > 0) {
+            registros.add(contenido.slice(base, longitud).order(ByteOrder.LITTLE_ENDIAN));
+            base += longitud;
+        }
+        return registros;
+    }
+
+    /**
+     * Comprueba la longitud y el CRC del registro que empieza en una
+     * posición de un buffer. Un registro a ceros nunca es válido, lo que
+     * permite detectar el final de un segmento truncado.
+     *
+     * @return Longitud del registro, o 0 si no es válido.
+     */
+    private static int longitudValida(ByteBuffer buffer, int base) {
+        if (buffer.limit() - base < TAMANNO_MINIMO) {
+            return 0;
+        }
+        int longitud = buffer.getInt(base);
+        if (longitud < TAMANNO_MINIMO || longitud % ALINEACION != 0 || longitud > buffer.limit() - base) {
+            return 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(base + Integer.BYTES, longitud - 2 * Integer.BYTES));
+        return buffer.getInt(base + longitud - Integer.BYTES) == (int) crc.getValue() ? longitud : 0;
+    }
+
+    private static int alinear(int longitud) {
+        return (longitud + ALINEACION - 1) & -ALINEACION;
+    }
+}
@@ -0,0 +1,154 @@
+package tamagotchi.modelos;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Cambios en el estado de un perro desde la última
+ * {@link DiferenciaPerro} entregada al mismo suscriptor de un
+ * {@link FlujoDiferencias}: una máscara con las {@link StatPerro} que han
+ * cambiado, sus nuevos valores y la máscara completa de {@link Estado}. La
+ * primera diferencia de cada suscripción trae todas las estadísticas.
+ *
+ * Es inmutable, así que puede pasar de un hilo a otro sin copiarse. Para
+ * enviarla fuera del proceso se escribe en binario con {@link #escribir}:
+ * int id, short máscara de stats, un byte por stat cambiada y long de
+ * estados, entre 14 y 24 bytes frente a los cientos de la ficha completa.
+ */
+public final class DiferenciaPerro {
+
+    private static final StatPerro[] STATS = StatPerro.values();
+
+    /**
+     * Tamaño en bytes de una diferencia sin estadísticas
+     */
+    static final int TAMANNO_MINIMO = Integer.BYTES + Short.BYTES + Long.BYTES;
+
+    private final int id;
+    private final int mascaraStats;
+
+    /**
+     * Valor de cada stat cambiada, en orden de ordinal
+     */
+    private final byte[] valores;
+    private final long estados;
+
+    DiferenciaPerro(int id, int mascaraStats, byte[] valores, long estados) {
+        this.id = id;
+        this.mascaraStats = mascaraStats;
+        this.valores = valores;
+        this.estados = estados;
+    }
+
+    /**
+     * @return Identificador del perro dentro de su perrera
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return Máscara de las estadísticas que han cambiado, con el bit
+     * {@code 1 << stat.ordinal()} de cada una
+     */
+    public int getMascaraStats() {
+        return mascaraStats;
+    }
+
+    /**
+     * @return Número de estadísticas que han cambiado
+     */
+    public int getNumCambios() {
+        return valores.length;
+    }
+
+    /**
+     * @param stat Estadística a consultar.
+     * @return true si la estadística ha cambiado.
+     */
+    public boolean cambia(StatPerro stat) {
+        return (mascaraStats & (1 << stat.ordinal())) != 0;
+    }
+
+    /**
+     * Obtiene el nuevo valor de una estadística.
+     *
+     * @param stat Estadística a consultar.
+     * @return Nuevo valor de la estadística.
+     * @throws IllegalArgumentException Si la estadística no ha cambiado.
+     */
+    public int getValor(StatPerro stat) {
+        if (!cambia(stat)) {
+            throw new IllegalArgumentException("La estadística " + stat + " no ha cambiado.");
+        }
+        // Posición del valor: stats cambiadas con ordinal menor
+        return valores[Integer.bitCount(mascaraStats & ((1 << stat.ordinal()) - 1))];
+    }
+
+    /**
+     * @return Máscara de los estados actuales del perro, ver
+     * {@link Estado#getMascara()}
+     */
+    public long getMascaraEstados() {
+        return estados;
+    }
+
+    /**
+     * @return Conjunto de los estados actuales del perro
+     */
+    public Set<Estado> getEstados() {
+        return Estado.desdeMascara(estados);
+    }
+
+    /**
+     * @return Número de bytes que ocupa la diferencia escrita con
+     * {@link #escribir}
+     */
+    public int getTamanno() {
+        return TAMANNO_MINIMO + valores.length;
+    }
+
+    /**
+     * Escribe la diferencia en binario en la posición actual de un buffer.
+     *
+     * @param destino Buffer de destino.
+     * @throws java.nio.BufferOverflowException Si no cabe.
+     */
+    public void escribir(ByteBuffer destino) {
+        destino.putInt(id).putShort((short) mascaraStats).put(valores).putLong(estados);
+    }
+
+    /**
+     * Lee una diferencia escrita con {@link #escribir}.
+     *
+     * @param origen Buffer de origen, en la posición de la diferencia.
+     * @return Diferencia leída.
+     * @throws IllegalArgumentException Si la máscara de stats no es válida.
+     */
+    public static DiferenciaPerro leer(ByteBuffer origen) {
+        int id = origen.getInt();
+        int mascara = origen.getShort() & 0xFFFF;
+        if (mascara >>> STATS.length != 0) {
+            throw new IllegalArgumentException("Máscara de estadísticas no válida: " + mascara);
+        }
+        byte[] valores = new byte[Integer.bitCount(mascara)];
+        origen.get(valores);
+        return new DiferenciaPerro(id, mascara, valores, origen.getLong());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder(64).append("Perro ").append(id).append(':');
+        int i = 0;
+        for (int m = mascaraStats; m != 0; m &= m - 1) {
+            texto.append(' ').append(STATS[Integer.numberOfTrailingZeros(m)].name()).append('=').append(valores[i++]);
+        }
+        return texto.append(' ').append(getEstados()).toString();
+    }
+}
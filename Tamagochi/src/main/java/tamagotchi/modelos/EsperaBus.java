@@ -0,0 +1,69 @@
+package tamagotchi.modelos;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Estrategias de espera del hilo que reparte los eventos de un
+ * {@link BusEstados} cuando no hay eventos nuevos. Ninguna de ellas obliga a
+ * los productores a despertar al consumidor, así que publicar nunca cuesta
+ * más que escribir en el buffer.
+ */
+public enum EsperaBus {
+
+    /**
+     * Espera activa: mínima latencia a cambio de ocupar un núcleo entero
+     */
+    ACTIVA {
+        @Override
+        void esperar(int intentos) {
+            Thread.onSpinWait();
+        }
+    },
+
+    /**
+     * Espera activa unos intentos y después cede el procesador
+     */
+    CEDER {
+        @Override
+        void esperar(int intentos) {
+            if (intentos < INTENTOS_ACTIVOS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+
+    /**
+     * Espera activa, después cede y al final duerme en intervalos cortos:
+     * más latencia, pero casi sin consumo de CPU con el bus parado
+     */
+    DORMIR {
+        @Override
+        void esperar(int intentos) {
+            if (intentos < INTENTOS_ACTIVOS) {
+                Thread.onSpinWait();
+            } else if (intentos < 2 * INTENTOS_ACTIVOS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(NANOS_DORMIDO);
+            }
+        }
+    };
+
+    private static final int INTENTOS_ACTIVOS = 100;
+    private static final long NANOS_DORMIDO = 100_000L;
+
+    /**
+     * Espera una vez sin que haya eventos disponibles.
+     *
+     * @param intentos Número de esperas seguidas sin eventos, empezando en 0.
+     */
+    abstract void esperar(int intentos);
+}
@@ -1,5 +1,8 @@
 package tamagotchi.modelos;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
  * Autor: Sergio López Casado
@@ -31,6 +34,44 @@ public enum Estado {
     ASUSTADO(StatPerro.ANSIEDAD, 70, null, "Está temeroso"),
     AGRESIVO(StatPerro.SOCIABILIDAD, null, 20, "Muestra comportamiento agresivo");
 
+    /**
+     * Copia cacheada de {@link #values()} para evitar clonar el array.
+     */
+    private static final Estado[] VALORES = values();
+
+    /**
+     * Valor máximo que puede tomar una estadística
+     */
+    private static final int MAX_VALOR_STAT = 100;
+
+    /**
+     * Máscara con los estados asociados a cada estadística, indexada por el
+     * ordinal de {@link StatPerro}
+     */
+    private static final long[] MASCARA_POR_STAT;
+
+    /**
+     * Tabla de umbrales precalculada: para cada estadística y cada valor
+     * posible (0-100) guarda la máscara de estados que quedan activos
+     */
+    private static final long[][] ACTIVOS_POR_VALOR;
+
+    static {
+        int numStats = StatPerro.values().length;
+        MASCARA_POR_STAT = new long[numStats];
+        ACTIVOS_POR_VALOR = new long[numStats][MAX_VALOR_STAT + 1];
+
+        for (Estado estado : VALORES) {
+            int s = estado.statAsociado.ordinal();
+            MASCARA_POR_STAT[s] |= estado.getMascara();
+            for (int valor = 0; valor <= MAX_VALOR_STAT; valor++) {
+                if (estado.seActivaCon(valor)) {
+                    ACTIVOS_POR_VALOR[s][valor] |= estado.getMascara();
+                }
+            }
+        }
+    }
+
     private final StatPerro statAsociado;
     private final Integer valorMin;
     private final Integer valorMax;
@@ -87,6 +128,94 @@ public enum Estado {
         return descripcion;
     }
 
+    /**
+     * Obtiene el bit que representa este estado dentro de una máscara de
+     * estados.
+     *
+     * @return Máscara con únicamente el bit de este estado activo.
+     */
+    public long getMascara() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Comprueba si este estado se activa con un valor de su estadística
+     * asociada.
+     *
+     * @param valorStat Valor de la estadística asociada.
+     * @return true si el valor cumple alguna de las condiciones del estado.
+     */
+    public boolean seActivaCon(int valorStat) {
+        return (valorMin != null && valorStat >= valorMin) || (valorMax != null && valorStat <= valorMax);
+    }
+
+    /**
+     * Obtiene la máscara de todos los estados que dependen de una estadística.
+     *
+     * @param stat Estadística a consultar.
+     * @return Máscara con los estados asociados a la estadística.
+     */
+    public static long mascaraDe(StatPerro stat) {
+        return MASCARA_POR_STAT[stat.ordinal()];
+    }
+
+    /**
+     * Obtiene, a partir de la tabla precalculada, los estados asociados a una
+     * estadística que están activos para un valor dado.
+     *
+     * @param stat Estadística a evaluar.
+     * @param valor Valor de la estadística (0-100).
+     * @return Máscara de los estados activos de esa estadística.
+     */
+    public static long activosCon(StatPerro stat, int valor) {
+        return ACTIVOS_POR_VALOR[stat.ordinal()][valor];
+    }
+
+    /**
+     * Empaqueta en un único long las máscaras de estados en los que se ha
+     * entrado y de los que se ha salido. Como hay menos de 32 estados, cada
+     * máscara ocupa una mitad del resultado.
+     *
+     * @param entrados Máscara de estados que se acaban de activar.
+     * @param salidos Máscara de estados que se acaban de desactivar.
+     * @return Transición empaquetada.
+     */
+    public static long transicion(long entrados, long salidos) {
+        return (salidos << 32) | entrados;
+    }
+
+    /**
+     * @param transicion Transición empaquetada con {@link #transicion}.
+     * @return Máscara de estados en los que se ha entrado.
+     */
+    public static long entrados(long transicion) {
+        return transicion & 0xFFFFFFFFL;
+    }
+
+    /**
+     * @param transicion Transición empaquetada con {@link #transicion}.
+     * @return Máscara de estados de los que se ha salido.
+     */
+    public static long salidos(long transicion) {
+        return transicion >>> 32;
+    }
+
+    /**
+     * Convierte una máscara de bits en el conjunto de estados equivalente.
+     *
+     * @param mascara Máscara de estados (un bit por ordinal).
+     * @return Conjunto con los estados cuyo bit está activo.
+     */
+    public static Set<Estado> desdeMascara(long mascara) {
+        Set<Estado> conjunto = EnumSet.noneOf(Estado.class);
+        for (Estado estado : VALORES) {
+            if ((mascara & estado.getMascara()) != 0) {
+                conjunto.add(estado);
+            }
+        }
+        return conjunto;
+    }
+
     @Override
     public String toString() {
         return descripcion;
@@ -0,0 +1,171 @@
+package tamagotchi.modelos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Fábrica que genera poblaciones grandes de perros en paralelo de
+ * forma reproducible. Los perros se reparten en bloques de tamaño fijo y cada
+ * bloque recibe su propio {@link SplittableRandom}, derivado en orden de la
+ * semilla maestra. Así ningún hilo comparte generador y la misma semilla
+ * produce siempre la misma perrera, se use el número de hilos que se use.
+ */
+public class FabricaPerros {
+
+    /**
+     * Número de perros que se generan con un mismo generador
+     */
+    private static final int TAMANNO_BLOQUE = 4096;
+
+    /**
+     * Edad máxima (excluida) de los perros generados
+     */
+    private static final int EDAD_MAXIMA_GENERADA = 15;
+
+    /**
+     * Constructor privado para evitar instanciación.
+     */
+    private FabricaPerros() {
+    }
+
+    /**
+     * Genera una perrera con razas equiprobables usando todos los procesadores
+     * disponibles.
+     *
+     * @param cantidad Número de perros a generar.
+     * @param semilla Semilla maestra.
+     * @return Perrera con los perros generados.
+     */
+    public static Perrera generar(int cantidad, long semilla) {
+        return generar(cantidad, semilla, null, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Genera una perrera nueva con perros aleatorios. La raza de cada perro se
+     * elige según los pesos indicados y su edad es un número entero de años
+     * entre 0 y 14.
+     *
+     * @param cantidad Número de perros a generar.
+     * @param semilla Semilla maestra.
+     * @param pesosRaza Peso relativo de cada raza, indexado por su ordinal, o
+     * null para que todas las razas sean equiprobables.
+     * @param hilos Número de hilos con los que se genera.
+     * @return Perrera con los perros generados.
+     * @throws IllegalArgumentException Si los argumentos no son válidos.
+     */
+    public static Perrera generar(int cantidad, long semilla, double[] pesosRaza, int hilos) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad no puede ser negativa.");
+        }
+        if (hilos < 1) {
+            throw new IllegalArgumentException("Debe haber al menos un hilo.");
+        }
+        double[] acumulados = acumularPesos(pesosRaza);
+
+        Perrera perrera = new Perrera(Math.max(1, cantidad));
+        int primero = perrera.reservar(cantidad);
+
+        // Los generadores se derivan en orden antes de repartir el trabajo
+        SplittableRandom maestro = new SplittableRandom(semilla);
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (int inicio = 0; inicio < cantidad; inicio += TAMANNO_BLOQUE) {
+            int desde = primero + inicio;
+            int hasta = primero + Math.min(cantidad, inicio + TAMANNO_BLOQUE);
+            SplittableRandom aleatorio = maestro.split();
+            tareas.add(() -> {
+                rellenar(perrera, desde, hasta, aleatorio, acumulados);
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            for (Future<Void> resultado : pool.invokeAll(tareas)) {
+                resultado.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generación de perros interrumpida.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al generar los perros.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return perrera;
+    }
+
+    /**
+     * Inicializa los perros de un bloque de posiciones reservadas.
+     *
+     * @param perrera Perrera de destino.
+     * @param desde Primera posición (incluida).
+     * @param hasta Última posición (excluida).
+     * @param aleatorio Generador propio del bloque.
+     * @param acumulados Pesos acumulados de las razas.
+     */
+    private static void rellenar(Perrera perrera, int desde, int hasta,
+            SplittableRandom aleatorio, double[] acumulados) {
+        Raza[] razas = Raza.values();
+        double total = acumulados[acumulados.length - 1];
+        for (int id = desde; id < hasta; id++) {
+            Raza raza = razas[elegir(acumulados, aleatorio.nextDouble() * total)];
+            int edad = aleatorio.nextInt(EDAD_MAXIMA_GENERADA);
+            new Perro(perrera, id, "Perro " + id, raza, edad, aleatorio);
+        }
+    }
+
+    /**
+     * Calcula los pesos acumulados de las razas.
+     *
+     * @param pesosRaza Peso de cada raza, o null para pesos iguales.
+     * @return Array con la suma acumulada de los pesos.
+     * @throws IllegalArgumentException Si los pesos no son válidos.
+     */
+    private static double[] acumularPesos(double[] pesosRaza) {
+        int numRazas = Raza.values().length;
+        if (pesosRaza != null && pesosRaza.length != numRazas) {
+            throw new IllegalArgumentException("Debe haber un peso por cada raza.");
+        }
+        double[] acumulados = new double[numRazas];
+        double suma = 0;
+        for (int i = 0; i < numRazas; i++) {
+            double peso = pesosRaza == null ? 1.0 : pesosRaza[i];
+            if (peso < 0 || Double.isNaN(peso)) {
+                throw new IllegalArgumentException("Los pesos no pueden ser negativos.");
+            }
+            suma += peso;
+            acumulados[i] = suma;
+        }
+        if (suma <= 0) {
+            throw new IllegalArgumentException("Al menos una raza debe tener peso positivo.");
+        }
+        return acumulados;
+    }
+
+    /**
+     * Busca la primera posición cuyo peso acumulado supera un valor.
+     *
+     * @param acumulados Pesos acumulados.
+     * @param valor Valor entre 0 y el peso total.
+     * @return Ordinal de la raza elegida.
+     */
+    private static int elegir(double[] acumulados, double valor) {
+        for (int i = 0; i < acumulados.length; i++) {
+            if (valor < acumulados[i]) {
+                return i;
+            }
+        }
+        return acumulados.length - 1;
+    }
+}
@@ -0,0 +1,374 @@
+package tamagotchi.modelos;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Publica los cambios de los perros de una {@link Perrera} como
+ * {@link Flow.Publisher} de {@link DiferenciaPerro}, para clientes que
+ * quieren seguir a un perro en directo sin recibir su ficha entera tras cada
+ * cambio.
+ *
+ * Cada suscripción no guarda una cola de cambios, sino el último estado que
+ * ha entregado y una marca de "hay algo nuevo". Los cambios solo ponen la
+ * marca; cuando el suscriptor tiene demanda, se compara el perro actual con
+ * lo entregado y se envía una sola diferencia con todo lo que ha cambiado.
+ * Así un suscriptor lento recibe siempre el último estado, con los cambios
+ * intermedios fusionados, y la memoria por suscriptor es fija. Las entregas
+ * de cada suscripción se hacen de una en una en el {@link Executor} dado.
+ *
+ * Los cambios con {@link Perro#setStat} o con lotes de cambios se detectan
+ * solos como {@link ObservadorPerrera}. El avance de la simulación no avisa
+ * a los observadores, así que quien mueve el {@code MotorSimulacion} debe
+ * llamar a {@link #avisar()} tras cada tick (o cada pocos). Las suscripciones
+ * siguen al perro aunque cambie de identificador porque se da de baja otro,
+ * y terminan con {@code onComplete} si se da de baja el propio perro.
+ *
+ * La perrera solo debe modificarla un hilo, y las entregas la leen desde el
+ * ejecutor sin sincronizar con él: una diferencia puede traer parte de un
+ * cambio que está a medias, y el aviso de ese mismo cambio entrega después
+ * el resto. Por eso no admite perreras perezosas, que escriben al leer y
+ * cuyos valores guardados no incluyen el decaimiento pendiente.
+ */
+public final class FlujoDiferencias implements ObservadorPerrera, AutoCloseable {
+
+    private static final int NUM_STATS = StatPerro.values().length;
+    private static final Suscripcion[] NINGUNA = new Suscripcion[0];
+
+    private final Perrera perrera;
+    private final Executor ejecutor;
+
+    /**
+     * Suscripciones activas de cada perro, por identificador. Los arrays se
+     * sustituyen enteros al suscribir o cancelar.
+     */
+    private final ConcurrentHashMap<Integer, Suscripcion[]> suscripciones = new ConcurrentHashMap<>();
+    private volatile boolean cerrado;
+
+    /**
+     * Crea un flujo que entrega las diferencias en hilos virtuales.
+     *
+     * @param perrera Perrera cuyos perros se publican.
+     * @throws IllegalArgumentException Si la perrera es perezosa.
+     */
+    public FlujoDiferencias(Perrera perrera) {
+        this(perrera, Thread::startVirtualThread);
+    }
+
+    /**
+     * Crea un flujo y lo registra como observador de la perrera.
+     *
+     * @param perrera Perrera cuyos perros se publican.
+     * @param ejecutor Ejecutor en el que se entregan las diferencias.
+     * @throws IllegalArgumentException Si la perrera es perezosa.
+     */
+    public FlujoDiferencias(Perrera perrera, Executor ejecutor) {
+        if (perrera.isPerezosa()) {
+            throw new IllegalArgumentException("El flujo de diferencias no admite perreras perezosas.");
+        }
+        this.perrera = perrera;
+        this.ejecutor = Objects.requireNonNull(ejecutor);
+        perrera.agregarObservador(this);
+    }
+
+    /**
+     * Obtiene el publicador de las diferencias de un perro. La primera
+     * diferencia de cada suscripción trae todas sus estadísticas.
+     *
+     * @param perro Perro de esta perrera.
+     * @return Publicador de las diferencias del perro.
+     * @throws IllegalArgumentException Si el perro es de otra perrera.
+     */
+    public Flow.Publisher<DiferenciaPerro> publicador(Perro perro) {
+        if (perro.getPerrera() != perrera) {
+            throw new IllegalArgumentException("El perro no es de esta perrera.");
+        }
+        int id = perro.getId();
+        return suscriptor -> suscribir(id, suscriptor);
+    }
+
+    private void suscribir(int id, Flow.Subscriber<? super DiferenciaPerro> suscriptor) {
+        Suscripcion suscripcion = new Suscripcion(id, Objects.requireNonNull(suscriptor));
+        suscriptor.onSubscribe(suscripcion);
+        if (cerrado) {
+            suscripcion.terminar();
+            return;
+        }
+        suscripciones.compute(id, (clave, actuales) -> {
+            Suscripcion[] nuevas = actuales == null ? new Suscripcion[1] : Arrays.copyOf(actuales, actuales.length + 1);
+            nuevas[nuevas.length - 1] = suscripcion;
+            return nuevas;
+        });
+        suscripcion.senalar();
+    }
+
+    private void quitar(Suscripcion suscripcion) {
+        suscripciones.computeIfPresent(suscripcion.id, (clave, actuales) -> {
+            Suscripcion[] nuevas = NINGUNA;
+            for (Suscripcion s : actuales) {
+                if (s != suscripcion) {
+                    nuevas = Arrays.copyOf(nuevas, nuevas.length + 1);
+                    nuevas[nuevas.length - 1] = s;
+                }
+            }
+            return nuevas.length == 0 ? null : nuevas;
+        });
+    }
+
+    @Override
+    public void statCambiado(int id, StatPerro stat, int valor) {
+        if (suscripciones.isEmpty()) {
+            return;
+        }
+        Suscripcion[] actuales = suscripciones.get(id);
+        if (actuales != null) {
+            for (Suscripcion suscripcion : actuales) {
+                suscripcion.senalar();
+            }
+        }
+    }
+
+    /**
+     * Termina las suscripciones del perro dado de baja.
+     */
+    @Override
+    public void perroEliminado(int id) {
+        Suscripcion[] actuales = suscripciones.remove(id);
+        if (actuales != null) {
+            for (Suscripcion suscripcion : actuales) {
+                suscripcion.terminar();
+            }
+        }
+    }
+
+    /**
+     * Pasa las suscripciones del perro movido a su nuevo identificador.
+     */
+    @Override
+    public void perroMovido(int desde, int hacia) {
+        Suscripcion[] movidas = suscripciones.remove(desde);
+        if (movidas != null) {
+            for (Suscripcion suscripcion : movidas) {
+                suscripcion.id = hacia;
+            }
+            suscripciones.merge(hacia, movidas, (actuales, nuevas) -> {
+                Suscripcion[] todas = Arrays.copyOf(actuales, actuales.length + nuevas.length);
+                System.arraycopy(nuevas, 0, todas, actuales.length, nuevas.length);
+                return todas;
+            });
+        }
+    }
+
+    /**
+     * Avisa de que cualquier perro puede haber cambiado, por ejemplo tras un
+     * tick de simulación. Los suscriptores sin cambios reales no reciben
+     * nada.
+     */
+    public void avisar() {
+        for (Suscripcion[] actuales : suscripciones.values()) {
+            for (Suscripcion suscripcion : actuales) {
+                suscripcion.senalar();
+            }
+        }
+    }
+
+    /**
+     * @return Número de suscripciones activas
+     */
+    public int getNumSuscripciones() {
+        int total = 0;
+        for (Suscripcion[] actuales : suscripciones.values()) {
+            total += actuales.length;
+        }
+        return total;
+    }
+
+    /**
+     * Deja de observar la perrera y termina todas las suscripciones con
+     * {@code onComplete}.
+     */
+    @Override
+    public void close() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        perrera.quitarObservador(this);
+        for (Suscripcion[] actuales : suscripciones.values()) {
+            for (Suscripcion suscripcion : actuales) {
+                suscripcion.terminar();
+            }
+        }
+        suscripciones.clear();
+    }
+
+    /**
+     * Suscripción a un perro. Todas las llamadas al suscriptor se hacen
+     * desde {@link #run()}, que se ejecuta en el ejecutor sin solaparse
+     * consigo misma gracias al contador {@code trabajo}.
+     */
+    private final class Suscripcion implements Flow.Subscription, Runnable {
+
+        /**
+         * Identificador actual del perro, que cambia si se mueve al dar de
+         * baja a otro
+         */
+        private volatile int id;
+        private final Flow.Subscriber<? super DiferenciaPerro> suscriptor;
+
+        /**
+         * Peticiones pendientes de {@link #run()}: solo la que lo pasa de 0
+         * a 1 lo programa en el ejecutor
+         */
+        private final AtomicInteger trabajo = new AtomicInteger();
+        private final AtomicLong demanda = new AtomicLong();
+
+        /**
+         * Hay cambios que aún no se han comparado con lo entregado
+         */
+        private volatile boolean sucio;
+        private volatile boolean cancelada;
+        private volatile boolean terminada;
+        private volatile Throwable error;
+
+        /**
+         * Último estado entregado, solo accesible desde {@link #run()}
+         */
+        private final byte[] entregados = new byte[NUM_STATS];
+        private long estadosEntregados;
+        private boolean primera = true;
+
+        Suscripcion(int id, Flow.Subscriber<? super DiferenciaPerro> suscriptor) {
+            this.id = id;
+            this.suscriptor = suscriptor;
+        }
+
+        /**
+         * Marca que hay cambios. Si ya estaba marcado no hace nada más: la
+         * entrega pendiente los recogerá.
+         */
+        void senalar() {
+            if (!sucio) {
+                sucio = true;
+                programar();
+            }
+        }
+
+        void terminar() {
+            terminada = true;
+            programar();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("La demanda debe ser positiva: " + n);
+            } else {
+                demanda.getAndAccumulate(n, (actual, extra) -> actual + extra < 0 ? Long.MAX_VALUE : actual + extra);
+            }
+            programar();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelada) {
+                cancelada = true;
+                quitar(this);
+            }
+        }
+
+        private void programar() {
+            if (trabajo.getAndIncrement() == 0) {
+                ejecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int pendientes = 1;
+            do {
+                entregar();
+                pendientes = trabajo.addAndGet(-pendientes);
+            } while (pendientes != 0);
+        }
+
+        private void entregar() {
+            if (cancelada) {
+                return;
+            }
+            if (error != null) {
+                cancel();
+                suscriptor.onError(error);
+                return;
+            }
+            if (terminada) {
+                cancelada = true;
+                suscriptor.onComplete();
+                return;
+            }
+            while (sucio && demanda.get() > 0 && !cancelada) {
+                // Se desmarca antes de leer, para que un cambio posterior a
+                // la lectura vuelva a marcarlo
+                sucio = false;
+                DiferenciaPerro diferencia = calcular();
+                if (diferencia == null) {
+                    continue;
+                }
+                if (demanda.get() != Long.MAX_VALUE) {
+                    demanda.decrementAndGet();
+                }
+                try {
+                    suscriptor.onNext(diferencia);
+                } catch (RuntimeException e) {
+                    cancel();
+                }
+            }
+        }
+
+        /**
+         * Compara el perro con lo último entregado.
+         *
+         * @return Diferencia, o null si no ha cambiado nada o el perro ya no
+         * existe.
+         */
+        private DiferenciaPerro calcular() {
+            // Se lee una sola vez, para no mezclar dos perros si se mueve a
+            // mitad de la lectura
+            int id = this.id;
+            if (id >= perrera.getTamanno()) {
+                return null;
+            }
+            int mascara = 0;
+            for (int s = 0; s < NUM_STATS; s++) {
+                byte valor = (byte) perrera.leerStat(id, s);
+                if (primera || valor != entregados[s]) {
+                    mascara |= 1 << s;
+                    entregados[s] = valor;
+                }
+            }
+            long estados = perrera.leerEstados(id);
+            if (mascara == 0 && estados == estadosEntregados) {
+                return null;
+            }
+            primera = false;
+            estadosEntregados = estados;
+            byte[] valores = new byte[Integer.bitCount(mascara)];
+            int i = 0;
+            for (int m = mascara; m != 0; m &= m - 1) {
+                valores[i++] = entregados[Integer.numberOfTrailingZeros(m)];
+            }
+            return new DiferenciaPerro(id, mascara, valores, estados);
+        }
+    }
+}
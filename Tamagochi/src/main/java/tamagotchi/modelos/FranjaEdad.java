@@ -0,0 +1,113 @@
+package tamagotchi.modelos;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Franjas de edad de un perro. Cada franja suma un ajuste a los
+ * modificadores de las estadísticas del perro, además del que aporta su raza.
+ */
+public enum FranjaEdad {
+    CACHORRO(0.20, 0.10, 0.0, 0.05, -0.10, 0.15, 0.15, -0.20, 0.10, 0.15), // Hasta 2 años
+    ADULTO(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0),
+    SENIOR(-0.25, -0.10, 0.0, -0.25, 0.10, -0.20, 0.10, -0.15, -0.15, 0.10); // Desde 9 años
+
+    /**
+     * Edad máxima de un cachorro
+     */
+    private static final double EDAD_MAXIMA_CACHORRO = 2;
+
+    /**
+     * Edad a partir de la cual un perro es senior
+     */
+    private static final double EDAD_MINIMA_SENIOR = 9;
+
+    /**
+     * Edad máxima de un cachorro, en ticks
+     */
+    private static final int TICKS_MAXIMOS_CACHORRO = (int) (EDAD_MAXIMA_CACHORRO * Perrera.TICKS_POR_ANNO);
+
+    /**
+     * Edad a partir de la cual un perro es senior, en ticks
+     */
+    private static final int TICKS_MINIMOS_SENIOR = (int) (EDAD_MINIMA_SENIOR * Perrera.TICKS_POR_ANNO);
+
+    private final double[] ajustes;
+
+    /**
+     * Constructor de una franja de edad con el ajuste de cada estadística.
+     *
+     * @param energia Ajuste del modificador de energía.
+     * @param hambre Ajuste del modificador de hambre.
+     * @param felicidad Ajuste del modificador de felicidad.
+     * @param salud Ajuste del modificador de salud.
+     * @param limpieza Ajuste del modificador de limpieza.
+     * @param suenno Ajuste del modificador de sueño.
+     * @param ansiedad Ajuste del modificador de ansiedad.
+     * @param obediencia Ajuste del modificador de obediencia.
+     * @param sociabilidad Ajuste del modificador de sociabilidad.
+     * @param apego Ajuste del modificador de apego.
+     */
+    FranjaEdad(double energia, double hambre, double felicidad, double salud, double limpieza,
+            double suenno, double ansiedad, double obediencia, double sociabilidad, double apego) {
+        this.ajustes = new double[]{energia, hambre, felicidad, salud, limpieza,
+            suenno, ansiedad, obediencia, sociabilidad, apego};
+    }
+
+    /**
+     * Obtiene el ajuste que esta franja aplica al modificador de una
+     * estadística.
+     *
+     * @param stat Estadística a consultar.
+     * @return Ajuste a añadir/sustraer del modificador.
+     */
+    public double getAjuste(StatPerro stat) {
+        return ajustes[stat.ordinal()];
+    }
+
+    /**
+     * Obtiene la franja correspondiente a una edad.
+     *
+     * @param edad Edad en años.
+     * @return Franja de edad.
+     */
+    public static FranjaEdad de(double edad) {
+        if (edad <= EDAD_MAXIMA_CACHORRO) {
+            return CACHORRO;
+        }
+        return edad >= EDAD_MINIMA_SENIOR ? SENIOR : ADULTO;
+    }
+
+    /**
+     * Obtiene la franja correspondiente a una edad en ticks. Coincide con
+     * {@link #de(double)} para la edad en años equivalente.
+     *
+     * @param edadTicks Edad en ticks.
+     * @return Franja de edad.
+     */
+    static FranjaEdad deTicks(int edadTicks) {
+        if (edadTicks <= TICKS_MAXIMOS_CACHORRO) {
+            return CACHORRO;
+        }
+        return edadTicks >= TICKS_MINIMOS_SENIOR ? SENIOR : ADULTO;
+    }
+
+    /**
+     * Calcula cuántos ticks seguidos, empezando por el actual, pasa un perro
+     * en su franja de edad si va envejeciendo un tick cada vez.
+     *
+     * @param edadTicks Edad actual en ticks.
+     * @return Número de ticks (al menos 1), o {@link Long#MAX_VALUE} si ya no
+     * cambiará de franja.
+     */
+    static long ticksEnFranja(int edadTicks) {
+        return switch (deTicks(edadTicks)) {
+            case CACHORRO -> TICKS_MAXIMOS_CACHORRO - edadTicks + 1L;
+            case ADULTO -> TICKS_MINIMOS_SENIOR - edadTicks;
+            case SENIOR -> Long.MAX_VALUE;
+        };
+    }
+}
@@ -0,0 +1,663 @@
+package tamagotchi.modelos;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Historial comprimido de las estadísticas de todos los perros
+ * de una {@link Perrera} a lo largo del tiempo, pensado para dibujar la
+ * evolución de un perro o de la población. Cada llamada a {@link #registrar}
+ * guarda una muestra de todas las columnas de la perrera. Cada perro tiene su
+ * propia serie, que lo sigue aunque cambie de identificador porque se da de
+ * baja a otro; para ello el historial observa las altas y bajas de la
+ * perrera.
+ *
+ * Las muestras se agrupan en trozos de tamaño fijo. Mientras un trozo está
+ * abierto guarda los valores en crudo, un byte por valor; al llenarse se
+ * codifica columna a columna: para cada stat y perro se guarda el primer
+ * valor, la menor diferencia entre muestras consecutivas y, empaquetadas en
+ * los bits justos, las diferencias respecto a esa mínima. Como los stats
+ * varían casi siempre al mismo ritmo, la mayoría de perros ocupan entre 3 y
+ * 10 bytes por stat y trozo. Cada trozo guarda además la suma de cada stat en
+ * cada muestra, así que las medias de la población no descomprimen nada.
+ *
+ * Las consultas solo decodifican los trozos que se solapan con el rango
+ * pedido y, dentro de ellos, el grupo de {@link #PERROS_POR_GRUPO} perros en
+ * el que está el perro consultado. Cuando los trozos codificados en memoria,
+ * junto con los valores en crudo del trozo abierto, superan el presupuesto,
+ * los codificados se vuelcan al final de un fichero temporal y se siguen
+ * leyendo desde una proyección en memoria del mismo. Los arrays en crudo se
+ * reutilizan de un trozo al siguiente.
+ *
+ * Formato de cada serie dentro de un trozo codificado: byte primer valor,
+ * byte diferencia mínima (con signo), byte bits por diferencia y las
+ * diferencias restantes empaquetadas empezando por el bit menos
+ * significativo. Las muestras en las que el perro no estaba en la perrera
+ * se guardan como {@link #SIN_VALOR}.
+ */
+public final class HistorialStats implements ObservadorPerrera, AutoCloseable {
+
+    /**
+     * Perros de cada grupo con posición propia dentro de un trozo
+     */
+    public static final int PERROS_POR_GRUPO = 64;
+
+    /**
+     * Muestras por trozo si no se indica otra cosa
+     */
+    private static final int MUESTRAS_POR_TROZO_POR_DEFECTO = 32;
+
+    /**
+     * Bytes de cabecera de cada perro en un trozo codificado
+     */
+    private static final int CABECERA_PERRO = 3;
+
+    /**
+     * Valor que devuelven las series en las muestras en las que el perro no
+     * estaba en la perrera
+     */
+    public static final int SIN_VALOR = -1;
+
+    private final Perrera perrera;
+    private final Path ficheroVolcado;
+    private final long presupuestoMemoria;
+    private final int muestrasPorTrozo;
+
+    /**
+     * Trozos cerrados, en orden de tiempo
+     */
+    private final List<Trozo> trozos = new ArrayList<>();
+
+    /**
+     * Trozo en el que se están añadiendo muestras, o null
+     */
+    private Trozo abierto;
+
+    /**
+     * Arrays en crudo del último trozo cerrado, para el siguiente
+     */
+    private byte[][] crudosLibres;
+
+    /**
+     * Fichero con los trozos volcados, abierto al volcar por primera vez
+     */
+    private FileChannel volcado;
+    private long bytesVolcados;
+    private long bytesMemoria;
+    private long bytesCrudos;
+    private long ultimoTick = Long.MIN_VALUE;
+    private long numMuestras;
+    private int[] columna = new int[0];
+
+    /**
+     * Serie de cada perro de la perrera, por identificador
+     */
+    private int[] series = new int[0];
+
+    /**
+     * Perros de la perrera, desde el identificador 0, que tienen serie
+     */
+    private int conocidos;
+
+    /**
+     * Número de series creadas
+     */
+    private int numSeries;
+
+    /**
+     * Crea un historial con el tamaño de trozo por defecto.
+     *
+     * @param perrera Perrera a muestrear.
+     * @param ficheroVolcado Fichero temporal donde se vuelcan los trozos
+     * que no caben en memoria. Se sobrescribe y se borra al cerrar.
+     * @param presupuestoMemoria Bytes que puede ocupar el historial en
+     * memoria, contando los valores en crudo del trozo abierto, antes de
+     * volcar los trozos codificados.
+     */
+    public HistorialStats(Perrera perrera, Path ficheroVolcado, long presupuestoMemoria) {
+        this(perrera, ficheroVolcado, presupuestoMemoria, MUESTRAS_POR_TROZO_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un historial y lo registra como observador de la perrera.
+     *
+     * @param perrera Perrera a muestrear.
+     * @param ficheroVolcado Fichero temporal donde se vuelcan los trozos
+     * que no caben en memoria. Se sobrescribe y se borra al cerrar.
+     * @param presupuestoMemoria Bytes que puede ocupar el historial en
+     * memoria, contando los valores en crudo del trozo abierto, antes de
+     * volcar los trozos codificados.
+     * @param muestrasPorTrozo Muestras de cada trozo.
+     * @throws IllegalArgumentException Si los parámetros no son válidos.
+     */
+    public HistorialStats(Perrera perrera, Path ficheroVolcado, long presupuestoMemoria, int muestrasPorTrozo) {
+        if (presupuestoMemoria < 0) {
+            throw new IllegalArgumentException("El presupuesto de memoria no puede ser negativo.");
+        }
+        if (muestrasPorTrozo < 2) {
+            throw new IllegalArgumentException("Cada trozo debe tener al menos dos muestras.");
+        }
+        this.perrera = perrera;
+        this.ficheroVolcado = ficheroVolcado;
+        this.presupuestoMemoria = presupuestoMemoria;
+        this.muestrasPorTrozo = muestrasPorTrozo;
+        asegurarSeries(perrera.getTamanno());
+        perrera.agregarObservador(this);
+    }
+
+    @Override
+    public void statCambiado(int id, StatPerro stat, int valor) {
+        // Los valores se toman al registrar cada muestra
+    }
+
+    @Override
+    public synchronized void perroAnnadido(int id) {
+        asegurarSeries(id + 1);
+    }
+
+    @Override
+    public synchronized void perroEliminado(int id) {
+        conocidos = Math.min(conocidos, perrera.getTamanno());
+    }
+
+    /**
+     * El perro movido conserva su serie en su nuevo identificador.
+     */
+    @Override
+    public synchronized void perroMovido(int desde, int hacia) {
+        series[hacia] = series[desde];
+    }
+
+    /**
+     * Da una serie nueva a cada perro sin serie hasta un identificador.
+     */
+    private void asegurarSeries(int perros) {
+        if (series.length < perros) {
+            series = Arrays.copyOf(series, Math.max(perros, series.length * 2));
+        }
+        while (conocidos < perros) {
+            series[conocidos++] = numSeries++;
+        }
+    }
+
+    /**
+     * Guarda una muestra con los stats actuales de todos los perros de la
+     * perrera. Si la perrera es perezosa, primero se ponen al día.
+     *
+     * @param tick Tick de la muestra, mayor que el de la anterior.
+     * @throws IllegalArgumentException Si el tick no es posterior al de la
+     * muestra anterior.
+     * @throws UncheckedIOException Si falla el volcado a disco.
+     */
+    public synchronized void registrar(long tick) {
+        if (tick <= ultimoTick) {
+            throw new IllegalArgumentException("Las muestras deben tener ticks crecientes.");
+        }
+        int perros = perrera.getTamanno();
+        asegurarSeries(perros);
+        if (abierto == null) {
+            abierto = new Trozo(muestrasPorTrozo, numSeries, crudosLibres);
+            crudosLibres = null;
+        }
+        abierto.crecer(numSeries);
+        if (columna.length < perros) {
+            columna = new int[Math.max(perros, columna.length * 2)];
+        }
+
+        int k = abierto.numMuestras;
+        for (int s = 0; s < Perrera.NUM_STATS; s++) {
+            perrera.copiarStat(Perrera.STATS[s], columna);
+            byte[] crudo = abierto.crudos[s];
+            long suma = 0;
+            for (int id = 0; id < perros; id++) {
+                crudo[series[id] * muestrasPorTrozo + k] = (byte) columna[id];
+                suma += columna[id];
+            }
+            abierto.sumas[s * muestrasPorTrozo + k] = suma;
+        }
+        abierto.ticks[k] = tick;
+        abierto.perros[k] = perros;
+        abierto.numMuestras++;
+        ultimoTick = tick;
+        numMuestras++;
+        bytesCrudos += (long) perros * Perrera.NUM_STATS;
+
+        if (abierto.numMuestras == muestrasPorTrozo) {
+            crudosLibres = abierto.codificar();
+            trozos.add(abierto);
+            bytesMemoria += abierto.datos.length;
+            abierto = null;
+        }
+        // Los valores en crudo no se pueden volcar, pero ocupan su parte
+        if (bytesMemoria > 0 && bytesMemoria + bytesEnCrudo() > presupuestoMemoria) {
+            volcar();
+        }
+    }
+
+    /**
+     * Obtiene los ticks de las muestras guardadas dentro de un rango.
+     *
+     * @param desde Primer tick del rango (incluido).
+     * @param hasta Último tick del rango (incluido).
+     * @return Ticks de las muestras, en orden.
+     */
+    public synchronized long[] getTicks(long desde, long hasta) {
+        long[] resultado = new long[contarMuestras(desde, hasta)];
+        int n = 0;
+        for (Trozo trozo : trozosEntre(desde, hasta)) {
+            for (int k = 0; k < trozo.numMuestras; k++) {
+                if (trozo.ticks[k] >= desde && trozo.ticks[k] <= hasta) {
+                    resultado[n++] = trozo.ticks[k];
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la evolución de una estadística de un perro entre dos ticks,
+     * incluidas las muestras tomadas cuando tenía otro identificador. Solo
+     * se decodifica el grupo del perro en los trozos del rango.
+     *
+     * @param id Identificador actual del perro.
+     * @param stat Estadística a consultar.
+     * @param desde Primer tick del rango (incluido).
+     * @param hasta Último tick del rango (incluido).
+     * @return Un valor por cada muestra de {@link #getTicks(long, long)},
+     * o {@link #SIN_VALOR} en las muestras en las que el perro no estaba.
+     * @throws IndexOutOfBoundsException Si el perro no existe.
+     */
+    public synchronized int[] getSerie(int id, StatPerro stat, long desde, long hasta) {
+        if (id < 0 || id >= conocidos) {
+            throw new IndexOutOfBoundsException("No existe el perro con id " + id);
+        }
+        int serie = series[id];
+        int[] resultado = new int[contarMuestras(desde, hasta)];
+        int[] valores = new int[muestrasPorTrozo];
+        int n = 0;
+        for (Trozo trozo : trozosEntre(desde, hasta)) {
+            if (serie < trozo.numSeries) {
+                trozo.leer(serie, stat.ordinal(), valores);
+            } else {
+                Arrays.fill(valores, SIN_VALOR);
+            }
+            for (int k = 0; k < trozo.numMuestras; k++) {
+                if (trozo.ticks[k] >= desde && trozo.ticks[k] <= hasta) {
+                    resultado[n++] = valores[k];
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la media de una estadística en toda la población en cada
+     * muestra de un rango. No decodifica ningún trozo.
+     *
+     * @param stat Estadística a consultar.
+     * @param desde Primer tick del rango (incluido).
+     * @param hasta Último tick del rango (incluido).
+     * @return Una media por cada muestra de {@link #getTicks(long, long)}, 0
+     * si la perrera estaba vacía.
+     */
+    public synchronized double[] getMedias(StatPerro stat, long desde, long hasta) {
+        double[] resultado = new double[contarMuestras(desde, hasta)];
+        int n = 0;
+        for (Trozo trozo : trozosEntre(desde, hasta)) {
+            for (int k = 0; k < trozo.numMuestras; k++) {
+                if (trozo.ticks[k] >= desde && trozo.ticks[k] <= hasta) {
+                    int perros = trozo.perros[k];
+                    long suma = trozo.sumas[stat.ordinal() * muestrasPorTrozo + k];
+                    resultado[n++] = perros == 0 ? 0.0 : (double) suma / perros;
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Número de muestras guardadas
+     */
+    public synchronized long getNumMuestras() {
+        return numMuestras;
+    }
+
+    /**
+     * @return Bytes de trozos codificados que siguen en memoria más los de
+     * los arrays en crudo del trozo abierto
+     */
+    public synchronized long getBytesMemoria() {
+        return bytesMemoria + bytesEnCrudo();
+    }
+
+    /**
+     * Bytes de los arrays en crudo, los tenga el trozo abierto o estén
+     * esperando al siguiente.
+     */
+    private long bytesEnCrudo() {
+        byte[][] crudos = abierto != null ? abierto.crudos : crudosLibres;
+        return crudos == null ? 0 : (long) Perrera.NUM_STATS * crudos[0].length;
+    }
+
+    /**
+     * @return Bytes de trozos volcados al fichero temporal
+     */
+    public synchronized long getBytesVolcados() {
+        return bytesVolcados;
+    }
+
+    /**
+     * @return Bytes que ocuparían todas las muestras sin comprimir, a un
+     * byte por valor
+     */
+    public synchronized long getBytesCrudos() {
+        return bytesCrudos;
+    }
+
+    /**
+     * Deja de observar la perrera y cierra y borra el fichero temporal.
+     * Después de cerrar no se pueden consultar los trozos volcados.
+     *
+     * @throws IOException Si falla el cierre del fichero.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        perrera.quitarObservador(this);
+        if (volcado != null) {
+            volcado.close();
+            volcado = null;
+        }
+    }
+
+    /**
+     * Escribe al final del fichero temporal todos los trozos codificados que
+     * están en memoria y los proyecta de una vez en una sola región.
+     */
+    private void volcar() {
+        try {
+            if (volcado == null) {
+                volcado = FileChannel.open(ficheroVolcado, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            long inicio = bytesVolcados;
+            List<Trozo> pendientes = new ArrayList<>();
+            for (Trozo trozo : trozos) {
+                if (trozo.datos != null) {
+                    ByteBuffer buffer = ByteBuffer.wrap(trozo.datos);
+                    while (buffer.hasRemaining()) {
+                        volcado.write(buffer, bytesVolcados + buffer.position());
+                    }
+                    trozo.posicion = bytesVolcados - inicio;
+                    bytesVolcados += trozo.datos.length;
+                    pendientes.add(trozo);
+                }
+            }
+            RegionMapeada region = new RegionMapeada(volcado, inicio, bytesVolcados - inicio);
+            for (Trozo trozo : pendientes) {
+                bytesMemoria -= trozo.datos.length;
+                trozo.region = region;
+                trozo.datos = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo volcar el historial a disco.", e);
+        }
+    }
+
+    /**
+     * Trozos, incluido el abierto, con alguna muestra dentro de un rango.
+     */
+    private List<Trozo> trozosEntre(long desde, long hasta) {
+        List<Trozo> resultado = new ArrayList<>();
+        int i = primerTrozoDesde(desde);
+        for (; i < trozos.size() && trozos.get(i).ticks[0] <= hasta; i++) {
+            resultado.add(trozos.get(i));
+        }
+        if (abierto != null && abierto.numMuestras > 0 && abierto.ticks[0] <= hasta
+                && abierto.ticks[abierto.numMuestras - 1] >= desde) {
+            resultado.add(abierto);
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca el primer trozo cerrado cuya última muestra no es anterior a un
+     * tick.
+     */
+    private int primerTrozoDesde(long desde) {
+        int bajo = 0;
+        int alto = trozos.size();
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            Trozo trozo = trozos.get(medio);
+            if (trozo.ticks[trozo.numMuestras - 1] < desde) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private int contarMuestras(long desde, long hasta) {
+        int total = 0;
+        for (Trozo trozo : trozosEntre(desde, hasta)) {
+            for (int k = 0; k < trozo.numMuestras; k++) {
+                if (trozo.ticks[k] >= desde && trozo.ticks[k] <= hasta) {
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Grupo de muestras consecutivas. Mientras está abierto guarda los
+     * valores en crudo por serie; al cerrarse se codifica y los valores
+     * pasan a {@link #datos} o, tras un volcado, a {@link #region}.
+     */
+    private static final class Trozo {
+
+        final int capacidad;
+        final long[] ticks;
+        final int[] perros;
+        final long[] sumas;
+        int numMuestras;
+
+        /**
+         * Series con sitio en el trozo: las creadas hasta su última muestra
+         */
+        int numSeries;
+
+        /**
+         * Valores en crudo de cada stat: {@code [s][serie * capacidad + k]},
+         * a {@link #SIN_VALOR} en las muestras en las que no estaba el perro
+         */
+        byte[][] crudos;
+
+        /**
+         * Posición de cada grupo de series de cada stat dentro de los datos:
+         * {@code [s * (numGrupos + 1) + g]}
+         */
+        long[] posiciones;
+
+        byte[] datos;
+        RegionMapeada region;
+        long posicion;
+
+        /**
+         * @param libres Arrays en crudo de un trozo anterior de la misma
+         * capacidad, o null para crearlos.
+         */
+        Trozo(int capacidad, int series, byte[][] libres) {
+            this.capacidad = capacidad;
+            this.ticks = new long[capacidad];
+            this.perros = new int[capacidad];
+            this.sumas = new long[Perrera.NUM_STATS * capacidad];
+            this.crudos = libres != null ? libres : new byte[Perrera.NUM_STATS][series * capacidad];
+            // Se rellenan enteros, porque crecer() solo rellena lo que añade
+            for (byte[] crudo : crudos) {
+                Arrays.fill(crudo, (byte) SIN_VALOR);
+            }
+        }
+
+        /**
+         * Amplía los arrays en crudo si hay más series que en las muestras
+         * anteriores del trozo.
+         */
+        void crecer(int nuevas) {
+            if (nuevas > numSeries) {
+                int necesario = nuevas * capacidad;
+                for (int s = 0; s < Perrera.NUM_STATS; s++) {
+                    int anterior = crudos[s].length;
+                    if (anterior < necesario) {
+                        crudos[s] = Arrays.copyOf(crudos[s], Math.max(necesario, anterior * 2));
+                        Arrays.fill(crudos[s], anterior, crudos[s].length, (byte) SIN_VALOR);
+                    }
+                }
+                numSeries = nuevas;
+            }
+        }
+
+        /**
+         * Codifica los valores en crudo y los suelta. Se hace en dos
+         * pasadas: la primera calcula el tamaño de cada perro y la segunda
+         * escribe sobre un array del tamaño exacto.
+         *
+         * @return Arrays en crudo, para reutilizarlos en otro trozo.
+         */
+        byte[][] codificar() {
+            int numGrupos = (numSeries + PERROS_POR_GRUPO - 1) / PERROS_POR_GRUPO;
+            posiciones = new long[Perrera.NUM_STATS * (numGrupos + 1)];
+            long total = 0;
+            for (int s = 0; s < Perrera.NUM_STATS; s++) {
+                for (int serie = 0; serie < numSeries; serie++) {
+                    if (serie % PERROS_POR_GRUPO == 0) {
+                        posiciones[s * (numGrupos + 1) + serie / PERROS_POR_GRUPO] = total;
+                    }
+                    total += tamanno(ancho(crudos[s], serie * capacidad));
+                }
+                posiciones[s * (numGrupos + 1) + numGrupos] = total;
+            }
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("El trozo del historial no cabe en memoria; usa trozos más pequeños.");
+            }
+
+            datos = new byte[(int) total];
+            int pos = 0;
+            for (int s = 0; s < Perrera.NUM_STATS; s++) {
+                byte[] crudo = crudos[s];
+                for (int serie = 0; serie < numSeries; serie++) {
+                    int desde = serie * capacidad;
+                    int minimo = minimo(crudo, desde);
+                    int bits = ancho(crudo, desde);
+                    datos[pos++] = crudo[desde];
+                    datos[pos++] = (byte) minimo;
+                    datos[pos++] = (byte) bits;
+                    long acumulado = 0;
+                    int pendientes = 0;
+                    for (int k = 1; k < numMuestras; k++) {
+                        acumulado |= (long) (crudo[desde + k] - crudo[desde + k - 1] - minimo) << pendientes;
+                        pendientes += bits;
+                        while (pendientes >= 8) {
+                            datos[pos++] = (byte) acumulado;
+                            acumulado >>>= 8;
+                            pendientes -= 8;
+                        }
+                    }
+                    if (pendientes > 0) {
+                        datos[pos++] = (byte) acumulado;
+                    }
+                }
+            }
+            byte[][] libres = crudos;
+            crudos = null;
+            return libres;
+        }
+
+        /**
+         * Decodifica los valores de un stat de un perro en todas las
+         * muestras del trozo.
+         */
+        void leer(int serie, int s, int[] destino) {
+            if (crudos != null) {
+                for (int k = 0; k < numMuestras; k++) {
+                    destino[k] = crudos[s][serie * capacidad + k];
+                }
+                return;
+            }
+            int numGrupos = (numSeries + PERROS_POR_GRUPO - 1) / PERROS_POR_GRUPO;
+            int g = serie / PERROS_POR_GRUPO;
+            long inicio = posiciones[s * (numGrupos + 1) + g];
+            byte[] grupo = new byte[(int) (posiciones[s * (numGrupos + 1) + g + 1] - inicio)];
+            if (datos != null) {
+                System.arraycopy(datos, (int) inicio, grupo, 0, grupo.length);
+            } else {
+                region.get(posicion + inicio, grupo);
+            }
+
+            int pos = 0;
+            for (int otro = g * PERROS_POR_GRUPO; otro < serie; otro++) {
+                pos += tamanno(grupo[pos + 2]);
+            }
+            int valor = grupo[pos];
+            int minimo = grupo[pos + 1];
+            int bits = grupo[pos + 2];
+            int mascara = (1 << bits) - 1;
+            pos += CABECERA_PERRO;
+            destino[0] = valor;
+            long acumulado = 0;
+            int disponibles = 0;
+            for (int k = 1; k < numMuestras; k++) {
+                while (disponibles < bits) {
+                    acumulado |= (long) (grupo[pos++] & 0xFF) << disponibles;
+                    disponibles += 8;
+                }
+                valor += minimo + (int) (acumulado & mascara);
+                acumulado >>>= bits;
+                disponibles -= bits;
+                destino[k] = valor;
+            }
+        }
+
+        /**
+         * Bytes que ocupa un perro codificado con un ancho de bits dado.
+         */
+        private int tamanno(int bits) {
+            return CABECERA_PERRO + ((numMuestras - 1) * bits + 7) / 8;
+        }
+
+        private int minimo(byte[] crudo, int desde) {
+            int minimo = Integer.MAX_VALUE;
+            for (int k = 1; k < numMuestras; k++) {
+                minimo = Math.min(minimo, crudo[desde + k] - crudo[desde + k - 1]);
+            }
+            return numMuestras > 1 ? minimo : 0;
+        }
+
+        /**
+         * Bits necesarios para la mayor diferencia respecto a la mínima.
+         */
+        private int ancho(byte[] crudo, int desde) {
+            int minimo = minimo(crudo, desde);
+            int maximo = minimo;
+            for (int k = 1; k < numMuestras; k++) {
+                maximo = Math.max(maximo, crudo[desde + k] - crudo[desde + k - 1]);
+            }
+            return 32 - Integer.numberOfLeadingZeros(maximo - minimo);
+        }
+    }
+}
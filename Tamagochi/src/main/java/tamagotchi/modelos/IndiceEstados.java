@@ -0,0 +1,210 @@
+package tamagotchi.modelos;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Índice invertido de una {@link Perrera} que, para cada
+ * {@link Estado}, sabe qué perros están en él. La perrera lo actualiza cada
+ * vez que detecta una transición de estados, así que nunca hace falta
+ * recorrer toda la población para saber, por ejemplo, qué perros están
+ * famélicos o enfermos y sucios a la vez.
+ *
+ * Cada estado tiene un conjunto de bits de dos niveles: un bit por perro y un
+ * bit de resumen por cada palabra de 64 perros que tenga alguno activo. Las
+ * consultas solo visitan las palabras marcadas en el resumen, por lo que su
+ * coste depende del resultado y no del tamaño de la población.
+ *
+ * Como cada palabra de resumen cubre {@link Perrera#ALINEACION_RANGOS}
+ * perros, varios hilos pueden actualizar el índice a la vez sin
+ * sincronización si trabajan en rangos alineados a ese tamaño.
+ */
+public class IndiceEstados {
+
+    private static final Estado[] ESTADOS = Estado.values();
+
+    /**
+     * Un bit por perro para cada estado
+     */
+    private long[][] bits;
+
+    /**
+     * Un bit por palabra de {@link #bits} no vacía, para cada estado
+     */
+    private long[][] resumen;
+
+    /**
+     * Crea un índice vacío.
+     *
+     * @param capacidad Número de perros que puede indexar.
+     */
+    IndiceEstados(int capacidad) {
+        bits = new long[ESTADOS.length][palabras(capacidad)];
+        resumen = new long[ESTADOS.length][palabras(palabras(capacidad))];
+    }
+
+    /**
+     * Amplía el índice para que admita más perros.
+     *
+     * @param capacidad Nueva capacidad.
+     */
+    void crecer(int capacidad) {
+        for (int e = 0; e < ESTADOS.length; e++) {
+            bits[e] = Arrays.copyOf(bits[e], palabras(capacidad));
+            resumen[e] = Arrays.copyOf(resumen[e], palabras(palabras(capacidad)));
+        }
+    }
+
+    /**
+     * Actualiza el índice con el cambio de estados de un perro.
+     *
+     * @param id Identificador del perro.
+     * @param anteriores Máscara de estados anterior.
+     * @param nuevos Máscara de estados nueva.
+     */
+    void actualizar(int id, long anteriores, long nuevos) {
+        int palabra = id >>> 6;
+        long bit = 1L << id;
+        long entrados = nuevos & ~anteriores;
+        while (entrados != 0) {
+            int e = Long.numberOfTrailingZeros(entrados);
+            entrados &= entrados - 1;
+            bits[e][palabra] |= bit;
+            resumen[e][palabra >>> 6] |= 1L << palabra;
+        }
+        long salidos = anteriores & ~nuevos;
+        while (salidos != 0) {
+            int e = Long.numberOfTrailingZeros(salidos);
+            salidos &= salidos - 1;
+            if ((bits[e][palabra] &= ~bit) == 0) {
+                resumen[e][palabra >>> 6] &= ~(1L << palabra);
+            }
+        }
+    }
+
+    /**
+     * Cuenta los perros que están en un estado.
+     *
+     * @param estado Estado a consultar.
+     * @return Número de perros en ese estado.
+     */
+    public int contar(Estado estado) {
+        long[] palabras = bits[estado.ordinal()];
+        long[] marcas = resumen[estado.ordinal()];
+        int total = 0;
+        for (int r = 0; r < marcas.length; r++) {
+            for (long m = marcas[r]; m != 0; m &= m - 1) {
+                total += Long.bitCount(palabras[(r << 6) + Long.numberOfTrailingZeros(m)]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Comprueba si un perro está en un estado.
+     *
+     * @param estado Estado a consultar.
+     * @param id Identificador del perro.
+     * @return true si el perro está en ese estado.
+     */
+    public boolean contiene(Estado estado, int id) {
+        long[] palabras = bits[estado.ordinal()];
+        int palabra = id >>> 6;
+        return palabra < palabras.length && (palabras[palabra] & (1L << id)) != 0;
+    }
+
+    /**
+     * Recorre, en orden de identificador, los perros que están a la vez en
+     * todos los estados indicados.
+     *
+     * @param accion Acción a ejecutar con el identificador de cada perro.
+     * @param estados Estados que deben cumplirse todos (al menos uno).
+     */
+    public void recorrer(IntConsumer accion, Estado... estados) {
+        intersectar(accion, null, estados);
+    }
+
+    /**
+     * Cuenta los perros que están a la vez en todos los estados indicados.
+     *
+     * @param estados Estados que deben cumplirse todos (al menos uno).
+     * @return Número de perros que los cumplen.
+     */
+    public int contarTodos(Estado... estados) {
+        if (estados.length == 1) {
+            return contar(estados[0]);
+        }
+        int[] total = new int[1];
+        intersectar(null, total, estados);
+        return total[0];
+    }
+
+    /**
+     * Obtiene los identificadores de los perros que están a la vez en todos
+     * los estados indicados.
+     *
+     * @param estados Estados que deben cumplirse todos (al menos uno).
+     * @return Identificadores en orden ascendente.
+     */
+    public int[] ids(Estado... estados) {
+        int[] resultado = new int[contarTodos(estados)];
+        int[] n = new int[1];
+        recorrer(id -> resultado[n[0]++] = id, estados);
+        return resultado;
+    }
+
+    /**
+     * Recorre la intersección de varios estados, visitando solo las palabras
+     * que tienen algún bit activo en todos ellos.
+     *
+     * @param accion Acción por cada perro, o null si solo se cuenta.
+     * @param total Acumulador del número de perros, o null.
+     * @param estados Estados a intersectar.
+     */
+    private void intersectar(IntConsumer accion, int[] total, Estado... estados) {
+        if (estados.length == 0) {
+            throw new IllegalArgumentException("Hay que indicar al menos un estado.");
+        }
+        long[][] palabras = new long[estados.length][];
+        long[][] marcas = new long[estados.length][];
+        for (int i = 0; i < estados.length; i++) {
+            palabras[i] = bits[estados[i].ordinal()];
+            marcas[i] = resumen[estados[i].ordinal()];
+        }
+
+        for (int r = 0; r < marcas[0].length; r++) {
+            long m = marcas[0][r];
+            for (int i = 1; i < marcas.length && m != 0; i++) {
+                m &= marcas[i][r];
+            }
+            for (; m != 0; m &= m - 1) {
+                int p = (r << 6) + Long.numberOfTrailingZeros(m);
+                long w = palabras[0][p];
+                for (int i = 1; i < palabras.length; i++) {
+                    w &= palabras[i][p];
+                }
+                if (total != null) {
+                    total[0] += Long.bitCount(w);
+                }
+                if (accion != null) {
+                    for (; w != 0; w &= w - 1) {
+                        accion.accept((p << 6) + Long.numberOfTrailingZeros(w));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Número de palabras de 64 bits necesarias para n bits
+     */
+    private static int palabras(int n) {
+        return (n + 63) >>> 6;
+    }
+}
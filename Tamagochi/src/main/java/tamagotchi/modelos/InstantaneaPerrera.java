@@ -0,0 +1,450 @@
+package tamagotchi.modelos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Instantánea binaria de una {@link Perrera} en disco. Cada perro
+ * ocupa un registro de tamaño fijo, así que el registro de cualquier perro se
+ * localiza directamente por su identificador. Al abrir una instantánea solo
+ * se proyecta el fichero en memoria y se lee la cabecera; los perros se
+ * reconstruyen a partir de la región proyectada cuando se piden, y se guardan
+ * los últimos usados en una caché de tamaño acotado.
+ *
+ * La instantánea se escribe en un fichero temporal junto al de destino y solo
+ * sustituye a la anterior, con un renombrado atómico, cuando está completa en
+ * disco: una caída a mitad de escritura deja intacta la instantánea previa.
+ *
+ * Formato (little-endian):
+ * <pre>
+ * Cabecera (64 bytes): magia, versión, número de perros, tamaño de registro,
+ *                      número de stats, posición y número de nombres, tick
+ *                      de la perrera (offset 40) y si es perezosa (48).
+ * Registros (112 bytes cada uno):
+ *   0  int    id del nombre en la tabla de nombres
+ *   4  byte   ordinal de la raza
+ *   5  byte[] un byte por cada StatPerro (10)
+ *   16 double edad
+ *   24 long   máscara de estados, informativa: al leer se recalcula a
+ *             partir de las stats
+ *   32 double[] modificador de cada StatPerro (10), informativo: al leer
+ *               se toma de TablaModificadores según la raza y la edad
+ * Tabla de nombres: long[n + 1] posiciones relativas y después los nombres
+ *                   en UTF-8, uno tras otro, sin repetir.
+ * </pre>
+ */
+public class InstantaneaPerrera implements AutoCloseable {
+
+    /**
+     * Número mágico al inicio del fichero ("TMGS")
+     */
+    private static final int MAGIA = 0x53474D54;
+
+    /**
+     * Versión del formato
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Versión anterior, sin tick, que se sigue pudiendo leer
+     */
+    private static final int VERSION_SIN_TICK = 1;
+
+    /**
+     * Tamaño de la cabecera en bytes
+     */
+    static final int TAMANNO_CABECERA = 64;
+
+    /**
+     * Tamaño de un registro de perro en bytes
+     */
+    static final int TAMANNO_REGISTRO = 112;
+
+    private static final int POS_NOMBRE = 0;
+    private static final int POS_RAZA = 4;
+    private static final int POS_STATS = 5;
+    private static final int POS_EDAD = 16;
+    private static final int POS_ESTADOS = 24;
+    private static final int POS_MODS = 32;
+
+    /**
+     * Número de registros que se escriben en cada llamada al canal
+     */
+    private static final int REGISTROS_POR_ESCRITURA = 8192;
+
+    private static final Raza[] RAZAS = Raza.values();
+
+    private final FileChannel canal;
+    private final RegionMapeada registros;
+    private final RegionMapeada nombres;
+    private final int numPerros;
+    private final long numNombres;
+    private final long tick;
+    private final boolean perezosa;
+    private final Map<Integer, Perro> cache;
+
+    /**
+     * Constructor privado; las instantáneas se abren con {@link #abrir}.
+     */
+    private InstantaneaPerrera(FileChannel canal, RegionMapeada registros, RegionMapeada nombres,
+            int numPerros, long numNombres, long tick, boolean perezosa, int capacidadCache) {
+        this.canal = canal;
+        this.registros = registros;
+        this.nombres = nombres;
+        this.numPerros = numPerros;
+        this.numNombres = numNombres;
+        this.tick = tick;
+        this.perezosa = perezosa;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Perro> masAntiguo) {
+                return size() > capacidadCache;
+            }
+        };
+    }
+
+    /**
+     * Guarda todos los perros de una perrera en un fichero, junto con su
+     * tick, sustituyendo su contenido si ya existía. Mientras se escribe, el
+     * fichero de destino conserva la instantánea anterior.
+     *
+     * @param perrera Perrera a guardar.
+     * @param fichero Fichero de destino.
+     * @throws IOException Si falla la escritura.
+     */
+    public static void guardar(Perrera perrera, Path fichero) throws IOException {
+        Path temporal = fichero.resolveSibling(fichero.getFileName() + ".tmp");
+        try {
+            escribir(perrera, temporal);
+            Files.move(temporal, fichero, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        sincronizarDirectorio(fichero.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Escribe la instantánea completa en un fichero y la fuerza a disco.
+     */
+    private static void escribir(Perrera perrera, Path fichero) throws IOException {
+        int numPerros = perrera.getTamanno();
+        Map<String, Integer> idsNombres = new HashMap<>();
+        List<byte[]> tablaNombres = new ArrayList<>();
+
+        try (FileChannel salida = FileChannel.open(fichero, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(REGISTROS_POR_ESCRITURA * TAMANNO_REGISTRO)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            salida.position(TAMANNO_CABECERA);
+            for (int id = 0; id < numPerros; id++) {
+                String nombre = perrera.getNombre(id);
+                Integer idNombre = idsNombres.get(nombre);
+                if (idNombre == null) {
+                    idNombre = tablaNombres.size();
+                    idsNombres.put(nombre, idNombre);
+                    tablaNombres.add(nombre.getBytes(StandardCharsets.UTF_8));
+                }
+                escribirRegistro(perrera, id, idNombre, buffer);
+                if (!buffer.hasRemaining()) {
+                    volcar(buffer, salida);
+                }
+            }
+            volcar(buffer, salida);
+
+            long posNombres = salida.position();
+            escribirNombres(tablaNombres, buffer, salida);
+
+            buffer.clear();
+            buffer.putInt(MAGIA).putInt(VERSION).putLong(numPerros)
+                    .putInt(TAMANNO_REGISTRO).putInt(Perrera.NUM_STATS)
+                    .putLong(posNombres).putLong(tablaNombres.size())
+                    .putLong(perrera.getTick()).put((byte) (perrera.isPerezosa() ? 1 : 0));
+            while (buffer.position() < TAMANNO_CABECERA) {
+                buffer.put((byte) 0);
+            }
+            buffer.flip();
+            salida.write(buffer, 0);
+            salida.force(true);
+        }
+    }
+
+    /**
+     * Fuerza a disco la entrada del directorio tras el renombrado. No todos
+     * los sistemas permiten abrir un directorio, así que si falla se ignora:
+     * el renombrado ya es atómico, solo podría perderse ante un corte de luz.
+     */
+    private static void sincronizarDirectorio(Path directorio) {
+        if (directorio == null) {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Sin garantía extra de durabilidad en este sistema
+        }
+    }
+
+    /**
+     * Abre una instantánea proyectándola en memoria. No se lee ningún perro
+     * hasta que se pide.
+     *
+     * @param fichero Fichero de la instantánea.
+     * @param capacidadCache Número máximo de perros reconstruidos que se
+     * mantienen en caché.
+     * @return Instantánea abierta.
+     * @throws IOException Si el fichero no se puede leer o no tiene un formato
+     * válido.
+     */
+    public static InstantaneaPerrera abrir(Path fichero, int capacidadCache) throws IOException {
+        if (capacidadCache < 1) {
+            throw new IllegalArgumentException("La caché debe admitir al menos un perro.");
+        }
+        FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ);
+        try {
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMANNO_CABECERA).order(ByteOrder.LITTLE_ENDIAN);
+            while (cabecera.hasRemaining() && canal.read(cabecera, cabecera.position()) >= 0) {
+                // Se sigue leyendo hasta completar la cabecera
+            }
+            cabecera.flip();
+            if (cabecera.remaining() < TAMANNO_CABECERA || cabecera.getInt() != MAGIA) {
+                throw new IOException("El fichero no es una instantánea de perrera: " + fichero);
+            }
+            int version = cabecera.getInt();
+            long numPerros = cabecera.getLong();
+            int tamannoRegistro = cabecera.getInt();
+            int numStats = cabecera.getInt();
+            long posNombres = cabecera.getLong();
+            long numNombres = cabecera.getLong();
+            long tick = version == VERSION ? cabecera.getLong() : 0;
+            boolean perezosa = version == VERSION && cabecera.get() != 0;
+            if ((version != VERSION && version != VERSION_SIN_TICK) || tamannoRegistro != TAMANNO_REGISTRO || numStats != Perrera.NUM_STATS) {
+                throw new IOException("Versión de instantánea no soportada: " + version);
+            }
+            if (numPerros > Integer.MAX_VALUE || posNombres != TAMANNO_CABECERA + numPerros * TAMANNO_REGISTRO
+                    || posNombres > canal.size() || tick < 0
+                    || numNombres < 0 || numNombres >= (canal.size() - posNombres) / Long.BYTES) {
+                throw new IOException("Instantánea dañada: " + fichero);
+            }
+
+            RegionMapeada registros = new RegionMapeada(canal, TAMANNO_CABECERA, numPerros * TAMANNO_REGISTRO);
+            RegionMapeada nombres = new RegionMapeada(canal, posNombres, canal.size() - posNombres);
+            return new InstantaneaPerrera(canal, registros, nombres, (int) numPerros, numNombres,
+                    tick, perezosa, capacidadCache);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Número de perros guardados en la instantánea
+     */
+    public int getTamanno() {
+        return numPerros;
+    }
+
+    /**
+     * @return Próximo tick que iba a simular la perrera al guardarla
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Obtiene un perro de la instantánea, reconstruyéndolo a partir de la
+     * región proyectada si no está en la caché. El perro devuelto vive en su
+     * propia perrera de un hueco: los cambios que se le hagan no se escriben
+     * en la instantánea.
+     *
+     * @param id Identificador del perro.
+     * @return Perro reconstruido.
+     * @throws IndexOutOfBoundsException Si el identificador no existe.
+     * @throws IOException Si el registro del perro está dañado.
+     */
+    public synchronized Perro get(int id) throws IOException {
+        if (id < 0 || id >= numPerros) {
+            throw new IndexOutOfBoundsException("No existe el perro con id " + id);
+        }
+        Perro perro = cache.get(id);
+        if (perro == null) {
+            Perrera perrera = new Perrera(1, perezosa);
+            perrera.fijarTick(tick);
+            leerRegistro(id, perrera, perrera.reservar(1));
+            perro = perrera.get(0);
+            cache.put(id, perro);
+        }
+        return perro;
+    }
+
+    /**
+     * Carga todos los perros de la instantánea en una perrera nueva,
+     * conservando sus identificadores, su tick y si era perezosa, para que
+     * el decaimiento siga exactamente por donde iba.
+     *
+     * @return Perrera con todos los perros de la instantánea.
+     * @throws IOException Si el registro de algún perro está dañado.
+     */
+    public Perrera cargar() throws IOException {
+        Perrera perrera = new Perrera(Math.max(1, numPerros), perezosa);
+        perrera.fijarTick(tick);
+        int primero = perrera.reservar(numPerros);
+        for (int id = 0; id < numPerros; id++) {
+            leerRegistro(id, perrera, primero + id);
+        }
+        return perrera;
+    }
+
+    /**
+     * @return Número de perros reconstruidos que hay en la caché
+     */
+    public synchronized int getEnCache() {
+        return cache.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Escribe el registro de un perro en la posición actual de un buffer.
+     */
+    static void escribirRegistro(Perrera perrera, int id, int idNombre, ByteBuffer destino) {
+        int base = destino.position();
+        destino.putInt(base + POS_NOMBRE, idNombre);
+        destino.put(base + POS_RAZA, (byte) perrera.getRaza(id).ordinal());
+        for (int s = 0; s < Perrera.NUM_STATS; s++) {
+            destino.put(base + POS_STATS + s, (byte) perrera.getStat(id, Perrera.STATS[s]));
+        }
+        for (int i = POS_STATS + Perrera.NUM_STATS; i < POS_EDAD; i++) {
+            destino.put(base + i, (byte) 0);
+        }
+        destino.putDouble(base + POS_EDAD, perrera.getEdad(id));
+        destino.putLong(base + POS_ESTADOS, perrera.getEstados(id));
+        for (int s = 0; s < Perrera.NUM_STATS; s++) {
+            destino.putDouble(base + POS_MODS + s * Double.BYTES, perrera.getMod(id, Perrera.STATS[s]));
+        }
+        destino.position(base + TAMANNO_REGISTRO);
+    }
+
+    /**
+     * Reconstruye un perro de la región proyectada en una posición reservada
+     * de una perrera. Todos los campos se comprueban antes de escribir nada
+     * en la perrera, y los estados se recalculan a partir de las stats en
+     * lugar de confiar en la máscara guardada.
+     *
+     * @throws IOException Si algún campo del registro no es válido.
+     */
+    private void leerRegistro(int id, Perrera perrera, int destino) throws IOException {
+        long base = (long) id * TAMANNO_REGISTRO;
+        String nombre = leerNombre(id, registros.getInt(base + POS_NOMBRE));
+        int ordinalRaza = registros.get(base + POS_RAZA);
+        if (ordinalRaza < 0 || ordinalRaza >= RAZAS.length) {
+            throw registroDannado(id, "raza " + ordinalRaza + " inexistente");
+        }
+        double edad = registros.getDouble(base + POS_EDAD);
+        if (!(edad >= 0 && edad <= Perrera.EDAD_MAXIMA)) {
+            throw registroDannado(id, "edad " + edad + " fuera de rango");
+        }
+        int[] valores = new int[Perrera.NUM_STATS];
+        long mascara = 0L;
+        for (int s = 0; s < Perrera.NUM_STATS; s++) {
+            valores[s] = registros.get(base + POS_STATS + s);
+            if (valores[s] < Perro.BASE_MIN_LEVEL || valores[s] > Perro.BASE_MAX_LEVEL) {
+                throw registroDannado(id, Perrera.STATS[s] + " = " + valores[s] + " fuera de rango");
+            }
+            mascara |= Estado.activosCon(Perrera.STATS[s], valores[s]);
+        }
+
+        perrera.registrar(destino, nombre, RAZAS[ordinalRaza], edad);
+        for (int s = 0; s < Perrera.NUM_STATS; s++) {
+            perrera.setStat(destino, Perrera.STATS[s], valores[s]);
+        }
+        perrera.setEstados(destino, mascara);
+    }
+
+    /**
+     * Decodifica el nombre de un perro de la tabla de nombres.
+     *
+     * @throws IOException Si el nombre no existe o sus posiciones no caben
+     * en la tabla.
+     */
+    private String leerNombre(int id, int idNombre) throws IOException {
+        long inicioTexto = (numNombres + 1) * Long.BYTES;
+        if (idNombre < 0 || idNombre >= numNombres) {
+            throw registroDannado(id, "nombre " + idNombre + " inexistente");
+        }
+        long desde = nombres.getLong((long) idNombre * Long.BYTES);
+        long hasta = nombres.getLong((long) (idNombre + 1) * Long.BYTES);
+        if (desde < 0 || hasta < desde || hasta - desde > Integer.MAX_VALUE
+                || hasta > nombres.getTamanno() - inicioTexto) {
+            throw registroDannado(id, "nombre " + idNombre + " fuera de la tabla de nombres");
+        }
+        byte[] bytes = new byte[(int) (hasta - desde)];
+        nombres.get(inicioTexto + desde, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static IOException registroDannado(int id, String motivo) {
+        return new IOException("Instantánea dañada: el registro del perro " + id + " tiene " + motivo + ".");
+    }
+
+    /**
+     * Escribe la tabla de nombres: primero las posiciones y después los
+     * textos.
+     */
+    private static void escribirNombres(List<byte[]> tablaNombres, ByteBuffer buffer, FileChannel salida)
+            throws IOException {
+        long posicion = 0;
+        buffer.putLong(posicion);
+        for (byte[] nombre : tablaNombres) {
+            if (buffer.remaining() < Long.BYTES) {
+                volcar(buffer, salida);
+            }
+            posicion += nombre.length;
+            buffer.putLong(posicion);
+        }
+        for (byte[] nombre : tablaNombres) {
+            int escritos = 0;
+            while (escritos < nombre.length) {
+                if (!buffer.hasRemaining()) {
+                    volcar(buffer, salida);
+                }
+                int n = Math.min(buffer.remaining(), nombre.length - escritos);
+                buffer.put(nombre, escritos, n);
+                escritos += n;
+            }
+        }
+        volcar(buffer, salida);
+    }
+
+    /**
+     * Escribe en el canal el contenido pendiente del buffer y lo vacía.
+     */
+    private static void volcar(ByteBuffer buffer, FileChannel salida) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            salida.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,5 +1,7 @@
 package tamagotchi.modelos;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
  * Autor: Sergio López Casado
@@ -7,8 +9,175 @@ package tamagotchi.modelos;
  * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
  * GitHub: https://github.com/Serlopcas
  * Fecha de creación: 31/01/2025
- * Descripción: TODO
+ * Descripción: Jugador con sus recursos ({@link StatJugador}) y los perros
+ * que ha adoptado. Los perros viven en una {@link Perrera} propia del
+ * jugador, así que cada jugador puede atenderse desde su propio hilo sin
+ * compartir datos con los demás. Un jugador no debe usarse desde varios
+ * hilos a la vez.
  */
 public class Jugador {
-    
+
+    /**
+     * Número máximo de perros que puede tener un jugador
+     */
+    public static final int MAX_PERROS = 8;
+
+    /**
+     * Energía que recupera el jugador en cada tick
+     */
+    private static final int ENERGIA_POR_TICK = 1;
+
+    private final String nombre;
+    private final int[] stats = new int[StatJugador.values().length];
+    private final Perrera perrera = new Perrera(MAX_PERROS);
+
+    /**
+     * Constructor de la clase Jugador, con los recursos iniciales y sin
+     * perros.
+     *
+     * @param nombre Nombre del jugador.
+     * @throws IllegalArgumentException Si el nombre está vacío.
+     */
+    public Jugador(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            throw new IllegalArgumentException("El nombre del jugador no puede estar vacío.");
+        }
+        this.nombre = nombre;
+        for (StatJugador stat : StatJugador.values()) {
+            stats[stat.ordinal()] = stat.getValorInicial();
+        }
+    }
+
+    /**
+     * Obtiene el nombre del jugador.
+     *
+     * @return Nombre del jugador.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el valor actual de un recurso.
+     *
+     * @param stat Recurso a consultar.
+     * @return Valor del recurso.
+     */
+    public int getStat(StatJugador stat) {
+        return stats[stat.ordinal()];
+    }
+
+    /**
+     * Gasta una cantidad de un recurso si el jugador tiene suficiente.
+     *
+     * @param stat Recurso a gastar.
+     * @param cantidad Cantidad a gastar.
+     * @return true si se ha gastado, false si no había suficiente (en cuyo
+     * caso no se gasta nada).
+     * @throws IllegalArgumentException Si la cantidad es negativa.
+     */
+    public boolean gastar(StatJugador stat, int cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad a gastar no puede ser negativa.");
+        }
+        if (stats[stat.ordinal()] < cantidad) {
+            return false;
+        }
+        stats[stat.ordinal()] -= cantidad;
+        return true;
+    }
+
+    /**
+     * Suma una cantidad a un recurso, sin pasar de su máximo.
+     *
+     * @param stat Recurso a incrementar.
+     * @param cantidad Cantidad a sumar.
+     * @throws IllegalArgumentException Si la cantidad es negativa.
+     */
+    public void ingresar(StatJugador stat, int cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad a ingresar no puede ser negativa.");
+        }
+        stats[stat.ordinal()] = (int) Math.min(stat.getMaximo(), (long) stats[stat.ordinal()] + cantidad);
+    }
+
+    /**
+     * Sustituye el valor de un recurso. Lo usa {@link LibroCuentas} para
+     * volcar en el jugador los saldos que lleva él.
+     *
+     * @param stat Recurso a sustituir.
+     * @param valor Nuevo valor, ya dentro de sus límites.
+     */
+    void fijarStat(StatJugador stat, int valor) {
+        stats[stat.ordinal()] = valor;
+    }
+
+    /**
+     * Adopta un perro nuevo.
+     *
+     * @param nombrePerro Nombre del perro.
+     * @param raza Raza del perro.
+     * @param edad Edad del perro.
+     * @param aleatorio Generador usado para sus estadísticas iniciales.
+     * @return Perro adoptado. Su número dentro del jugador es
+     * {@link Perro#getId()}.
+     * @throws IllegalStateException Si el jugador ya tiene el máximo de
+     * perros.
+     */
+    public Perro adoptar(String nombrePerro, Raza raza, int edad, RandomGenerator aleatorio) {
+        if (perrera.getTamanno() >= MAX_PERROS) {
+            throw new IllegalStateException("Ya tienes el máximo de " + MAX_PERROS + " perros.");
+        }
+        return perrera.alta(nombrePerro, raza, edad, aleatorio);
+    }
+
+    /**
+     * Obtiene uno de los perros del jugador.
+     *
+     * @param numero Número del perro, empezando en 0.
+     * @return Perro del jugador.
+     * @throws IndexOutOfBoundsException Si el jugador no tiene ese perro.
+     */
+    public Perro getPerro(int numero) {
+        if (numero < 0 || numero >= perrera.getTamanno()) {
+            throw new IndexOutOfBoundsException("No tienes ningún perro con el número " + numero);
+        }
+        return perrera.get(numero);
+    }
+
+    /**
+     * @return Número de perros del jugador
+     */
+    public int getNumPerros() {
+        return perrera.getTamanno();
+    }
+
+    /**
+     * @return Perrera con los perros del jugador
+     */
+    public Perrera getPerrera() {
+        return perrera;
+    }
+
+    /**
+     * Deja pasar el tiempo: los perros del jugador avanzan tick a tick y el
+     * jugador recupera energía.
+     *
+     * @param ticks Número de ticks a avanzar.
+     * @return Número de cambios de estados de los perros.
+     * @throws IllegalArgumentException Si el número de ticks es negativo.
+     */
+    public long avanzar(int ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("El número de ticks no puede ser negativo.");
+        }
+        long cambios = 0;
+        for (int i = 0; i < ticks; i++) {
+            long tick = perrera.getTick();
+            cambios += perrera.avanzar(0, perrera.getTamanno(), tick);
+            perrera.completarTick(tick);
+        }
+        ingresar(StatJugador.ENERGIA, (int) Math.min(Integer.MAX_VALUE, (long) ticks * ENERGIA_POR_TICK));
+        return cambios;
+    }
 }
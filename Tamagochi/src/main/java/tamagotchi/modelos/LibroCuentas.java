@@ -0,0 +1,396 @@
+package tamagotchi.modelos;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Libro de cuentas concurrente con los recursos
+ * ({@link StatJugador}) de muchos {@link Jugador}, para cuando miles de
+ * hilos cobran, pagan y transfieren a la vez. Mientras un jugador tiene
+ * cuenta abierta, su saldo de verdad es el del libro; {@link #liquidar()}
+ * lo vuelca en lotes al registro del jugador.
+ *
+ * Los cobros y los ingresos se tratan de forma distinta:
+ * <ul>
+ * <li>Todos los recursos de una cuenta van empaquetados en un único long, 32
+ * bits por recurso, así que un cobro de varios recursos a la vez se comprueba
+ * y se descuenta con una sola operación CAS: o se cobra todo o nada.</li>
+ * <li>Los ingresos se suman a un {@link LongAdder} por cuenta y recurso, que
+ * reparte los hilos entre celdas y no compite con nadie. Se pasan al saldo
+ * (consolidan) con un cerrojo de un conjunto fijo de cerrojos repartidos por
+ * cuenta, solo cuando un cobro no llega, al consultar el saldo o al
+ * liquidar.</li>
+ * </ul>
+ * Una transferencia es un cobro al origen seguido de un ingreso al destino.
+ * Nunca se tienen dos cuentas bloqueadas a la vez, así que no puede haber
+ * interbloqueos. El total de un recurso solo queda momentáneamente por debajo
+ * mientras una transferencia está a medias.
+ *
+ * Como en {@link Jugador#ingresar}, los saldos no pasan del máximo de su
+ * recurso: lo que sobra al consolidar se pierde.
+ */
+public class LibroCuentas {
+
+    private static final StatJugador[] RECURSOS = StatJugador.values();
+    private static final int NUM_RECURSOS = RECURSOS.length;
+    private static final int BITS_RECURSO = 32;
+    private static final long MASCARA_RECURSO = (1L << BITS_RECURSO) - 1;
+
+    /**
+     * Longs entre los saldos de dos cuentas, para que cada uno ocupe su
+     * propia línea de caché de 64 bytes
+     */
+    private static final int SEPARACION = 8;
+
+    /**
+     * Número de cerrojos de consolidación, potencia de dos
+     */
+    private static final int NUM_CERROJOS = 64;
+
+    private static final VarHandle SALDOS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    static {
+        if (NUM_RECURSOS * BITS_RECURSO > Long.SIZE) {
+            throw new IllegalStateException("Los recursos del jugador no caben en un long.");
+        }
+    }
+
+    private final Jugador[] jugadores;
+
+    /**
+     * Saldo consolidado de cada cuenta, con los recursos empaquetados, en la
+     * posición {@code cuenta * SEPARACION}
+     */
+    private final long[] saldos;
+
+    /**
+     * Ingresos de cada cuenta y recurso, en la posición
+     * {@code cuenta * NUM_RECURSOS + recurso}. Solo crecen.
+     */
+    private final LongAdder[] ingresos;
+
+    /**
+     * Parte de {@link #ingresos} que ya se ha pasado al saldo. Solo se toca
+     * con el cerrojo de la cuenta.
+     */
+    private final long[] consolidados;
+
+    private final ReentrantLock[] cerrojos = new ReentrantLock[NUM_CERROJOS];
+
+    /**
+     * Cuentas con movimientos desde la última liquidación, un bit por cuenta
+     */
+    private final AtomicLongArray pendientes;
+
+    /**
+     * Cuentas reservadas por {@link #abrir}, aunque aún no estén listas
+     */
+    private final AtomicInteger reservadas = new AtomicInteger();
+
+    /**
+     * Cuentas abiertas y ya inicializadas. Se publican en orden, así que
+     * todas las cuentas por debajo tienen titular y saldo.
+     */
+    private final AtomicInteger numCuentas = new AtomicInteger();
+
+    /**
+     * Crea un libro vacío.
+     *
+     * @param capacidad Número máximo de cuentas.
+     * @throws IllegalArgumentException Si la capacidad no es positiva.
+     */
+    public LibroCuentas(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva.");
+        }
+        this.jugadores = new Jugador[capacidad];
+        this.saldos = new long[capacidad * SEPARACION];
+        this.ingresos = new LongAdder[capacidad * NUM_RECURSOS];
+        this.consolidados = new long[capacidad * NUM_RECURSOS];
+        this.pendientes = new AtomicLongArray((capacidad + 63) / 64);
+        for (int i = 0; i < ingresos.length; i++) {
+            ingresos[i] = new LongAdder();
+        }
+        for (int i = 0; i < NUM_CERROJOS; i++) {
+            cerrojos[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Abre una cuenta para un jugador con los recursos que tiene ahora. La
+     * cuenta no existe para los demás métodos hasta que está inicializada.
+     *
+     * @param jugador Jugador titular.
+     * @return Número de la cuenta.
+     * @throws IllegalStateException Si el libro está lleno.
+     */
+    public int abrir(Jugador jugador) {
+        Objects.requireNonNull(jugador);
+        int cuenta = reservadas.getAndUpdate(n -> n < jugadores.length ? n + 1 : n);
+        if (cuenta == jugadores.length) {
+            throw new IllegalStateException("El libro de cuentas está lleno.");
+        }
+        long saldo = 0;
+        for (StatJugador recurso : RECURSOS) {
+            saldo = conValor(saldo, recurso.ordinal(), jugador.getStat(recurso));
+        }
+        jugadores[cuenta] = jugador;
+        SALDOS.setRelease(saldos, cuenta * SEPARACION, saldo);
+        // Se espera a que terminen las cuentas reservadas antes, que solo
+        // están a unas pocas escrituras de publicarse
+        while (numCuentas.get() != cuenta) {
+            Thread.yield();
+        }
+        numCuentas.set(cuenta + 1);
+        return cuenta;
+    }
+
+    /**
+     * @return Número de cuentas abiertas
+     */
+    public int getNumCuentas() {
+        return numCuentas.get();
+    }
+
+    /**
+     * @param cuenta Número de la cuenta.
+     * @return Jugador titular de la cuenta.
+     * @throws IndexOutOfBoundsException Si la cuenta no existe.
+     */
+    public Jugador getJugador(int cuenta) {
+        return jugadores[comprobarCuenta(cuenta)];
+    }
+
+    /**
+     * Cobra a la vez varios recursos de una cuenta si tiene suficiente de
+     * todos.
+     *
+     * @param cuenta Número de la cuenta.
+     * @param coste Cantidad de cada recurso, por ordinal de
+     * {@link StatJugador}.
+     * @return true si se ha cobrado, false si faltaba algún recurso (en cuyo
+     * caso no se cobra nada).
+     * @throws IllegalArgumentException Si el coste no tiene un valor no
+     * negativo por recurso.
+     * @throws IndexOutOfBoundsException Si la cuenta no existe.
+     */
+    public boolean cobrar(int cuenta, int[] coste) {
+        if (coste.length != NUM_RECURSOS) {
+            throw new IllegalArgumentException("Hace falta un coste por cada recurso.");
+        }
+        long empaquetado = 0;
+        for (int r = 0; r < NUM_RECURSOS; r++) {
+            if (coste[r] < 0) {
+                throw new IllegalArgumentException("El coste no puede ser negativo.");
+            }
+            empaquetado = conValor(empaquetado, r, coste[r]);
+        }
+        return cobrarEmpaquetado(comprobarCuenta(cuenta), empaquetado);
+    }
+
+    /**
+     * Cobra una cantidad de un solo recurso si la cuenta tiene suficiente.
+     *
+     * @param cuenta Número de la cuenta.
+     * @param recurso Recurso a cobrar.
+     * @param cantidad Cantidad a cobrar.
+     * @return true si se ha cobrado, false si no había suficiente.
+     * @throws IllegalArgumentException Si la cantidad es negativa.
+     * @throws IndexOutOfBoundsException Si la cuenta no existe.
+     */
+    public boolean cobrar(int cuenta, StatJugador recurso, int cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad a cobrar no puede ser negativa.");
+        }
+        return cobrarEmpaquetado(comprobarCuenta(cuenta), conValor(0, recurso.ordinal(), cantidad));
+    }
+
+    /**
+     * Cobra con CAS sobre el saldo consolidado. Si no llega, consolida los
+     * ingresos pendientes y lo intenta una vez más.
+     */
+    private boolean cobrarEmpaquetado(int cuenta, long coste) {
+        int posicion = cuenta * SEPARACION;
+        boolean consolidada = false;
+        while (true) {
+            long saldo = (long) SALDOS.getVolatile(saldos, posicion);
+            if (alcanza(saldo, coste)) {
+                // Ningún recurso baja de cero, así que la resta no pasa de
+                // un recurso a otro
+                if (SALDOS.compareAndSet(saldos, posicion, saldo, saldo - coste)) {
+                    marcar(cuenta);
+                    return true;
+                }
+            } else if (!consolidada) {
+                consolidar(cuenta);
+                consolidada = true;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Ingresa una cantidad de un recurso en una cuenta, sin esperas aunque
+     * otros hilos estén ingresando en la misma.
+     *
+     * @param cuenta Número de la cuenta.
+     * @param recurso Recurso a ingresar.
+     * @param cantidad Cantidad a ingresar.
+     * @throws IllegalArgumentException Si la cantidad es negativa.
+     * @throws IndexOutOfBoundsException Si la cuenta no existe.
+     */
+    public void ingresar(int cuenta, StatJugador recurso, int cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad a ingresar no puede ser negativa.");
+        }
+        ingresos[comprobarCuenta(cuenta) * NUM_RECURSOS + recurso.ordinal()].add(cantidad);
+        marcar(cuenta);
+    }
+
+    /**
+     * Transfiere una cantidad de un recurso de una cuenta a otra. Con
+     * recursos que tienen máximo, lo que el destino no pueda acumular se
+     * pierde.
+     *
+     * @param origen Cuenta que paga.
+     * @param destino Cuenta que cobra.
+     * @param recurso Recurso transferido.
+     * @param cantidad Cantidad transferida.
+     * @return true si se ha transferido, false si el origen no tenía
+     * suficiente.
+     * @throws IllegalArgumentException Si la cantidad es negativa.
+     * @throws IndexOutOfBoundsException Si alguna cuenta no existe.
+     */
+    public boolean transferir(int origen, int destino, StatJugador recurso, int cantidad) {
+        comprobarCuenta(destino);
+        if (!cobrar(origen, recurso, cantidad)) {
+            return false;
+        }
+        ingresar(destino, recurso, cantidad);
+        return true;
+    }
+
+    /**
+     * Obtiene el saldo actual de un recurso, con los ingresos consolidados.
+     *
+     * @param cuenta Número de la cuenta.
+     * @param recurso Recurso a consultar.
+     * @return Saldo del recurso.
+     * @throws IndexOutOfBoundsException Si la cuenta no existe.
+     */
+    public int getSaldo(int cuenta, StatJugador recurso) {
+        consolidar(comprobarCuenta(cuenta));
+        return valor((long) SALDOS.getVolatile(saldos, cuenta * SEPARACION), recurso.ordinal());
+    }
+
+    /**
+     * Vuelca en el registro de cada jugador los saldos de las cuentas que
+     * han tenido movimientos desde la última liquidación. Los jugadores no
+     * deben estar usándose desde otro hilo mientras tanto.
+     *
+     * @return Número de cuentas liquidadas.
+     */
+    public int liquidar() {
+        int liquidadas = 0;
+        for (int palabra = 0; palabra < pendientes.length(); palabra++) {
+            if (pendientes.get(palabra) == 0) {
+                continue;
+            }
+            // Un movimiento posterior vuelve a marcar la cuenta para la
+            // siguiente liquidación
+            for (long bits = pendientes.getAndSet(palabra, 0); bits != 0; bits &= bits - 1) {
+                int cuenta = palabra * 64 + Long.numberOfTrailingZeros(bits);
+                consolidar(cuenta);
+                long saldo = (long) SALDOS.getVolatile(saldos, cuenta * SEPARACION);
+                for (StatJugador recurso : RECURSOS) {
+                    jugadores[cuenta].fijarStat(recurso, valor(saldo, recurso.ordinal()));
+                }
+                liquidadas++;
+            }
+        }
+        return liquidadas;
+    }
+
+    /**
+     * Pasa al saldo los ingresos de una cuenta que aún no se han pasado.
+     */
+    private void consolidar(int cuenta) {
+        ReentrantLock cerrojo = cerrojos[cuenta & (NUM_CERROJOS - 1)];
+        cerrojo.lock();
+        try {
+            long[] nuevos = new long[NUM_RECURSOS];
+            boolean hay = false;
+            for (int r = 0; r < NUM_RECURSOS; r++) {
+                int posicion = cuenta * NUM_RECURSOS + r;
+                // Los ingresos solo crecen, así que la suma incluye al menos
+                // todos los ya terminados y nunca cuenta dos veces
+                long total = ingresos[posicion].sum();
+                nuevos[r] = total - consolidados[posicion];
+                consolidados[posicion] = total;
+                hay |= nuevos[r] != 0;
+            }
+            if (!hay) {
+                return;
+            }
+            int posicion = cuenta * SEPARACION;
+            long saldo;
+            long sumado;
+            do {
+                saldo = (long) SALDOS.getVolatile(saldos, posicion);
+                sumado = saldo;
+                for (int r = 0; r < NUM_RECURSOS; r++) {
+                    long nuevo = Math.min(RECURSOS[r].getMaximo(), valor(saldo, r) + nuevos[r]);
+                    sumado = conValor(sumado, r, (int) nuevo);
+                }
+            } while (!SALDOS.compareAndSet(saldos, posicion, saldo, sumado));
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private void marcar(int cuenta) {
+        long bit = 1L << cuenta;
+        int palabra = cuenta >>> 6;
+        // Se lee antes para no escribir en la palabra compartida si ya está
+        if ((pendientes.get(palabra) & bit) == 0) {
+            pendientes.getAndAccumulate(palabra, bit, (actual, nuevo) -> actual | nuevo);
+        }
+    }
+
+    private int comprobarCuenta(int cuenta) {
+        if (cuenta < 0 || cuenta >= numCuentas.get()) {
+            throw new IndexOutOfBoundsException("No existe la cuenta " + cuenta);
+        }
+        return cuenta;
+    }
+
+    private static boolean alcanza(long saldo, long coste) {
+        for (int r = 0; r < NUM_RECURSOS; r++) {
+            if (valor(saldo, r) < valor(coste, r)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int valor(long empaquetado, int recurso) {
+        return (int) (empaquetado >>> (recurso * BITS_RECURSO) & MASCARA_RECURSO);
+    }
+
+    private static long conValor(long empaquetado, int recurso, int valor) {
+        int desplazamiento = recurso * BITS_RECURSO;
+        return empaquetado & ~(MASCARA_RECURSO << desplazamiento) | ((long) valor & MASCARA_RECURSO) << desplazamiento;
+    }
+}
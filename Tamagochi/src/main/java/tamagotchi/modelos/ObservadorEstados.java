@@ -0,0 +1,27 @@
+package tamagotchi.modelos;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Suscriptor de las transiciones de estados publicadas en un
+ * {@link BusEstados}. A diferencia de {@link ObservadorPerrera}, se invoca
+ * en el hilo del bus y no en el que hizo el cambio, así que puede ser lento
+ * sin frenar la simulación. Por lo mismo, no debe tocar la perrera: solo
+ * puede usar los datos de la {@link TransicionEstado} que recibe.
+ */
+public interface ObservadorEstados {
+
+    /**
+     * Se invoca por cada transición, en el orden en que se publicaron.
+     *
+     * @param transicion Transición recibida. El objeto se reutiliza, así que
+     * sus datos solo son válidos durante la llamada.
+     * @param finDeLote true si es la última transición del lote disponible,
+     * útil para agrupar trabajo costoso como escrituras o envíos.
+     */
+    void transicion(TransicionEstado transicion, boolean finDeLote);
+}
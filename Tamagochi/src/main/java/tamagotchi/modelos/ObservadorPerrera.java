@@ -0,0 +1,76 @@
+package tamagotchi.modelos;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Observador de los cambios que se hacen sobre los perros de una
+ * {@link Perrera} a través de {@link Perro#setStat} y
+ * {@link Perro#aplicar(DeltaStats)}, y opcionalmente de las altas, las bajas,
+ * los cambios de edad y el paso de los ticks. Se invoca en el mismo hilo que
+ * hace el cambio, así que sus implementaciones deben ser rápidas y no
+ * bloquear.
+ */
+public interface ObservadorPerrera {
+
+    /**
+     * Se invoca después de guardar el nuevo valor de una estadística.
+     *
+     * @param id Identificador del perro dentro de la perrera.
+     * @param stat Estadística modificada.
+     * @param valor Nuevo valor, ya ajustado a sus límites.
+     */
+    void statCambiado(int id, StatPerro stat, int valor);
+
+    /**
+     * Se invoca después de dar de alta un perro con
+     * {@link Perrera#alta(String, Raza, int, java.util.random.RandomGenerator)}
+     * o {@link Perrera#restaurar}, ya con sus estadísticas iniciales.
+     *
+     * @param id Identificador del perro nuevo.
+     */
+    default void perroAnnadido(int id) {
+    }
+
+    /**
+     * Se invoca después de dar de baja un perro con {@link Perrera#baja}.
+     *
+     * @param id Identificador que tenía el perro.
+     */
+    default void perroEliminado(int id) {
+    }
+
+    /**
+     * Se invoca al dar de baja un perro que no era el último, después de
+     * {@link #perroEliminado}: el último perro de la perrera ha pasado a
+     * ocupar el identificador del que se ha ido.
+     *
+     * @param desde Identificador que tenía el perro movido.
+     * @param hacia Identificador que tiene ahora.
+     */
+    default void perroMovido(int desde, int hacia) {
+    }
+
+    /**
+     * Se invoca después de cambiar la edad de un perro con
+     * {@link Perro#setEdad}.
+     *
+     * @param id Identificador del perro.
+     * @param edad Nueva edad en años.
+     */
+    default void edadCambiada(int id, double edad) {
+    }
+
+    /**
+     * Se invoca cuando la perrera completa uno o varios ticks, con
+     * {@link Perrera#completarTick} o {@link Perrera#avanzarReloj}.
+     *
+     * @param tick Próximo tick a simular, el que devuelve
+     * {@link Perrera#getTick()}.
+     */
+    default void tickCompletado(long tick) {
+    }
+}
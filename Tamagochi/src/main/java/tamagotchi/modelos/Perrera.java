@@ -0,0 +1,993 @@
+package tamagotchi.modelos;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+import tamagotchi.core.Herramientas;
+import tamagotchi.metricas.Metricas;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Almacén de perros organizado por columnas. En lugar de que cada
+ * perro guarde sus propios mapas de estadísticas y modificadores, la perrera
+ * mantiene un array primitivo por cada atributo indexado por el identificador
+ * del perro. Las estadísticas se guardan en un único array plano, con una
+ * columna contigua por cada {@link StatPerro}, de modo que recorrer un stat de
+ * toda la población es una pasada lineal en memoria. Los modificadores no se
+ * copian en cada perro: cada uno apunta a la fila compartida de
+ * {@link TablaModificadores} de su raza y franja de edad.
+ * Los objetos {@link Perro} son vistas ligeras sobre una posición de la
+ * perrera. La perrera no es segura para hilos: varios hilos solo pueden
+ * escribir a la vez si trabajan sobre rangos de identificadores disjuntos.
+ *
+ * Una perrera perezosa no recorre a sus perros en cada tick: solo avanza un
+ * reloj y cada perro guarda el tick hasta el que está al día. Al leer o
+ * escribir un perro se le aplica en forma cerrada todo el decaimiento
+ * pendiente, con el mismo resultado que si se hubiera avanzado tick a tick,
+ * así que el coste depende de los perros que se tocan y no del tamaño de la
+ * perrera. Como contrapartida, el {@link IndiceEstados} y el
+ * {@link BusEstados} solo ven los cambios de los perros que se ponen al día
+ * (ver {@link #ponerAlDia(int, int)}), y las lecturas también escriben, por
+ * lo que no pueden hacerse desde varios hilos sobre los mismos perros.
+ */
+public class Perrera {
+
+    /**
+     * Estadísticas de un perro en orden de ordinal
+     */
+    static final StatPerro[] STATS = StatPerro.values();
+
+    /**
+     * Número de estadísticas que tiene cada perro
+     */
+    static final int NUM_STATS = STATS.length;
+
+    /**
+     * Ticks que hay en un año de juego (un tick es una hora)
+     */
+    public static final int TICKS_POR_ANNO = 365 * 24;
+
+    /**
+     * Años que envejece un perro en cada tick (una hora de juego)
+     */
+    public static final double ANNOS_POR_TICK = 1.0 / TICKS_POR_ANNO;
+
+    /**
+     * Edad máxima que puede alcanzar un perro
+     */
+    static final double EDAD_MAXIMA = 29;
+
+    /**
+     * Edad máxima que puede alcanzar un perro, en ticks
+     */
+    private static final int EDAD_MAXIMA_TICKS = (int) (EDAD_MAXIMA * TICKS_POR_ANNO);
+
+    /**
+     * Tamaño al que deben estar alineados los rangos de perros que se
+     * actualicen a la vez desde varios hilos
+     */
+    public static final int ALINEACION_RANGOS = 64 * 64;
+
+    /**
+     * Capacidad inicial por defecto de una perrera
+     */
+    private static final int CAPACIDAD_POR_DEFECTO = 16;
+
+    /**
+     * Número de perros registrados
+     */
+    private int tamanno;
+
+    /**
+     * Número de perros que caben en las columnas actuales
+     */
+    private int capacidad;
+
+    /**
+     * Nombres de los perros
+     */
+    private String[] nombres;
+
+    /**
+     * Razas de los perros
+     */
+    private Raza[] razas;
+
+    /**
+     * Número de perros registrados de cada raza, indexado por su ordinal. Se
+     * mantiene al dar de alta y de baja para poder leerlo desde otros hilos
+     * sin recorrer las columnas mientras cambian.
+     */
+    private final LongAdder[] perrosPorRaza = new LongAdder[Raza.values().length];
+
+    /**
+     * Edades de los perros en ticks, para que envejecer sea una suma exacta
+     */
+    private int[] edades;
+
+    /**
+     * Estadísticas de los perros: columna de cada stat en
+     * {@code [ordinal * capacidad, (ordinal + 1) * capacidad)}
+     */
+    private byte[] stats;
+
+    /**
+     * Fila de {@link TablaModificadores} de cada perro, según su raza y su
+     * franja de edad
+     */
+    private byte[] filas;
+
+    /**
+     * Máscara de estados activos de cada perro (un bit por ordinal de
+     * {@link Estado})
+     */
+    private long[] estados;
+
+    /**
+     * Índice de los perros que hay en cada estado
+     */
+    private final IndiceEstados indice;
+
+    /**
+     * Observadores de los cambios hechos con setStat y con lotes de cambios,
+     * de las altas y bajas, de las edades y del paso de los ticks
+     */
+    private ObservadorPerrera[] observadores = new ObservadorPerrera[0];
+
+    /**
+     * Bus al que se publican las transiciones de estados, o null
+     */
+    private volatile BusEstados bus;
+
+    /**
+     * Último tick avanzado, con el que se marcan las transiciones que no
+     * provienen de un avance
+     */
+    private long tick;
+
+    /**
+     * Próximo tick a simular en una perrera normal: el siguiente al último
+     * marcado con {@link #completarTick(long)}
+     */
+    private long proximoTick;
+
+    /**
+     * true si los perros solo se ponen al día cuando se leen o escriben
+     */
+    private final boolean perezosa;
+
+    /**
+     * Reloj de una perrera perezosa: número de ticks transcurridos
+     */
+    private long reloj;
+
+    /**
+     * Tick hasta el que está al día cada perro de una perrera perezosa
+     */
+    private long[] actualizados;
+
+    /**
+     * Crea una perrera vacía con la capacidad por defecto.
+     */
+    public Perrera() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Crea una perrera vacía con capacidad reservada para un número de perros.
+     *
+     * @param capacidad Número de perros para los que se reserva espacio.
+     * @throws IllegalArgumentException Si la capacidad es menor que 1.
+     */
+    public Perrera(int capacidad) {
+        this(capacidad, false);
+    }
+
+    /**
+     * Crea una perrera vacía, normal o perezosa.
+     *
+     * @param capacidad Número de perros para los que se reserva espacio.
+     * @param perezosa true para que el tiempo avance sin recorrer a los perros
+     * (ver {@link #avanzarReloj(long)}).
+     * @throws IllegalArgumentException Si la capacidad es menor que 1.
+     */
+    public Perrera(int capacidad, boolean perezosa) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser al menos 1.");
+        }
+        this.capacidad = capacidad;
+        this.nombres = new String[capacidad];
+        this.razas = new Raza[capacidad];
+        for (int r = 0; r < perrosPorRaza.length; r++) {
+            perrosPorRaza[r] = new LongAdder();
+        }
+        this.edades = new int[capacidad];
+        this.stats = new byte[NUM_STATS * capacidad];
+        this.filas = new byte[capacidad];
+        this.estados = new long[capacidad];
+        this.indice = new IndiceEstados(capacidad);
+        this.perezosa = perezosa;
+        this.actualizados = perezosa ? new long[capacidad] : null;
+    }
+
+    /**
+     * Da de alta un nuevo perro en la perrera. Sus estadísticas y
+     * modificadores se calculan igual que con el constructor de {@link Perro}.
+     *
+     * @param nombre Nombre del perro
+     * @param raza Raza del perro
+     * @param edad Edad del perro en años
+     * @return Vista sobre el perro recién creado.
+     */
+    public Perro alta(String nombre, Raza raza, int edad) {
+        return alta(nombre, raza, edad, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Da de alta un nuevo perro en la perrera usando un generador de números
+     * aleatorios concreto para sus stats iniciales.
+     *
+     * @param nombre Nombre del perro
+     * @param raza Raza del perro
+     * @param edad Edad del perro en años
+     * @param aleatorio Generador usado para los valores iniciales de los stats
+     * @return Vista sobre el perro recién creado.
+     * @throws IllegalArgumentException Si la edad no está entre 0 y
+     * {@link #EDAD_MAXIMA} años.
+     */
+    public Perro alta(String nombre, Raza raza, int edad, RandomGenerator aleatorio) {
+        // Antes de reservar, para no dejar un hueco vacío en la perrera
+        comprobarEdad(edad);
+        Perro perro = new Perro(this, nombre, raza, edad, aleatorio);
+        for (ObservadorPerrera observador : observadores) {
+            observador.perroAnnadido(perro.getId());
+        }
+        return perro;
+    }
+
+    /**
+     * Da de alta un perro del que ya se conocen la edad exacta y las
+     * estadísticas, por ejemplo porque viene de otra perrera. Sus estados se
+     * calculan a partir de las estadísticas.
+     *
+     * @param nombre Nombre del perro
+     * @param raza Raza del perro
+     * @param edadTicks Edad del perro en ticks
+     * @param valores Valor de cada {@link StatPerro}, en orden de ordinal
+     * @return Vista sobre el perro recién creado.
+     * @throws IllegalArgumentException Si la edad o algún valor no es válido.
+     */
+    public Perro restaurar(String nombre, Raza raza, int edadTicks, int[] valores) {
+        if (edadTicks < 0 || edadTicks > EDAD_MAXIMA_TICKS) {
+            throw new IllegalArgumentException("Edad en ticks no válida: " + edadTicks);
+        }
+        if (valores.length != NUM_STATS) {
+            throw new IllegalArgumentException("Hacen falta " + NUM_STATS + " valores de estadísticas.");
+        }
+        long mascara = 0L;
+        for (int s = 0; s < NUM_STATS; s++) {
+            if (valores[s] < Perro.BASE_MIN_LEVEL || valores[s] > Perro.BASE_MAX_LEVEL) {
+                throw new IllegalArgumentException("Valor no válido para " + STATS[s] + ": " + valores[s]);
+            }
+            mascara |= Estado.activosCon(STATS[s], valores[s]);
+        }
+        int id = reservar(1);
+        registrar(id, nombre, raza, 0);
+        edades[id] = edadTicks;
+        filas[id] = (byte) fila(raza, edadTicks);
+        for (int s = 0; s < NUM_STATS; s++) {
+            stats[s * capacidad + id] = (byte) valores[s];
+        }
+        setEstados(id, mascara);
+        for (ObservadorPerrera observador : observadores) {
+            observador.perroAnnadido(id);
+        }
+        return new Perro(this, id);
+    }
+
+    /**
+     * Da de baja un perro. Para que las columnas sigan sin huecos, el último
+     * perro de la perrera pasa a ocupar el identificador del que se va, así
+     * que las vistas que hubiera sobre cualquiera de los dos dejan de ser
+     * válidas. No se publica ninguna transición de estados, pero sí se avisa
+     * a los observadores.
+     *
+     * @param id Identificador del perro a dar de baja.
+     * @return Identificador que tenía el perro que se ha movido a
+     * {@code id}, o -1 si el dado de baja era el último.
+     * @throws IndexOutOfBoundsException Si el identificador no existe.
+     */
+    public int baja(int id) {
+        comprobarId(id);
+        int ultimo = tamanno - 1;
+        alDia(id);
+        alDia(ultimo);
+        if (razas[id] != null) {
+            perrosPorRaza[razas[id].ordinal()].decrement();
+        }
+        if (id != ultimo) {
+            indice.actualizar(id, estados[id], estados[ultimo]);
+            nombres[id] = nombres[ultimo];
+            razas[id] = razas[ultimo];
+            edades[id] = edades[ultimo];
+            filas[id] = filas[ultimo];
+            estados[id] = estados[ultimo];
+            for (int s = 0; s < NUM_STATS; s++) {
+                stats[s * capacidad + id] = stats[s * capacidad + ultimo];
+            }
+            if (perezosa) {
+                actualizados[id] = actualizados[ultimo];
+            }
+        }
+        indice.actualizar(ultimo, estados[ultimo], 0L);
+        nombres[ultimo] = null;
+        razas[ultimo] = null;
+        estados[ultimo] = 0L;
+        tamanno--;
+        for (ObservadorPerrera observador : observadores) {
+            observador.perroEliminado(id);
+            if (id != ultimo) {
+                observador.perroMovido(ultimo, id);
+            }
+        }
+        return id != ultimo ? ultimo : -1;
+    }
+
+    /**
+     * Obtiene una vista sobre un perro ya registrado.
+     *
+     * @param id Identificador del perro.
+     * @return Vista sobre el perro.
+     * @throws IndexOutOfBoundsException Si el identificador no existe.
+     */
+    public Perro get(int id) {
+        return new Perro(this, comprobarId(id));
+    }
+
+    /**
+     * @return Número de perros registrados en la perrera
+     */
+    public int getTamanno() {
+        return tamanno;
+    }
+
+    /**
+     * Reserva posiciones consecutivas para nuevos perros, haciendo crecer la
+     * perrera si hace falta. Las posiciones quedan vacías hasta que se
+     * registre en ellas un perro; una vez reservadas, pueden rellenarse desde
+     * varios hilos a la vez.
+     *
+     * @param cantidad Número de posiciones a reservar
+     * @return Identificador de la primera posición reservada.
+     */
+    int reservar(int cantidad) {
+        while (capacidad - tamanno < cantidad) {
+            crecer();
+        }
+        int primero = tamanno;
+        tamanno += cantidad;
+        return primero;
+    }
+
+    /**
+     * Guarda los datos básicos de un perro en una posición reservada y le
+     * asigna su fila de modificadores. Las estadísticas quedan a cero hasta
+     * que el perro las inicialice.
+     *
+     * @param id Posición reservada para el perro
+     * @param nombre Nombre del perro
+     * @param raza Raza del perro
+     * @param edad Edad del perro en años
+     * @throws IllegalArgumentException Si la edad no está entre 0 y
+     * {@link #EDAD_MAXIMA} años.
+     */
+    void registrar(int id, String nombre, Raza raza, double edad) {
+        comprobarEdad(edad);
+        nombres[id] = nombre;
+        razas[id] = raza;
+        perrosPorRaza[raza.ordinal()].increment();
+        edades[id] = aTicks(edad);
+        filas[id] = (byte) fila(raza, edades[id]);
+        if (perezosa) {
+            actualizados[id] = reloj;
+        }
+    }
+
+    /**
+     * Duplica la capacidad de la perrera, recolocando cada columna de stats en
+     * su nueva posición.
+     */
+    private void crecer() {
+        int nuevaCapacidad = capacidad << 1;
+        nombres = Arrays.copyOf(nombres, nuevaCapacidad);
+        razas = Arrays.copyOf(razas, nuevaCapacidad);
+        edades = Arrays.copyOf(edades, nuevaCapacidad);
+        estados = Arrays.copyOf(estados, nuevaCapacidad);
+        indice.crecer(nuevaCapacidad);
+        filas = Arrays.copyOf(filas, nuevaCapacidad);
+        if (perezosa) {
+            actualizados = Arrays.copyOf(actualizados, nuevaCapacidad);
+        }
+
+        byte[] nuevosStats = new byte[NUM_STATS * nuevaCapacidad];
+        for (int s = 0; s < NUM_STATS; s++) {
+            System.arraycopy(stats, s * capacidad, nuevosStats, s * nuevaCapacidad, tamanno);
+        }
+        stats = nuevosStats;
+        capacidad = nuevaCapacidad;
+    }
+
+    /**
+     * Comprueba que un identificador corresponda a un perro registrado.
+     *
+     * @param id Identificador a comprobar.
+     * @return El mismo identificador.
+     * @throws IndexOutOfBoundsException Si el identificador no existe.
+     */
+    private int comprobarId(int id) {
+        if (id < 0 || id >= tamanno) {
+            throw new IndexOutOfBoundsException("No existe el perro con id " + id);
+        }
+        return id;
+    }
+
+    String getNombre(int id) {
+        return nombres[id];
+    }
+
+    Raza getRaza(int id) {
+        return razas[id];
+    }
+
+    double getEdad(int id) {
+        alDia(id);
+        return (double) edades[id] / TICKS_POR_ANNO;
+    }
+
+    int getEdadTicks(int id) {
+        alDia(id);
+        return edades[id];
+    }
+
+    void setEdad(int id, double edad) {
+        alDia(id);
+        edades[id] = aTicks(edad);
+        filas[id] = (byte) fila(razas[id], edades[id]);
+    }
+
+    int getStat(int id, StatPerro stat) {
+        alDia(id);
+        return stats[stat.ordinal() * capacidad + id];
+    }
+
+    void setStat(int id, StatPerro stat, int valor) {
+        alDia(id);
+        stats[stat.ordinal() * capacidad + id] = (byte) valor;
+    }
+
+    double getMod(int id, StatPerro stat) {
+        alDia(id);
+        return TablaModificadores.getMod(filas[id], stat.ordinal());
+    }
+
+    long getEstados(int id) {
+        alDia(id);
+        return estados[id];
+    }
+
+    /**
+     * Lee una estadística tal como está guardada, sin poner al día al perro,
+     * para poder leerla desde otro hilo sin escribir en la perrera. La
+     * capacidad se deduce del propio array por si la perrera está creciendo.
+     */
+    int leerStat(int id, int stat) {
+        byte[] columnas = stats;
+        return columnas[stat * (columnas.length / NUM_STATS) + id];
+    }
+
+    /**
+     * Lee la máscara de estados tal como está guardada, sin poner al día al
+     * perro.
+     */
+    long leerEstados(int id) {
+        return estados[id];
+    }
+
+    void setEstados(int id, long mascara) {
+        setEstados(id, mascara, tick);
+    }
+
+    private void setEstados(int id, long mascara, long tick) {
+        long anteriores = estados[id];
+        indice.actualizar(id, anteriores, mascara);
+        estados[id] = mascara;
+        Metricas.transicion(anteriores, mascara);
+        BusEstados actual = bus;
+        if (actual != null) {
+            actual.publicar(id, anteriores, mascara, tick);
+        }
+    }
+
+    synchronized void conectarBus(BusEstados nuevo) {
+        if (bus != null) {
+            throw new IllegalStateException("La perrera ya tiene un bus de estados conectado.");
+        }
+        bus = nuevo;
+    }
+
+    synchronized void desconectarBus(BusEstados actual) {
+        if (bus == actual) {
+            bus = null;
+        }
+    }
+
+    /**
+     * Obtiene el índice que permite consultar qué perros están en cada
+     * estado sin recorrer toda la perrera.
+     *
+     * @return Índice de estados de la perrera.
+     */
+    public IndiceEstados getIndice() {
+        return indice;
+    }
+
+    /**
+     * Registra un observador de los cambios de estadísticas de los perros.
+     *
+     * @param observador Observador a añadir.
+     */
+    public void agregarObservador(ObservadorPerrera observador) {
+        ObservadorPerrera[] nuevos = Arrays.copyOf(observadores, observadores.length + 1);
+        nuevos[observadores.length] = Objects.requireNonNull(observador);
+        observadores = nuevos;
+    }
+
+    /**
+     * Elimina un observador registrado previamente.
+     *
+     * @param observador Observador a eliminar.
+     * @return true si el observador estaba registrado.
+     */
+    public boolean quitarObservador(ObservadorPerrera observador) {
+        for (int i = 0; i < observadores.length; i++) {
+            if (observadores[i] == observador) {
+                ObservadorPerrera[] nuevos = new ObservadorPerrera[observadores.length - 1];
+                System.arraycopy(observadores, 0, nuevos, 0, i);
+                System.arraycopy(observadores, i + 1, nuevos, i, nuevos.length - i);
+                observadores = nuevos;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Avisa a los observadores de que ha cambiado una estadística. Se llama
+     * después de actualizar los estados del perro.
+     *
+     * @param id Identificador del perro.
+     * @param stat Estadística modificada.
+     * @param valor Nuevo valor de la estadística.
+     */
+    void notificarStat(int id, StatPerro stat, int valor) {
+        for (ObservadorPerrera observador : observadores) {
+            observador.statCambiado(id, stat, valor);
+        }
+    }
+
+    /**
+     * Avisa a los observadores de que ha cambiado la edad de un perro.
+     *
+     * @param id Identificador del perro.
+     * @param edad Nueva edad en años.
+     */
+    void notificarEdad(int id, double edad) {
+        for (ObservadorPerrera observador : observadores) {
+            observador.edadCambiada(id, edad);
+        }
+    }
+
+    /**
+     * Aplica un lote de cambios de estadísticas a un perro. Cada stat tocado
+     * se ajusta a sus límites una sola vez y los estados se recalculan una
+     * sola vez para todo el lote.
+     *
+     * @param id Identificador del perro.
+     * @param delta Lote de cambios a aplicar.
+     * @return Transición de estados empaquetada según
+     * {@link Estado#transicion(long, long)}.
+     */
+    long aplicar(int id, DeltaStats delta) {
+        alDia(id);
+        long actuales = estados[id];
+        long nuevos = actuales & ~delta.getMascaraEstados();
+        for (int i = 0, n = delta.getNumTocados(); i < n; i++) {
+            int s = delta.getTocado(i);
+            int pos = s * capacidad + id;
+            int valor = Herramientas.clamp(stats[pos] + delta.getCantidad(s), Perro.BASE_MIN_LEVEL, Perro.BASE_MAX_LEVEL);
+            stats[pos] = (byte) valor;
+            nuevos |= Estado.activosCon(STATS[s], valor);
+        }
+        if (nuevos != actuales) {
+            setEstados(id, nuevos);
+        }
+        // Después de los estados, para que quien lea el perro al recibir el
+        // aviso vea también los estados nuevos
+        if (observadores.length > 0) {
+            for (int i = 0, n = delta.getNumTocados(); i < n; i++) {
+                int s = delta.getTocado(i);
+                notificarStat(id, STATS[s], stats[s * capacidad + id]);
+            }
+        }
+        return nuevos == actuales ? 0L : Estado.transicion(nuevos & ~actuales, actuales & ~nuevos);
+    }
+
+    /**
+     * Aplica el mismo lote de cambios a todos los perros de un rango de
+     * identificadores.
+     *
+     * @param delta Lote de cambios a aplicar.
+     * @param desde Primer identificador (incluido).
+     * @param hasta Último identificador (excluido).
+     * @return Número de perros cuyos estados han cambiado.
+     * @throws IndexOutOfBoundsException Si el rango no es válido.
+     */
+    public int aplicar(DeltaStats delta, int desde, int hasta) {
+        Objects.checkFromToIndex(desde, hasta, tamanno);
+        int cambiados = 0;
+        for (int id = desde; id < hasta; id++) {
+            if (aplicar(id, delta) != 0L) {
+                cambiados++;
+            }
+        }
+        return cambiados;
+    }
+
+    /**
+     * Aplica el mismo lote de cambios a un grupo de perros.
+     *
+     * @param delta Lote de cambios a aplicar.
+     * @param ids Identificadores de los perros.
+     * @return Número de perros cuyos estados han cambiado.
+     * @throws IndexOutOfBoundsException Si algún identificador no existe.
+     */
+    public int aplicar(DeltaStats delta, int... ids) {
+        int cambiados = 0;
+        for (int id : ids) {
+            if (aplicar(comprobarId(id), delta) != 0L) {
+                cambiados++;
+            }
+        }
+        return cambiados;
+    }
+
+    /**
+     * Avanza un tick de simulación sobre un rango de perros: cada estadística
+     * varía según su decaimiento base escalado por el modificador del perro,
+     * los perros envejecen (cambiando de fila de modificadores si pasan a otra
+     * franja de edad) y se recalculan sus estados.
+     *
+     * La variación de cada tick se calcula como
+     * {@code floor(ritmo * (tick + 1)) - floor(ritmo * tick)}, por lo que las
+     * fracciones se acumulan sin guardar estado extra y el resultado de cada
+     * perro depende solo de sus datos y del número de tick. Distintos rangos
+     * pueden avanzarse a la vez desde varios hilos siempre que no se solapen,
+     * que sus límites estén alineados a {@link #ALINEACION_RANGOS} (salvo el
+     * final de la perrera) y que no se den de alta perros mientras tanto.
+     *
+     * @param desde Primer identificador (incluido).
+     * @param hasta Último identificador (excluido).
+     * @param tick Número del tick que se está simulando.
+     * @return Número de perros cuyos estados han cambiado.
+     * @throws IndexOutOfBoundsException Si el rango no es válido.
+     * @throws IllegalStateException Si la perrera es perezosa.
+     */
+    public int avanzar(int desde, int hasta, long tick) {
+        Objects.checkFromToIndex(desde, hasta, tamanno);
+        if (perezosa) {
+            throw new IllegalStateException("Una perrera perezosa avanza con avanzarReloj.");
+        }
+        this.tick = tick;
+
+        // El cambio del tick solo depende de la fila de modificadores, así
+        // que se calcula una vez por fila y se aplica a la columna en bloque
+        byte[] porFila = new byte[TablaModificadores.NUM_FILAS];
+        byte[] cambios = new byte[hasta - desde];
+        for (int s = 0; s < NUM_STATS; s++) {
+            double decaimiento = STATS[s].getDecaimiento();
+            if (decaimiento == 0) {
+                continue;
+            }
+            for (int f = 0; f < porFila.length; f++) {
+                double ritmo = decaimiento * TablaModificadores.getMod(f, s);
+                porFila[f] = (byte) (Math.floor(ritmo * (tick + 1)) - Math.floor(ritmo * tick));
+            }
+            for (int id = desde; id < hasta; id++) {
+                cambios[id - desde] = porFila[filas[id]];
+            }
+            Herramientas.sumarYAjustar(stats, s * capacidad + desde, cambios, 0, hasta - desde,
+                    Perro.BASE_MIN_LEVEL, Perro.BASE_MAX_LEVEL);
+        }
+
+        for (int id = desde; id < hasta; id++) {
+            edades[id] = Math.min(EDAD_MAXIMA_TICKS, edades[id] + 1);
+            filas[id] = (byte) fila(razas[id], edades[id]);
+        }
+
+        int cambiados = 0;
+        for (int id = desde; id < hasta; id++) {
+            long nuevos = 0L;
+            for (int s = 0; s < NUM_STATS; s++) {
+                nuevos |= Estado.activosCon(STATS[s], stats[s * capacidad + id]);
+            }
+            if (nuevos != estados[id]) {
+                setEstados(id, nuevos, tick);
+                cambiados++;
+            }
+        }
+        return cambiados;
+    }
+
+    /**
+     * Marca como completado un tick de toda la población, una vez avanzados
+     * todos sus rangos con {@link #avanzar(int, int, long)}.
+     *
+     * @param tick Número del tick completado.
+     * @throws IllegalStateException Si la perrera es perezosa.
+     */
+    public void completarTick(long tick) {
+        if (perezosa) {
+            throw new IllegalStateException("Una perrera perezosa avanza con avanzarReloj.");
+        }
+        proximoTick = tick + 1;
+        for (ObservadorPerrera observador : observadores) {
+            observador.tickCompletado(proximoTick);
+        }
+    }
+
+    /**
+     * Obtiene el número del próximo tick a simular. Como el decaimiento de
+     * cada tick depende de su número, es lo que hay que conservar para que
+     * los perros sigan igual al guardarlos y recuperarlos.
+     *
+     * @return En una perrera normal, el siguiente al último tick completado;
+     * en una perezosa, su reloj.
+     */
+    public long getTick() {
+        return perezosa ? reloj : proximoTick;
+    }
+
+    /**
+     * Fija el próximo tick a simular de una perrera vacía, por ejemplo al
+     * cargarla de una instantánea, para que el decaimiento siga por donde
+     * iba.
+     *
+     * @param tick Número del próximo tick.
+     * @throws IllegalStateException Si la perrera ya tiene perros.
+     * @throws IllegalArgumentException Si el tick es negativo.
+     */
+    public void fijarTick(long tick) {
+        if (tamanno > 0) {
+            throw new IllegalStateException("Solo se puede fijar el tick de una perrera vacía.");
+        }
+        if (tick < 0) {
+            throw new IllegalArgumentException("El tick no puede ser negativo.");
+        }
+        if (perezosa) {
+            reloj = tick;
+        } else {
+            proximoTick = tick;
+        }
+        this.tick = Math.max(0, tick - 1);
+    }
+
+    /**
+     * @return true si la perrera es perezosa
+     */
+    public boolean isPerezosa() {
+        return perezosa;
+    }
+
+    /**
+     * @return Número de ticks transcurridos en una perrera perezosa
+     */
+    public long getReloj() {
+        return reloj;
+    }
+
+    /**
+     * Hace pasar el tiempo en una perrera perezosa sin tocar a ningún perro:
+     * cada uno se pondrá al día la próxima vez que se lea o escriba.
+     *
+     * @param ticks Número de ticks a avanzar.
+     * @throws IllegalStateException Si la perrera no es perezosa.
+     * @throws IllegalArgumentException Si el número de ticks es negativo.
+     */
+    public void avanzarReloj(long ticks) {
+        if (!perezosa) {
+            throw new IllegalStateException("Solo una perrera perezosa puede avanzar su reloj.");
+        }
+        if (ticks < 0) {
+            throw new IllegalArgumentException("El número de ticks no puede ser negativo.");
+        }
+        if (ticks == 0) {
+            return;
+        }
+        reloj += ticks;
+        tick = reloj - 1;
+        for (ObservadorPerrera observador : observadores) {
+            observador.tickCompletado(reloj);
+        }
+    }
+
+    /**
+     * Aplica el decaimiento pendiente a un rango de perros de una perrera
+     * perezosa, actualizando el índice de estados y publicando sus
+     * transiciones. En una perrera normal no hace nada.
+     *
+     * @param desde Primer identificador (incluido).
+     * @param hasta Último identificador (excluido).
+     * @throws IndexOutOfBoundsException Si el rango no es válido.
+     */
+    public void ponerAlDia(int desde, int hasta) {
+        Objects.checkFromToIndex(desde, hasta, tamanno);
+        for (int id = desde; id < hasta; id++) {
+            alDia(id);
+        }
+    }
+
+    private void alDia(int id) {
+        if (perezosa && actualizados[id] != reloj) {
+            ponerAlDia(id);
+        }
+    }
+
+    /**
+     * Aplica a un perro en forma cerrada los ticks que lleva sin actualizar.
+     * El intervalo se parte en tramos en los que el perro no cambia de franja
+     * de edad, y por tanto tampoco de ritmo. Dentro de un tramo cada stat
+     * varía siempre en el mismo sentido, así que ajustarlo a sus límites una
+     * vez al final equivale a hacerlo en cada tick, y la suma de las
+     * variaciones de {@link #avanzar(int, int, long)} se reduce a
+     * {@code floor(ritmo * fin) - floor(ritmo * inicio)}.
+     *
+     * @param id Identificador del perro.
+     */
+    private void ponerAlDia(int id) {
+        long inicio = actualizados[id];
+        long fin = reloj;
+        actualizados[id] = fin;
+        int edad = edades[id];
+        int fila = filas[id];
+        while (inicio < fin) {
+            long enFranja = FranjaEdad.ticksEnFranja(edad);
+            long tramo = enFranja >= fin - inicio ? fin : inicio + enFranja;
+            for (int s = 0; s < NUM_STATS; s++) {
+                double decaimiento = STATS[s].getDecaimiento();
+                if (decaimiento == 0) {
+                    continue;
+                }
+                double ritmo = decaimiento * TablaModificadores.getMod(fila, s);
+                long cambio = (long) (Math.floor(ritmo * tramo) - Math.floor(ritmo * inicio));
+                if (cambio != 0) {
+                    int pos = s * capacidad + id;
+                    stats[pos] = (byte) Herramientas.clamp(stats[pos] + cambio,
+                            Perro.BASE_MIN_LEVEL, Perro.BASE_MAX_LEVEL);
+                }
+            }
+            edad = (int) Math.min(EDAD_MAXIMA_TICKS, edad + (tramo - inicio));
+            fila = fila(razas[id], edad);
+            inicio = tramo;
+        }
+        edades[id] = edad;
+        filas[id] = (byte) fila;
+
+        long nuevos = 0L;
+        for (int s = 0; s < NUM_STATS; s++) {
+            nuevos |= Estado.activosCon(STATS[s], stats[s * capacidad + id]);
+        }
+        if (nuevos != estados[id]) {
+            setEstados(id, nuevos, fin - 1);
+        }
+    }
+
+    /**
+     * Comprueba que una edad en años esté entre 0 y {@link #EDAD_MAXIMA}, de
+     * modo que al pasarla a ticks no se desborde.
+     */
+    private static void comprobarEdad(double edad) {
+        if (!(edad >= 0 && edad <= EDAD_MAXIMA)) {
+            throw new IllegalArgumentException("La edad debe estar entre 0 y 29 años.");
+        }
+    }
+
+    /**
+     * Convierte una edad en años a ticks, redondeando a la hora más cercana.
+     */
+    private static int aTicks(double edad) {
+        return (int) Math.round(edad * TICKS_POR_ANNO);
+    }
+
+    private static int fila(Raza raza, int edadTicks) {
+        return TablaModificadores.fila(raza, FranjaEdad.deTicks(edadTicks));
+    }
+
+    /**
+     * Copia los valores de una estadística de todos los perros en un array,
+     * en orden de identificador.
+     *
+     * @param stat Estadística a copiar.
+     * @param destino Array de destino, de longitud al menos
+     * {@link #getTamanno()}.
+     * @return El array de destino.
+     */
+    public int[] copiarStat(StatPerro stat, int[] destino) {
+        ponerAlDia(0, tamanno);
+        int base = stat.ordinal() * capacidad;
+        for (int i = 0; i < tamanno; i++) {
+            destino[i] = stats[base + i];
+        }
+        return destino;
+    }
+
+    /**
+     * Suma los valores de una estadística de todos los perros recorriendo su
+     * columna de forma lineal.
+     *
+     * @param stat Estadística a sumar.
+     * @return Suma de los valores de la estadística.
+     */
+    public long sumarStat(StatPerro stat) {
+        ponerAlDia(0, tamanno);
+        int base = stat.ordinal() * capacidad;
+        long suma = 0;
+        for (int i = 0; i < tamanno; i++) {
+            suma += stats[base + i];
+        }
+        return suma;
+    }
+
+    /**
+     * Cuenta cuántos perros tienen una estadística dentro de un rango.
+     *
+     * @param stat Estadística a consultar.
+     * @param min Valor mínimo (incluido).
+     * @param max Valor máximo (incluido).
+     * @return Número de perros con el stat entre {@code min} y {@code max}.
+     */
+    public int contarStatEntre(StatPerro stat, int min, int max) {
+        ponerAlDia(0, tamanno);
+        int base = stat.ordinal() * capacidad;
+        int total = 0;
+        for (int i = 0; i < tamanno; i++) {
+            int valor = stats[base + i];
+            if (valor >= min && valor <= max) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Cuenta los perros de cada raza. Los contadores se actualizan en cada
+     * alta y baja, así que no se recorre la población y puede llamarse desde
+     * cualquier hilo mientras la perrera cambia. En ese caso cada raza da un
+     * valor reciente, pero las razas no forman una foto de un mismo instante.
+     *
+     * @return Número de perros por raza, indexado por su ordinal.
+     */
+    public int[] contarPorRaza() {
+        int[] total = new int[perrosPorRaza.length];
+        for (int r = 0; r < total.length; r++) {
+            total[r] = (int) perrosPorRaza[r].sum();
+        }
+        return total;
+    }
+}
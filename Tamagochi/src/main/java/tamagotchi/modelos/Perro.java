@@ -1,11 +1,13 @@
 package tamagotchi.modelos;
 
-import java.util.EnumMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Random;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import tamagotchi.core.Herramientas;
+import tamagotchi.metricas.Metricas;
+import tamagotchi.metricas.Operacion;
 
 /**
  * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
@@ -17,149 +19,163 @@ import tamagotchi.core.Herramientas;
  * Descripción: Clase que representa un perro con diferentes atributos y estados
  * dinámicos. Cada perro tiene estadísticas (energía, hambre, salud, etc.),
  * modificadores según su raza y edad, y puede estar en ciertos estados según su
- * condición.
+ * condición. Los datos del perro se guardan en una {@link Perrera}; cada
+ * instancia es solo una vista ligera sobre su posición en ella.
  */
-public class Perro {
+public final class Perro {
 
     /**
      * Valor máximo para las estadísticas del perro
      */
-    private static final int BASE_MAX_LEVEL = 100;
+    static final int BASE_MAX_LEVEL = 100;
 
     /**
      * Valor mínimo para las estadísticas del perro
      */
-    private static final int BASE_MIN_LEVEL = 0;
+    static final int BASE_MIN_LEVEL = 0;
 
     /**
-     * Generador de números aleatorios para inicializar los valores de los stats
+     * Rango de valores iniciales de cada stat, indexado por su ordinal
      */
-    private static final Random rand = new Random();
+    private static final int[][] RANGOS_INICIALES = {
+        {BASE_MAX_LEVEL, BASE_MAX_LEVEL}, // Energía
+        {BASE_MIN_LEVEL, BASE_MIN_LEVEL}, // Hambre
+        {40, 80}, // Felicidad
+        {60, 90}, // Salud
+        {30, 80}, // Limpieza
+        {30, 70}, // Sueño
+        {10, 50}, // Ansiedad
+        {20, 70}, // Obediencia
+        {30, 80}, // Sociabilidad
+        {20, 80} // Apego
+    };
 
     /**
-     * Nombre del perro
+     * Perrera en la que se almacenan los datos del perro
      */
-    private final String nombre;
+    private final Perrera perrera;
 
     /**
-     * Raza del perro
+     * Identificador del perro dentro de su perrera
      */
-    private final Raza raza;
+    private final int id;
 
     /**
-     * Edad del perro en años y fracción de meses
-     */
-    private double edad;
-
-    /**
-     * Mapa que almacena las estadísticas del perro
+     * Constructor para inicializar un nuevo perro con nombre, raza y edad. Se
+     * calculan automáticamente sus estadísticas, y sus modificadores se toman
+     * de la {@link TablaModificadores} según su raza y edad. El perro se
+     * guarda en una perrera propia de un solo hueco.
+     *
+     * @param nombre Nombre del perro
+     * @param raza Raza del perro
+     * @param edad Edad del perro en años
      */
-    private final Map<StatPerro, Integer> stats;
+    public Perro(String nombre, Raza raza, int edad) {
+        this(nombre, raza, edad, ThreadLocalRandom.current());
+    }
 
     /**
-     * Mapa que almacena los modificadores aplicados a las estadísticas
+     * Constructor para inicializar un nuevo perro usando un generador de
+     * números aleatorios concreto, lo que permite reproducir sus stats
+     * iniciales. El perro se guarda en una perrera propia de un solo hueco.
+     *
+     * @param nombre Nombre del perro
+     * @param raza Raza del perro
+     * @param edad Edad del perro en años
+     * @param aleatorio Generador usado para los valores iniciales de los stats
      */
-    private final Map<StatPerro, Double> mods;
+    public Perro(String nombre, Raza raza, int edad, RandomGenerator aleatorio) {
+        this(new Perrera(1), nombre, raza, edad, aleatorio);
+    }
 
     /**
-     * Conjunto de estados actuales del perro
+     * Constructor que da de alta un nuevo perro al final de una perrera
+     * existente.
+     *
+     * @param perrera Perrera en la que se guarda el perro
+     * @param nombre Nombre del perro
+     * @param raza Raza del perro
+     * @param edad Edad del perro en años
+     * @param aleatorio Generador usado para los valores iniciales de los stats
      */
-    private final Set<Estado> estados;
+    Perro(Perrera perrera, String nombre, Raza raza, int edad, RandomGenerator aleatorio) {
+        this(perrera, perrera.reservar(1), nombre, raza, edad, aleatorio);
+    }
 
     /**
-     * Constructor para inicializar un nuevo perro con nombre, raza y edad. Se
-     * calculan automáticamente sus estadísticas y modificadores.
+     * Constructor que inicializa un nuevo perro en una posición ya reservada
+     * de una perrera.
      *
+     * @param perrera Perrera en la que se guarda el perro
+     * @param id Posición reservada para el perro
      * @param nombre Nombre del perro
      * @param raza Raza del perro
      * @param edad Edad del perro en años
+     * @param aleatorio Generador usado para los valores iniciales de los stats
      */
-    public Perro(String nombre, Raza raza, int edad) {
-        this.nombre = nombre;
-        this.raza = raza;
-        this.edad = edad;
-        this.stats = new EnumMap<>(StatPerro.class);
-        this.mods = new EnumMap<>(StatPerro.class);
-        this.estados = new HashSet<>();
-
-        inicializarModificadores();
-        inicializarStats();
+    Perro(Perrera perrera, int id, String nombre, Raza raza, int edad, RandomGenerator aleatorio) {
+        long inicio = Metricas.inicio(Operacion.CONSTRUIR);
+        this.perrera = perrera;
+        this.id = id;
+        perrera.registrar(id, nombre, raza, edad);
+
+        inicializarStats(aleatorio);
+        Metricas.registrar(Operacion.CONSTRUIR, inicio);
     }
 
     /**
-     * Inicializa los modificadores de los stats, aplicando los efectos de la
-     * raza y la edad.
+     * Constructor de una vista sobre un perro ya registrado en una perrera.
+     *
+     * @param perrera Perrera en la que está guardado el perro
+     * @param id Identificador del perro dentro de la perrera
      */
-    private void inicializarModificadores() {
-        for (StatPerro stat : StatPerro.values()) {
-            mods.put(stat, 1.0 + raza.getMod(stat));
-        }
-
-        // Aplicar modificadores por edad
-        if (edad <= 2) {// Cachorro
-            aplicarModificadores(0.20, 0.10, 0.05, -0.10, 0.15, 0.15, -0.20, 0.10, 0.15);
-        } else if (edad >= 9) {// Senior
-            aplicarModificadores(-0.25, -0.10, -0.25, 0.10, -0.20, 0.10, -0.15, -0.15, 0.10);
-        }
+    Perro(Perrera perrera, int id) {
+        this.perrera = perrera;
+        this.id = id;
     }
 
     /**
-     * Actualiza el conjunto de modificadores de los stats del perro.
+     * Inicializa los valores base de los stats del perro aplicando los
+     * modificadores, y calcula sus estados iniciales.
      *
-     * @param energia Cantidad a añadir/sustraer del Modificador de energía
-     * @param hambre Cantidad a añadir/sustraer del Modificador de hambre
-     * @param salud Cantidad a añadir/sustraer del Modificador de salud
-     * @param limpieza Cantidad a añadir/sustraer del Modificador de limpieza
-     * @param suenno Cantidad a añadir/sustraer del Modificador de sueño
-     * @param ansiedad Cantidad a añadir/sustraer del Modificador de ansiedad
-     * @param obediencia Cantidad a añadir/sustraer del Modificador de
-     * obediencia
-     * @param sociabilidad Cantidad a añadir/sustraer del Modificador de
-     * sociabilidad
-     * @param apego Cantidad a añadir/sustraer del Modificador de apego
-     */
-    private void aplicarModificadores(double energia, double hambre, double salud, double limpieza,
-            double suenno, double ansiedad, double obediencia,
-            double sociabilidad, double apego) {
-        mods.put(StatPerro.ENERGIA, mods.getOrDefault(StatPerro.ENERGIA, 1.0) + energia);
-        mods.put(StatPerro.HAMBRE, mods.getOrDefault(StatPerro.HAMBRE, 1.0) + hambre);
-        mods.put(StatPerro.SALUD, mods.getOrDefault(StatPerro.SALUD, 1.0) + salud);
-        mods.put(StatPerro.LIMPIEZA, mods.getOrDefault(StatPerro.LIMPIEZA, 1.0) + limpieza);
-        mods.put(StatPerro.SUENNO, mods.getOrDefault(StatPerro.SUENNO, 1.0) + suenno);
-        mods.put(StatPerro.ANSIEDAD, mods.getOrDefault(StatPerro.ANSIEDAD, 1.0) + ansiedad);
-        mods.put(StatPerro.OBEDIENCIA, mods.getOrDefault(StatPerro.OBEDIENCIA, 1.0) + obediencia);
-        mods.put(StatPerro.SOCIABILIDAD, mods.getOrDefault(StatPerro.SOCIABILIDAD, 1.0) + sociabilidad);
-        mods.put(StatPerro.APEGO, mods.getOrDefault(StatPerro.APEGO, 1.0) + apego);
+     * @param aleatorio Generador usado para los valores iniciales
+     */
+    private void inicializarStats(RandomGenerator aleatorio) {
+        for (StatPerro stat : Perrera.STATS) {
+            perrera.setStat(id, stat, valorInicial(stat, getMod(stat), aleatorio));
+        }
+
+        actualizarEstados();
     }
 
     /**
-     * Inicializa los valores base de los stats del perro aplicando los
-     * modificadores.
-     */
-    private void inicializarStats() {
-        stats.put(StatPerro.ENERGIA, BASE_MAX_LEVEL);
-        stats.put(StatPerro.HAMBRE, BASE_MIN_LEVEL);
-        stats.put(StatPerro.FELICIDAD, statInicial(40, 80, mods.get(StatPerro.FELICIDAD)));
-        stats.put(StatPerro.SALUD, statInicial(60, 90, mods.get(StatPerro.SALUD)));
-        stats.put(StatPerro.LIMPIEZA, statInicial(30, 80, mods.get(StatPerro.LIMPIEZA)));
-        stats.put(StatPerro.SUENNO, statInicial(30, 70, mods.get(StatPerro.SUENNO)));
-        stats.put(StatPerro.ANSIEDAD, statInicial(10, 50, mods.get(StatPerro.ANSIEDAD)));
-        stats.put(StatPerro.OBEDIENCIA, statInicial(20, 70, mods.get(StatPerro.OBEDIENCIA)));
-        stats.put(StatPerro.SOCIABILIDAD, statInicial(30, 80, mods.get(StatPerro.SOCIABILIDAD)));
-        stats.put(StatPerro.APEGO, statInicial(20, 80, mods.get(StatPerro.APEGO)));
+     * Calcula el valor inicial de un stat de un perro nuevo. La energía
+     * empieza al máximo y el hambre a cero; el resto toma un valor aleatorio
+     * de su rango ajustado con el modificador. Los stats se inicializan en
+     * orden de ordinal, que es el orden en que consumen números aleatorios.
+     *
+     * @param stat Estadística a inicializar.
+     * @param modificador Modificador del perro para esa estadística.
+     * @param aleatorio Generador de números aleatorios.
+     * @return Valor inicial del stat.
+     */
+    public static int valorInicial(StatPerro stat, double modificador, RandomGenerator aleatorio) {
+        int[] rango = RANGOS_INICIALES[stat.ordinal()];
+        return rango[0] == rango[1] ? rango[0] : statInicial(aleatorio, rango[0], rango[1], modificador);
     }
 
     /**
      * Calcula un valor inicial aleatorio para un stat dentro de un rango y lo
      * ajusta con su modificador.
      *
+     * @param aleatorio Generador de números aleatorios
      * @param min Valor mínimo
      * @param max Valor máximo
      * @param modificador Modificador aplicado al stat
      * @return Valor inicial ajustado
      */
-    private int statInicial(int min, int max, double modificador) {
-        int valorAleatorio = rand.nextInt((max - min) + 1) + min;
+    private static int statInicial(RandomGenerator aleatorio, int min, int max, double modificador) {
+        int valorAleatorio = aleatorio.nextInt((max - min) + 1) + min;
         int resultadoFinal = (int) Math.round(valorAleatorio * modificador);
         return Herramientas.clamp(resultadoFinal, BASE_MIN_LEVEL, BASE_MAX_LEVEL);
     }
@@ -170,7 +186,7 @@ public class Perro {
      * @return Nombre del perro.
      */
     public String getNombre() {
-        return nombre;
+        return perrera.getNombre(id);
     }
 
     /**
@@ -179,7 +195,7 @@ public class Perro {
      * @return Raza del perro.
      */
     public Raza getRaza() {
-        return raza;
+        return perrera.getRaza(id);
     }
 
     /**
@@ -189,7 +205,16 @@ public class Perro {
      * @return Edad del perro en años.
      */
     public double getEdad() {
-        return edad;
+        return perrera.getEdad(id);
+    }
+
+    /**
+     * Obtiene la franja de edad del perro.
+     *
+     * @return Franja de edad según su edad actual.
+     */
+    public FranjaEdad getFranja() {
+        return FranjaEdad.de(getEdad());
     }
 
     /**
@@ -199,7 +224,7 @@ public class Perro {
      * @return Valor de la estadística, o 0 si no está definida.
      */
     public int getStat(StatPerro stat) {
-        return stats.getOrDefault(stat, 0);
+        return perrera.getStat(id, stat);
     }
 
     /**
@@ -209,16 +234,26 @@ public class Perro {
      * @return Modificador aplicado a la estadística, por defecto 1.0.
      */
     public double getMod(StatPerro stat) {
-        return mods.getOrDefault(stat, 1.0);
+        return perrera.getMod(id, stat);
     }
 
     /**
      * Obtiene el conjunto de estados actuales del perro.
      *
-     * @return Conjunto de estados en los que se encuentra el perro.
+     * @return Copia del conjunto de estados en los que se encuentra el perro.
      */
     public Set<Estado> getEstados() {
-        return estados;
+        return Estado.desdeMascara(perrera.getEstados(id));
+    }
+
+    /**
+     * Obtiene los estados actuales del perro como máscara de bits, sin crear
+     * ningún conjunto.
+     *
+     * @return Máscara de estados activos, ver {@link Estado#getMascara()}.
+     */
+    public long getMascaraEstados() {
+        return perrera.getEstados(id);
     }
 
     /**
@@ -234,42 +269,64 @@ public class Perro {
      * @return La edad en años completos
      */
     public int getAnnos() {
-        return (int) edad;
+        return (int) getEdad();
     }
 
     /**
      * @return La edad en meses restantes después de los años
      */
     public int getMeses() {
-        return (int) ((edad - getAnnos()) * 12);
+        return (int) ((getEdad() - getAnnos()) * 12);
     }
 
     /**
      * Establece la nueva edad del perro asegurando que esté dentro del rango
-     * válido (0-29 años).
+     * válido (0-29 años). Si la nueva edad cae en otra {@link FranjaEdad}, el
+     * perro pasa a usar los modificadores de esa franja.
      *
      * @param edad Nueva edad del perro en años.
      * @throws IllegalArgumentException Si la edad está fuera del rango
      * permitido.
      */
     public void setEdad(double edad) {
-        if (edad < 0 || edad > 29) { // 29 años es la máxima edad registrada
+        if (edad < 0 || edad > Perrera.EDAD_MAXIMA) { // 29 años es la máxima edad registrada
             throw new IllegalArgumentException("La edad debe estar entre 0 y 29 años.");
         }
-        this.edad = edad;
+        perrera.setEdad(id, edad);
+        perrera.notificarEdad(id, edad);
     }
 
     /**
      * Establece un nuevo valor para una estadística del perro, asegurando que
      * esté dentro de los límites permitidos. También actualiza los estados del
-     * perro en función del nuevo valor de la estadística.
+     * perro asociados a esa estadística.
      *
      * @param stat Estadística a modificar.
      * @param valor Nuevo valor de la estadística.
+     * @return Transición de estados provocada por el cambio, empaquetada según
+     * {@link Estado#transicion(long, long)} (0 si no cambia ningún estado).
      */
-    public void setStat(StatPerro stat, int valor) {
-        stats.put(stat, Herramientas.clamp(valor, BASE_MIN_LEVEL, BASE_MAX_LEVEL));
-        actualizarEstados();
+    public long setStat(StatPerro stat, int valor) {
+        long inicio = Metricas.inicio(Operacion.SET_STAT);
+        int ajustado = Herramientas.clamp(valor, BASE_MIN_LEVEL, BASE_MAX_LEVEL);
+        perrera.setStat(id, stat, ajustado);
+        long transicion = actualizarEstados(stat, ajustado);
+        perrera.notificarStat(id, stat, ajustado);
+        Metricas.registrar(Operacion.SET_STAT, inicio);
+        return transicion;
+    }
+
+    /**
+     * Aplica un lote de cambios sobre varias estadísticas a la vez. Cada stat
+     * se ajusta a sus límites una sola vez y los estados se recalculan una
+     * sola vez para todo el lote.
+     *
+     * @param delta Lote de cambios a aplicar.
+     * @return Transición de estados provocada por el lote, empaquetada según
+     * {@link Estado#transicion(long, long)} (0 si no cambia ningún estado).
+     */
+    public long aplicar(DeltaStats delta) {
+        return perrera.aplicar(id, delta);
     }
 
     /**
@@ -278,36 +335,91 @@ public class Perro {
      */
     public void mostrarEstado() {
         StringBuilder sb = new StringBuilder();
-        sb.append(String.format("🐶 Nombre: %s | Raza: %s | Edad: %s\n", nombre, raza, edadToString()));
+        try {
+            new RenderizadorPerros().escribir(this, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder nunca lanza IOException
+        }
+        System.out.print(sb);
+    }
 
+    /**
+     * Recalcula todos los estados del perro en función de sus estadísticas
+     * actuales.
+     *
+     * @return Transición de estados empaquetada según
+     * {@link Estado#transicion(long, long)}.
+     */
+    private long actualizarEstados() {
+        long inicio = Metricas.inicio(Operacion.ACTUALIZAR_ESTADOS);
+        long nuevosEstados = 0L;
         for (StatPerro stat : StatPerro.values()) {
-            sb.append(String.format("%s %s: %d/100\n",
-                    stat.getEmoji(), stat.getNombre(), stats.get(stat)));
+            nuevosEstados |= Estado.activosCon(stat, getStat(stat));
         }
+        long transicion = cambiarEstados(nuevosEstados);
+        Metricas.registrar(Operacion.ACTUALIZAR_ESTADOS, inicio);
+        return transicion;
+    }
 
-        sb.append("📌 Estados activos: ").append(estados.isEmpty() ? "Ninguno" : estados);
-        System.out.println(sb);
+    /**
+     * Reevalúa únicamente los estados asociados a una estadística usando la
+     * tabla de umbrales precalculada en {@link Estado}.
+     *
+     * @param stat Estadística que ha cambiado.
+     * @param valor Nuevo valor de la estadística.
+     * @return Transición de estados empaquetada según
+     * {@link Estado#transicion(long, long)}.
+     */
+    private long actualizarEstados(StatPerro stat, int valor) {
+        long inicio = Metricas.inicio(Operacion.ACTUALIZAR_ESTADOS);
+        long actuales = perrera.getEstados(id);
+        long transicion = cambiarEstados((actuales & ~Estado.mascaraDe(stat)) | Estado.activosCon(stat, valor));
+        Metricas.registrar(Operacion.ACTUALIZAR_ESTADOS, inicio);
+        return transicion;
     }
 
     /**
-     * Actualiza los estados del perro en función de sus estadísticas actuales.
+     * Guarda la nueva máscara de estados y calcula la transición respecto a
+     * la anterior.
+     *
+     * @param nuevosEstados Nueva máscara de estados del perro.
+     * @return Transición de estados empaquetada según
+     * {@link Estado#transicion(long, long)}.
      */
-    private void actualizarEstados() {
-        Set<Estado> nuevosEstados = new HashSet<>();
+    private long cambiarEstados(long nuevosEstados) {
+        long actuales = perrera.getEstados(id);
+        if (actuales == nuevosEstados) {
+            return 0L;
+        }
+        perrera.setEstados(id, nuevosEstados);
+        return Estado.transicion(nuevosEstados & ~actuales, actuales & ~nuevosEstados);
+    }
 
-        for (Estado estado : Estado.values()) {
-            int valorStat = stats.getOrDefault(estado.getStatAsociado(), 0);
-            Integer min = estado.getValorMin();
-            Integer max = estado.getValorMax();
+    /**
+     * Obtiene el identificador del perro dentro de su perrera.
+     *
+     * @return Identificador del perro.
+     */
+    public int getId() {
+        return id;
+    }
 
-            if ((min != null && valorStat >= min) || (max != null && valorStat <= max)) {
-                nuevosEstados.add(estado);
-            }
-        }
+    /**
+     * Obtiene la perrera en la que está almacenado el perro.
+     *
+     * @return Perrera del perro.
+     */
+    public Perrera getPerrera() {
+        return perrera;
+    }
 
-        if (!estados.equals(nuevosEstados)) {
-            estados.clear();
-            estados.addAll(nuevosEstados);
-        }
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Perro otro && otro.perrera == perrera && otro.id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(perrera) + id;
     }
 }
@@ -0,0 +1,268 @@
+package tamagotchi.modelos;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import tamagotchi.core.Herramientas;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Variante de {@link Perro} que admite cambios simultáneos desde
+ * varios hilos (jugadores, eventos de fondo...) sin cerrojos. Todas las
+ * estadísticas y la máscara de estados forman un único valor inmutable que se
+ * sustituye con una operación CAS: cada cambio, aunque toque varias
+ * estadísticas, se aplica de forma atómica y los estados siempre corresponden
+ * a las estadísticas con las que se guardaron.
+ *
+ * Las estadísticas van empaquetadas a un byte cada una en dos palabras de 64
+ * bits. No caben en una sola: diez valores de 0 a 100 tienen 101^10
+ * combinaciones, más que 2^64.
+ */
+public class PerroConcurrente {
+
+    private static final StatPerro[] STATS = StatPerro.values();
+    private static final int STATS_POR_PALABRA = 8;
+
+    private static final VarHandle VALORES;
+
+    static {
+        try {
+            VALORES = MethodHandles.lookup().findVarHandle(PerroConcurrente.class, "valores", Valores.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Estadísticas y estados del perro en un momento dado
+     */
+    private static final class Valores {
+
+        final long bajos;
+        final long altos;
+        final long estados;
+
+        Valores(long bajos, long altos, long estados) {
+            this.bajos = bajos;
+            this.altos = altos;
+            this.estados = estados;
+        }
+
+        int get(int s) {
+            long palabra = s < STATS_POR_PALABRA ? bajos : altos;
+            return (int) (palabra >>> (s % STATS_POR_PALABRA * 8)) & 0xFF;
+        }
+    }
+
+    private final String nombre;
+    private final Raza raza;
+    private final int fila;
+    private volatile Valores valores;
+
+    /**
+     * Constructor de la clase PerroConcurrente, con las mismas estadísticas
+     * iniciales que un {@link Perro}.
+     *
+     * @param nombre Nombre del perro.
+     * @param raza Raza del perro.
+     * @param edad Edad del perro.
+     */
+    public PerroConcurrente(String nombre, Raza raza, int edad) {
+        this(new Perro(nombre, raza, edad, ThreadLocalRandom.current()));
+    }
+
+    /**
+     * Constructor de la clase PerroConcurrente con un generador de números
+     * aleatorios concreto.
+     *
+     * @param nombre Nombre del perro.
+     * @param raza Raza del perro.
+     * @param edad Edad del perro.
+     * @param aleatorio Generador usado para las estadísticas iniciales.
+     */
+    public PerroConcurrente(String nombre, Raza raza, int edad, RandomGenerator aleatorio) {
+        this(new Perro(nombre, raza, edad, aleatorio));
+    }
+
+    /**
+     * Crea una copia concurrente de un perro existente.
+     *
+     * @param origen Perro cuyos datos y estadísticas se copian.
+     */
+    public PerroConcurrente(Perro origen) {
+        this.nombre = origen.getNombre();
+        this.raza = origen.getRaza();
+        this.fila = TablaModificadores.fila(raza, origen.getEdad());
+        long bajos = 0L;
+        long altos = 0L;
+        long estados = 0L;
+        for (int s = 0; s < STATS.length; s++) {
+            int valor = origen.getStat(STATS[s]);
+            if (s < STATS_POR_PALABRA) {
+                bajos = poner(bajos, s, valor);
+            } else {
+                altos = poner(altos, s, valor);
+            }
+            estados |= Estado.activosCon(STATS[s], valor);
+        }
+        this.valores = new Valores(bajos, altos, estados);
+    }
+
+    /**
+     * Obtiene el nombre del perro.
+     *
+     * @return Nombre del perro.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene la raza del perro.
+     *
+     * @return Raza del perro.
+     */
+    public Raza getRaza() {
+        return raza;
+    }
+
+    /**
+     * Obtiene el modificador de una estadística según la raza y la edad con
+     * la que se creó el perro.
+     *
+     * @param stat Estadística a consultar.
+     * @return Modificador de la estadística.
+     */
+    public double getMod(StatPerro stat) {
+        return TablaModificadores.getMod(fila, stat.ordinal());
+    }
+
+    /**
+     * Obtiene el valor actual de una estadística.
+     *
+     * @param stat Estadística a consultar.
+     * @return Valor de la estadística.
+     */
+    public int getStat(StatPerro stat) {
+        return valores.get(stat.ordinal());
+    }
+
+    /**
+     * Copia todas las estadísticas del perro tal como estaban en un mismo
+     * instante.
+     *
+     * @param destino Array de destino, indexado por el ordinal de
+     * {@link StatPerro}.
+     * @return El array de destino.
+     */
+    public int[] getStats(int[] destino) {
+        Valores actuales = valores;
+        for (int s = 0; s < STATS.length; s++) {
+            destino[s] = actuales.get(s);
+        }
+        return destino;
+    }
+
+    /**
+     * @return Máscara de los estados activos, ver {@link Estado#getMascara()}
+     */
+    public long getMascaraEstados() {
+        return valores.estados;
+    }
+
+    /**
+     * @return Conjunto de estados activos del perro
+     */
+    public Set<Estado> getEstados() {
+        return Estado.desdeMascara(valores.estados);
+    }
+
+    /**
+     * Establece un nuevo valor para una estadística, ajustado a sus límites,
+     * y actualiza los estados asociados en la misma operación atómica.
+     *
+     * @param stat Estadística a modificar.
+     * @param valor Nuevo valor de la estadística.
+     * @return Transición de estados provocada por el cambio, empaquetada según
+     * {@link Estado#transicion(long, long)} (0 si no cambia ningún estado).
+     */
+    public long setStat(StatPerro stat, int valor) {
+        int s = stat.ordinal();
+        int ajustado = Herramientas.clamp(valor, Perro.BASE_MIN_LEVEL, Perro.BASE_MAX_LEVEL);
+        while (true) {
+            Valores actuales = valores;
+            if (actuales.get(s) == ajustado) {
+                return 0L;
+            }
+            long bajos = actuales.bajos;
+            long altos = actuales.altos;
+            if (s < STATS_POR_PALABRA) {
+                bajos = poner(bajos, s, ajustado);
+            } else {
+                altos = poner(altos, s, ajustado);
+            }
+            long nuevos = (actuales.estados & ~Estado.mascaraDe(stat)) | Estado.activosCon(stat, ajustado);
+            if (VALORES.compareAndSet(this, actuales, new Valores(bajos, altos, nuevos))) {
+                return Estado.transicion(nuevos & ~actuales.estados, actuales.estados & ~nuevos);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Aplica un lote de cambios sobre varias estadísticas como una sola
+     * operación atómica: ningún otro hilo ve el lote aplicado a medias. Si
+     * otro hilo cambia el perro a la vez, el lote se recalcula sobre los
+     * valores nuevos, así que nunca se pierde ninguno de los dos cambios.
+     *
+     * @param delta Lote de cambios a aplicar. No debe modificarse mientras
+     * dura la llamada.
+     * @return Transición de estados provocada por el lote, empaquetada según
+     * {@link Estado#transicion(long, long)} (0 si no cambia ningún estado).
+     */
+    public long aplicar(DeltaStats delta) {
+        int n = delta.getNumTocados();
+        if (n == 0) {
+            return 0L;
+        }
+        while (true) {
+            Valores actuales = valores;
+            long bajos = actuales.bajos;
+            long altos = actuales.altos;
+            long nuevos = actuales.estados & ~delta.getMascaraEstados();
+            for (int i = 0; i < n; i++) {
+                int s = delta.getTocado(i);
+                int valor = Herramientas.clamp(actuales.get(s) + delta.getCantidad(s),
+                        Perro.BASE_MIN_LEVEL, Perro.BASE_MAX_LEVEL);
+                if (s < STATS_POR_PALABRA) {
+                    bajos = poner(bajos, s, valor);
+                } else {
+                    altos = poner(altos, s, valor);
+                }
+                nuevos |= Estado.activosCon(STATS[s], valor);
+            }
+            if (bajos == actuales.bajos && altos == actuales.altos) {
+                return 0L; // Todo saturado en sus límites: no hay nada que escribir
+            }
+            if (VALORES.compareAndSet(this, actuales, new Valores(bajos, altos, nuevos))) {
+                return Estado.transicion(nuevos & ~actuales.estados, actuales.estados & ~nuevos);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Sustituye el byte de una estadística dentro de su palabra.
+     */
+    private static long poner(long palabra, int s, int valor) {
+        int desplazamiento = s % STATS_POR_PALABRA * 8;
+        return (palabra & ~(0xFFL << desplazamiento)) | ((long) valor << desplazamiento);
+    }
+}
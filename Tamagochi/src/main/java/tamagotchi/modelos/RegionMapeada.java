@@ -0,0 +1,94 @@
+package tamagotchi.modelos;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Región de un fichero proyectada en memoria de solo lectura y
+ * accesible con posiciones de tipo long. Como un {@link MappedByteBuffer} no
+ * puede superar los 2 GB, la región se proyecta en trozos que se solapan unos
+ * bytes, de forma que cualquier valor primitivo que empiece en un trozo cabe
+ * entero en él.
+ */
+class RegionMapeada {
+
+    /**
+     * Tamaño de cada trozo proyectado
+     */
+    private static final long TAMANNO_TROZO = 1L << 30;
+
+    /**
+     * Bytes extra que se proyectan al final de cada trozo
+     */
+    private static final long SOLAPE = 64;
+
+    private final MappedByteBuffer[] trozos;
+    private final long tamanno;
+
+    /**
+     * Proyecta una región de un fichero.
+     *
+     * @param canal Canal abierto en modo lectura.
+     * @param inicio Posición del fichero donde empieza la región.
+     * @param tamanno Tamaño de la región en bytes.
+     * @throws IOException Si falla la proyección.
+     */
+    RegionMapeada(FileChannel canal, long inicio, long tamanno) throws IOException {
+        this.tamanno = tamanno;
+        int numTrozos = (int) Math.max(1, (tamanno + TAMANNO_TROZO - 1) / TAMANNO_TROZO);
+        this.trozos = new MappedByteBuffer[numTrozos];
+        for (int i = 0; i < numTrozos; i++) {
+            long desde = i * TAMANNO_TROZO;
+            long longitud = Math.min(tamanno - desde, TAMANNO_TROZO + SOLAPE);
+            trozos[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio + desde, Math.max(0, longitud));
+            trozos[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    long getTamanno() {
+        return tamanno;
+    }
+
+    byte get(long pos) {
+        return trozos[(int) (pos / TAMANNO_TROZO)].get((int) (pos % TAMANNO_TROZO));
+    }
+
+    int getInt(long pos) {
+        return trozos[(int) (pos / TAMANNO_TROZO)].getInt((int) (pos % TAMANNO_TROZO));
+    }
+
+    long getLong(long pos) {
+        return trozos[(int) (pos / TAMANNO_TROZO)].getLong((int) (pos % TAMANNO_TROZO));
+    }
+
+    double getDouble(long pos) {
+        return trozos[(int) (pos / TAMANNO_TROZO)].getDouble((int) (pos % TAMANNO_TROZO));
+    }
+
+    /**
+     * Copia un rango de bytes de la región a un array, aunque cruce el límite
+     * entre dos trozos.
+     *
+     * @param pos Posición inicial en la región.
+     * @param destino Array de destino, que se llena por completo.
+     */
+    void get(long pos, byte[] destino) {
+        int copiados = 0;
+        while (copiados < destino.length) {
+            long actual = pos + copiados;
+            int trozo = (int) (actual / TAMANNO_TROZO);
+            int offset = (int) (actual % TAMANNO_TROZO);
+            int n = (int) Math.min(destino.length - copiados, TAMANNO_TROZO - offset);
+            trozos[trozo].get(offset, destino, copiados, n);
+            copiados += n;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package tamagotchi.modelos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import tamagotchi.metricas.Metricas;
+import tamagotchi.metricas.Operacion;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Genera la ficha de estado de un perro (el mismo texto que
+ * muestra {@link Perro#mostrarEstado()}) sin usar {@link String#format} ni
+ * crear objetos intermedios. Los textos fijos, los emojis y nombres de cada
+ * {@link StatPerro}, las razas y las descripciones de cada {@link Estado} se
+ * codifican en UTF-8 una sola vez, y los números se escriben dígito a dígito.
+ *
+ * La ficha puede escribirse en un {@link Appendable} o en un
+ * {@link ByteBuffer} aportado por quien llama, o volcarse para muchos perros
+ * seguidos a un canal a través de un único buffer. Cada instancia reutiliza
+ * su buffer interno, por lo que no debe compartirse entre hilos.
+ */
+public class RenderizadorPerros {
+
+    private static final String CABECERA_NOMBRE = "🐶 Nombre: ";
+    private static final String SEPARADOR_RAZA = " | Raza: ";
+    private static final String SEPARADOR_EDAD = " | Edad: ";
+    private static final String TEXTO_ANNOS = " años y ";
+    private static final String TEXTO_MESES = " meses\n";
+    private static final String TEXTO_MAXIMO = "/100\n";
+    private static final String CABECERA_ESTADOS = "📌 Estados activos: ";
+    private static final String SIN_ESTADOS = "Ninguno";
+
+    private static final byte[] B_CABECERA_NOMBRE = utf8(CABECERA_NOMBRE);
+    private static final byte[] B_SEPARADOR_RAZA = utf8(SEPARADOR_RAZA);
+    private static final byte[] B_SEPARADOR_EDAD = utf8(SEPARADOR_EDAD);
+    private static final byte[] B_ANNOS = utf8(TEXTO_ANNOS);
+    private static final byte[] B_MESES = utf8(TEXTO_MESES);
+    private static final byte[] B_MAXIMO = utf8(TEXTO_MAXIMO);
+    private static final byte[] B_CABECERA_ESTADOS = utf8(CABECERA_ESTADOS);
+    private static final byte[] B_SIN_ESTADOS = utf8(SIN_ESTADOS);
+    private static final byte[] B_COMA = utf8(", ");
+
+    /**
+     * Prefijo de cada línea de stat ("emoji nombre: ") ya codificado
+     */
+    private static final byte[][] B_STATS;
+
+    /**
+     * Nombre de cada raza ya codificado
+     */
+    private static final byte[][] B_RAZAS;
+
+    /**
+     * Descripción de cada estado ya codificada
+     */
+    private static final byte[][] B_ESTADOS;
+
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final Raza[] RAZAS = Raza.values();
+
+    /**
+     * Tamaño de la ficha sin contar el nombre del perro, con margen
+     */
+    private static final int TAMANNO_FIJO_MAXIMO;
+
+    static {
+        int maximo = B_CABECERA_NOMBRE.length + B_SEPARADOR_RAZA.length + B_SEPARADOR_EDAD.length
+                + B_ANNOS.length + B_MESES.length + B_CABECERA_ESTADOS.length + 2 + 2 * 11;
+
+        B_STATS = new byte[Perrera.NUM_STATS][];
+        for (StatPerro stat : Perrera.STATS) {
+            B_STATS[stat.ordinal()] = utf8(stat.getEmoji() + " " + stat.getNombre() + ": ");
+            maximo += B_STATS[stat.ordinal()].length + 3 + B_MAXIMO.length;
+        }
+
+        int razaMaxima = 0;
+        B_RAZAS = new byte[RAZAS.length][];
+        for (Raza raza : RAZAS) {
+            B_RAZAS[raza.ordinal()] = utf8(raza.toString());
+            razaMaxima = Math.max(razaMaxima, B_RAZAS[raza.ordinal()].length);
+        }
+
+        B_ESTADOS = new byte[ESTADOS.length][];
+        for (Estado estado : ESTADOS) {
+            B_ESTADOS[estado.ordinal()] = utf8(estado.getDescripcion());
+            maximo += B_ESTADOS[estado.ordinal()].length + B_COMA.length;
+        }
+        TAMANNO_FIJO_MAXIMO = maximo + razaMaxima + B_SIN_ESTADOS.length;
+    }
+
+    /**
+     * Tamaño por defecto del buffer usado para volcar a un canal
+     */
+    private static final int TAMANNO_BUFFER_POR_DEFECTO = 64 * 1024;
+
+    /**
+     * Tamaño del buffer usado para volcar a un canal
+     */
+    private final int tamannoBuffer;
+
+    /**
+     * Buffer reutilizado para los volcados a un canal, creado en el primer
+     * volcado
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Dígitos de un número mientras se escribe
+     */
+    private final byte[] digitos = new byte[11];
+
+    /**
+     * Crea un renderizador con el buffer de volcado por defecto.
+     */
+    public RenderizadorPerros() {
+        this(TAMANNO_BUFFER_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un renderizador con un buffer de volcado de un tamaño concreto.
+     *
+     * @param tamannoBuffer Tamaño del buffer en bytes.
+     * @throws IllegalArgumentException Si no cabe al menos una ficha.
+     */
+    public RenderizadorPerros(int tamannoBuffer) {
+        if (tamannoBuffer < TAMANNO_FIJO_MAXIMO + 256) {
+            throw new IllegalArgumentException("El buffer debe tener al menos " + (TAMANNO_FIJO_MAXIMO + 256) + " bytes.");
+        }
+        this.tamannoBuffer = tamannoBuffer;
+    }
+
+    /**
+     * Escribe la ficha de un perro en un buffer de bytes, en UTF-8.
+     *
+     * @param perro Perro a mostrar.
+     * @param destino Buffer de destino.
+     * @throws java.nio.BufferOverflowException Si la ficha no cabe.
+     */
+    public void escribir(Perro perro, ByteBuffer destino) {
+        long inicio = Metricas.inicio(Operacion.RENDERIZAR);
+        escribir(perro.getPerrera(), perro.getId(), destino);
+        Metricas.registrar(Operacion.RENDERIZAR, inicio);
+    }
+
+    /**
+     * Escribe la ficha de un perro en un {@link Appendable}, por ejemplo un
+     * {@link StringBuilder} o un {@link java.io.Writer}.
+     *
+     * @param perro Perro a mostrar.
+     * @param destino Destino de los caracteres.
+     * @throws IOException Si falla el destino.
+     */
+    public void escribir(Perro perro, Appendable destino) throws IOException {
+        long inicio = Metricas.inicio(Operacion.RENDERIZAR);
+        Perrera perrera = perro.getPerrera();
+        int id = perro.getId();
+        double edad = perrera.getEdad(id);
+        int annos = (int) edad;
+
+        destino.append(CABECERA_NOMBRE).append(perrera.getNombre(id))
+                .append(SEPARADOR_RAZA).append(perrera.getRaza(id).toString())
+                .append(SEPARADOR_EDAD);
+        escribirEntero(annos, destino);
+        destino.append(TEXTO_ANNOS);
+        escribirEntero((int) ((edad - annos) * 12), destino);
+        destino.append(TEXTO_MESES);
+
+        for (StatPerro stat : Perrera.STATS) {
+            destino.append(stat.getEmoji()).append(' ').append(stat.getNombre()).append(": ");
+            escribirEntero(perrera.getStat(id, stat), destino);
+            destino.append(TEXTO_MAXIMO);
+        }
+
+        destino.append(CABECERA_ESTADOS);
+        long estados = perrera.getEstados(id);
+        if (estados == 0) {
+            destino.append(SIN_ESTADOS);
+        } else {
+            destino.append('[');
+            boolean primero = true;
+            for (Estado estado : ESTADOS) {
+                if ((estados & estado.getMascara()) != 0) {
+                    if (!primero) {
+                        destino.append(", ");
+                    }
+                    destino.append(estado.getDescripcion());
+                    primero = false;
+                }
+            }
+            destino.append(']');
+        }
+        destino.append('\n');
+        Metricas.registrar(Operacion.RENDERIZAR, inicio);
+    }
+
+    /**
+     * Vuelca las fichas de un rango de perros a un canal. Las fichas se
+     * acumulan en el buffer del renderizador y solo se escriben en el canal
+     * cuando se llena.
+     *
+     * @param perrera Perrera de los perros.
+     * @param desde Primer identificador (incluido).
+     * @param hasta Último identificador (excluido).
+     * @param canal Canal de destino.
+     * @throws IOException Si falla la escritura.
+     */
+    public void volcar(Perrera perrera, int desde, int hasta, WritableByteChannel canal) throws IOException {
+        Objects.checkFromToIndex(desde, hasta, perrera.getTamanno());
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(tamannoBuffer);
+        }
+        buffer.clear();
+        for (int id = desde; id < hasta; id++) {
+            int necesario = TAMANNO_FIJO_MAXIMO + 3 * perrera.getNombre(id).length();
+            if (buffer.remaining() < necesario) {
+                vaciar(canal);
+                if (buffer.remaining() < necesario) {
+                    throw new IllegalArgumentException("El nombre del perro " + id + " no cabe en el buffer.");
+                }
+            }
+            escribir(perrera, id, buffer);
+        }
+        vaciar(canal);
+    }
+
+    /**
+     * Escribe la ficha de un perro identificado por su posición.
+     */
+    private void escribir(Perrera perrera, int id, ByteBuffer destino) {
+        double edad = perrera.getEdad(id);
+        int annos = (int) edad;
+
+        destino.put(B_CABECERA_NOMBRE);
+        escribirTexto(perrera.getNombre(id), destino);
+        destino.put(B_SEPARADOR_RAZA).put(B_RAZAS[perrera.getRaza(id).ordinal()]).put(B_SEPARADOR_EDAD);
+        escribirEntero(annos, destino);
+        destino.put(B_ANNOS);
+        escribirEntero((int) ((edad - annos) * 12), destino);
+        destino.put(B_MESES);
+
+        for (StatPerro stat : Perrera.STATS) {
+            destino.put(B_STATS[stat.ordinal()]);
+            escribirEntero(perrera.getStat(id, stat), destino);
+            destino.put(B_MAXIMO);
+        }
+
+        destino.put(B_CABECERA_ESTADOS);
+        long estados = perrera.getEstados(id);
+        if (estados == 0) {
+            destino.put(B_SIN_ESTADOS);
+        } else {
+            destino.put((byte) '[');
+            boolean primero = true;
+            for (Estado estado : ESTADOS) {
+                if ((estados & estado.getMascara()) != 0) {
+                    if (!primero) {
+                        destino.put(B_COMA);
+                    }
+                    destino.put(B_ESTADOS[estado.ordinal()]);
+                    primero = false;
+                }
+            }
+            destino.put((byte) ']');
+        }
+        destino.put((byte) '\n');
+    }
+
+    /**
+     * Escribe el contenido del buffer interno en el canal y lo vacía.
+     */
+    private void vaciar(WritableByteChannel canal) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Escribe un entero en decimal como bytes ASCII.
+     */
+    private void escribirEntero(int valor, ByteBuffer destino) {
+        int n = rellenarDigitos(valor);
+        for (int i = n - 1; i >= 0; i--) {
+            destino.put(digitos[i]);
+        }
+    }
+
+    /**
+     * Escribe un entero en decimal como caracteres.
+     */
+    private void escribirEntero(int valor, Appendable destino) throws IOException {
+        int n = rellenarDigitos(valor);
+        for (int i = n - 1; i >= 0; i--) {
+            destino.append((char) digitos[i]);
+        }
+    }
+
+    /**
+     * Guarda en {@link #digitos} los dígitos de un entero no negativo, del
+     * menos significativo al más significativo.
+     *
+     * @return Número de dígitos.
+     */
+    private int rellenarDigitos(int valor) {
+        int n = 0;
+        do {
+            digitos[n++] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        } while (valor > 0);
+        return n;
+    }
+
+    /**
+     * Codifica un texto en UTF-8 directamente sobre el buffer, sin crear
+     * arrays intermedios.
+     */
+    private static void escribirTexto(String texto, ByteBuffer destino) {
+        for (int i = 0, n = texto.length(); i < n; i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                destino.put((byte) c);
+            } else if (c < 0x800) {
+                destino.put((byte) (0xC0 | (c >> 6)));
+                destino.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, texto.charAt(++i));
+                destino.put((byte) (0xF0 | (cp >> 18)));
+                destino.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                destino.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                destino.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                destino.put((byte) '?');
+            } else {
+                destino.put((byte) (0xE0 | (c >> 12)));
+                destino.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                destino.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static byte[] utf8(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -7,18 +7,23 @@ package tamagotchi.modelos;
  * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
  * GitHub: https://github.com/Serlopcas
  * Fecha de creación: 31/01/2025
- * Descripción: TODO
+ * Descripción: Recursos de un {@link Jugador} que se gastan al cuidar a sus
+ * perros, con su valor inicial y su máximo.
  */
 public enum StatJugador {
-    DINERO("Dinero", "💰"),
-    ENERGIA("Energía", "⚡");
+    DINERO("Dinero", "💰", 100, Integer.MAX_VALUE),
+    ENERGIA("Energía", "⚡", 100, 100);
 
     private final String nombre;
     private final String emoji;
+    private final int valorInicial;
+    private final int maximo;
 
-    StatJugador(String nombre, String emoji) {
+    StatJugador(String nombre, String emoji, int valorInicial, int maximo) {
         this.nombre = nombre;
         this.emoji = emoji;
+        this.valorInicial = valorInicial;
+        this.maximo = maximo;
     }
 
     public String getNombre() {
@@ -28,4 +33,18 @@ public enum StatJugador {
     public String getEmoji() {
         return emoji;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return Valor con el que empieza un jugador nuevo
+     */
+    public int getValorInicial() {
+        return valorInicial;
+    }
+
+    /**
+     * @return Valor máximo que puede acumular un jugador
+     */
+    public int getMaximo() {
+        return maximo;
+    }
+}
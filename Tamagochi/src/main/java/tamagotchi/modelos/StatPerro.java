@@ -12,29 +12,33 @@ package tamagotchi.modelos;
  * visual.
  */
 public enum StatPerro {
-    ENERGIA("Energía", "⚡"),
-    HAMBRE("Hambre", "🍖"),
-    FELICIDAD("Felicidad", "😊"),
-    SALUD("Salud", "🏥"),
-    LIMPIEZA("Limpieza", "🚿"),
-    SUENNO("Sueño", "😴"),
-    ANSIEDAD("Ansiedad", "😟"),
-    OBEDIENCIA("Obediencia", "🎓"),
-    SOCIABILIDAD("Sociabilidad", "🐶"),
-    APEGO("Apego", "👨‍👦");
+    ENERGIA("Energía", "⚡", -1.5),
+    HAMBRE("Hambre", "🍖", 2.0),
+    FELICIDAD("Felicidad", "😊", -0.5),
+    SALUD("Salud", "🏥", -0.1),
+    LIMPIEZA("Limpieza", "🚿", -0.5),
+    SUENNO("Sueño", "😴", 1.5),
+    ANSIEDAD("Ansiedad", "😟", 0.2),
+    OBEDIENCIA("Obediencia", "🎓", -0.1),
+    SOCIABILIDAD("Sociabilidad", "🐶", -0.1),
+    APEGO("Apego", "👨‍👦", -0.2);
 
     private final String nombre;
     private final String emoji;
+    private final double decaimiento;
 
     /**
      * Constructor de la estadística.
      *
      * @param nombre Nombre descriptivo de la estadística.
      * @param emoji Emoji representativo de la estadística.
+     * @param decaimiento Variación base de la estadística en cada tick (una
+     * hora de juego), antes de aplicar el modificador del perro.
      */
-    StatPerro(String nombre, String emoji) {
+    StatPerro(String nombre, String emoji, double decaimiento) {
         this.nombre = nombre;
         this.emoji = emoji;
+        this.decaimiento = decaimiento;
     }
 
     /**
@@ -55,6 +59,17 @@ public enum StatPerro {
         return emoji;
     }
 
+    /**
+     * Obtiene la variación base de la estadística por cada tick de
+     * simulación. Un valor negativo indica que la estadística baja con el
+     * tiempo y uno positivo que sube.
+     *
+     * @return Variación base por tick.
+     */
+    public double getDecaimiento() {
+        return decaimiento;
+    }
+
     @Override
     public String toString() {
         return nombre;
@@ -0,0 +1,95 @@
+package tamagotchi.modelos;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Tabla inmutable con los modificadores de todas las
+ * combinaciones de {@link Raza} y {@link FranjaEdad}, calculada una sola vez al
+ * cargar la clase. Cada combinación es una fila con el modificador de cada
+ * {@link StatPerro}; los perros solo guardan el número de su fila y todos los
+ * de la misma raza y franja comparten los mismos valores.
+ */
+public final class TablaModificadores {
+
+    private static final Raza[] RAZAS = Raza.values();
+    private static final FranjaEdad[] FRANJAS = FranjaEdad.values();
+
+    /**
+     * Número de filas de la tabla
+     */
+    static final int NUM_FILAS = RAZAS.length * FRANJAS.length;
+
+    /**
+     * Modificadores de todas las filas en un único array: el de la
+     * estadística {@code s} en la fila {@code f} está en
+     * {@code f * NUM_STATS + s}
+     */
+    private static final double[] MODS = new double[NUM_FILAS * Perrera.NUM_STATS];
+
+    static {
+        for (Raza raza : RAZAS) {
+            for (FranjaEdad franja : FRANJAS) {
+                int base = fila(raza, franja) * Perrera.NUM_STATS;
+                for (StatPerro stat : Perrera.STATS) {
+                    MODS[base + stat.ordinal()] = 1.0 + raza.getMod(stat) + franja.getAjuste(stat);
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructor privado para evitar instanciación.
+     */
+    private TablaModificadores() {
+    }
+
+    /**
+     * Obtiene el número de fila de una combinación de raza y franja de edad.
+     *
+     * @param raza Raza del perro.
+     * @param franja Franja de edad del perro.
+     * @return Número de fila.
+     */
+    static int fila(Raza raza, FranjaEdad franja) {
+        return raza.ordinal() * FRANJAS.length + franja.ordinal();
+    }
+
+    /**
+     * Obtiene el número de fila de un perro a partir de su raza y edad.
+     *
+     * @param raza Raza del perro.
+     * @param edad Edad del perro en años.
+     * @return Número de fila.
+     */
+    static int fila(Raza raza, double edad) {
+        return fila(raza, FranjaEdad.de(edad));
+    }
+
+    /**
+     * Obtiene un modificador a partir del número de fila.
+     *
+     * @param fila Número de fila.
+     * @param ordinalStat Ordinal de la estadística.
+     * @return Modificador de la estadística.
+     */
+    static double getMod(int fila, int ordinalStat) {
+        return MODS[fila * Perrera.NUM_STATS + ordinalStat];
+    }
+
+    /**
+     * Obtiene el modificador de una estadística para una raza y franja de
+     * edad.
+     *
+     * @param raza Raza del perro.
+     * @param franja Franja de edad del perro.
+     * @param stat Estadística a consultar.
+     * @return Modificador de la estadística.
+     */
+    public static double getMod(Raza raza, FranjaEdad franja, StatPerro stat) {
+        return getMod(fila(raza, franja), stat.ordinal());
+    }
+}
@@ -0,0 +1,70 @@
+package tamagotchi.modelos;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Entrada o salida de un perro en un {@link Estado}, tal como la
+ * reparte un {@link BusEstados}. El bus reutiliza una única instancia para
+ * todos los eventos, por lo que no debe guardarse fuera de
+ * {@link ObservadorEstados#transicion}.
+ *
+ * Solo lleva copias de los datos de la transición, así que todos sus métodos
+ * son seguros en el hilo del bus. No da acceso al perro: la perrera no es
+ * segura para hilos (una perezosa escribe incluso al leer) y, cuando llega
+ * el evento, el identificador puede ser ya de otro perro si se ha dado de
+ * baja alguno.
+ */
+public final class TransicionEstado {
+
+    private static final Estado[] ESTADOS = Estado.values();
+
+    private int id;
+    private Estado estado;
+    private boolean entrado;
+    private long tick;
+
+    void cargar(int id, int estado, boolean entrado, long tick) {
+        this.id = id;
+        this.estado = ESTADOS[estado];
+        this.entrado = entrado;
+        this.tick = tick;
+    }
+
+    /**
+     * @return Identificador que tenía el perro dentro de su perrera al
+     * publicarse la transición
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return Estado en el que ha entrado o del que ha salido el perro
+     */
+    public Estado getEstado() {
+        return estado;
+    }
+
+    /**
+     * @return true si el perro ha entrado en el estado, false si ha salido
+     */
+    public boolean isEntrado() {
+        return entrado;
+    }
+
+    /**
+     * @return Tick de simulación en el que se produjo la transición
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    @Override
+    public String toString() {
+        return "Perro " + id + (entrado ? " entra en " : " sale de ") + estado + " (tick " + tick + ")";
+    }
+}
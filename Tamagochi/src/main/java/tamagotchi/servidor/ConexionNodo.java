@@ -0,0 +1,105 @@
+package tamagotchi.servidor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Conexión del {@link CoordinadorMundo} con un
+ * {@link NodoMundo}. Envía una orden cada vez y espera su respuesta, así que
+ * varios hilos pueden compartirla.
+ */
+class ConexionNodo implements AutoCloseable {
+
+    private final int puerto;
+    private final Socket socket;
+    private final BufferedReader entrada;
+    private final OutputStream salida;
+    private final StringBuilder respuesta = new StringBuilder(256);
+
+    /**
+     * Conecta con un nodo de la máquina local.
+     *
+     * @param puerto Puerto del nodo.
+     * @throws UncheckedIOException Si no se puede conectar.
+     */
+    ConexionNodo(int puerto) {
+        this.puerto = puerto;
+        try {
+            this.socket = new Socket(InetAddress.getLoopbackAddress(), puerto);
+            socket.setTcpNoDelay(true);
+            this.entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.salida = socket.getOutputStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo conectar con el nodo del puerto " + puerto + ".", e);
+        }
+    }
+
+    int getPuerto() {
+        return puerto;
+    }
+
+    /**
+     * Envía una orden y espera su respuesta.
+     *
+     * @param orden Orden en una línea.
+     * @return Respuesta completa, terminada en la línea que empieza por
+     * {@code OK}.
+     * @throws IllegalStateException Si el nodo responde con {@code ERROR},
+     * con su mensaje.
+     * @throws UncheckedIOException Si se pierde la conexión.
+     */
+    synchronized String enviar(String orden) {
+        respuesta.setLength(0);
+        try {
+            salida.write((orden + "\n").getBytes(StandardCharsets.UTF_8));
+            salida.flush();
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                if (linea.startsWith("ERROR")) {
+                    throw new IllegalStateException(linea.substring("ERROR".length()).trim());
+                }
+                respuesta.append(linea).append('\n');
+                if (linea.startsWith("OK")) {
+                    return respuesta.toString();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Se ha perdido la conexión con el nodo del puerto " + puerto + ".", e);
+        }
+        throw new UncheckedIOException(new IOException("El nodo del puerto " + puerto + " ha cerrado la conexión."));
+    }
+
+    /**
+     * Obtiene un número de la línea final de una respuesta.
+     *
+     * @param respuesta Respuesta de {@link #enviar}.
+     * @param i Posición del número tras el {@code OK}, empezando en 0.
+     * @return Número leído.
+     */
+    static long numero(String respuesta, int i) {
+        int inicio = respuesta.lastIndexOf("OK");
+        String[] partes = respuesta.substring(inicio).trim().split("\\s+");
+        return Long.parseLong(partes[i + 1]);
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Se está cerrando: los errores de cierre no importan
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package tamagotchi.servidor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import tamagotchi.Tamagotchi;
+import tamagotchi.core.Herramientas;
+import tamagotchi.modelos.Raza;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Coordinador de un mundo repartido entre varios procesos
+ * {@link NodoMundo}, para alojar más perros de los que caben en el montículo
+ * de una sola JVM. Los perros se identifican por una clave global y los
+ * jugadores por su nombre; ambos se reparten por dispersión entre
+ * {@link #NUM_PARTICIONES} particiones, y cada partición pertenece a un nodo.
+ * El coordinador guarda la tabla de dueños y envía cada orden al nodo que
+ * corresponde por un socket local.
+ *
+ * Al añadir un nodo, {@link #rebalancear()} mueve particiones enteras de los
+ * nodos con más a los que tienen menos: el nodo de origen envía el estado de
+ * sus perros y jugadores directamente al de destino y solo los borra cuando
+ * este confirma. Mientras se mueve una partición no se atiende ninguna otra
+ * orden.
+ *
+ * Todos los nodos tienen que ir por el mismo tick para que un perro decaiga
+ * igual en cualquiera de ellos, así que cada nodo que se une al mundo adopta
+ * el tick de los que ya estaban.
+ *
+ * Un jugador y el perro al que cuida pueden estar en nodos distintos, así
+ * que {@link #cuidar} cobra primero en el nodo del jugador, aplica después en
+ * el del perro y devuelve el coste si la acción no se puede aplicar.
+ */
+public class CoordinadorMundo implements AutoCloseable {
+
+    /**
+     * Bits de la clave dispersada que eligen la partición
+     */
+    private static final int BITS_PARTICION = 8;
+
+    /**
+     * Número de particiones del mundo. Es el máximo de nodos que pueden
+     * tener perros a la vez.
+     */
+    public static final int NUM_PARTICIONES = 1 << BITS_PARTICION;
+
+    /**
+     * Tiempo que se espera a que un nodo lanzado termine tras pedirle que se
+     * apague
+     */
+    private static final long ESPERA_APAGADO_MS = 5_000;
+
+    private final List<ConexionNodo> nodos = new ArrayList<>();
+    private final List<Process> procesos = new ArrayList<>();
+
+    /**
+     * Nodos lanzados por el coordinador, que se apagan al cerrarlo
+     */
+    private final List<ConexionNodo> lanzados = new ArrayList<>();
+
+    /**
+     * Nodo dueño de cada partición, como posición en {@link #nodos}
+     */
+    private final int[] duennos = new int[NUM_PARTICIONES];
+
+    /**
+     * Las órdenes normales toman el cerrojo de lectura y pueden ir a la vez;
+     * mover particiones o añadir nodos toma el de escritura
+     */
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final AtomicLong siguienteClave = new AtomicLong();
+    private final ExecutorService paralelo = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Crea un coordinador para nodos que ya están escuchando en la máquina
+     * local. Las particiones se reparten entre ellos por turnos, y todos
+     * pasan al tick del que vaya más adelantado.
+     *
+     * @param puertos Puertos de los nodos.
+     * @throws IllegalArgumentException Si no hay nodos o hay más que
+     * particiones.
+     * @throws IllegalStateException Si algún nodo con perros va por otro
+     * tick.
+     * @throws UncheckedIOException Si no se puede conectar con algún nodo.
+     */
+    public CoordinadorMundo(List<Integer> puertos) {
+        if (puertos.isEmpty() || puertos.size() > NUM_PARTICIONES) {
+            throw new IllegalArgumentException("El número de nodos debe estar entre 1 y " + NUM_PARTICIONES);
+        }
+        try {
+            for (int puerto : puertos) {
+                nodos.add(new ConexionNodo(puerto));
+            }
+            long tick = 0;
+            for (ConexionNodo nodo : nodos) {
+                tick = Math.max(tick, ConexionNodo.numero(nodo.enviar("TICK"), 0));
+            }
+            for (ConexionNodo nodo : nodos) {
+                nodo.enviar("TICK " + tick);
+            }
+        } catch (RuntimeException e) {
+            nodos.forEach(ConexionNodo::close);
+            throw e;
+        }
+        for (int p = 0; p < NUM_PARTICIONES; p++) {
+            duennos[p] = p % nodos.size();
+        }
+    }
+
+    /**
+     * Lanza varios nodos como procesos hijos en la máquina local y crea un
+     * coordinador para ellos. Al cerrar el coordinador se apagan también los
+     * procesos.
+     *
+     * @param numNodos Número de nodos.
+     * @param hilosPorNodo Hilos del motor de simulación de cada nodo.
+     * @return Coordinador de los nodos lanzados.
+     * @throws IOException Si algún nodo no llega a arrancar.
+     */
+    public static CoordinadorMundo lanzarLocal(int numNodos, int hilosPorNodo) throws IOException {
+        List<Process> hijos = new ArrayList<>();
+        List<Integer> puertos = new ArrayList<>();
+        try {
+            for (int i = 0; i < numNodos; i++) {
+                Process proceso = lanzarProceso(hilosPorNodo);
+                hijos.add(proceso);
+                puertos.add(leerPuerto(proceso));
+            }
+            CoordinadorMundo coordinador = new CoordinadorMundo(puertos);
+            coordinador.procesos.addAll(hijos);
+            coordinador.lanzados.addAll(coordinador.nodos);
+            return coordinador;
+        } catch (IOException | RuntimeException e) {
+            hijos.forEach(Process::destroy);
+            throw e;
+        }
+    }
+
+    /**
+     * Lanza un nodo nuevo en la máquina local y lo añade al mundo, todavía
+     * sin particiones.
+     *
+     * @param hilos Hilos del motor de simulación del nodo.
+     * @throws IOException Si el nodo no llega a arrancar.
+     * @see #rebalancear()
+     */
+    public void lanzarNodo(int hilos) throws IOException {
+        Process proceso = lanzarProceso(hilos);
+        cerrojo.writeLock().lock();
+        try {
+            agregarNodo(leerPuerto(proceso));
+            procesos.add(proceso);
+            lanzados.add(nodos.get(nodos.size() - 1));
+        } catch (IOException | RuntimeException e) {
+            proceso.destroy();
+            throw e;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Añade al mundo un nodo que ya está escuchando, todavía sin
+     * particiones, y lo pone en el tick del resto.
+     *
+     * @param puerto Puerto del nodo.
+     * @throws IllegalStateException Si ya hay tantos nodos como particiones,
+     * o si el nodo tiene perros y va por otro tick.
+     * @throws UncheckedIOException Si no se puede conectar con el nodo.
+     * @see #rebalancear()
+     */
+    public void agregarNodo(int puerto) {
+        cerrojo.writeLock().lock();
+        try {
+            if (nodos.size() == NUM_PARTICIONES) {
+                throw new IllegalStateException("No puede haber más nodos que particiones.");
+            }
+            ConexionNodo nodo = new ConexionNodo(puerto);
+            try {
+                nodo.enviar("TICK " + ConexionNodo.numero(nodos.get(0).enviar("TICK"), 0));
+            } catch (RuntimeException e) {
+                nodo.close();
+                throw e;
+            }
+            nodos.add(nodo);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reparte las particiones para que cada nodo tenga las mismas, con una
+     * de diferencia como mucho. Solo mueve las que sobran a los nodos que
+     * tienen de más.
+     *
+     * @return Número de particiones movidas.
+     */
+    public int rebalancear() {
+        cerrojo.writeLock().lock();
+        try {
+            int numNodos = nodos.size();
+            int[] cuenta = new int[numNodos];
+            for (int duenno : duennos) {
+                cuenta[duenno]++;
+            }
+            // Los primeros NUM_PARTICIONES % numNodos nodos se quedan una más
+            int[] objetivo = new int[numNodos];
+            for (int n = 0; n < numNodos; n++) {
+                objetivo[n] = NUM_PARTICIONES / numNodos + (n < NUM_PARTICIONES % numNodos ? 1 : 0);
+            }
+            int movidas = 0;
+            int destino = 0;
+            for (int p = 0; p < NUM_PARTICIONES; p++) {
+                int origen = duennos[p];
+                if (cuenta[origen] <= objetivo[origen]) {
+                    continue;
+                }
+                while (cuenta[destino] >= objetivo[destino]) {
+                    destino++;
+                }
+                mover(p, destino);
+                cuenta[origen]--;
+                cuenta[destino]++;
+                movidas++;
+            }
+            return movidas;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mueve una partición, con sus perros y jugadores, a otro nodo.
+     *
+     * @param particion Partición que se mueve.
+     * @param nodo Posición del nodo de destino, en orden de alta.
+     * @throws IndexOutOfBoundsException Si la partición o el nodo no existen.
+     * @throws IllegalStateException Si el nodo de origen no puede enviarla;
+     * en ese caso sigue siendo suya.
+     */
+    public void mover(int particion, int nodo) {
+        cerrojo.writeLock().lock();
+        try {
+            if (particion < 0 || particion >= NUM_PARTICIONES) {
+                throw new IndexOutOfBoundsException("Partición no válida: " + particion);
+            }
+            ConexionNodo destino = nodos.get(nodo);
+            int origen = duennos[particion];
+            if (origen == nodo) {
+                return;
+            }
+            nodos.get(origen).enviar("ENVIAR " + particion + " " + destino.getPuerto());
+            duennos[particion] = nodo;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Da de alta un perro en el nodo de su partición.
+     *
+     * @param nombre Nombre del perro, sin espacios.
+     * @param raza Raza del perro.
+     * @param edad Edad inicial en años.
+     * @return Clave global del perro.
+     * @throws IllegalArgumentException Si el nombre está vacío o tiene
+     * espacios.
+     */
+    public long alta(String nombre, Raza raza, int edad) {
+        comprobarNombre(nombre);
+        cerrojo.readLock().lock();
+        try {
+            long clave = siguienteClave.getAndIncrement();
+            nodoDe(particion(clave)).enviar("ALTA " + clave + " " + nombre + " " + raza.name() + " " + edad);
+            return clave;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Genera perros aleatorios en todos los nodos a la vez. Cada nodo crea
+     * solo los de sus particiones, y cada perro depende solo de la semilla y
+     * de su clave, así que el mundo es el mismo con cualquier número de
+     * nodos.
+     *
+     * @param cantidad Número de perros.
+     * @param semilla Semilla de la generación.
+     * @return Clave del primer perro generado; el resto son consecutivas.
+     */
+    public long poblar(long cantidad, long semilla) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad no puede ser negativa.");
+        }
+        cerrojo.readLock().lock();
+        try {
+            long desde = siguienteClave.getAndAdd(cantidad);
+            enTodos(n -> "GENERAR " + desde + " " + cantidad + " " + semilla + " " + escribirParticiones(propias(n)));
+            return desde;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registra un jugador en el nodo de su partición si todavía no existe.
+     *
+     * @param jugador Nombre del jugador, sin espacios.
+     */
+    public void hola(String jugador) {
+        comprobarNombre(jugador);
+        enviarJugador(jugador, "HOLA " + jugador);
+    }
+
+    /**
+     * @param jugador Nombre del jugador.
+     * @return Recursos del jugador, como {@code DINERO=100 ENERGIA=100}.
+     * @throws IllegalStateException Si el jugador no existe.
+     */
+    public String jugador(String jugador) {
+        return lineaFinal(enviarJugador(jugador, "JUGADOR " + jugador));
+    }
+
+    /**
+     * Un jugador aplica una acción de cuidado a un perro, que puede estar en
+     * otro nodo.
+     *
+     * @param jugador Nombre del jugador.
+     * @param accion Nombre de la acción en el catálogo.
+     * @param clave Clave global del perro.
+     * @return Estados que ha ganado ({@code +}) y perdido ({@code -}) el
+     * perro, separados por espacios.
+     * @throws IllegalStateException Si el jugador no tiene recursos o la
+     * acción no se puede aplicar; en el segundo caso el coste se devuelve.
+     */
+    public String cuidar(String jugador, String accion, long clave) {
+        cerrojo.readLock().lock();
+        try {
+            ConexionNodo nodoJugador = nodoDe(particion(jugador));
+            nodoJugador.enviar("COBRAR " + jugador + " " + accion);
+            try {
+                return lineaFinal(nodoDe(particion(clave)).enviar("APLICAR " + accion + " " + clave));
+            } catch (RuntimeException e) {
+                nodoJugador.enviar("DEVOLVER " + jugador + " " + accion);
+                throw e;
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param clave Clave global del perro.
+     * @return Ficha del perro.
+     * @throws IllegalStateException Si el perro no existe.
+     */
+    public String ver(long clave) {
+        cerrojo.readLock().lock();
+        try {
+            String respuesta = nodoDe(particion(clave)).enviar("VER " + clave);
+            return respuesta.substring(0, respuesta.lastIndexOf("OK"));
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Avanza la simulación de todos los nodos a la vez.
+     *
+     * @param ticks Ticks que se avanzan.
+     * @return Número total de cambios de estado.
+     */
+    public long avanzar(int ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("El número de ticks no puede ser negativo.");
+        }
+        cerrojo.readLock().lock();
+        try {
+            return enTodos(n -> "AVANZAR " + ticks);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Número total de perros en el mundo
+     */
+    public long getNumPerros() {
+        cerrojo.readLock().lock();
+        try {
+            return enTodos(n -> "PERROS");
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Número de nodos del mundo
+     */
+    public int getNumNodos() {
+        cerrojo.readLock().lock();
+        try {
+            return nodos.size();
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param nodo Posición del nodo, en orden de alta.
+     * @return Número de particiones del nodo
+     */
+    public int getNumParticiones(int nodo) {
+        cerrojo.readLock().lock();
+        try {
+            int cuenta = 0;
+            for (int duenno : duennos) {
+                if (duenno == nodo) {
+                    cuenta++;
+                }
+            }
+            return cuenta;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Partición de un perro. Multiplica la clave por la razón áurea para que
+     * las claves consecutivas caigan repartidas.
+     *
+     * @param clave Clave global del perro.
+     * @return Partición, entre 0 y {@link #NUM_PARTICIONES} - 1.
+     */
+    static int particion(long clave) {
+        return (int) ((clave * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - BITS_PARTICION));
+    }
+
+    /**
+     * Partición de un jugador.
+     *
+     * @param jugador Nombre del jugador.
+     * @return Partición, entre 0 y {@link #NUM_PARTICIONES} - 1.
+     */
+    static int particion(String jugador) {
+        return (jugador.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - BITS_PARTICION);
+    }
+
+    /**
+     * Escribe un conjunto de particiones en hexadecimal, cuatro por carácter.
+     */
+    static String escribirParticiones(boolean[] particiones) {
+        StringBuilder texto = new StringBuilder(NUM_PARTICIONES / 4);
+        for (int p = 0; p < NUM_PARTICIONES; p += 4) {
+            int digito = 0;
+            for (int b = 0; b < 4; b++) {
+                if (particiones[p + b]) {
+                    digito |= 1 << b;
+                }
+            }
+            texto.append(Character.forDigit(digito, 16));
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Lee un conjunto de particiones escrito con
+     * {@link #escribirParticiones}.
+     *
+     * @throws IllegalArgumentException Si el texto no es válido.
+     */
+    static boolean[] leerParticiones(String texto) {
+        if (texto.length() != NUM_PARTICIONES / 4) {
+            throw new IllegalArgumentException("Conjunto de particiones no válido: " + texto);
+        }
+        boolean[] particiones = new boolean[NUM_PARTICIONES];
+        for (int i = 0; i < texto.length(); i++) {
+            int digito = Character.digit(texto.charAt(i), 16);
+            if (digito < 0) {
+                throw new IllegalArgumentException("Conjunto de particiones no válido: " + texto);
+            }
+            for (int b = 0; b < 4; b++) {
+                particiones[i * 4 + b] = (digito & (1 << b)) != 0;
+            }
+        }
+        return particiones;
+    }
+
+    private boolean[] propias(int nodo) {
+        boolean[] propias = new boolean[NUM_PARTICIONES];
+        for (int p = 0; p < NUM_PARTICIONES; p++) {
+            propias[p] = duennos[p] == nodo;
+        }
+        return propias;
+    }
+
+    private ConexionNodo nodoDe(int particion) {
+        return nodos.get(duennos[particion]);
+    }
+
+    private String enviarJugador(String jugador, String orden) {
+        cerrojo.readLock().lock();
+        try {
+            return nodoDe(particion(jugador)).enviar(orden);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Envía una orden a cada nodo a la vez, cada una en un hilo virtual, y
+     * suma el número que devuelven. Hay que llamarlo con algún cerrojo
+     * tomado.
+     */
+    private long enTodos(IntFunction<String> orden) {
+        List<Future<String>> respuestas = new ArrayList<>(nodos.size());
+        for (int n = 0; n < nodos.size(); n++) {
+            ConexionNodo nodo = nodos.get(n);
+            String texto = orden.apply(n);
+            respuestas.add(paralelo.submit(() -> nodo.enviar(texto)));
+        }
+        long total = 0;
+        try {
+            for (Future<String> respuesta : respuestas) {
+                total += ConexionNodo.numero(respuesta.get(), 0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se ha interrumpido la espera de los nodos.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return total;
+    }
+
+    private static String lineaFinal(String respuesta) {
+        return respuesta.substring(respuesta.lastIndexOf("OK") + "OK".length()).trim();
+    }
+
+    private static void comprobarNombre(String nombre) {
+        if (nombre.isEmpty() || nombre.chars().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("El nombre no puede estar vacío ni tener espacios.");
+        }
+    }
+
+    /**
+     * Lanza un nodo en un proceso hijo con el mismo classpath y en un puerto
+     * libre. Si este proceso usa las operaciones vectoriales, el nodo
+     * también.
+     */
+    private static Process lanzarProceso(int hilos) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> orden = new ArrayList<>(List.of(java));
+        if (Herramientas.VECTORIAL) {
+            orden.addAll(List.of("--add-modules", "jdk.incubator.vector"));
+        }
+        orden.addAll(List.of("-cp", System.getProperty("java.class.path"),
+                Tamagotchi.class.getName(), "nodo", "0", Integer.toString(hilos)));
+        return new ProcessBuilder(orden).redirectErrorStream(true).start();
+    }
+
+    /**
+     * Lee de la salida del nodo el puerto en el que escucha y sigue leyendo
+     * el resto en un hilo aparte para que el nodo no se bloquee al escribir.
+     */
+    private static int leerPuerto(Process proceso) throws IOException {
+        BufferedReader salida = new BufferedReader(
+                new InputStreamReader(proceso.getInputStream(), StandardCharsets.UTF_8));
+        String linea;
+        while ((linea = salida.readLine()) != null) {
+            int i = linea.indexOf("puerto ");
+            if (i >= 0) {
+                Thread.ofPlatform().name("nodo-salida").daemon().start(() -> {
+                    try {
+                        while (salida.readLine() != null) {
+                            // Solo hay que vaciarla
+                        }
+                    } catch (IOException e) {
+                        // El nodo ha terminado
+                    }
+                });
+                return Integer.parseInt(linea.substring(i + "puerto ".length()).trim());
+            }
+        }
+        throw new IOException("El nodo ha terminado sin indicar su puerto.");
+    }
+
+    /**
+     * Apaga los nodos lanzados por el coordinador y cierra las conexiones.
+     */
+    @Override
+    public void close() {
+        cerrojo.writeLock().lock();
+        try {
+            for (int n = 0; n < nodos.size(); n++) {
+                if (lanzados.contains(nodos.get(n))) {
+                    apagar(nodos.get(n));
+                }
+                nodos.get(n).close();
+            }
+            for (Process proceso : procesos) {
+                try {
+                    if (!proceso.waitFor(ESPERA_APAGADO_MS, TimeUnit.MILLISECONDS)) {
+                        proceso.destroy();
+                    }
+                } catch (InterruptedException e) {
+                    proceso.destroy();
+                    Thread.currentThread().interrupt();
+                }
+            }
+            paralelo.close();
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private static void apagar(ConexionNodo nodo) {
+        try {
+            nodo.enviar("APAGAR");
+        } catch (RuntimeException e) {
+            // El nodo ya no responde: se terminará su proceso
+        }
+    }
+}
@@ -0,0 +1,583 @@
+package tamagotchi.servidor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import tamagotchi.core.Accion;
+import tamagotchi.core.CatalogoAcciones;
+import tamagotchi.core.MotorSimulacion;
+import tamagotchi.modelos.Estado;
+import tamagotchi.modelos.Jugador;
+import tamagotchi.modelos.Perrera;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.Raza;
+import tamagotchi.modelos.RenderizadorPerros;
+import tamagotchi.modelos.StatJugador;
+import tamagotchi.modelos.StatPerro;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Nodo de un mundo repartido entre varios procesos. Cada nodo
+ * es dueño de algunas de las particiones de {@link CoordinadorMundo}: guarda
+ * en su propia {@link Perrera} los perros de esas particiones, identificados
+ * por una clave global, y los {@link Jugador} cuyo nombre cae en ellas. El
+ * coordinador le envía las órdenes por un socket local.
+ *
+ * Todas las órdenes se atienden de una en una bajo un cerrojo, así que la
+ * perrera solo la toca un hilo cada vez (salvo los del motor durante un
+ * avance). Para mover una partición, el nodo de origen abre una conexión
+ * con el de destino y le envía el estado de cada perro y jugador de la
+ * partición, una línea por cada uno; cuando el destino confirma que los ha
+ * recibido todos, el origen los da de baja.
+ *
+ * El decaimiento de cada tick depende de su número, así que todos los nodos
+ * tienen que ir por el mismo tick para que un perro siga igual al cambiar de
+ * nodo. El coordinador se lo indica con TICK a cada nodo que se une al mundo,
+ * y RECIBIR lleva además el tick del origen: un nodo sin perros lo adopta y
+ * uno con perros rechaza la partición si no coincide con el suyo.
+ *
+ * Órdenes, con respuestas que terminan en {@code OK} o {@code ERROR} como en
+ * {@link ServidorJuego}:
+ * <pre>
+ * ALTA &lt;clave&gt; &lt;nombre&gt; &lt;raza&gt; &lt;edad&gt;   Da de alta un perro
+ * GENERAR &lt;clave&gt; &lt;n&gt; &lt;semilla&gt; &lt;particiones&gt;
+ *                                      Da de alta los perros de las claves
+ *                                      [clave, clave + n) de esas particiones
+ * HOLA &lt;jugador&gt;                        Registra un jugador si no existe
+ * JUGADOR &lt;jugador&gt;                     Recursos de un jugador
+ * COBRAR &lt;jugador&gt; &lt;accion&gt;            Cobra el coste de una acción
+ * DEVOLVER &lt;jugador&gt; &lt;accion&gt;          Devuelve el coste de una acción
+ * APLICAR &lt;accion&gt; &lt;clave&gt;             Aplica una acción a un perro
+ * VER &lt;clave&gt;                           Ficha de un perro
+ * AVANZAR &lt;ticks&gt;                       Avanza la simulación
+ * PERROS                                Número de perros del nodo
+ * TICK [&lt;tick&gt;]                        Próximo tick del nodo; con argumento,
+ *                                      lo fija antes si el nodo no tiene
+ *                                      perros
+ * ENVIAR &lt;particion&gt; &lt;puerto&gt;          Mueve una partición a otro nodo
+ * RECIBIR &lt;particion&gt; &lt;tick&gt;            Recibe una partición, seguida de
+ *                                      líneas PERRO y JUGADOR y de FIN
+ * APAGAR                                Cierra el nodo
+ * </pre>
+ */
+public final class NodoMundo implements AutoCloseable {
+
+    private static final CatalogoAcciones CATALOGO = CatalogoAcciones.porDefecto();
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final Raza[] RAZAS = Raza.values();
+    private static final StatJugador[] RECURSOS = StatJugador.values();
+    private static final StatPerro[] STATS_PERRO = StatPerro.values();
+
+    /**
+     * Edad máxima, en años, de los perros generados con GENERAR
+     */
+    private static final int EDAD_MAXIMA_GENERADA = 15;
+
+    private final ServerSocket servidor;
+    private final ExecutorService conexiones = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> abiertas = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch cerrado = new CountDownLatch(1);
+    private final Thread aceptador;
+    private final ReentrantLock cerrojo = new ReentrantLock();
+
+    private final Perrera perrera = new Perrera(1024);
+    private final MotorSimulacion motor;
+    private final RenderizadorPerros renderizador = new RenderizadorPerros();
+
+    /**
+     * Clave global de cada perro, por identificador local
+     */
+    private long[] claves = new long[1024];
+
+    /**
+     * Identificador local de cada clave global
+     */
+    private final Map<Long, Integer> ids = new HashMap<>();
+
+    private final Map<String, Jugador> jugadores = new HashMap<>();
+
+    /**
+     * Crea el nodo y empieza a aceptar conexiones en la interfaz local.
+     *
+     * @param puerto Puerto en el que escuchar, o 0 para uno libre cualquiera.
+     * @param hilos Hilos del motor de simulación del nodo.
+     * @throws UncheckedIOException Si no se puede abrir el puerto.
+     */
+    public NodoMundo(int puerto, int hilos) {
+        this.motor = new MotorSimulacion(perrera, hilos);
+        try {
+            this.servidor = new ServerSocket(puerto, 64, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            motor.close();
+            throw new UncheckedIOException(e);
+        }
+        this.aceptador = Thread.ofPlatform().name("nodo-aceptador").daemon().start(this::aceptar);
+    }
+
+    /**
+     * @return Puerto en el que escucha el nodo
+     */
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * Bloquea el hilo actual hasta que se cierre el nodo.
+     *
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    public void esperar() throws InterruptedException {
+        cerrado.await();
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                socket.setTcpNoDelay(true);
+                abiertas.add(socket);
+                conexiones.execute(() -> atender(socket));
+            } catch (IOException e) {
+                if (!servidor.isClosed()) {
+                    System.err.println("Error aceptando conexión: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Atiende las órdenes de una conexión hasta que se cierra.
+     */
+    private void atender(Socket socket) {
+        try (socket) {
+            BufferedReader entrada = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer salida = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            StringBuilder respuesta = new StringBuilder(256);
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                respuesta.setLength(0);
+                String[] partes = linea.trim().split("\\s+");
+                if (partes[0].equals("APAGAR")) {
+                    salida.append("OK\n").flush();
+                    Thread.ofPlatform().daemon().start(this::close);
+                    return;
+                }
+                cerrojo.lock();
+                try {
+                    atender(partes, entrada, respuesta);
+                } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+                    respuesta.append("ERROR ").append(e.getMessage()).append('\n');
+                } finally {
+                    cerrojo.unlock();
+                }
+                salida.append(respuesta);
+                salida.flush();
+            }
+        } catch (IOException e) {
+            // El otro extremo se ha desconectado
+        } finally {
+            abiertas.remove(socket);
+        }
+    }
+
+    /**
+     * Ejecuta una orden y deja su respuesta en {@code respuesta}.
+     */
+    private void atender(String[] partes, BufferedReader entrada, StringBuilder respuesta) throws IOException {
+        switch (partes[0].toUpperCase(Locale.ROOT)) {
+            case "ALTA" -> {
+                long clave = largo(argumento(partes, 1));
+                Raza raza = raza(argumento(partes, 3));
+                int edad = entero(argumento(partes, 4));
+                alta(clave, perrera.alta(partes[2], raza, edad));
+                respuesta.append("OK\n");
+            }
+            case "GENERAR" -> {
+                long desde = largo(argumento(partes, 1));
+                long cantidad = largo(argumento(partes, 2));
+                long semilla = largo(argumento(partes, 3));
+                boolean[] propias = CoordinadorMundo.leerParticiones(argumento(partes, 4));
+                int generados = 0;
+                for (long clave = desde; clave < desde + cantidad; clave++) {
+                    if (propias[CoordinadorMundo.particion(clave)]) {
+                        SplittableRandom aleatorio = new SplittableRandom(semilla ^ (clave * 0x9E3779B97F4A7C15L));
+                        Raza raza = RAZAS[aleatorio.nextInt(RAZAS.length)];
+                        int edad = aleatorio.nextInt(EDAD_MAXIMA_GENERADA);
+                        alta(clave, perrera.alta("Perro" + clave, raza, edad, aleatorio));
+                        generados++;
+                    }
+                }
+                respuesta.append("OK ").append(generados).append('\n');
+            }
+            case "HOLA" -> {
+                String nombre = argumento(partes, 1);
+                jugadores.computeIfAbsent(nombre, Jugador::new);
+                respuesta.append("OK\n");
+            }
+            case "JUGADOR" -> {
+                Jugador jugador = jugador(argumento(partes, 1));
+                respuesta.append("OK");
+                for (StatJugador recurso : RECURSOS) {
+                    respuesta.append(' ').append(recurso.name()).append('=').append(jugador.getStat(recurso));
+                }
+                respuesta.append('\n');
+            }
+            case "COBRAR" -> {
+                accion(argumento(partes, 2)).cobrar(jugador(partes[1]));
+                respuesta.append("OK\n");
+            }
+            case "DEVOLVER" -> {
+                accion(argumento(partes, 2)).devolver(jugador(partes[1]));
+                respuesta.append("OK\n");
+            }
+            case "APLICAR" -> {
+                Accion accion = accion(argumento(partes, 1));
+                long transicion = accion.aplicar(perro(argumento(partes, 2)));
+                respuesta.append("OK");
+                for (long m = Estado.entrados(transicion); m != 0; m &= m - 1) {
+                    respuesta.append(" +").append(ESTADOS[Long.numberOfTrailingZeros(m)].name());
+                }
+                for (long m = Estado.salidos(transicion); m != 0; m &= m - 1) {
+                    respuesta.append(" -").append(ESTADOS[Long.numberOfTrailingZeros(m)].name());
+                }
+                respuesta.append('\n');
+            }
+            case "VER" -> {
+                renderizador.escribir(perro(argumento(partes, 1)), respuesta);
+                respuesta.append("OK\n");
+            }
+            case "AVANZAR" -> {
+                int ticks = entero(argumento(partes, 1));
+                if (ticks < 0) {
+                    throw new IllegalArgumentException("El número de ticks no puede ser negativo.");
+                }
+                respuesta.append("OK ").append(motor.avanzar(ticks)).append('\n');
+            }
+            case "PERROS" -> respuesta.append("OK ").append(perrera.getTamanno()).append('\n');
+            case "TICK" -> {
+                if (partes.length > 1) {
+                    sincronizarTick(largo(partes[1]));
+                }
+                respuesta.append("OK ").append(perrera.getTick()).append('\n');
+            }
+            case "ENVIAR" -> {
+                int particion = particion(argumento(partes, 1));
+                int puerto = entero(argumento(partes, 2));
+                enviar(particion, puerto, respuesta);
+            }
+            case "RECIBIR" -> {
+                int particion = particion(argumento(partes, 1));
+                sincronizarTick(largo(argumento(partes, 2)));
+                recibir(particion, entrada, respuesta);
+            }
+            default -> throw new IllegalArgumentException("Orden desconocida: " + partes[0]);
+        }
+    }
+
+    /**
+     * Envía todos los perros y jugadores de una partición a otro nodo y, si
+     * los recibe todos, los da de baja aquí.
+     */
+    private void enviar(int particion, int puerto, StringBuilder respuesta) throws IOException {
+        List<Integer> perros = new ArrayList<>();
+        for (int id = 0; id < perrera.getTamanno(); id++) {
+            if (CoordinadorMundo.particion(claves[id]) == particion) {
+                perros.add(id);
+            }
+        }
+        List<Jugador> enviados = new ArrayList<>();
+        for (Jugador jugador : jugadores.values()) {
+            if (CoordinadorMundo.particion(jugador.getNombre()) == particion) {
+                enviados.add(jugador);
+            }
+        }
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), puerto)) {
+            BufferedReader entrada = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer salida = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16);
+            salida.append("RECIBIR ").append(Integer.toString(particion)).append(' ')
+                    .append(Long.toString(perrera.getTick())).append('\n');
+            StringBuilder linea = new StringBuilder(128);
+            for (int id : perros) {
+                linea.setLength(0);
+                escribirPerro(claves[id], perrera.get(id), linea);
+                salida.append(linea);
+            }
+            for (Jugador jugador : enviados) {
+                linea.setLength(0);
+                escribirJugador(jugador, linea);
+                salida.append(linea);
+            }
+            salida.append("FIN\n").flush();
+            String confirmacion = entrada.readLine();
+            if (confirmacion == null || !confirmacion.startsWith("OK")) {
+                throw new IllegalStateException("El nodo de destino no ha aceptado la partición: " + confirmacion);
+            }
+        }
+
+        // De mayor a menor, para que el perro que se mueve al hueco nunca
+        // sea uno de los que quedan por dar de baja
+        for (int i = perros.size() - 1; i >= 0; i--) {
+            baja(perros.get(i));
+        }
+        for (Jugador jugador : enviados) {
+            jugadores.remove(jugador.getNombre());
+        }
+        respuesta.append("OK ").append(perros.size()).append(' ').append(enviados.size()).append('\n');
+    }
+
+    /**
+     * Pone el nodo en el tick del resto del mundo. Un nodo sin perros adopta
+     * el que le digan; uno con perros solo puede estar ya en ese tick, porque
+     * si no sus perros y los que recibe decaerían con fases distintas.
+     */
+    private void sincronizarTick(long tick) {
+        if (tick == perrera.getTick()) {
+            return;
+        }
+        if (perrera.getTamanno() > 0) {
+            throw new IllegalStateException("El nodo va por el tick " + perrera.getTick()
+                    + " y el mundo por el " + tick + ".");
+        }
+        perrera.fijarTick(tick);
+    }
+
+    /**
+     * Recibe los perros y jugadores de una partición que envía otro nodo.
+     * Si alguna línea no es válida se descarta todo lo recibido.
+     */
+    private void recibir(int particion, BufferedReader entrada, StringBuilder respuesta) throws IOException {
+        List<Long> recibidos = new ArrayList<>();
+        List<String> nuevosJugadores = new ArrayList<>();
+        try {
+            String linea;
+            while ((linea = entrada.readLine()) != null && !linea.equals("FIN")) {
+                String[] partes = linea.split(" ");
+                if (partes[0].equals("PERRO")) {
+                    recibidos.add(leerPerro(partes, particion));
+                } else if (partes[0].equals("JUGADOR")) {
+                    nuevosJugadores.add(leerJugador(partes, particion));
+                } else {
+                    throw new IllegalArgumentException("Línea de partición no válida: " + linea);
+                }
+            }
+            if (linea == null) {
+                throw new IllegalStateException("La partición " + particion + " ha llegado incompleta.");
+            }
+        } catch (RuntimeException e) {
+            for (long clave : recibidos) {
+                baja(ids.get(clave));
+            }
+            nuevosJugadores.forEach(jugadores::remove);
+            throw e;
+        }
+        respuesta.append("OK ").append(recibidos.size()).append(' ').append(nuevosJugadores.size()).append('\n');
+    }
+
+    /**
+     * Línea con el estado completo de un perro:
+     * {@code PERRO clave nombre RAZA edadTicks stat0 ... statN}.
+     */
+    private static void escribirPerro(long clave, Perro perro, StringBuilder linea) {
+        linea.append("PERRO ").append(clave).append(' ').append(perro.getNombre()).append(' ')
+                .append(perro.getRaza().name()).append(' ')
+                .append(Math.round(perro.getEdad() * Perrera.TICKS_POR_ANNO));
+        for (int s = 0; s < STATS_PERRO.length; s++) {
+            linea.append(' ').append(perro.getStat(STATS_PERRO[s]));
+        }
+        linea.append('\n');
+    }
+
+    private long leerPerro(String[] partes, int particion) {
+        if (partes.length != 5 + STATS_PERRO.length) {
+            throw new IllegalArgumentException("Perro incompleto en la partición " + particion);
+        }
+        long clave = largo(partes[1]);
+        if (CoordinadorMundo.particion(clave) != particion) {
+            throw new IllegalArgumentException("El perro " + clave + " no es de la partición " + particion);
+        }
+        int[] valores = new int[STATS_PERRO.length];
+        for (int s = 0; s < valores.length; s++) {
+            valores[s] = entero(partes[5 + s]);
+        }
+        alta(clave, perrera.restaurar(partes[2], raza(partes[3]), entero(partes[4]), valores));
+        return clave;
+    }
+
+    /**
+     * Línea con los recursos de un jugador: {@code JUGADOR nombre r0 ... rN}.
+     */
+    private static void escribirJugador(Jugador jugador, StringBuilder linea) {
+        linea.append("JUGADOR ").append(jugador.getNombre());
+        for (StatJugador recurso : RECURSOS) {
+            linea.append(' ').append(jugador.getStat(recurso));
+        }
+        linea.append('\n');
+    }
+
+    private String leerJugador(String[] partes, int particion) {
+        if (partes.length != 2 + RECURSOS.length || CoordinadorMundo.particion(partes[1]) != particion
+                || jugadores.containsKey(partes[1])) {
+            throw new IllegalArgumentException("Jugador no válido en la partición " + particion);
+        }
+        Jugador jugador = new Jugador(partes[1]);
+        for (StatJugador recurso : RECURSOS) {
+            int diferencia = entero(partes[2 + recurso.ordinal()]) - jugador.getStat(recurso);
+            if (diferencia > 0) {
+                jugador.ingresar(recurso, diferencia);
+            } else {
+                jugador.gastar(recurso, -diferencia);
+            }
+        }
+        jugadores.put(jugador.getNombre(), jugador);
+        return jugador.getNombre();
+    }
+
+    /**
+     * Asocia una clave global al perro recién dado de alta. Si la clave ya
+     * existía, deshace el alta.
+     */
+    private void alta(long clave, Perro perro) {
+        int id = perro.getId();
+        if (ids.putIfAbsent(clave, id) != null) {
+            perrera.baja(id);
+            throw new IllegalStateException("Ya existe el perro " + clave);
+        }
+        if (id >= claves.length) {
+            claves = Arrays.copyOf(claves, claves.length * 2);
+        }
+        claves[id] = clave;
+    }
+
+    /**
+     * Da de baja un perro y actualiza la clave del que ocupa su hueco.
+     */
+    private void baja(int id) {
+        ids.remove(claves[id]);
+        int movido = perrera.baja(id);
+        if (movido >= 0) {
+            claves[id] = claves[movido];
+            ids.put(claves[id], id);
+        }
+    }
+
+    private Perro perro(String texto) {
+        Integer id = ids.get(largo(texto));
+        if (id == null) {
+            throw new IndexOutOfBoundsException("No existe el perro " + texto);
+        }
+        return perrera.get(id);
+    }
+
+    private Jugador jugador(String nombre) {
+        Jugador jugador = jugadores.get(nombre);
+        if (jugador == null) {
+            throw new IllegalStateException("No existe el jugador " + nombre);
+        }
+        return jugador;
+    }
+
+    private static Accion accion(String nombre) {
+        Accion accion = CATALOGO.get(nombre);
+        if (accion == null) {
+            throw new IllegalArgumentException("Acción desconocida: " + nombre);
+        }
+        return accion;
+    }
+
+    private static Raza raza(String texto) {
+        try {
+            return Raza.valueOf(texto.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Raza desconocida: " + texto);
+        }
+    }
+
+    private static int particion(String texto) {
+        int particion = entero(texto);
+        if (particion < 0 || particion >= CoordinadorMundo.NUM_PARTICIONES) {
+            throw new IndexOutOfBoundsException("Partición no válida: " + texto);
+        }
+        return particion;
+    }
+
+    private static String argumento(String[] partes, int i) {
+        if (partes.length <= i) {
+            throw new IllegalArgumentException("Faltan argumentos para " + partes[0]);
+        }
+        return partes[i];
+    }
+
+    private static int entero(String texto) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número no válido: " + texto);
+        }
+    }
+
+    private static long largo(String texto) {
+        try {
+            return Long.parseLong(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número no válido: " + texto);
+        }
+    }
+
+    /**
+     * Deja de aceptar conexiones, cierra las abiertas y para el motor.
+     */
+    @Override
+    public void close() {
+        cerrarEnSilencio(servidor);
+        try {
+            aceptador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Socket socket : abiertas) {
+            cerrarEnSilencio(socket);
+        }
+        conexiones.close();
+        motor.close();
+        cerrado.countDown();
+    }
+
+    private static void cerrarEnSilencio(AutoCloseable recurso) {
+        try {
+            recurso.close();
+        } catch (Exception e) {
+            // Se está cerrando: los errores de cierre no importan
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package tamagotchi.servidor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Servidor TCP del juego para muchos jugadores a la vez. Cada
+ * conexión es una sesión de un {@link tamagotchi.modelos.Jugador} atendida en
+ * su propio hilo virtual, así que miles de sesiones casi inactivas no ocupan
+ * hilos del sistema. Cada sesión es dueña de sus perros y no comparte datos
+ * con las demás.
+ *
+ * El protocolo es de texto en UTF-8, una orden por línea. Cada respuesta
+ * tiene cero o más líneas de contenido y termina con una línea que empieza
+ * por {@code OK} o por {@code ERROR} seguida de un mensaje. La primera orden
+ * debe ser {@code HOLA <nombre>}; {@code AYUDA} lista las demás.
+ */
+public class ServidorJuego implements AutoCloseable {
+
+    /**
+     * Puerto por defecto del servidor
+     */
+    public static final int PUERTO_POR_DEFECTO = 7070;
+
+    /**
+     * Conexiones pendientes de aceptar que admite el sistema
+     */
+    private static final int COLA_CONEXIONES = 4096;
+
+    private final ServerSocket servidor;
+    private final ExecutorService sesiones = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> abiertas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sesionesActivas = new AtomicInteger();
+    private final LongAdder ordenesAtendidas = new LongAdder();
+    private final CountDownLatch cerrado = new CountDownLatch(1);
+    private final Thread aceptador;
+
+    /**
+     * Crea el servidor y empieza a aceptar conexiones en la interfaz local.
+     *
+     * @param puerto Puerto en el que escuchar, o 0 para uno libre cualquiera.
+     * @throws UncheckedIOException Si no se puede abrir el puerto.
+     */
+    public ServidorJuego(int puerto) {
+        try {
+            this.servidor = new ServerSocket(puerto, COLA_CONEXIONES, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.aceptador = Thread.ofPlatform().name("servidor-aceptador").daemon().start(this::aceptar);
+    }
+
+    /**
+     * Bucle de aceptación: lanza una sesión en un hilo virtual por cada
+     * conexión hasta que se cierra el servidor.
+     */
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                socket.setTcpNoDelay(true);
+                abiertas.add(socket);
+                sesiones.execute(() -> atender(socket));
+            } catch (IOException e) {
+                if (!servidor.isClosed()) {
+                    System.err.println("Error aceptando conexión: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        sesionesActivas.incrementAndGet();
+        try (socket) {
+            new SesionJugador(socket, ordenesAtendidas).ejecutar();
+        } catch (IOException e) {
+            // El cliente se ha desconectado: no hay a quién avisar
+        } finally {
+            abiertas.remove(socket);
+            sesionesActivas.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return Puerto en el que escucha el servidor
+     */
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * @return Número de sesiones conectadas en este momento
+     */
+    public int getSesionesActivas() {
+        return sesionesActivas.get();
+    }
+
+    /**
+     * @return Número total de órdenes atendidas desde el arranque
+     */
+    public long getOrdenesAtendidas() {
+        return ordenesAtendidas.sum();
+    }
+
+    /**
+     * Bloquea el hilo actual hasta que se cierre el servidor.
+     *
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    public void esperar() throws InterruptedException {
+        cerrado.await();
+    }
+
+    /**
+     * Deja de aceptar conexiones, cierra las sesiones abiertas y espera a que
+     * terminen.
+     */
+    @Override
+    public void close() {
+        cerrarEnSilencio(servidor);
+        try {
+            aceptador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Socket socket : abiertas) {
+            cerrarEnSilencio(socket);
+        }
+        sesiones.close();
+        cerrado.countDown();
+    }
+
+    private static void cerrarEnSilencio(AutoCloseable recurso) {
+        try {
+            recurso.close();
+        } catch (Exception e) {
+            // Se está cerrando: los errores de cierre no importan
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package tamagotchi.servidor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import tamagotchi.core.Accion;
+import tamagotchi.core.CatalogoAcciones;
+import tamagotchi.metricas.Metricas;
+import tamagotchi.modelos.Estado;
+import tamagotchi.modelos.Jugador;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.Raza;
+import tamagotchi.modelos.RenderizadorPerros;
+import tamagotchi.modelos.StatJugador;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Sesión de un jugador conectado a {@link ServidorJuego}. Lee
+ * órdenes línea a línea, las aplica sobre su {@link Jugador} y responde
+ * según el protocolo descrito en el servidor. Se ejecuta entera en un único
+ * hilo, por lo que el jugador y sus perros no necesitan sincronización.
+ */
+class SesionJugador {
+
+    private static final Estado[] ESTADOS = Estado.values();
+
+    private static final String AYUDA = """
+            HOLA <nombre>                  Empieza la partida
+            ADOPTAR <nombre> <raza> [edad] Adopta un perro (máximo %d)
+            RAZAS                          Lista las razas disponibles
+            PERROS                         Lista tus perros
+            VER <n>                        Muestra la ficha de un perro
+            ACCIONES                       Lista los cuidados disponibles
+            <cuidado> <n>                  Cuida de un perro
+            TRABAJAR                       Gana dinero a cambio de energía
+            ESPERAR <ticks>                Deja pasar el tiempo
+            JUGADOR                        Muestra tus recursos
+            METRICAS [JSON]                Métricas del servidor
+            SALIR                          Termina la sesión
+            """.formatted(Jugador.MAX_PERROS);
+
+    /**
+     * Máximo de ticks que se pueden esperar con una sola orden
+     */
+    private static final int MAX_TICKS_ESPERA = 24 * 7;
+
+    /**
+     * Caracteres que se guardan como mucho de cada orden, para que un
+     * cliente no pueda llenar la memoria con una línea sin fin
+     */
+    private static final int MAX_LONGITUD_ORDEN = 256;
+
+    private static final int COSTE_TRABAJO = 30;
+    private static final int PAGA_TRABAJO = 20;
+
+    /**
+     * Acciones de cuidado que el jugador puede dar a sus perros
+     */
+    private static final CatalogoAcciones CATALOGO = CatalogoAcciones.porDefecto();
+
+    private final Socket socket;
+    private final LongAdder ordenesAtendidas;
+    private final SplittableRandom aleatorio = new SplittableRandom();
+    private final RenderizadorPerros renderizador = new RenderizadorPerros();
+    private final StringBuilder respuesta = new StringBuilder(256);
+    private final StringBuilder linea = new StringBuilder(MAX_LONGITUD_ORDEN);
+    private Jugador jugador;
+
+    SesionJugador(Socket socket, LongAdder ordenesAtendidas) {
+        this.socket = socket;
+        this.ordenesAtendidas = ordenesAtendidas;
+    }
+
+    /**
+     * Atiende órdenes hasta que el cliente envía SALIR o cierra la conexión.
+     *
+     * @throws IOException Si falla la conexión.
+     */
+    void ejecutar() throws IOException {
+        BufferedReader entrada = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Writer salida = new BufferedWriter(
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+        int longitud;
+        while ((longitud = leerLinea(entrada)) >= 0) {
+            respuesta.setLength(0);
+            boolean seguir = true;
+            try {
+                if (longitud > MAX_LONGITUD_ORDEN) {
+                    throw new IllegalArgumentException("Las órdenes no pueden tener más de "
+                            + MAX_LONGITUD_ORDEN + " caracteres.");
+                }
+                seguir = atender(linea.toString().trim().split("\\s+"));
+            } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+                respuesta.append("ERROR ").append(e.getMessage()).append('\n');
+            }
+            ordenesAtendidas.increment();
+            salida.append(respuesta);
+            salida.flush();
+            if (!seguir) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lee una línea en {@link #linea} guardando como mucho
+     * {@link #MAX_LONGITUD_ORDEN} caracteres; el resto de una línea más larga
+     * se lee y se descarta.
+     *
+     * @return Longitud de la línea, que puede superar lo guardado, o -1 si la
+     * conexión se ha cerrado sin más datos.
+     */
+    private int leerLinea(Reader entrada) throws IOException {
+        linea.setLength(0);
+        int longitud = 0;
+        int c;
+        while ((c = entrada.read()) != -1 && c != '\n') {
+            if (longitud < MAX_LONGITUD_ORDEN) {
+                linea.append((char) c);
+            }
+            if (longitud <= MAX_LONGITUD_ORDEN) {
+                longitud++;
+            }
+        }
+        return c == -1 && longitud == 0 ? -1 : longitud;
+    }
+
+    /**
+     * Ejecuta una orden y deja su respuesta en {@link #respuesta}.
+     *
+     * @param partes Orden separada en palabras.
+     * @return false si la sesión debe terminar.
+     */
+    private boolean atender(String[] partes) throws IOException {
+        String orden = partes[0].toUpperCase(Locale.ROOT);
+        if (jugador == null && !orden.equals("HOLA") && !orden.equals("AYUDA") && !orden.equals("SALIR")
+                && !orden.equals("METRICAS")) {
+            throw new IllegalStateException("Primero preséntate con HOLA <nombre>");
+        }
+        switch (orden) {
+            case "HOLA" -> {
+                if (jugador != null) {
+                    throw new IllegalStateException("Ya estás jugando como " + jugador.getNombre());
+                }
+                jugador = new Jugador(argumento(partes, 1));
+                ok("Bienvenido, " + jugador.getNombre());
+            }
+            case "AYUDA" -> {
+                respuesta.append(AYUDA);
+                ok("");
+            }
+            case "ACCIONES" -> {
+                for (Accion accion : CATALOGO.getAcciones()) {
+                    respuesta.append(accion.getNombre()).append(' ').append(accion.getDescripcion());
+                    for (StatJugador recurso : StatJugador.values()) {
+                        if (accion.getCoste(recurso) > 0) {
+                            respuesta.append(' ').append(recurso.name()).append('=').append(accion.getCoste(recurso));
+                        }
+                    }
+                    respuesta.append('\n');
+                }
+                ok("");
+            }
+            case "RAZAS" -> {
+                for (Raza raza : Raza.values()) {
+                    respuesta.append(raza.name()).append(' ').append(raza.getNombre()).append('\n');
+                }
+                ok("");
+            }
+            case "ADOPTAR" -> {
+                Raza raza = raza(argumento(partes, 2));
+                int edad = partes.length > 3 ? entero(partes[3]) : aleatorio.nextInt(15);
+                Perro perro = jugador.adoptar(partes[1], raza, edad, aleatorio);
+                ok(Integer.toString(perro.getId()));
+            }
+            case "PERROS" -> {
+                for (int i = 0; i < jugador.getNumPerros(); i++) {
+                    Perro perro = jugador.getPerro(i);
+                    respuesta.append(i).append(' ').append(perro.getNombre())
+                            .append(" (").append(perro.getRaza().getNombre()).append(", ")
+                            .append(perro.edadToString()).append(") ").append(perro.getEstados()).append('\n');
+                }
+                ok("");
+            }
+            case "VER" -> {
+                renderizador.escribir(perro(partes), respuesta);
+                ok("");
+            }
+            case "TRABAJAR" -> {
+                if (!jugador.gastar(StatJugador.ENERGIA, COSTE_TRABAJO)) {
+                    throw new IllegalStateException("No tienes energía suficiente para trabajar.");
+                }
+                jugador.ingresar(StatJugador.DINERO, PAGA_TRABAJO);
+                recursos();
+            }
+            case "ESPERAR" -> {
+                int ticks = entero(argumento(partes, 1));
+                if (ticks < 0 || ticks > MAX_TICKS_ESPERA) {
+                    throw new IllegalArgumentException("Solo se puede esperar entre 0 y " + MAX_TICKS_ESPERA + " ticks.");
+                }
+                ok(Long.toString(jugador.avanzar(ticks)));
+            }
+            case "JUGADOR" -> recursos();
+            case "METRICAS" -> {
+                if (partes.length > 1 && partes[1].equalsIgnoreCase("JSON")) {
+                    Metricas.volcarJson(respuesta);
+                } else {
+                    Metricas.volcarTexto(respuesta);
+                }
+                ok("");
+            }
+            case "SALIR" -> {
+                ok("Adiós");
+                return false;
+            }
+            default -> cuidar(orden, partes);
+        }
+        return true;
+    }
+
+    /**
+     * Aplica una acción del catálogo a un perro cobrando su coste al jugador. Responde con
+     * los estados en los que ha entrado (+) o de los que ha salido (-) el
+     * perro.
+     */
+    private void cuidar(String orden, String[] partes) {
+        Accion accion = CATALOGO.get(orden);
+        if (accion == null) {
+            throw new IllegalArgumentException("Orden desconocida: " + partes[0]);
+        }
+        long transicion = accion.aplicar(jugador, perro(partes));
+        respuesta.append("OK");
+        for (long m = Estado.entrados(transicion); m != 0; m &= m - 1) {
+            respuesta.append(" +").append(ESTADOS[Long.numberOfTrailingZeros(m)].name());
+        }
+        for (long m = Estado.salidos(transicion); m != 0; m &= m - 1) {
+            respuesta.append(" -").append(ESTADOS[Long.numberOfTrailingZeros(m)].name());
+        }
+        respuesta.append('\n');
+    }
+
+    private void recursos() {
+        respuesta.append("OK");
+        for (StatJugador stat : StatJugador.values()) {
+            respuesta.append(' ').append(stat.name()).append('=').append(jugador.getStat(stat));
+        }
+        respuesta.append('\n');
+    }
+
+    private static Raza raza(String texto) {
+        try {
+            return Raza.valueOf(texto.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Raza desconocida: " + texto + ". Usa RAZAS.");
+        }
+    }
+
+    private Perro perro(String[] partes) {
+        return jugador.getPerro(entero(argumento(partes, 1)));
+    }
+
+    private void ok(String mensaje) {
+        respuesta.append("OK");
+        if (!mensaje.isEmpty()) {
+            respuesta.append(' ').append(mensaje);
+        }
+        respuesta.append('\n');
+    }
+
+    private static String argumento(String[] partes, int i) {
+        if (partes.length <= i) {
+            throw new IllegalArgumentException("Faltan argumentos para " + partes[0] + ". Usa AYUDA.");
+        }
+        return partes[i];
+    }
+
+    private static int entero(String texto) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número no válido: " + texto);
+        }
+    }
+}
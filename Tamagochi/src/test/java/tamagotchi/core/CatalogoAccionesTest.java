@@ -0,0 +1,155 @@
+package tamagotchi.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import tamagotchi.modelos.Estado;
+import tamagotchi.modelos.FranjaEdad;
+import tamagotchi.modelos.Perro;
+import tamagotchi.modelos.Raza;
+import tamagotchi.modelos.StatJugador;
+import tamagotchi.modelos.StatPerro;
+import tamagotchi.modelos.TablaModificadores;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link CatalogoAcciones} y {@link Accion}: el
+ * catálogo rechaza las líneas mal formadas indicando dónde están, y el
+ * efecto de cada acción se escala con el modificador de la raza y la franja
+ * de edad del perro.
+ */
+class CatalogoAccionesTest {
+
+    @Test
+    void leeCamposComentariosYLineasVacias() throws IOException {
+        CatalogoAcciones catalogo = leer("""
+                # Comentario
+                comer | Dar de comer | HAMBRE=-40 energia=5 | DINERO=5 |  | FAMELICO  # al final
+
+                CURAR | Veterinario  | SALUD=40             | DINERO=30           | ENFERMO SUCIO |
+                """);
+        assertEquals(2, catalogo.getNumAcciones());
+        Accion comer = catalogo.get("Comer");
+        assertSame(comer, catalogo.get(0));
+        assertEquals("COMER", comer.getNombre());
+        assertEquals("Dar de comer", comer.getDescripcion());
+        assertEquals(-40, comer.getEfecto(StatPerro.HAMBRE));
+        assertEquals(5, comer.getEfecto(StatPerro.ENERGIA));
+        assertEquals(0, comer.getEfecto(StatPerro.SALUD));
+        assertEquals(5, comer.getCoste(StatJugador.DINERO));
+        assertEquals(0L, comer.getRequiere());
+        assertEquals(Estado.FAMELICO.getMascara(), comer.getImpide());
+
+        Accion curar = catalogo.get(1);
+        assertEquals(1, curar.getIndice());
+        assertEquals(30, curar.getCoste(StatJugador.DINERO));
+        assertEquals(Estado.ENFERMO.getMascara() | Estado.SUCIO.getMascara(), curar.getRequiere());
+    }
+
+    @Test
+    void rechazaNumeroDeCamposIncorrecto() {
+        comprobarRechazo("COMER | Dar de comer | HAMBRE=-40 | DINERO=5 |", 1, "campos");
+        comprobarRechazo("\nCOMER | Dar de comer | HAMBRE=-40 | DINERO=5 | | | FAMELICO", 2, "campos");
+        comprobarRechazo("COMER", 1, "campos");
+    }
+
+    @Test
+    void rechazaEnumeradosDesconocidos() {
+        comprobarRechazo("VOLAR | Volar | ALAS=10 | | |", 1, "StatPerro desconocido: ALAS");
+        comprobarRechazo("COMER | Dar de comer | HAMBRE=-40 | ORO=5 | |", 1, "StatJugador desconocido: ORO");
+        comprobarRechazo("COMER | Dar de comer | HAMBRE=-40 | | DORMIDO |", 1, "Estado desconocido: DORMIDO");
+        comprobarRechazo("COMER | Dar de comer | HAMBRE=-40 | | | DORMIDO", 1, "Estado desconocido: DORMIDO");
+    }
+
+    @Test
+    void rechazaCantidadesNoValidas() {
+        comprobarRechazo("COMER | Dar de comer | HAMBRE=-40 | DINERO=-5 | |", 1, "negativo");
+        comprobarRechazo("COMER | Dar de comer | HAMBRE=mucho | | |", 1, "número no válido");
+        comprobarRechazo("COMER | Dar de comer | HAMBRE= | | |", 1, "STAT=cantidad");
+        comprobarRechazo("COMER | Dar de comer | =-40 | | |", 1, "STAT=cantidad");
+        comprobarRechazo(" | Sin nombre | HAMBRE=-40 | | |", 1, "nombre");
+    }
+
+    @Test
+    void rechazaAccionesRepetidas() {
+        comprobarRechazo("""
+                COMER | Dar de comer | HAMBRE=-40 | | |
+                # Otra acción
+                comer | Dar de comer otra vez | HAMBRE=-20 | | |
+                """, 3, "ya está definida en la línea 1");
+    }
+
+    @Test
+    void rechazaEstadoRequeridoEImpedido() {
+        comprobarRechazo("CURAR | Veterinario | SALUD=40 | | ENFERMO SUCIO | FAMELICO SUCIO", 1, "a la vez");
+    }
+
+    @Test
+    void efectoEscaladoPorRazaYFranja() throws IOException {
+        Accion accion = leer("PROBAR | Prueba | HAMBRE=-10 FELICIDAD=7 APEGO=3 OBEDIENCIA=-1 | | |").get(0);
+        boolean escalado = false;
+        for (Raza raza : Raza.values()) {
+            for (FranjaEdad franja : FranjaEdad.values()) {
+                for (StatPerro stat : StatPerro.values()) {
+                    int base = accion.getEfecto(stat);
+                    long esperado = Math.round(base * TablaModificadores.getMod(raza, franja, stat));
+                    assertEquals(esperado, accion.getEfecto(stat, raza, franja), raza + ", " + franja + ", " + stat);
+                    escalado |= esperado != base;
+                }
+            }
+        }
+        assertTrue(escalado, "Ningún modificador cambia el efecto base");
+    }
+
+    @Test
+    void aplicarUsaElEfectoDeLaRazaYFranjaDelPerro() throws IOException {
+        Accion accion = leer("PROBAR | Prueba | HAMBRE=-10 FELICIDAD=7 APEGO=3 | | |").get(0);
+        SplittableRandom aleatorio = new SplittableRandom(17L);
+        for (Raza raza : Raza.values()) {
+            for (int edad : new int[] {1, 5, 12}) {
+                Perro perro = new Perro("Toby", raza, edad, aleatorio);
+                for (StatPerro stat : StatPerro.values()) {
+                    perro.setStat(stat, 50);
+                }
+                FranjaEdad franja = perro.getFranja();
+                assertSame(FranjaEdad.de(edad), franja);
+                accion.aplicar(perro);
+                for (StatPerro stat : StatPerro.values()) {
+                    assertEquals(50 + accion.getEfecto(stat, raza, franja), perro.getStat(stat),
+                            raza + ", " + edad + " años, " + stat);
+                }
+            }
+        }
+    }
+
+    @Test
+    void catalogoPorDefectoSeCarga() {
+        CatalogoAcciones catalogo = CatalogoAcciones.porDefecto();
+        assertTrue(catalogo.getNumAcciones() > 0);
+        assertNotNull(catalogo.get("comer"));
+        assertSame(catalogo, CatalogoAcciones.porDefecto());
+    }
+
+    private static CatalogoAcciones leer(String texto) throws IOException {
+        return CatalogoAcciones.leer(new BufferedReader(new StringReader(texto)));
+    }
+
+    private static void comprobarRechazo(String texto, int linea, String fragmento) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> leer(texto), texto);
+        assertTrue(e.getMessage().startsWith("Línea " + linea + " del catálogo: "), e.getMessage());
+        assertTrue(e.getMessage().contains(fragmento), e.getMessage());
+    }
+}
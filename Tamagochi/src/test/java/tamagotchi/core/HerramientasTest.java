@@ -0,0 +1,68 @@
+package tamagotchi.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de las operaciones en bloque de {@link Herramientas}:
+ * coinciden con su definición escalar en rangos de cualquier longitud y
+ * alineación (con {@code mvn -Pvectorial test} se comprueba además la
+ * versión SIMD).
+ */
+class HerramientasTest {
+
+    @Test
+    void operacionesEnBloqueIgualQueEscalares() {
+        SplittableRandom aleatorio = new SplittableRandom(21L);
+        for (int caso = 0; caso < 500; caso++) {
+            int longitud = aleatorio.nextInt(700);
+            int desde = aleatorio.nextInt(70);
+            byte[] columna = new byte[desde + longitud + aleatorio.nextInt(70)];
+            for (int i = 0; i < columna.length; i++) {
+                columna[i] = (byte) aleatorio.nextInt(128);
+            }
+            int min = aleatorio.nextInt(128);
+            int max = min + aleatorio.nextInt(128 - min);
+            String contexto = "caso " + caso + (Herramientas.VECTORIAL ? " (SIMD)" : " (escalar)");
+
+            byte[] obtenido = columna.clone();
+            byte[] esperado = columna.clone();
+            Herramientas.ajustar(obtenido, desde, desde + longitud, min, max);
+            for (int i = desde; i < desde + longitud; i++) {
+                esperado[i] = (byte) Math.min(max, Math.max(esperado[i], min));
+            }
+            assertArrayEquals(esperado, obtenido, contexto);
+
+            byte[] cambios = new byte[longitud + 5];
+            aleatorio.nextBytes(cambios);
+            obtenido = columna.clone();
+            esperado = columna.clone();
+            Herramientas.sumarYAjustar(obtenido, desde, cambios, 5, longitud, min, max);
+            for (int i = 0; i < longitud; i++) {
+                esperado[desde + i] = (byte) Math.min(max, Math.max(esperado[desde + i] + cambios[5 + i], min));
+            }
+            assertArrayEquals(esperado, obtenido, contexto);
+
+            long[] bits = new long[(longitud + 63) / 64];
+            long[] bitsEsperados = new long[bits.length];
+            int marcados = 0;
+            for (int i = 0; i < longitud; i++) {
+                if (columna[desde + i] >= min && columna[desde + i] <= max) {
+                    bitsEsperados[i >>> 6] |= 1L << i;
+                    marcados++;
+                }
+            }
+            assertEquals(marcados, Herramientas.marcarEntre(columna, desde, desde + longitud, min, max, bits), contexto);
+            assertArrayEquals(bitsEsperados, bits, contexto);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package tamagotchi.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static tamagotchi.modelos.ComprobacionesPerrera.comprobarIguales;
+
+import org.junit.jupiter.api.Test;
+import tamagotchi.modelos.FabricaPerros;
+import tamagotchi.modelos.Perrera;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link MotorSimulacion}: repartir el tick entre
+ * varios trabajadores da exactamente el mismo resultado que avanzarlo con
+ * uno solo.
+ */
+class MotorSimulacionTest {
+
+    @Test
+    void variosTrabajadoresIgualQueUno() {
+        // Suficientes perros para que el tick se divida en varios bloques de
+        // 8192, y una cantidad que no es múltiplo de ese tamaño.
+        int cantidad = 5 * 8192 + 1234;
+        Perrera secuencial = FabricaPerros.generar(cantidad, 4L);
+        Perrera paralela = FabricaPerros.generar(cantidad, 4L);
+        try (MotorSimulacion uno = new MotorSimulacion(secuencial, 1);
+                MotorSimulacion varios = new MotorSimulacion(paralela, 4)) {
+            for (int tramo = 0; tramo < 6; tramo++) {
+                for (int tick = 0; tick < 7; tick++) {
+                    assertEquals(uno.avanzar(), varios.avanzar(), "tramo " + tramo + ", tick " + tick);
+                }
+                assertEquals(uno.getTick(), varios.getTick());
+                comprobarIguales(secuencial, paralela, "tramo " + tramo);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package tamagotchi.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import tamagotchi.modelos.FabricaPerros;
+import tamagotchi.modelos.Perrera;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link PlanificadorEventos}: cada suceso se
+ * dispara exactamente en su tick, en cualquier nivel de la rueda, los
+ * cancelados no llegan a dispararse y los sucesos siguen a su perro cuando
+ * se da de baja a otro.
+ */
+class PlanificadorEventosTest {
+
+    @Test
+    void disparaCadaSucesoEnSuTick() {
+        // Retrasos en los bordes de las ranuras de cada nivel de la rueda
+        long[] retrasos = {0, 1, 2, 255, 256, 257, 511, 65_535, 65_536, 65_537, 70_000,
+            16_777_215, 16_777_216, 16_777_300, 20_000_000};
+        int mitad = retrasos.length / 2;
+        long desplazamiento = 300;
+        Perrera perrera = FabricaPerros.generar(retrasos.length + 1, 11L);
+        PlanificadorEventos planificador = new PlanificadorEventos(perrera, 1L);
+        long[] disparos = new long[perrera.getTamanno()];
+        Arrays.fill(disparos, -1);
+        perrera.agregarObservador((id, stat, valor) -> {
+            if (disparos[id] == -1) {
+                disparos[id] = planificador.getTick();
+            } else {
+                assertEquals(disparos[id], planificador.getTick(), "el perro " + id + " ha recibido dos sucesos");
+            }
+        });
+
+        // La mitad se programa en el tick 0 y la otra mitad más tarde, para
+        // que la rueda no esté alineada al programar
+        long[] esperados = new long[retrasos.length];
+        for (int i = 0; i < mitad; i++) {
+            planificador.programar(i, EventoAleatorio.SUSTO, retrasos[i]);
+            esperados[i] = retrasos[i];
+        }
+        long cancelado = planificador.programar(retrasos.length, EventoAleatorio.SUSTO, 1000);
+        planificador.avanzar((int) desplazamiento);
+        for (int i = mitad; i < retrasos.length; i++) {
+            planificador.programar(i, EventoAleatorio.SUSTO, retrasos[i]);
+            esperados[i] = desplazamiento + retrasos[i];
+        }
+        assertTrue(planificador.cancelar(cancelado));
+        assertFalse(planificador.cancelar(cancelado));
+
+        long ultimo = Arrays.stream(esperados).max().orElseThrow();
+        planificador.avanzar((int) (ultimo + 2 - planificador.getTick()));
+        for (int i = 0; i < retrasos.length; i++) {
+            assertEquals(esperados[i], disparos[i], "suceso con retraso " + retrasos[i]);
+        }
+        assertEquals(-1, disparos[retrasos.length], "el suceso cancelado no debe ocurrir");
+        assertEquals(0, planificador.getPendientes());
+    }
+
+    @Test
+    void bajaCancelaYTrasladaLosSucesos() {
+        Perrera perrera = FabricaPerros.generar(5, 4L);
+        String[] nombres = new String[perrera.getTamanno()];
+        for (int id = 0; id < nombres.length; id++) {
+            nombres[id] = perrera.get(id).getNombre();
+        }
+        try (PlanificadorEventos planificador = new PlanificadorEventos(perrera, 2L)) {
+            Map<String, Long> disparos = new HashMap<>();
+            perrera.agregarObservador((id, stat, valor) ->
+                    disparos.putIfAbsent(perrera.get(id).getNombre(), planificador.getTick()));
+            planificador.programar(2, EventoAleatorio.SUSTO, 5);
+            planificador.programar(1, EventoAleatorio.SUSTO, 10);
+            planificador.programar(1, EventoAleatorio.SUSTO, 300);
+            planificador.programar(4, EventoAleatorio.SUSTO, 20);
+            planificador.programar(4, EventoAleatorio.SUSTO, 70_000);
+
+            // El perro 4 pasa a ocupar el hueco del 1: los sucesos del 1 se
+            // cancelan y los del 4 lo siguen
+            perrera.baja(1);
+            assertEquals(3, planificador.getPendientes());
+            planificador.avanzar(70_001);
+            assertEquals(Map.of(nombres[2], 5L, nombres[4], 20L), disparos);
+            assertEquals(0, planificador.getPendientes());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Utilidades comunes de las pruebas que avanzan perreras y las
+ * comparan entre sí.
+ */
+public final class ComprobacionesPerrera {
+
+    private static final StatPerro[] STATS = StatPerro.values();
+
+    private ComprobacionesPerrera() {
+    }
+
+    /**
+     * Avanza una perrera varios ticks completos, como lo haría el motor.
+     *
+     * @param perrera Perrera a avanzar.
+     * @param ticks Número de ticks.
+     */
+    public static void avanzar(Perrera perrera, int ticks) {
+        if (perrera.isPerezosa()) {
+            perrera.avanzarReloj(ticks);
+            return;
+        }
+        for (int i = 0; i < ticks; i++) {
+            long tick = perrera.getTick();
+            perrera.avanzar(0, perrera.getTamanno(), tick);
+            perrera.completarTick(tick);
+        }
+    }
+
+    /**
+     * Comprueba que dos perreras tengan los mismos perros con los mismos
+     * datos, en el mismo orden.
+     *
+     * @param esperada Perrera de referencia.
+     * @param obtenida Perrera a comprobar.
+     * @param contexto Texto que se añade a los mensajes de fallo.
+     */
+    public static void comprobarIguales(Perrera esperada, Perrera obtenida, String contexto) {
+        assertEquals(esperada.getTamanno(), obtenida.getTamanno(), contexto);
+        for (int id = 0; id < esperada.getTamanno(); id++) {
+            Perro a = esperada.get(id);
+            Perro b = obtenida.get(id);
+            String perro = contexto + ", perro " + id;
+            assertEquals(a.getNombre(), b.getNombre(), perro);
+            assertEquals(a.getRaza(), b.getRaza(), perro);
+            assertEquals(a.getEdad(), b.getEdad(), perro);
+            for (StatPerro stat : STATS) {
+                assertEquals(a.getStat(stat), b.getStat(stat), perro + ", " + stat);
+            }
+            assertEquals(a.getMascaraEstados(), b.getMascaraEstados(), perro);
+        }
+    }
+}
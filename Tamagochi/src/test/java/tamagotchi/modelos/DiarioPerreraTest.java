@@ -0,0 +1,97 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tamagotchi.modelos.ComprobacionesPerrera.avanzar;
+import static tamagotchi.modelos.ComprobacionesPerrera.comprobarIguales;
+
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link DiarioPerrera}: una instantánea más el
+ * diario reproducido sobre ella recuperan la perrera tal y como estaba,
+ * con y sin compactación, y un diario que no le corresponde falla.
+ */
+class DiarioPerreraTest {
+
+    private static final StatPerro[] STATS = StatPerro.values();
+
+    @Test
+    void recuperaLaPerreraTrasUnaCaida(@TempDir Path directorio) throws Exception {
+        for (boolean perezosa : new boolean[]{false, true}) {
+            // Con segmentos pequeños se rota y se compacta varias veces; en
+            // ese caso se cierra el diario antes de recuperar, para no leer
+            // los segmentos mientras se compactan
+            for (long tamannoSegmento : new long[]{64L << 20, 2048}) {
+                boolean compactando = tamannoSegmento < 4096;
+                String caso = (perezosa ? "perezosa" : "normal") + (compactando ? " compactando" : "");
+                Path diarios = directorio.resolve("diario " + caso);
+                Path fichero = directorio.resolve("perrera " + caso + ".bin");
+
+                Perrera viva = new Perrera(8, perezosa);
+                SplittableRandom aleatorio = new SplittableRandom(perezosa ? 17L : 18L);
+                for (int i = 0; i < 30; i++) {
+                    viva.alta("perro" + i, Raza.values()[i % Raza.values().length], i % 20, aleatorio);
+                }
+                avanzar(viva, 333);
+
+                DiarioPerrera diario = DiarioPerrera.abrir(diarios, viva, tamannoSegmento);
+                try {
+                    long primero = diario.rotar();
+                    InstantaneaPerrera.guardar(viva, fichero);
+                    diario.descartarAnteriores(primero);
+
+                    DeltaStats cuidado = new DeltaStats().con(StatPerro.HAMBRE, -25).con(StatPerro.LIMPIEZA, 30);
+                    for (int paso = 0; paso < 400; paso++) {
+                        int id = aleatorio.nextInt(viva.getTamanno());
+                        switch (aleatorio.nextInt(7)) {
+                            case 0, 1 -> viva.get(id).setStat(STATS[aleatorio.nextInt(STATS.length)],
+                                    aleatorio.nextInt(101));
+                            case 2 -> avanzar(viva, 1 + aleatorio.nextInt(40));
+                            case 3 -> viva.alta("nuevo" + paso, Raza.BEAGLE, aleatorio.nextInt(30), aleatorio);
+                            case 4 -> viva.get(id).setEdad(aleatorio.nextInt(2900) / 100.0);
+                            case 5 -> viva.aplicar(cuidado, id);
+                            default -> {
+                                if (viva.getTamanno() > 5) {
+                                    viva.baja(id);
+                                }
+                            }
+                        }
+                    }
+                    avanzar(viva, 7);
+                    diario.sincronizar();
+                    if (compactando) {
+                        diario.close();
+                    }
+
+                    // Caída: se recupera de la instantánea y del diario sin
+                    // haberlo cerrado
+                    Perrera recuperada;
+                    try (InstantaneaPerrera instantanea = InstantaneaPerrera.abrir(fichero, 4)) {
+                        recuperada = instantanea.cargar();
+                    }
+                    assertTrue(DiarioPerrera.reproducir(diarios, recuperada) > 0);
+                    assertEquals(viva.getTick(), recuperada.getTick(), caso);
+                    comprobarIguales(viva, recuperada, caso);
+
+                    // Un diario que no corresponde a la perrera falla en vez
+                    // de aplicarse a otros perros
+                    Perrera vacia = new Perrera(1, perezosa);
+                    assertThrows(IllegalStateException.class, () -> DiarioPerrera.reproducir(diarios, vacia));
+                } finally {
+                    diario.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static tamagotchi.modelos.ComprobacionesPerrera.comprobarIguales;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link FabricaPerros}: la misma semilla genera la
+ * misma perrera (nombres, razas, edades, stats y estados) con cualquier
+ * número de hilos, también cuando la cantidad no es múltiplo del bloque de
+ * 4096 perros.
+ */
+class FabricaPerrosTest {
+
+    @Test
+    void mismaSemillaMismaPerreraConCualquierNumeroDeHilos() {
+        double[] pesos = new double[Raza.values().length];
+        for (int i = 0; i < pesos.length; i++) {
+            pesos[i] = i + 1;
+        }
+        for (int cantidad : new int[] {0, 1, 4095, 4096, 4097, 3 * 4096 + 17}) {
+            for (double[] pesosRaza : new double[][] {null, pesos}) {
+                Perrera referencia = FabricaPerros.generar(cantidad, 5L, pesosRaza, 1);
+                assertEquals(cantidad, referencia.getTamanno());
+                for (int hilos : new int[] {2, 4, 7}) {
+                    Perrera obtenida = FabricaPerros.generar(cantidad, 5L, pesosRaza, hilos);
+                    comprobarIguales(referencia, obtenida, cantidad + " perros, " + hilos + " hilos"
+                            + (pesosRaza == null ? "" : ", con pesos"));
+                }
+            }
+        }
+    }
+
+    @Test
+    void otraSemillaOtraPerrera() {
+        Perrera a = FabricaPerros.generar(4097, 5L, null, 1);
+        Perrera b = FabricaPerros.generar(4097, 6L, null, 1);
+        int distintos = 0;
+        for (int id = 0; id < a.getTamanno(); id++) {
+            if (a.get(id).getRaza() != b.get(id).getRaza()) {
+                distintos++;
+            }
+        }
+        assertNotEquals(0, distintos);
+    }
+}
@@ -0,0 +1,86 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link FlujoDiferencias}: cada suscripción sigue
+ * a su perro aunque cambie de identificador y termina si se da de baja, y
+ * las perreras perezosas se rechazan.
+ */
+class FlujoDiferenciasTest {
+
+    @Test
+    void sigueAlPerroTrasUnaBaja() {
+        Perrera perrera = FabricaPerros.generar(5, 9L);
+        List<DiferenciaPerro> delUltimo = new ArrayList<>();
+        List<DiferenciaPerro> delPrimero = new ArrayList<>();
+        boolean[] terminado = new boolean[2];
+        try (FlujoDiferencias flujo = new FlujoDiferencias(perrera, Runnable::run)) {
+            flujo.publicador(perrera.get(4)).subscribe(suscriptor(delUltimo, terminado, 0));
+            flujo.publicador(perrera.get(1)).subscribe(suscriptor(delPrimero, terminado, 1));
+            delUltimo.clear();
+
+            // El perro 4 pasa a ser el 1: su suscripción lo sigue y la del
+            // dado de baja termina
+            perrera.baja(1);
+            assertTrue(terminado[1]);
+            assertFalse(terminado[0]);
+            perrera.get(1).setStat(StatPerro.HAMBRE, 77);
+            assertEquals(1, delUltimo.size());
+            assertEquals(1, delUltimo.get(0).getId());
+            assertEquals(77, delUltimo.get(0).getValor(StatPerro.HAMBRE));
+            assertEquals(1, flujo.getNumSuscripciones());
+        }
+        assertTrue(terminado[0]);
+    }
+
+    @Test
+    void rechazaPerrerasPerezosas() {
+        // Sus valores guardados no llevan el decaimiento pendiente, así que
+        // avisar() tras un tick no entregaría nada
+        Perrera perezosa = new Perrera(4, true);
+        assertThrows(IllegalArgumentException.class, () -> new FlujoDiferencias(perezosa, Runnable::run));
+    }
+
+    /**
+     * Suscriptor con demanda ilimitada que guarda lo que recibe.
+     */
+    private static Flow.Subscriber<DiferenciaPerro> suscriptor(List<DiferenciaPerro> recibidas,
+            boolean[] terminados, int indice) {
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription suscripcion) {
+                suscripcion.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(DiferenciaPerro diferencia) {
+                recibidas.add(diferencia);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                throw new AssertionError(error);
+            }
+
+            @Override
+            public void onComplete() {
+                terminados[indice] = true;
+            }
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tamagotchi.modelos.ComprobacionesPerrera.avanzar;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link HistorialStats}: las series que devuelve,
+ * en memoria o volcadas a disco, son las registradas, y cada una sigue a su
+ * perro aunque cambie de identificador al dar de baja a otro.
+ */
+class HistorialStatsTest {
+
+    private static final StatPerro[] STATS = StatPerro.values();
+
+    @Test
+    void devuelveLasSeriesRegistradas(@TempDir Path directorio) throws Exception {
+        Perrera perrera = FabricaPerros.generar(150, 3L);
+        // Con presupuesto 0 cada trozo se vuelca a disco al cerrarse
+        try (HistorialStats enMemoria = new HistorialStats(perrera, directorio.resolve("memoria"), Long.MAX_VALUE, 8);
+                HistorialStats volcado = new HistorialStats(perrera, directorio.resolve("volcado"), 0, 8)) {
+            SplittableRandom aleatorio = new SplittableRandom(5L);
+            // Perro que ocupa cada identificador, para seguirlo en las bajas
+            List<Integer> ocupantes = new ArrayList<>();
+            for (int id = 0; id < perrera.getTamanno(); id++) {
+                ocupantes.add(id);
+            }
+            int numPerros = ocupantes.size();
+            List<int[][]> esperados = new ArrayList<>();
+            for (int m = 0; m < 45; m++) {
+                avanzar(perrera, 3);
+                for (int c = 0; c < 20; c++) {
+                    // Saltos bruscos para forzar diferencias de muchos bits
+                    perrera.get(aleatorio.nextInt(perrera.getTamanno()))
+                            .setStat(STATS[aleatorio.nextInt(STATS.length)], aleatorio.nextBoolean() ? 0 : 100);
+                }
+                if (m == 20) {
+                    for (int i = 0; i < 10; i++) {
+                        perrera.alta("nuevo" + i, Raza.BEAGLE, 3, aleatorio);
+                        ocupantes.add(numPerros++);
+                    }
+                }
+                if (m % 6 == 5) {
+                    // El último perro pasa a ocupar el hueco del que se va
+                    int id = aleatorio.nextInt(perrera.getTamanno());
+                    perrera.baja(id);
+                    ocupantes.set(id, ocupantes.get(ocupantes.size() - 1));
+                    ocupantes.remove(ocupantes.size() - 1);
+                }
+                enMemoria.registrar(perrera.getTick());
+                volcado.registrar(perrera.getTick());
+                int[][] muestra = new int[STATS.length][numPerros];
+                for (StatPerro stat : STATS) {
+                    int[] columna = perrera.copiarStat(stat, new int[perrera.getTamanno()]);
+                    Arrays.fill(muestra[stat.ordinal()], HistorialStats.SIN_VALOR);
+                    for (int id = 0; id < columna.length; id++) {
+                        muestra[stat.ordinal()][ocupantes.get(id)] = columna[id];
+                    }
+                }
+                esperados.add(muestra);
+            }
+            assertTrue(volcado.getBytesVolcados() > 0);
+            // Al historial volcado solo le quedan en memoria los valores en
+            // crudo del trozo abierto, que cuentan para el presupuesto
+            assertTrue(volcado.getBytesMemoria() > 0);
+            assertTrue(volcado.getBytesMemoria() < enMemoria.getBytesMemoria());
+
+            long[] ticks = enMemoria.getTicks(Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(esperados.size(), ticks.length);
+            long desde = ticks[10];
+            long hasta = ticks[30];
+            for (HistorialStats historial : List.of(enMemoria, volcado)) {
+                assertArrayEquals(ticks, historial.getTicks(Long.MIN_VALUE, Long.MAX_VALUE));
+                for (int id = 0; id < perrera.getTamanno(); id++) {
+                    int perro = ocupantes.get(id);
+                    for (StatPerro stat : STATS) {
+                        int[] serie = historial.getSerie(id, stat, Long.MIN_VALUE, Long.MAX_VALUE);
+                        int[] tramo = historial.getSerie(id, stat, desde, hasta);
+                        for (int m = 0; m < esperados.size(); m++) {
+                            int[] columna = esperados.get(m)[stat.ordinal()];
+                            int esperado = perro < columna.length ? columna[perro] : HistorialStats.SIN_VALOR;
+                            assertEquals(esperado, serie[m], "perro " + id + ", " + stat + ", muestra " + m);
+                            if (m >= 10 && m <= 30) {
+                                assertEquals(esperado, tramo[m - 10]);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
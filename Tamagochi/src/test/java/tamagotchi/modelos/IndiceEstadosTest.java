@@ -0,0 +1,130 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link IndiceEstados}: sus consultas coinciden con
+ * recorrer las máscaras de estados de todos los perros, en poblaciones que
+ * ocupan varias palabras de resumen (4096 perros cada una), después de dar
+ * perros de baja y después de que la perrera crezca.
+ */
+class IndiceEstadosTest {
+
+    private static final Estado[][] COMBINACIONES = {
+        {Estado.HAMBRIENTO, Estado.FAMELICO},
+        {Estado.ANSIOSO, Estado.ASUSTADO},
+        {Estado.CANSADO, Estado.SUCIO},
+        {Estado.TRISTE, Estado.SOLITARIO, Estado.REBELDE},
+        {Estado.FELIZ, Estado.TRISTE}
+    };
+
+    @Test
+    void coincideConLasMascarasTrasAvanzarBajasYAltas() {
+        Perrera perrera = FabricaPerros.generar(3 * 4096 + 100, 11L, null, 1);
+        comprobarIndice(perrera, "recién generada");
+
+        ComprobacionesPerrera.avanzar(perrera, 40);
+        comprobarIndice(perrera, "tras avanzar");
+
+        SplittableRandom aleatorio = new SplittableRandom(12L);
+        perrera.baja(4096);
+        perrera.baja(4095);
+        perrera.baja(0);
+        perrera.baja(perrera.getTamanno() - 1);
+        for (int i = 0; i < 500; i++) {
+            perrera.baja(aleatorio.nextInt(perrera.getTamanno()));
+        }
+        comprobarIndice(perrera, "tras las bajas");
+
+        // La perrera generada no tiene hueco libre: las altas la hacen crecer
+        for (int i = 0; i < 5000; i++) {
+            perrera.alta("Nuevo " + i, Raza.values()[i % Raza.values().length], i % 15, aleatorio);
+        }
+        ComprobacionesPerrera.avanzar(perrera, 25);
+        comprobarIndice(perrera, "tras crecer");
+    }
+
+    @Test
+    void perrosEnLosBordesDeLasPalabrasDeResumen() {
+        Perrera perrera = new Perrera(1);
+        int cantidad = 2 * 4096 + 2;
+        for (int id = 0; id < cantidad; id++) {
+            Perro perro = perrera.alta("Perro " + id, Raza.values()[0], 3);
+            for (StatPerro stat : StatPerro.values()) {
+                perro.setStat(stat, 50);
+            }
+        }
+        int[] famelicos = {63, 64, 4095, 4096, 8193};
+        for (int id : famelicos) {
+            perrera.get(id).setStat(StatPerro.HAMBRE, 95);
+        }
+        assertEquals(0, perrera.getIndice().contar(Estado.CANSADO));
+        assertArrayEquals(famelicos, perrera.getIndice().ids(Estado.FAMELICO));
+        assertArrayEquals(famelicos, perrera.getIndice().ids(Estado.FAMELICO, Estado.HAMBRIENTO));
+        comprobarIndice(perrera, "bordes");
+
+        // El 8193 pasa a ocupar el 4096
+        perrera.baja(4096);
+        assertArrayEquals(new int[] {63, 64, 4095, 4096}, perrera.getIndice().ids(Estado.FAMELICO));
+        // El 8192, que no está famélico, pasa a ocupar el 63
+        perrera.baja(63);
+        assertArrayEquals(new int[] {64, 4095, 4096}, perrera.getIndice().ids(Estado.FAMELICO));
+        assertEquals(3, perrera.getIndice().contarTodos(Estado.HAMBRIENTO, Estado.FAMELICO));
+        comprobarIndice(perrera, "bordes tras las bajas");
+
+        for (int id : new int[] {64, 4095, 4096}) {
+            perrera.get(id).setStat(StatPerro.HAMBRE, 50);
+        }
+        assertEquals(0, perrera.getIndice().contar(Estado.FAMELICO));
+        assertEquals(0, perrera.getIndice().ids(Estado.FAMELICO, Estado.HAMBRIENTO).length);
+    }
+
+    /**
+     * Compara cada consulta del índice con el resultado de recorrer las
+     * máscaras de estados de todos los perros.
+     */
+    private static void comprobarIndice(Perrera perrera, String contexto) {
+        IndiceEstados indice = perrera.getIndice();
+        int tamanno = perrera.getTamanno();
+        for (Estado estado : Estado.values()) {
+            int[] esperados = IntStream.range(0, tamanno)
+                    .filter(id -> (perrera.getEstados(id) & estado.getMascara()) != 0)
+                    .toArray();
+            String mensaje = contexto + ", " + estado;
+            assertArrayEquals(esperados, indice.ids(estado), mensaje);
+            assertEquals(esperados.length, indice.contar(estado), mensaje);
+            for (int id = 0; id < tamanno; id++) {
+                assertEquals((perrera.getEstados(id) & estado.getMascara()) != 0, indice.contiene(estado, id), mensaje);
+            }
+            for (int id = tamanno; id < tamanno + 64; id++) {
+                assertFalse(indice.contiene(estado, id), mensaje + ", perro " + id + " dado de baja");
+            }
+        }
+        for (Estado[] estados : COMBINACIONES) {
+            long mascara = 0;
+            for (Estado estado : estados) {
+                mascara |= estado.getMascara();
+            }
+            long todos = mascara;
+            int[] esperados = IntStream.range(0, tamanno)
+                    .filter(id -> (perrera.getEstados(id) & todos) == todos)
+                    .toArray();
+            String mensaje = contexto + ", " + Arrays.toString(estados);
+            assertArrayEquals(esperados, indice.ids(estados), mensaje);
+            assertEquals(esperados.length, indice.contarTodos(estados), mensaje);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tamagotchi.modelos.ComprobacionesPerrera.avanzar;
+import static tamagotchi.modelos.ComprobacionesPerrera.comprobarIguales;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link InstantaneaPerrera}: una perrera guardada
+ * y cargada tiene los mismos perros y el mismo tick, y sigue decayendo igual
+ * que la original; un registro dañado se rechaza indicando de qué perro es.
+ */
+class InstantaneaPerreraTest {
+
+    @Test
+    void conservaElTick(@TempDir Path directorio) throws Exception {
+        Path fichero = directorio.resolve("perrera.bin");
+        for (boolean perezosa : new boolean[]{false, true}) {
+            Perrera original = new Perrera(64, perezosa);
+            for (int i = 0; i < 40; i++) {
+                original.alta("perro" + i, Raza.values()[i % Raza.values().length], i % 15,
+                        new SplittableRandom(i));
+            }
+            avanzar(original, 1237);
+            InstantaneaPerrera.guardar(original, fichero);
+            // Una segunda escritura sustituye a la primera sin dejar el temporal
+            avanzar(original, 5);
+            InstantaneaPerrera.guardar(original, fichero);
+            assertFalse(Files.exists(directorio.resolve("perrera.bin.tmp")));
+
+            Perrera recuperada;
+            try (InstantaneaPerrera instantanea = InstantaneaPerrera.abrir(fichero, 4)) {
+                assertEquals(original.getTick(), instantanea.getTick());
+                recuperada = instantanea.cargar();
+            }
+            assertEquals(perezosa, recuperada.isPerezosa());
+            assertEquals(original.getTick(), recuperada.getTick());
+            comprobarIguales(original, recuperada, "al cargar");
+
+            // El decaimiento sigue con la misma fase en las dos
+            avanzar(original, 3001);
+            avanzar(recuperada, 3001);
+            comprobarIguales(original, recuperada, "perezosa " + perezosa + " tras seguir avanzando");
+        }
+    }
+
+    @Test
+    void rechazaRegistrosDannados(@TempDir Path directorio) throws Exception {
+        Perrera original = FabricaPerros.generar(50, 23L, null, 1);
+        Path fichero = directorio.resolve("perrera.bin");
+        // Posición dentro del registro y bytes que la dañan
+        Object[][] dannos = {
+            {4, new byte[] {99}, "raza 99"},
+            {4, new byte[] {-1}, "raza -1"},
+            {5 + StatPerro.HAMBRE.ordinal(), new byte[] {101}, StatPerro.HAMBRE + " = 101"},
+            {5 + StatPerro.APEGO.ordinal(), new byte[] {-7}, StatPerro.APEGO + " = -7"},
+            {16, bytesDouble(Double.NaN), "edad NaN"},
+            {16, bytesDouble(-1), "edad -1.0"},
+            {0, new byte[] {(byte) 0xFF, (byte) 0xFF, 0, 0}, "nombre 65535"}
+        };
+        for (Object[] danno : dannos) {
+            InstantaneaPerrera.guardar(original, fichero);
+            int id = 37;
+            escribir(fichero, id, (int) danno[0], (byte[]) danno[1]);
+            try (InstantaneaPerrera instantanea = InstantaneaPerrera.abrir(fichero, 4)) {
+                // Los demás perros se siguen pudiendo leer
+                assertEquals(original.getNombre(3), instantanea.get(3).getNombre());
+                IOException e = assertThrows(IOException.class, () -> instantanea.get(id));
+                assertTrue(e.getMessage().contains("perro " + id + " ") && e.getMessage().contains((String) danno[2]),
+                        e.getMessage());
+                e = assertThrows(IOException.class, instantanea::cargar);
+                assertTrue(e.getMessage().contains("perro " + id + " "), e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    void recalculaLosEstadosAlLeer(@TempDir Path directorio) throws Exception {
+        Perrera original = FabricaPerros.generar(50, 29L, null, 1);
+        Path fichero = directorio.resolve("perrera.bin");
+        InstantaneaPerrera.guardar(original, fichero);
+        for (int id = 0; id < original.getTamanno(); id++) {
+            escribir(fichero, id, 24, ByteBuffer.allocate(Long.BYTES).putLong(~original.getEstados(id)).array());
+        }
+        try (InstantaneaPerrera instantanea = InstantaneaPerrera.abrir(fichero, 4)) {
+            Perrera recuperada = instantanea.cargar();
+            comprobarIguales(original, recuperada, "con las máscaras guardadas dañadas");
+            for (Estado estado : Estado.values()) {
+                assertEquals(original.getIndice().contar(estado), recuperada.getIndice().contar(estado));
+            }
+            assertEquals(original.getEstados(7), instantanea.get(7).getMascaraEstados());
+        }
+    }
+
+    /**
+     * Sobrescribe bytes del registro de un perro en el fichero.
+     */
+    private static void escribir(Path fichero, int id, int posicion, byte[] bytes) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.WRITE)) {
+            long base = InstantaneaPerrera.TAMANNO_CABECERA + (long) id * InstantaneaPerrera.TAMANNO_REGISTRO;
+            canal.write(ByteBuffer.wrap(bytes), base + posicion);
+        }
+    }
+
+    private static byte[] bytesDouble(double valor) {
+        return ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).putDouble(valor).array();
+    }
+}
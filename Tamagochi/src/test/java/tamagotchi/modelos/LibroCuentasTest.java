@@ -0,0 +1,90 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link LibroCuentas}: con varios hilos abriendo
+ * cuentas, transfiriendo, ingresando y liquidando a la vez no se pierde ni
+ * se crea dinero.
+ */
+class LibroCuentasTest {
+
+    @Test
+    void conservaElDineroMientrasSeAbrenCuentas() throws Exception {
+        int hilos = 8;
+        int cuentasPorHilo = 64;
+        LibroCuentas libro = new LibroCuentas(hilos * cuentasPorHilo);
+        LongAdder ingresado = new LongAdder();
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicBoolean terminado = new AtomicBoolean();
+        List<Future<?>> tareas = new ArrayList<>();
+        try (ExecutorService ejecutor = Executors.newFixedThreadPool(hilos + 1)) {
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                tareas.add(ejecutor.submit(() -> {
+                    SplittableRandom aleatorio = new SplittableRandom(hilo);
+                    salida.await();
+                    for (int c = 0; c < cuentasPorHilo; c++) {
+                        libro.abrir(new Jugador("jugador" + hilo + "_" + c));
+                        // Movimientos sobre cualquier cuenta ya visible,
+                        // también las que otros hilos acaban de abrir
+                        for (int i = 0; i < 50; i++) {
+                            int origen = aleatorio.nextInt(libro.getNumCuentas());
+                            int destino = aleatorio.nextInt(libro.getNumCuentas());
+                            int cantidad = aleatorio.nextInt(1, 30);
+                            if (aleatorio.nextBoolean()) {
+                                libro.transferir(origen, destino, StatJugador.DINERO, cantidad);
+                            } else {
+                                libro.ingresar(destino, StatJugador.DINERO, cantidad);
+                                ingresado.add(cantidad);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            // La liquidación recorre las cuentas a la vez que se abren
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                while (!terminado.get()) {
+                    libro.liquidar();
+                    Thread.yield();
+                }
+                return null;
+            }));
+            salida.countDown();
+            for (int h = 0; h < hilos; h++) {
+                tareas.get(h).get();
+            }
+            terminado.set(true);
+            tareas.get(hilos).get();
+        }
+
+        assertEquals(hilos * cuentasPorHilo, libro.getNumCuentas());
+        libro.liquidar();
+        long total = 0;
+        for (int c = 0; c < libro.getNumCuentas(); c++) {
+            int saldo = libro.getSaldo(c, StatJugador.DINERO);
+            assertEquals(saldo, libro.getJugador(c).getStat(StatJugador.DINERO), "cuenta " + c);
+            total += saldo;
+        }
+        assertEquals((long) libro.getNumCuentas() * StatJugador.DINERO.getValorInicial() + ingresado.sum(), total);
+    }
+}
@@ -0,0 +1,56 @@
+package tamagotchi.modelos;
+
+import static tamagotchi.modelos.ComprobacionesPerrera.comprobarIguales;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de la perrera perezosa: al leer a sus perros tras
+ * cualquier salto de reloj tienen que estar exactamente igual que en una
+ * perrera normal avanzada tick a tick.
+ */
+class PerreraPerezosaTest {
+
+    /**
+     * Edades de partida, varias a pocos ticks de cambiar de franja o de
+     * llegar a la edad máxima
+     */
+    private static final double[] EDADES = {0, 1.999, 2, 5, 8.99, 8.9995, 9, 28.99, 29};
+
+    @Test
+    void perreraPerezosaIgualQueNormal() {
+        Perrera normal = new Perrera(16);
+        Perrera perezosa = new Perrera(16, true);
+        Raza[] razas = Raza.values();
+        for (int i = 0; i < razas.length * EDADES.length; i++) {
+            Raza raza = razas[i % razas.length];
+            normal.alta("perro" + i, raza, 0, new SplittableRandom(i)).setEdad(EDADES[i / razas.length]);
+            perezosa.alta("perro" + i, raza, 0, new SplittableRandom(i)).setEdad(EDADES[i / razas.length]);
+        }
+        DeltaStats cuidado = new DeltaStats().con(StatPerro.HAMBRE, -40).con(StatPerro.ENERGIA, 35)
+                .con(StatPerro.LIMPIEZA, 60);
+
+        // Saltos irregulares, algunos largos, para que los tramos crucen de
+        // franja entre dos lecturas
+        int[] saltos = {1, 2, 5, 13, 100, 1, 700, 3000, 4500, 9000};
+        long tick = 0;
+        for (int j = 0; j < saltos.length; j++) {
+            for (int k = 0; k < saltos[j]; k++) {
+                normal.avanzar(0, normal.getTamanno(), tick++);
+            }
+            perezosa.avanzarReloj(saltos[j]);
+            comprobarIguales(normal, perezosa, "tras el tick " + tick);
+
+            int id = j * 7 % normal.getTamanno();
+            normal.get(id).aplicar(cuidado);
+            perezosa.get(id).aplicar(cuidado);
+        }
+    }
+}
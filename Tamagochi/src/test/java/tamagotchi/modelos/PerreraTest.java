@@ -0,0 +1,95 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link Perrera}: el recuento de perros por raza
+ * sigue a las altas, las bajas y las restauraciones, y puede leerse desde
+ * otro hilo mientras la perrera cambia y crece.
+ */
+class PerreraTest {
+
+    private static final Raza[] RAZAS = Raza.values();
+
+    @Test
+    void contarPorRazaSigueAltasYBajas() {
+        Perrera perrera = FabricaPerros.generar(5000, 19L, null, 4);
+        assertArrayEquals(recorrer(perrera), perrera.contarPorRaza(), "generada");
+
+        SplittableRandom aleatorio = new SplittableRandom(20L);
+        for (int i = 0; i < 2000; i++) {
+            perrera.baja(aleatorio.nextInt(perrera.getTamanno()));
+        }
+        assertArrayEquals(recorrer(perrera), perrera.contarPorRaza(), "tras las bajas");
+
+        for (int i = 0; i < 3000; i++) {
+            Raza raza = RAZAS[aleatorio.nextInt(RAZAS.length)];
+            if (i % 2 == 0) {
+                perrera.alta("Nuevo " + i, raza, 2, aleatorio);
+            } else {
+                perrera.restaurar("Restaurado " + i, raza, 0, new int[Perrera.NUM_STATS]);
+            }
+        }
+        assertArrayEquals(recorrer(perrera), perrera.contarPorRaza(), "tras las altas");
+
+        while (perrera.getTamanno() > 0) {
+            perrera.baja(perrera.getTamanno() - 1);
+        }
+        assertArrayEquals(new int[RAZAS.length], perrera.contarPorRaza(), "vacía");
+    }
+
+    @Test
+    void contarPorRazaDesdeOtroHiloMientrasCrece() throws InterruptedException {
+        Perrera perrera = new Perrera(1);
+        AtomicBoolean terminado = new AtomicBoolean();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread lector = Thread.ofPlatform().start(() -> {
+            try {
+                while (!terminado.get()) {
+                    for (int cantidad : perrera.contarPorRaza()) {
+                        if (cantidad < 0 || cantidad > 100_000) {
+                            throw new IllegalStateException("Recuento imposible: " + cantidad);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                error.set(e);
+            }
+        });
+        SplittableRandom aleatorio = new SplittableRandom(21L);
+        for (int i = 0; i < 100_000; i++) {
+            perrera.alta("Perro " + i, RAZAS[i % RAZAS.length], 3, aleatorio);
+            if (i % 3 == 2) {
+                perrera.baja(aleatorio.nextInt(perrera.getTamanno()));
+            }
+        }
+        terminado.set(true);
+        lector.join();
+
+        assertNull(error.get());
+        assertArrayEquals(recorrer(perrera), perrera.contarPorRaza());
+    }
+
+    /**
+     * Cuenta los perros de cada raza mirando uno a uno.
+     */
+    private static int[] recorrer(Perrera perrera) {
+        int[] total = new int[RAZAS.length];
+        for (int id = 0; id < perrera.getTamanno(); id++) {
+            total[perrera.getRaza(id).ordinal()]++;
+        }
+        return total;
+    }
+}
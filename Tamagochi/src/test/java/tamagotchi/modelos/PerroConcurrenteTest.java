@@ -0,0 +1,110 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link PerroConcurrente}: con varios hilos aplicando
+ * lotes a la vez no se pierde ningún cambio y ningún lector ve un lote
+ * aplicado a medias.
+ */
+class PerroConcurrenteTest {
+
+    private static final int HILOS = 8;
+    private static final int RONDAS = 5_000;
+
+    /**
+     * Lotes que aplica cada hilo en cada mitad de una ronda. Entre todos los
+     * hilos suben o bajan las estadísticas 48 puntos desde 50, sin llegar a
+     * saturarlas.
+     */
+    private static final int LOTES_POR_FASE = 6;
+
+    @Test
+    void aplicarConcurrenteNoPierdeCambios() throws Exception {
+        PerroConcurrente perro = new PerroConcurrente("Rayo", Raza.values()[0], 3, new SplittableRandom(13L));
+        for (StatPerro stat : StatPerro.values()) {
+            perro.setStat(stat, 50);
+        }
+        // SOCIABILIDAD va en la segunda palabra: el lote toca las dos
+        DeltaStats subir = new DeltaStats().con(StatPerro.HAMBRE, 1).con(StatPerro.SOCIABILIDAD, 1)
+                .con(StatPerro.APEGO, -1);
+        DeltaStats bajar = new DeltaStats().con(StatPerro.HAMBRE, -1).con(StatPerro.SOCIABILIDAD, -1)
+                .con(StatPerro.APEGO, 1);
+
+        // Al final de cada mitad de ronda todos los lotes deben estar aplicados
+        int cambio = HILOS * LOTES_POR_FASE;
+        AtomicReference<String> error = new AtomicReference<>();
+        int[] fase = new int[1];
+        CyclicBarrier barrera = new CyclicBarrier(HILOS, () -> {
+            int esperado = fase[0]++ % 2 == 0 ? 50 + cambio : 50;
+            if (perro.getStat(StatPerro.HAMBRE) != esperado || perro.getStat(StatPerro.SOCIABILIDAD) != esperado
+                    || perro.getStat(StatPerro.APEGO) != 100 - esperado) {
+                error.compareAndSet(null, "Fase " + fase[0] + ": se ha perdido algún lote, "
+                        + Arrays.toString(perro.getStats(new int[StatPerro.values().length])));
+            }
+        });
+        AtomicBoolean terminado = new AtomicBoolean();
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            hilos.add(Thread.ofPlatform().start(() -> {
+                for (int r = 0; r < RONDAS; r++) {
+                    for (int i = 0; i < LOTES_POR_FASE; i++) {
+                        perro.aplicar(subir);
+                    }
+                    esperar(barrera);
+                    for (int i = 0; i < LOTES_POR_FASE; i++) {
+                        perro.aplicar(bajar);
+                    }
+                    esperar(barrera);
+                }
+            }));
+        }
+        Thread lector = Thread.ofPlatform().start(() -> {
+            int[] stats = new int[StatPerro.values().length];
+            while (!terminado.get()) {
+                perro.getStats(stats);
+                int hambre = stats[StatPerro.HAMBRE.ordinal()];
+                if (stats[StatPerro.SOCIABILIDAD.ordinal()] != hambre
+                        || stats[StatPerro.APEGO.ordinal()] != 100 - hambre) {
+                    error.compareAndSet(null, "Lote aplicado a medias: " + Arrays.toString(stats));
+                }
+            }
+        });
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        terminado.set(true);
+        lector.join();
+
+        assertNull(error.get());
+        for (StatPerro stat : StatPerro.values()) {
+            assertEquals(50, perro.getStat(stat), stat.toString());
+        }
+        assertEquals(0L, perro.getMascaraEstados());
+    }
+
+    private static void esperar(CyclicBarrier barrera) {
+        try {
+            barrera.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
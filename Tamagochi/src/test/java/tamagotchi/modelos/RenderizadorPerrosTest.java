@@ -0,0 +1,112 @@
+package tamagotchi.modelos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas de {@link RenderizadorPerros}: todas sus salidas
+ * coinciden carácter a carácter con la ficha que imprimía la versión original
+ * de {@link Perro#mostrarEstado()}, para cachorros, adultos y mayores, con y
+ * sin estados activos.
+ */
+class RenderizadorPerrosTest {
+
+    @Test
+    void escribeLaMismaFichaQueLaVersionOriginal() throws IOException {
+        RenderizadorPerros renderizador = new RenderizadorPerros();
+        for (double edad : new double[] {0.0, 0.5, 4.25, 12.9, Perrera.EDAD_MAXIMA}) {
+            for (boolean conEstados : new boolean[] {false, true}) {
+                Perro perro = new Perro("Ñico 🐾", Raza.values()[(int) edad % Raza.values().length],
+                        (int) edad, new SplittableRandom(9L));
+                perro.setEdad(edad);
+                for (StatPerro stat : StatPerro.values()) {
+                    perro.setStat(stat, 50);
+                }
+                if (conEstados) {
+                    perro.setStat(StatPerro.HAMBRE, 95);
+                    perro.setStat(StatPerro.ENERGIA, 5);
+                    perro.setStat(StatPerro.ANSIEDAD, 100);
+                }
+                assertEquals(conEstados, perro.getMascaraEstados() != 0);
+
+                String esperada = fichaOriginal(perro);
+                String contexto = "edad " + edad + (conEstados ? ", con estados" : ", sin estados");
+
+                StringBuilder texto = new StringBuilder();
+                renderizador.escribir(perro, texto);
+                assertEquals(esperada, texto.toString(), contexto);
+
+                ByteBuffer bytes = ByteBuffer.allocate(4096);
+                renderizador.escribir(perro, bytes);
+                assertEquals(esperada, new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8), contexto);
+
+                ByteArrayOutputStream volcado = new ByteArrayOutputStream();
+                renderizador.volcar(perro.getPerrera(), perro.getId(), perro.getId() + 1, Channels.newChannel(volcado));
+                assertEquals(esperada, volcado.toString(StandardCharsets.UTF_8), contexto);
+
+                assertEquals(esperada, capturarMostrarEstado(perro), contexto);
+            }
+        }
+    }
+
+    @Test
+    void volcadoDeVariosPerrosConcatenaSusFichas() throws IOException {
+        Perrera perrera = FabricaPerros.generar(3000, 8L, null, 1);
+        StringBuilder esperado = new StringBuilder();
+        for (int id = 0; id < perrera.getTamanno(); id++) {
+            esperado.append(fichaOriginal(perrera.get(id)));
+        }
+        ByteArrayOutputStream volcado = new ByteArrayOutputStream();
+        // Buffer pequeño para que se vacíe muchas veces a mitad del volcado
+        new RenderizadorPerros(2048).volcar(perrera, 0, perrera.getTamanno(), Channels.newChannel(volcado));
+        assertTrue(volcado.size() > 2048);
+        assertEquals(esperado.toString(), volcado.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reproduce el cuerpo de {@code mostrarEstado()} anterior al
+     * renderizador, que componía la ficha con {@link String#format} y la
+     * imprimía con {@code println}. Los estados salen en el orden de
+     * {@link Estado}, como en el {@link java.util.EnumSet} de
+     * {@link Perro#getEstados()}.
+     */
+    private static String fichaOriginal(Perro perro) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("🐶 Nombre: %s | Raza: %s | Edad: %s\n",
+                perro.getNombre(), perro.getRaza(), perro.edadToString()));
+        for (StatPerro stat : StatPerro.values()) {
+            sb.append(String.format("%s %s: %d/100\n", stat.getEmoji(), stat.getNombre(), perro.getStat(stat)));
+        }
+        Set<Estado> estados = perro.getEstados();
+        sb.append("📌 Estados activos: ").append(estados.isEmpty() ? "Ninguno" : estados);
+        return sb.append('\n').toString();
+    }
+
+    private static String capturarMostrarEstado(Perro perro) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(salida, true, StandardCharsets.UTF_8));
+        try {
+            perro.mostrarEstado();
+        } finally {
+            System.setOut(original);
+        }
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,41 @@
+package tamagotchi.servidor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Pruebas del mundo repartido de {@link CoordinadorMundo}, con
+ * los nodos lanzados como procesos hijos: un perro que pasa a otro nodo al
+ * rebalancear sigue decayendo igual que si no se hubiera movido.
+ */
+class CoordinadorMundoTest {
+
+    @Test
+    void perroMovidoDeNodoSigueIgual() throws Exception {
+        try (CoordinadorMundo quieto = CoordinadorMundo.lanzarLocal(1, 1);
+                CoordinadorMundo repartido = CoordinadorMundo.lanzarLocal(1, 1)) {
+            long desde = quieto.poblar(200, 13L);
+            repartido.poblar(200, 13L);
+            quieto.avanzar(37);
+            repartido.avanzar(37);
+
+            // El nodo nuevo empieza en el tick 0 y tiene que pasar al del
+            // mundo antes de recibir la mitad de las particiones
+            repartido.lanzarNodo(1);
+            assertTrue(repartido.rebalancear() > 0);
+            quieto.avanzar(11);
+            repartido.avanzar(11);
+            for (long clave = desde; clave < desde + 200; clave++) {
+                assertEquals(quieto.ver(clave), repartido.ver(clave), "perro " + clave);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package tamagotchi.core;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Proyecto: Tamagotchi - Simulador de Cuidado de Perros
+ * Autor: Sergio López Casado
+ * Correo: serlopcas.5@gmail.com
+ * LinkedIn: https://www.linkedin.com/in/sergiolopezcasado/
+ * GitHub: https://github.com/Serlopcas
+ * Fecha de creación: 18/10/2026
+ * Descripción: Versiones SIMD de las operaciones en bloque de
+ * {@link Herramientas}, con la API de vectores de
+ * {@code jdk.incubator.vector}. Solo se compila con el perfil
+ * {@code vectorial} y {@link Herramientas} la carga por reflexión si ese
+ * módulo está presente, así que nada más debe usarla. Los parámetros ya
+ * llegan comprobados.
+ *
+ * Cada vector procesa tantos valores como bytes caben en el registro más
+ * ancho de la CPU (32 con AVX2) y el resto del rango se termina con un bucle
+ * escalar.
+ */
+final class HerramientasVectoriales implements Herramientas.OperacionesBloque {
+
+    private static final VectorSpecies<Byte> ESPECIE = ByteVector.SPECIES_PREFERRED;
+    private static final int CARRILES = ESPECIE.length();
+
+    HerramientasVectoriales() {
+    }
+
+    @Override
+    public void ajustar(byte[] columna, int desde, int hasta, int min, int max) {
+        byte bajo = (byte) min;
+        byte alto = (byte) max;
+        int i = desde;
+        for (int limite = desde + ESPECIE.loopBound(hasta - desde); i < limite; i += CARRILES) {
+            ByteVector.fromArray(ESPECIE, columna, i).max(bajo).min(alto).intoArray(columna, i);
+        }
+        for (; i < hasta; i++) {
+            columna[i] = (byte) Math.min(max, Math.max(columna[i], min));
+        }
+    }
+
+    /**
+     * Para no desbordar un byte no se suma y después se ajusta: primero se
+     * recorta el cambio a lo que cabe entre el valor y los límites, que con
+     * valores y límites entre 0 y 127 siempre se puede representar.
+     */
+    @Override
+    public void sumarYAjustar(byte[] columna, int posColumna, byte[] cambios, int posCambios, int longitud,
+            int min, int max) {
+        ByteVector bajo = ByteVector.broadcast(ESPECIE, (byte) min);
+        ByteVector alto = ByteVector.broadcast(ESPECIE, (byte) max);
+        int i = 0;
+        for (int limite = ESPECIE.loopBound(longitud); i < limite; i += CARRILES) {
+            ByteVector valor = ByteVector.fromArray(ESPECIE, columna, posColumna + i);
+            ByteVector cambio = ByteVector.fromArray(ESPECIE, cambios, posCambios + i)
+                    .min(alto.sub(valor))
+                    .max(bajo.sub(valor));
+            valor.add(cambio).intoArray(columna, posColumna + i);
+        }
+        for (; i < longitud; i++) {
+            int pos = posColumna + i;
+            columna[pos] = (byte) Math.min(max, Math.max(columna[pos] + cambios[posCambios + i], min));
+        }
+    }
+
+    /**
+     * Compara un vector con el intervalo y junta las máscaras de varios
+     * vectores seguidos en cada palabra de 64 bits.
+     */
+    @Override
+    public int marcarEntre(byte[] columna, int desde, int hasta, int min, int max, long[] bits) {
+        if (CARRILES > Long.SIZE) {
+            return Herramientas.marcarEntreEscalar(columna, desde, hasta, min, max, bits, 0);
+        }
+        byte bajo = (byte) min;
+        byte alto = (byte) max;
+        int palabrasCompletas = (hasta - desde) >>> 6;
+        int marcados = 0;
+        for (int p = 0; p < palabrasCompletas; p++) {
+            int inicio = desde + (p << 6);
+            long palabra = 0L;
+            for (int desplazamiento = 0; desplazamiento < Long.SIZE; desplazamiento += CARRILES) {
+                ByteVector valor = ByteVector.fromArray(ESPECIE, columna, inicio + desplazamiento);
+                VectorMask<Byte> dentro = valor.compare(VectorOperators.GE, bajo)
+                        .and(valor.compare(VectorOperators.LE, alto));
+                palabra |= dentro.toLong() << desplazamiento;
+            }
+            bits[p] = palabra;
+            marcados += Long.bitCount(palabra);
+        }
+        return marcados + Herramientas.marcarEntreEscalar(columna, desde + (palabrasCompletas << 6), hasta,
+                min, max, bits, palabrasCompletas);
+    }
+}